@@ -3,8 +3,11 @@ package com.classbuddy.app;
 import android.app.Application;
 import android.app.NotificationChannel;
 import android.app.NotificationManager;
+import android.content.pm.ApplicationInfo;
 import android.os.Build;
 
+import com.classbuddy.app.data.remote.ListenerStrictMode;
+import com.classbuddy.app.data.repository.ReadReceiptQueue;
 import com.google.firebase.FirebaseApp;
 import com.google.firebase.firestore.FirebaseFirestore;
 import com.google.firebase.firestore.FirebaseFirestoreSettings;
@@ -29,6 +32,14 @@ public class ClassBuddyApplication extends Application {
                 .build();
         FirebaseFirestore.getInstance().setFirestoreSettings(settings);
 
+        // Flag snapshot listeners doing heavy work on the main thread (debug builds only)
+        if ((getApplicationInfo().flags & ApplicationInfo.FLAG_DEBUGGABLE) != 0) {
+            ListenerStrictMode.enable(ListenerStrictMode.DEFAULT_THRESHOLD_MS);
+        }
+
+        // Sends read receipts still pending from the previous run
+        ReadReceiptQueue.getInstance(this);
+
         // Create notification channels
         createNotificationChannels();
     }
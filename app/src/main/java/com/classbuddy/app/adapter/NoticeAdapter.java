@@ -12,13 +12,17 @@ import androidx.recyclerview.widget.RecyclerView;
 import com.bumptech.glide.Glide;
 import com.classbuddy.app.R;
 import com.classbuddy.app.data.model.Notice;
+import com.classbuddy.app.data.model.NoticeReadState;
 import com.classbuddy.app.databinding.ItemNoticeBinding;
 import com.classbuddy.app.util.DateTimeUtils;
 
+import java.util.Map;
+
 public class NoticeAdapter extends ListAdapter<Notice, NoticeAdapter.NoticeViewHolder> {
 
     private final OnNoticeClickListener listener;
     private String currentUserId;
+    private Map<String, NoticeReadState> readStates;
 
     public interface OnNoticeClickListener {
         void onNoticeClick(Notice notice, int position);
@@ -33,6 +37,11 @@ public class NoticeAdapter extends ListAdapter<Notice, NoticeAdapter.NoticeViewH
         this.currentUserId = userId;
     }
 
+    public void setReadStates(Map<String, NoticeReadState> readStates) {
+        this.readStates = readStates;
+        notifyDataSetChanged();
+    }
+
     private static final DiffUtil.ItemCallback<Notice> DIFF_CALLBACK =
             new DiffUtil.ItemCallback<Notice>() {
                 @Override
@@ -120,7 +129,7 @@ public class NoticeAdapter extends ListAdapter<Notice, NoticeAdapter.NoticeViewH
             }
 
             // Read status - make slightly transparent if read
-            if (currentUserId != null && notice.isReadByStudent(currentUserId)) {
+            if (currentUserId != null && NoticeReadState.isRead(readStates, notice, currentUserId)) {
                 binding.getRoot().setAlpha(0.7f);
             } else {
                 binding.getRoot().setAlpha(1.0f);
@@ -0,0 +1,26 @@
+package com.classbuddy.app.data.model;
+
+/**
+ * Progress of a paged bulk write. Total is -1 while it is not known.
+ */
+public class BatchProgress {
+
+    private final int processed;
+    private final int total;
+
+    public BatchProgress(int processed, int total) {
+        this.processed = processed;
+        this.total = total;
+    }
+
+    public int getProcessed() { return processed; }
+
+    public int getTotal() { return total; }
+
+    public boolean isTotalKnown() { return total >= 0; }
+
+    public int getPercent() {
+        if (total <= 0) return 0;
+        return Math.min(100, processed * 100 / total);
+    }
+}
@@ -0,0 +1,26 @@
+package com.classbuddy.app.data.model;
+
+/**
+ * Outcome of a write fanned out over several WriteBatches. Each batch commits atomically,
+ * so failures are counted in whole batches.
+ */
+public class BatchWriteResult {
+
+    private final int total;
+    private final int succeeded;
+    private final int failed;
+
+    public BatchWriteResult(int total, int succeeded, int failed) {
+        this.total = total;
+        this.succeeded = succeeded;
+        this.failed = failed;
+    }
+
+    public int getTotal() { return total; }
+
+    public int getSucceeded() { return succeeded; }
+
+    public int getFailed() { return failed; }
+
+    public boolean hasFailures() { return failed > 0; }
+}
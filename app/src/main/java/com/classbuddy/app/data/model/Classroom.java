@@ -23,6 +23,7 @@ public class Classroom implements Serializable {
     private String adminName;
     private List<String> studentIds;
     private int studentCount;
+    private String deletionStage; // Set while the classroom is being deleted
 
     @ServerTimestamp
     private Timestamp createdAt;
@@ -81,6 +82,9 @@ public class Classroom implements Serializable {
     public int getStudentCount() { return studentCount; }
     public void setStudentCount(int studentCount) { this.studentCount = studentCount; }
 
+    public String getDeletionStage() { return deletionStage; }
+    public void setDeletionStage(String deletionStage) { this.deletionStage = deletionStage; }
+
     public Timestamp getCreatedAt() { return createdAt; }
     public void setCreatedAt(Timestamp createdAt) { this.createdAt = createdAt; }
 
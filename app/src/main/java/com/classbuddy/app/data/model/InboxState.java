@@ -0,0 +1,102 @@
+package com.classbuddy.app.data.model;
+
+import androidx.annotation.Nullable;
+
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.DocumentId;
+import com.google.firebase.firestore.ServerTimestamp;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A user's read and dismiss state for classroom notifications, stored at
+ * inboxStates/{userId}. Classroom notifications created at or before readWatermark are
+ * read and those at or before clearedWatermark are dismissed; readIds and dismissedIds
+ * hold newer ones handled one at a time. Personal notifications keep their own isRead flag.
+ */
+public class InboxState {
+
+    @DocumentId
+    private String userId;
+    private Timestamp readWatermark;
+    private Timestamp clearedWatermark;
+    private List<String> readIds;
+    private List<String> dismissedIds;
+
+    @ServerTimestamp
+    private Timestamp updatedAt;
+
+    public InboxState() {
+        this.readIds = new ArrayList<>();
+        this.dismissedIds = new ArrayList<>();
+    }
+
+    // Getters and Setters
+    public String getUserId() { return userId; }
+    public void setUserId(String userId) { this.userId = userId; }
+
+    public Timestamp getReadWatermark() { return readWatermark; }
+    public void setReadWatermark(Timestamp readWatermark) { this.readWatermark = readWatermark; }
+
+    public Timestamp getClearedWatermark() { return clearedWatermark; }
+    public void setClearedWatermark(Timestamp clearedWatermark) { this.clearedWatermark = clearedWatermark; }
+
+    public List<String> getReadIds() { return readIds; }
+    public void setReadIds(List<String> readIds) { this.readIds = readIds; }
+
+    public List<String> getDismissedIds() { return dismissedIds; }
+    public void setDismissedIds(List<String> dismissedIds) { this.dismissedIds = dismissedIds; }
+
+    public Timestamp getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Timestamp updatedAt) { this.updatedAt = updatedAt; }
+
+    public boolean isRead(Notification notification) {
+        return covers(readWatermark, readIds, notification);
+    }
+
+    public boolean isDismissed(Notification notification) {
+        return covers(clearedWatermark, dismissedIds, notification);
+    }
+
+    private static boolean covers(Timestamp watermark, List<String> ids, Notification notification) {
+        if (ids != null && ids.contains(notification.getId())) return true;
+        return watermark != null && notification.getCreatedAt() != null
+                && notification.getCreatedAt().compareTo(watermark) <= 0;
+    }
+
+    /**
+     * Classroom notifications are the ones without a userId.
+     */
+    public static boolean isClassroomNotification(Notification notification) {
+        return notification.getUserId() == null;
+    }
+
+    /**
+     * The inbox as the user sees it: dismissed classroom notifications are left out and the
+     * others get their read flag from state. Notifications that change are copied.
+     */
+    public static List<Notification> apply(@Nullable InboxState state, List<Notification> notifications) {
+        List<Notification> inbox = new ArrayList<>(notifications.size());
+        for (Notification notification : notifications) {
+            if (!isClassroomNotification(notification)) {
+                inbox.add(notification);
+                continue;
+            }
+            if (state != null && state.isDismissed(notification)) continue;
+
+            boolean read = state != null && state.isRead(notification);
+            if (read == notification.isRead()) {
+                inbox.add(notification);
+            } else {
+                Notification copy = new Notification(null, notification.getTitle(), notification.getMessage(),
+                        notification.getType(), notification.getReferenceId(), notification.getClassroomId());
+                copy.setId(notification.getId());
+                copy.setCreatedAt(notification.getCreatedAt());
+                copy.setRead(read);
+                inbox.add(copy);
+            }
+        }
+        return inbox;
+    }
+}
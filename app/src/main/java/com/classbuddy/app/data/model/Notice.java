@@ -38,7 +38,8 @@ public class Notice implements Serializable {
     private boolean isPinned;
     private String adminId;
     private String adminName;
-    private List<String> readByStudentIds;
+    private List<String> readByStudentIds; // Legacy; read state now lives in NoticeReadState
+    private long readCount;
 
     @ServerTimestamp
     private Timestamp createdAt;
@@ -47,7 +48,6 @@ public class Notice implements Serializable {
     private Timestamp updatedAt;
 
     public Notice() {
-        this.readByStudentIds = new ArrayList<>();
         this.isPinned = false;
     }
 
@@ -60,7 +60,6 @@ public class Notice implements Serializable {
         this.priority = priority;
         this.adminId = adminId;
         this.adminName = adminName;
-        this.readByStudentIds = new ArrayList<>();
         this.isPinned = false;
     }
 
@@ -100,12 +99,22 @@ public class Notice implements Serializable {
         this.readByStudentIds = readByStudentIds;
     }
 
+    public long getReadCount() { return readCount; }
+    public void setReadCount(long readCount) { this.readCount = readCount; }
+
     public Timestamp getCreatedAt() { return createdAt; }
     public void setCreatedAt(Timestamp createdAt) { this.createdAt = createdAt; }
 
     public Timestamp getUpdatedAt() { return updatedAt; }
     public void setUpdatedAt(Timestamp updatedAt) { this.updatedAt = updatedAt; }
 
+    /**
+     * Readers counted by readCount plus those in the legacy reader list.
+     */
+    public long countReaders() {
+        return readCount + (readByStudentIds != null ? readByStudentIds.size() : 0);
+    }
+
     public boolean isReadByStudent(String studentId) {
         return readByStudentIds != null && readByStudentIds. contains(studentId);
     }
@@ -0,0 +1,70 @@
+package com.classbuddy.app.data.model;
+
+import androidx.annotation.Nullable;
+
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.DocumentId;
+import com.google.firebase.firestore.ServerTimestamp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One student's read state for the notices of one classroom, stored at
+ * users/{studentId}/noticeReads/{classroomId}. Every notice created at or before the
+ * watermark is read; readNoticeIds lists the newer notices that were read one by one.
+ */
+public class NoticeReadState {
+
+    @DocumentId
+    private String classroomId;
+    private String studentId;
+    private Timestamp watermark;
+    private List<String> readNoticeIds;
+
+    @ServerTimestamp
+    private Timestamp updatedAt;
+
+    public NoticeReadState() {
+        this.readNoticeIds = new ArrayList<>();
+    }
+
+    public NoticeReadState(String studentId, String classroomId) {
+        this.studentId = studentId;
+        this.classroomId = classroomId;
+        this.readNoticeIds = new ArrayList<>();
+    }
+
+    // Getters and Setters
+    public String getClassroomId() { return classroomId; }
+    public void setClassroomId(String classroomId) { this.classroomId = classroomId; }
+
+    public String getStudentId() { return studentId; }
+    public void setStudentId(String studentId) { this.studentId = studentId; }
+
+    public Timestamp getWatermark() { return watermark; }
+    public void setWatermark(Timestamp watermark) { this.watermark = watermark; }
+
+    public List<String> getReadNoticeIds() { return readNoticeIds; }
+    public void setReadNoticeIds(List<String> readNoticeIds) { this.readNoticeIds = readNoticeIds; }
+
+    public Timestamp getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(Timestamp updatedAt) { this.updatedAt = updatedAt; }
+
+    public boolean isRead(Notice notice) {
+        if (readNoticeIds != null && readNoticeIds.contains(notice.getId())) return true;
+        return watermark != null && notice.getCreatedAt() != null
+                && notice.getCreatedAt().compareTo(watermark) <= 0;
+    }
+
+    /**
+     * Whether studentId has read notice, given their read states by classroom ID. Also
+     * honours the reader list of notices written before read states existed.
+     */
+    public static boolean isRead(@Nullable Map<String, NoticeReadState> states, Notice notice, String studentId) {
+        if (notice.isReadByStudent(studentId)) return true;
+        NoticeReadState state = states != null ? states.get(notice.getClassroomId()) : null;
+        return state != null && state.isRead(notice);
+    }
+}
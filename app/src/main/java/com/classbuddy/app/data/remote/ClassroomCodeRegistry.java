@@ -0,0 +1,273 @@
+package com.classbuddy.app.data.remote;
+
+import android.util.LruCache;
+
+import androidx.annotation.Nullable;
+
+import com.classbuddy.app.data.model.Classroom;
+import com.classbuddy.app.util.CodeGenerator;
+import com.classbuddy.app.util.Constants;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.Transaction;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Classroom join codes, reserved as documents of {@link Constants#COLLECTION_CLASSROOM_CODES}
+ * keyed by the code itself. A reservation is written in the same transaction as the
+ * classroom's code, so two classrooms can never hold the same code, and joining resolves a
+ * code with a direct get instead of a query over all classrooms.
+ *
+ * Classrooms created before reservations existed are still found through the old code
+ * query, and their codes are never handed out again. Resolved code-to-ID mappings are kept
+ * in a small LRU cache; a cached mapping is always checked against the classroom document,
+ * so a regenerated code cannot resolve.
+ */
+public class ClassroomCodeRegistry {
+
+    private static ClassroomCodeRegistry instance;
+
+    private final FirebaseFirestore firestore;
+    private final OperationRunner operations;
+    private final LruCache<String, String> resolved = new LruCache<>(Constants.CLASSROOM_CODE_CACHE_SIZE);
+
+    private ClassroomCodeRegistry() {
+        this.firestore = FirebaseFirestore.getInstance();
+        this.operations = OperationRunner.getInstance();
+    }
+
+    public static synchronized ClassroomCodeRegistry getInstance() {
+        if (instance == null) {
+            instance = new ClassroomCodeRegistry();
+        }
+        return instance;
+    }
+
+    /**
+     * Writes classroom, whose ID must already be set, together with the reservation of its
+     * code. On a collision the classroom gets a fresh code and the write is tried again.
+     * Completes with the code the classroom ended up with.
+     */
+    public Task<String> create(Classroom classroom) {
+        return create(classroom, 1);
+    }
+
+    private Task<String> create(Classroom classroom, int attempt) {
+        String classroomId = classroom.getId();
+        String code = classroom.getCode();
+        DocumentReference classroomRef = firestore.collection(Constants.COLLECTION_CLASSROOMS).document(classroomId);
+
+        // Safe to retry: a reservation already held by this classroom is a lost acknowledgement
+        return operations.execute("createClassroom", OperationRunner.Policy.WRITE,
+                () -> unlessHeldUnreserved(code, classroomId, () -> firestore.runTransaction(transaction -> {
+                    DocumentSnapshot reservation = transaction.get(reservation(code));
+                    checkAvailable(reservation, classroomId);
+                    transaction.set(reservation(code), reservationData(classroomId));
+                    transaction.set(classroomRef, classroom);
+                    return code;
+                })))
+                .continueWithTask(task -> {
+                    if (isCollision(task) && attempt < Constants.CLASSROOM_CODE_ATTEMPTS) {
+                        classroom.setCode(CodeGenerator.generateClassroomCode());
+                        return create(classroom, attempt + 1);
+                    }
+                    if (task.isSuccessful()) {
+                        resolved.put(code, classroomId);
+                    }
+                    return task;
+                });
+    }
+
+    /**
+     * Moves the classroom to a fresh code: reserves the new code, updates the classroom and
+     * releases its old reservation in one transaction. Completes with the new code.
+     */
+    public Task<String> regenerate(String classroomId) {
+        return regenerate(classroomId, CodeGenerator.generateClassroomCode(), 1);
+    }
+
+    private Task<String> regenerate(String classroomId, String code, int attempt) {
+        DocumentReference classroomRef = firestore.collection(Constants.COLLECTION_CLASSROOMS).document(classroomId);
+
+        return operations.execute("regenerateClassroomCode", OperationRunner.Policy.WRITE,
+                () -> unlessHeldUnreserved(code, classroomId, () -> firestore.runTransaction(transaction -> {
+                    DocumentSnapshot classroom = transaction.get(classroomRef);
+                    if (!classroom.exists() || classroom.getString("deletionStage") != null) {
+                        throw new FirebaseFirestoreException("Classroom not found",
+                                FirebaseFirestoreException.Code.NOT_FOUND);
+                    }
+                    String oldCode = classroom.getString("code");
+                    if (code.equals(oldCode)) {
+                        // An earlier attempt committed but its acknowledgement was lost
+                        return code;
+                    }
+
+                    // All reads have to happen before the first write
+                    DocumentSnapshot reservation = transaction.get(reservation(code));
+                    DocumentSnapshot oldReservation = oldCode != null ? transaction.get(reservation(oldCode)) : null;
+                    checkAvailable(reservation, classroomId);
+
+                    transaction.set(reservation(code), reservationData(classroomId));
+                    transaction.update(classroomRef, "code", code);
+                    if (isHeldBy(oldReservation, classroomId)) {
+                        transaction.delete(reservation(oldCode));
+                    }
+                    return code;
+                })))
+                .continueWithTask(task -> {
+                    if (isCollision(task) && attempt < Constants.CLASSROOM_CODE_ATTEMPTS) {
+                        return regenerate(classroomId, CodeGenerator.generateClassroomCode(), attempt + 1);
+                    }
+                    if (task.isSuccessful()) {
+                        resolved.put(code, classroomId);
+                    }
+                    return task;
+                });
+    }
+
+    /**
+     * Looks up the classroom holding code. Completes with null when no classroom that is not
+     * being deleted holds it.
+     */
+    public Task<Classroom> resolve(String code) {
+        String cachedId = resolved.get(code);
+        if (cachedId == null) {
+            return lookup(code);
+        }
+        return fetch(cachedId, code).continueWithTask(task ->
+                task.isSuccessful() && task.getResult() != null ? task : lookup(code));
+    }
+
+    /**
+     * Releases the reservation of code within transaction if it is still held by
+     * classroomId. Performs a read, so it must come before the transaction's writes.
+     */
+    void release(Transaction transaction, String classroomId, @Nullable String code)
+            throws FirebaseFirestoreException {
+        if (code == null) return;
+        if (isHeldBy(transaction.get(reservation(code)), classroomId)) {
+            transaction.delete(reservation(code));
+        }
+        resolved.remove(code);
+    }
+
+    private Task<Classroom> lookup(String code) {
+        return operations.execute("resolveClassroomCode", OperationRunner.Policy.READ,
+                () -> reservation(code).get())
+                .continueWithTask(task -> {
+                    if (!task.isSuccessful()) {
+                        return Tasks.forException(task.getException());
+                    }
+                    DocumentSnapshot reservation = task.getResult();
+                    String classroomId = reservation.exists() ? reservation.getString("classroomId") : null;
+                    return classroomId != null ? fetch(classroomId, code) : findUnreserved(code);
+                });
+    }
+
+    /**
+     * Starts write unless a classroom other than classroomId holds code without a
+     * reservation, in which case it fails with ALREADY_EXISTS. Transactions cannot run
+     * queries, so the check runs just before; it cannot go stale, as such a classroom only
+     * moves to another code through a reservation.
+     *
+     * This costs one query per attempt, billed as a single read when no classroom matches.
+     * Skipping it for reserved codes would not help: a fresh code is almost never reserved,
+     * so the extra reservation get would only add a read. Once the remaining unreserved
+     * classrooms are backfilled into {@link Constants#COLLECTION_CLASSROOM_CODES}, the check
+     * can be removed.
+     */
+    private <T> Task<T> unlessHeldUnreserved(String code, String classroomId, OperationRunner.TaskFactory<T> write) {
+        return firestore.collection(Constants.COLLECTION_CLASSROOMS)
+                .whereEqualTo("code", code)
+                .limit(2)
+                .get()
+                .continueWithTask(task -> {
+                    if (!task.isSuccessful()) {
+                        return Tasks.forException(task.getException());
+                    }
+                    for (DocumentSnapshot holder : task.getResult().getDocuments()) {
+                        if (!holder.getId().equals(classroomId)) {
+                            return Tasks.forException(new FirebaseFirestoreException("Classroom code is taken",
+                                    FirebaseFirestoreException.Code.ALREADY_EXISTS));
+                        }
+                    }
+                    return write.start();
+                });
+    }
+
+    private Task<Classroom> fetch(String classroomId, String code) {
+        return operations.execute("getClassroomByCode", OperationRunner.Policy.READ,
+                () -> firestore.collection(Constants.COLLECTION_CLASSROOMS).document(classroomId).get())
+                .continueWith(task -> {
+                    if (!task.isSuccessful()) throw task.getException();
+                    Classroom classroom = task.getResult().toObject(Classroom.class);
+                    return remember(code, classroom);
+                });
+    }
+
+    /**
+     * Classrooms created before codes were reserved.
+     */
+    private Task<Classroom> findUnreserved(String code) {
+        return operations.execute("getClassroomByCode", OperationRunner.Policy.READ,
+                () -> firestore.collection(Constants.COLLECTION_CLASSROOMS)
+                        .whereEqualTo("code", code)
+                        .limit(1)
+                        .get())
+                .continueWith(task -> {
+                    if (!task.isSuccessful()) throw task.getException();
+                    QuerySnapshot snapshot = task.getResult();
+                    Classroom classroom = snapshot.isEmpty() ? null
+                            : snapshot.getDocuments().get(0).toObject(Classroom.class);
+                    return remember(code, classroom);
+                });
+    }
+
+    @Nullable
+    private Classroom remember(String code, @Nullable Classroom classroom) {
+        if (classroom != null && code.equals(classroom.getCode()) && classroom.getDeletionStage() == null) {
+            resolved.put(code, classroom.getId());
+            return classroom;
+        }
+        resolved.remove(code);
+        return null;
+    }
+
+    private DocumentReference reservation(String code) {
+        return firestore.collection(Constants.COLLECTION_CLASSROOM_CODES).document(code);
+    }
+
+    private static Map<String, Object> reservationData(String classroomId) {
+        Map<String, Object> data = new HashMap<>();
+        data.put("classroomId", classroomId);
+        data.put("reservedAt", FieldValue.serverTimestamp());
+        return data;
+    }
+
+    private static void checkAvailable(DocumentSnapshot reservation, String classroomId)
+            throws FirebaseFirestoreException {
+        if (reservation.exists() && !isHeldBy(reservation, classroomId)) {
+            throw new FirebaseFirestoreException("Classroom code is taken",
+                    FirebaseFirestoreException.Code.ALREADY_EXISTS);
+        }
+    }
+
+    private static boolean isHeldBy(@Nullable DocumentSnapshot reservation, String classroomId) {
+        return reservation != null && reservation.exists()
+                && classroomId.equals(reservation.getString("classroomId"));
+    }
+
+    private static boolean isCollision(Task<?> task) {
+        Exception e = task.getException();
+        return e instanceof FirebaseFirestoreException
+                && ((FirebaseFirestoreException) e).getCode() == FirebaseFirestoreException.Code.ALREADY_EXISTS;
+    }
+}
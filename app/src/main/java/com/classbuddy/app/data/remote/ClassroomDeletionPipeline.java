@@ -0,0 +1,200 @@
+package com.classbuddy.app.data.remote;
+
+import androidx.annotation.WorkerThread;
+
+import com.classbuddy.app.util.Constants;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.firestore.DocumentReference;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FieldValue;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Deletes a classroom together with everything that references it.
+ *
+ * Each dependent collection is drained in pages of {@link Constants#FIRESTORE_BATCH_LIMIT}
+ * documents, one WriteBatch per page. The stage reached is checkpointed in the classroom's
+ * deletionStage field, and the classroom document itself is deleted last, so a run that is
+ * interrupted picks up at the stage it was in. Every stage is idempotent, so repeating part
+ * of one is harmless.
+ *
+ * Classroom notification IDs are also taken out of the inbox states that list them as read
+ * or dismissed, whether or not their owner is still a member.
+ *
+ * Runs blocking Firestore calls and must not be called on the main thread.
+ */
+public class ClassroomDeletionPipeline {
+
+    public enum Stage {
+        ROUTINES,
+        EXAMS,
+        NOTICES,
+        NOTIFICATIONS,
+        CLASSROOM_NOTIFICATIONS,
+        MEMBERS,
+        CLASSROOM;
+
+        static Stage from(String name) {
+            if (name != null) {
+                for (Stage stage : values()) {
+                    if (stage.name().equals(name)) return stage;
+                }
+            }
+            return ROUTINES;
+        }
+    }
+
+    public interface ProgressListener {
+        void onProgress(Stage stage, int processed);
+    }
+
+    private final FirebaseFirestore firestore;
+    private final OperationRunner operations;
+    private final ClassroomCodeRegistry codes;
+
+    public ClassroomDeletionPipeline() {
+        this.firestore = FirebaseFirestore.getInstance();
+        this.operations = OperationRunner.getInstance();
+        this.codes = ClassroomCodeRegistry.getInstance();
+    }
+
+    /**
+     * Runs the remaining stages for classroomId. Returns normally once the classroom document
+     * is gone (including when it was already deleted by an earlier run).
+     */
+    @WorkerThread
+    public void run(String classroomId, ProgressListener listener) throws Exception {
+        DocumentReference classroomRef = firestore.collection(Constants.COLLECTION_CLASSROOMS).document(classroomId);
+
+        DocumentSnapshot classroom = Tasks.await(operations.execute("deletion.read", OperationRunner.Policy.READ,
+                classroomRef::get));
+        if (!classroom.exists()) {
+            return;
+        }
+
+        Stage stage = Stage.from(classroom.getString("deletionStage"));
+        if (classroom.getString("deletionStage") == null) {
+            // Hides the classroom from lists and joins while it is being taken apart
+            Tasks.await(operations.execute("deletion.checkpoint", OperationRunner.Policy.WRITE,
+                    () -> classroomRef.update("deletionStage", stage.name())));
+        }
+
+        int processed = 0;
+        for (Stage current : Stage.values()) {
+            if (current.ordinal() < stage.ordinal()) continue;
+
+            if (current == Stage.CLASSROOM) {
+                // Releases the join code together with the document so the code can be reused
+                String code = classroom.getString("code");
+                Tasks.await(operations.execute("deletion.classroom", OperationRunner.Policy.WRITE,
+                        () -> firestore.runTransaction(transaction -> {
+                            codes.release(transaction, classroomId, code);
+                            transaction.delete(classroomRef);
+                            return null;
+                        })));
+                listener.onProgress(current, processed);
+                return;
+            }
+
+            processed += drain(current, classroomId, processed, listener);
+            Stage next = Stage.values()[current.ordinal() + 1];
+            Tasks.await(operations.execute("deletion.checkpoint", OperationRunner.Policy.WRITE,
+                    () -> classroomRef.update("deletionStage", next.name())));
+        }
+    }
+
+    private int drain(Stage stage, String classroomId, int processedBefore,
+                      ProgressListener listener) throws Exception {
+        int processed = 0;
+        // A member takes two writes: the membership and the member's notice read state
+        int pageSize = stage == Stage.MEMBERS ? Constants.FIRESTORE_BATCH_LIMIT / 2 : Constants.FIRESTORE_BATCH_LIMIT;
+
+        while (true) {
+            // Processed documents stop matching the query, so every page is read from the start
+            QuerySnapshot page = Tasks.await(operations.execute("deletion.page", OperationRunner.Policy.READ,
+                    () -> query(stage, classroomId)
+                            .limit(pageSize)
+                            .get()));
+            if (page.isEmpty()) {
+                return processed;
+            }
+            if (stage == Stage.CLASSROOM_NOTIFICATIONS) {
+                // Before the notifications go, so a rerun of the page finds them again
+                forgetInInboxes(page);
+            }
+
+            Tasks.await(operations.execute("deletion.batch", OperationRunner.Policy.WRITE, () -> {
+                WriteBatch batch = firestore.batch();
+                for (DocumentSnapshot doc : page.getDocuments()) {
+                    if (stage == Stage.MEMBERS) {
+                        batch.update(doc.getReference(), "joinedClassrooms", FieldValue.arrayRemove(classroomId));
+                        batch.delete(doc.getReference()
+                                .collection(Constants.COLLECTION_NOTICE_READS)
+                                .document(classroomId));
+                    } else {
+                        batch.delete(doc.getReference());
+                    }
+                }
+                return batch.commit();
+            }));
+
+            processed += page.size();
+            listener.onProgress(stage, processedBefore + processed);
+        }
+    }
+
+    private void forgetInInboxes(QuerySnapshot notifications) throws Exception {
+        List<String> ids = new ArrayList<>();
+        for (DocumentSnapshot doc : notifications.getDocuments()) {
+            ids.add(doc.getId());
+        }
+
+        // array-contains-any takes at most FIRESTORE_WHERE_IN_LIMIT values
+        for (List<String> chunk : WhereInFanOut.chunk(ids, Constants.FIRESTORE_WHERE_IN_LIMIT)) {
+            for (String field : new String[]{"readIds", "dismissedIds"}) {
+                while (true) {
+                    // Updated states no longer list the chunk, so every page is read from the start
+                    QuerySnapshot states = Tasks.await(operations.execute("deletion.page", OperationRunner.Policy.READ,
+                            () -> firestore.collection(Constants.COLLECTION_INBOX_STATES)
+                                    .whereArrayContainsAny(field, chunk)
+                                    .limit(Constants.FIRESTORE_BATCH_LIMIT)
+                                    .get()));
+                    if (states.isEmpty()) break;
+
+                    Tasks.await(operations.execute("deletion.batch", OperationRunner.Policy.WRITE, () -> {
+                        WriteBatch batch = firestore.batch();
+                        for (DocumentSnapshot state : states.getDocuments()) {
+                            batch.update(state.getReference(), field, FieldValue.arrayRemove(chunk.toArray()));
+                        }
+                        return batch.commit();
+                    }));
+                }
+            }
+        }
+    }
+
+    private Query query(Stage stage, String classroomId) {
+        switch (stage) {
+            case ROUTINES:
+                return firestore.collection(Constants.COLLECTION_ROUTINES).whereEqualTo("classroomId", classroomId);
+            case EXAMS:
+                return firestore.collection(Constants.COLLECTION_EXAMS).whereEqualTo("classroomId", classroomId);
+            case NOTICES:
+                return firestore.collection(Constants.COLLECTION_NOTICES).whereEqualTo("classroomId", classroomId);
+            case NOTIFICATIONS:
+                return firestore.collection(Constants.COLLECTION_NOTIFICATIONS).whereEqualTo("classroomId", classroomId);
+            case CLASSROOM_NOTIFICATIONS:
+                return firestore.collection(Constants.COLLECTION_CLASSROOM_NOTIFICATIONS).whereEqualTo("classroomId", classroomId);
+            case MEMBERS:
+                return firestore.collection(Constants.COLLECTION_USERS).whereArrayContains("joinedClassrooms", classroomId);
+            default:
+                throw new IllegalArgumentException("No query for stage " + stage);
+        }
+    }
+}
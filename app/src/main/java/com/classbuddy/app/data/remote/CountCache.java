@@ -0,0 +1,129 @@
+package com.classbuddy.app.data.remote;
+
+import android.os.SystemClock;
+
+import androidx.annotation.MainThread;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.classbuddy.app.util.Constants;
+import com.classbuddy.app.util.Resource;
+import com.google.firebase.firestore.AggregateSource;
+import com.google.firebase.firestore.Query;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Document counts from server-side count() aggregations, cached for
+ * {@link Constants#COUNT_CACHE_TTL_MS}. An aggregation is billed as one read per 1000
+ * counted documents instead of one read per document.
+ *
+ * A count over several queries (e.g. whereIn chunks, which never overlap) is the sum of
+ * their counts. Requests for a key that is already being counted share the in-flight
+ * result. Writes invalidate the counts of their collection.
+ *
+ * All methods must be called on the main thread.
+ */
+public class CountCache {
+
+    private static CountCache instance;
+
+    private final Map<String, Entry> entries = new HashMap<>();
+    private final OperationRunner operations = OperationRunner.getInstance();
+
+    private CountCache() {
+    }
+
+    public static synchronized CountCache getInstance() {
+        if (instance == null) {
+            instance = new CountCache();
+        }
+        return instance;
+    }
+
+    /**
+     * @param key     identity of the count; must start with the collection name, as
+     *                {@link QueryKey} keys do, so that {@link #invalidate} finds it
+     * @param queries queries whose counts are added up
+     */
+    @MainThread
+    public LiveData<Resource<Long>> count(String key, List<Query> queries) {
+        Entry entry = entries.get(key);
+        if (entry != null && entry.pending != null) {
+            return entry.pending;
+        }
+
+        MutableLiveData<Resource<Long>> result = new MutableLiveData<>();
+        if (entry != null && SystemClock.elapsedRealtime() - entry.fetchedAt < Constants.COUNT_CACHE_TTL_MS) {
+            result.setValue(Resource.success(entry.value));
+            return result;
+        }
+        if (queries.isEmpty()) {
+            result.setValue(Resource.success(0L));
+            return result;
+        }
+
+        // Keep showing the expired count while the new one loads
+        result.setValue(Resource.loading(entry != null ? entry.value : null));
+        Entry next = new Entry();
+        next.pending = result;
+        entries.put(key, next);
+
+        long[] sum = {0};
+        int[] remaining = {queries.size()};
+        String[] error = {null};
+        for (Query query : queries) {
+            operations.execute("count", OperationRunner.Policy.READ,
+                    () -> query.count().get(AggregateSource.SERVER))
+                    .addOnCompleteListener(task -> {
+                        if (task.isSuccessful() && task.getResult() != null) {
+                            sum[0] += task.getResult().getCount();
+                        } else if (task.getException() != null) {
+                            error[0] = task.getException().getMessage();
+                        } else {
+                            error[0] = "Could not count documents";
+                        }
+                        if (--remaining[0] > 0) return;
+
+                        next.pending = null;
+                        if (error[0] != null) {
+                            if (entries.get(key) == next) {
+                                entries.remove(key);
+                            }
+                            result.setValue(Resource.error(error[0], null));
+                            return;
+                        }
+                        // Not cached if a write invalidated the key while it was counted
+                        if (entries.get(key) == next) {
+                            next.value = sum[0];
+                            next.fetchedAt = SystemClock.elapsedRealtime();
+                        }
+                        result.setValue(Resource.success(sum[0]));
+                    });
+        }
+        return result;
+    }
+
+    /**
+     * Drops every cached count of collection.
+     */
+    @MainThread
+    public void invalidate(String collection) {
+        Iterator<Map.Entry<String, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            String key = iterator.next().getKey();
+            if (key.equals(collection) || key.startsWith(collection + "|")) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static class Entry {
+        long value;
+        long fetchedAt;
+        MutableLiveData<Resource<Long>> pending;
+    }
+}
@@ -0,0 +1,32 @@
+package com.classbuddy.app.data.remote;
+
+import android.os.Process;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Executors used to run Firestore callbacks off the main thread.
+ */
+public final class FirestoreExecutors {
+
+    private static final ExecutorService DECODER = Executors.newSingleThreadExecutor(runnable ->
+            new Thread(() -> {
+                Process.setThreadPriority(Process.THREAD_PRIORITY_BACKGROUND);
+                runnable.run();
+            }, "firestore-decoder"));
+
+    private FirestoreExecutors() {
+    }
+
+    /**
+     * Serial background executor for snapshot listeners. Decoding, sorting and filtering run
+     * here; results are handed to the main thread through {@link SnapshotLiveData#publish}.
+     * Being single-threaded, callbacks of one listener never overlap, so per-listener state
+     * such as a {@link SnapshotMapper} needs no locking.
+     */
+    public static Executor decoder() {
+        return DECODER;
+    }
+}
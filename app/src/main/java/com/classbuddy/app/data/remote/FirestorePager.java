@@ -0,0 +1,357 @@
+package com.classbuddy.app.data.remote;
+
+import androidx.annotation.MainThread;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.classbuddy.app.data.source.Pager;
+import com.classbuddy.app.util.Constants;
+import com.classbuddy.app.util.Resource;
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Cursor-based pager over one or more Firestore queries that share the same server ordering
+ * (e.g. one query per whereIn chunk).
+ *
+ * Only the first page of each query is kept live, through a snapshot listener that is attached
+ * while {@link #getItems()} is observed. Older pages are fetched on demand with one-shot gets
+ * that start after the last loaded document, so reads and memory grow with how far the user
+ * scrolls rather than with the size of the collection.
+ *
+ * When several queries are paged together, items are only published up to the earliest
+ * last-loaded item among the queries that still have more, so a later page never has to
+ * insert something above what is already on screen.
+ *
+ * All methods must be called on the main thread.
+ */
+public class FirestorePager<T> implements Pager<T>, SnapshotLiveData.Binder<List<T>> {
+
+    private final Class<T> type;
+    private final Comparator<T> order;
+    private final List<Source> sources = new ArrayList<>();
+    private final SnapshotLiveData<List<T>> items;
+    private int pageSize = Constants.PAGE_SIZE;
+    private int prefetchDistance = Constants.PAGE_PREFETCH_DISTANCE;
+
+    private FirestorePager(Class<T> type, List<Query> queries, Comparator<T> order) {
+        this.type = type;
+        this.order = order;
+        for (Query query : queries) {
+            sources.add(new Source(query));
+        }
+        this.items = new SnapshotLiveData<>(this);
+    }
+
+    /**
+     * @param queries base queries, already ordered on the server the same way as order
+     * @param order   client-side equivalent of the server ordering, used to merge queries
+     */
+    public static <T> FirestorePager<T> of(Class<T> type, List<Query> queries, Comparator<T> order) {
+        return new FirestorePager<>(type, queries, order);
+    }
+
+    public FirestorePager<T> pageSize(int pageSize) {
+        this.pageSize = Math.max(1, pageSize);
+        return this;
+    }
+
+    /**
+     * How many items before the end of the list the next page is requested.
+     */
+    public FirestorePager<T> prefetchDistance(int prefetchDistance) {
+        this.prefetchDistance = Math.max(0, prefetchDistance);
+        return this;
+    }
+
+    @Override
+    public LiveData<Resource<List<T>>> getItems() {
+        return items;
+    }
+
+    @Override
+    public boolean hasMore() {
+        for (Source source : sources) {
+            if (!source.exhausted) return true;
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isLoading() {
+        for (Source source : sources) {
+            if (source.loading) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Requests the next page once the last visible position is within the prefetch distance
+     * of the end of the list.
+     */
+    @Override
+    @MainThread
+    public void onScrolled(int lastVisiblePosition, int itemCount) {
+        if (lastVisiblePosition >= itemCount - 1 - prefetchDistance) {
+            loadMore();
+        }
+    }
+
+    /**
+     * Fetches the next page of every query that currently limits how far the merged list
+     * can be shown. Does nothing while a page is loading or when everything is loaded.
+     */
+    @Override
+    @MainThread
+    public LiveData<Resource<Void>> loadMore() {
+        MutableLiveData<Resource<Void>> result = new MutableLiveData<>();
+
+        if (isLoading() || !hasMore() || !isHeadLoaded()) {
+            result.setValue(Resource.success(null));
+            return result;
+        }
+
+        result.setValue(Resource.loading(null));
+        T boundary = boundary();
+        for (Source source : sources) {
+            Entry last = source.last();
+            if (!source.exhausted && last != null
+                    && (boundary == null || order.compare(last.item, boundary) <= 0)) {
+                fetchNextPage(source, last.snapshot, result);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public ListenerRegistration bind(SnapshotLiveData<List<T>> target) {
+        List<ListenerRegistration> registrations = new ArrayList<>();
+
+        for (Source source : sources) {
+            // Stays on the main thread: paging state is main-thread only and a page is small
+            registrations.add(source.query.limit(pageSize)
+                    .addSnapshotListener(ListenerStrictMode.watch("pager first page", (querySnapshot, error) -> {
+                        if (error != null) {
+                            target.publish(Resource.error(error.getMessage(), null));
+                            return;
+                        }
+                        if (querySnapshot != null) {
+                            onFirstPage(source, decodeFirstPage(source, querySnapshot));
+                        }
+                    })));
+        }
+
+        return () -> {
+            for (ListenerRegistration registration : registrations) {
+                registration.remove();
+            }
+        };
+    }
+
+    private void onFirstPage(Source source, List<Entry> head) {
+        if (source.pagedPastHead && head.size() == pageSize) {
+            // Documents pushed off the first page by newer ones move to the head of the older
+            // pages; otherwise they would fall into the gap before the first fetched cursor
+            Set<String> ids = new HashSet<>();
+            for (Entry entry : head) {
+                ids.add(entry.id);
+            }
+            T last = head.get(head.size() - 1).item;
+            int insertAt = 0;
+            for (Entry entry : source.head) {
+                if (!ids.contains(entry.id) && order.compare(entry.item, last) > 0
+                        && !source.containsInTail(entry.id)) {
+                    source.tail.add(insertAt++, entry);
+                }
+            }
+        }
+
+        source.head = head;
+        source.headLoaded = true;
+        if (head.size() < pageSize) {
+            source.exhausted = true;
+            source.pagedPastHead = true;
+        }
+        publish();
+    }
+
+    private void fetchNextPage(Source source, DocumentSnapshot cursor,
+                               MutableLiveData<Resource<Void>> result) {
+        source.loading = true;
+
+        OperationRunner.getInstance().execute("pager.page", OperationRunner.Policy.READ,
+                () -> source.query.startAfter(cursor)
+                        .limit(pageSize)
+                        .get())
+                .addOnSuccessListener(querySnapshot -> {
+                    source.loading = false;
+                    List<Entry> page = decode(querySnapshot.getDocuments());
+                    for (Entry entry : page) {
+                        if (!source.containsInTail(entry.id)) {
+                            source.tail.add(entry);
+                        }
+                    }
+                    source.pagedPastHead = true;
+                    if (page.size() < pageSize) {
+                        source.exhausted = true;
+                    }
+                    publish();
+                    if (!isLoading()) {
+                        result.setValue(Resource.success(null));
+                    }
+                })
+                .addOnFailureListener(e -> {
+                    source.loading = false;
+                    result.setValue(Resource.error(e.getMessage(), null));
+                });
+    }
+
+    private void publish() {
+        if (!isHeadLoaded()) return;
+
+        Map<String, T> merged = new LinkedHashMap<>();
+        for (Source source : sources) {
+            for (Entry entry : source.tail) {
+                merged.put(entry.id, entry.item);
+            }
+            // The live first page wins over an older fetched copy of the same document
+            for (Entry entry : source.head) {
+                merged.put(entry.id, entry.item);
+            }
+        }
+
+        List<T> list = new ArrayList<>(merged.values());
+        list.sort(order);
+
+        T boundary = boundary();
+        if (boundary != null) {
+            int end = list.size();
+            while (end > 0 && order.compare(list.get(end - 1), boundary) > 0) {
+                end--;
+            }
+            list = new ArrayList<>(list.subList(0, end));
+        }
+
+        items.publish(Resource.success(list));
+    }
+
+    /**
+     * The earliest last-loaded item among queries that still have more pages, or null when
+     * every query is fully loaded.
+     */
+    private T boundary() {
+        T boundary = null;
+        for (Source source : sources) {
+            Entry last = source.last();
+            if (source.exhausted || last == null) continue;
+            if (boundary == null || order.compare(last.item, boundary) < 0) {
+                boundary = last.item;
+            }
+        }
+        return boundary;
+    }
+
+    private boolean isHeadLoaded() {
+        for (Source source : sources) {
+            if (!source.headLoaded) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Decodes only the documents that were added or modified since the previous first page
+     * and reuses the already decoded items for the rest, including modified documents whose
+     * data did not change.
+     */
+    private List<Entry> decodeFirstPage(Source source, QuerySnapshot querySnapshot) {
+        Set<String> changed = new HashSet<>();
+        for (DocumentChange change : querySnapshot.getDocumentChanges()) {
+            if (change.getType() != DocumentChange.Type.REMOVED) {
+                changed.add(change.getDocument().getId());
+            }
+        }
+
+        Map<String, Entry> previous = new HashMap<>();
+        for (Entry entry : source.head) {
+            previous.put(entry.id, entry);
+        }
+
+        List<Entry> entries = new ArrayList<>();
+        for (DocumentSnapshot doc : querySnapshot.getDocuments()) {
+            Entry old = previous.get(doc.getId());
+            boolean reuse = old != null && (!changed.contains(doc.getId())
+                    || Objects.equals(old.snapshot.getData(), doc.getData()));
+            T item = reuse ? old.item : doc.toObject(type);
+            if (item != null) {
+                entries.add(new Entry(doc, item));
+            }
+        }
+        return entries;
+    }
+
+    private List<Entry> decode(List<DocumentSnapshot> documents) {
+        List<Entry> entries = new ArrayList<>();
+        for (DocumentSnapshot doc : documents) {
+            T item = doc.toObject(type);
+            if (item != null) {
+                entries.add(new Entry(doc, item));
+            }
+        }
+        return entries;
+    }
+
+    private class Entry {
+        final String id;
+        final DocumentSnapshot snapshot;
+        final T item;
+
+        Entry(DocumentSnapshot snapshot, T item) {
+            this.id = snapshot.getId();
+            this.snapshot = snapshot;
+            this.item = item;
+        }
+    }
+
+    /**
+     * Paging state of one base query: its live first page and the older pages fetched so far.
+     */
+    private class Source {
+        final Query query;
+        List<Entry> head = new ArrayList<>();
+        final List<Entry> tail = new ArrayList<>();
+        boolean headLoaded;
+        boolean pagedPastHead;
+        boolean exhausted;
+        boolean loading;
+
+        Source(Query query) {
+            this.query = query;
+        }
+
+        Entry last() {
+            if (!tail.isEmpty()) return tail.get(tail.size() - 1);
+            if (!head.isEmpty()) return head.get(head.size() - 1);
+            return null;
+        }
+
+        boolean containsInTail(String id) {
+            for (Entry entry : tail) {
+                if (entry.id.equals(id)) return true;
+            }
+            return false;
+        }
+    }
+}
@@ -1,40 +1,61 @@
 package com.classbuddy.app.data.remote;
 
-import android.os.Handler;
-import android.os.Looper;
-
+import androidx.annotation.Nullable;
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.MutableLiveData;
 
+import com.classbuddy.app.data.model.BatchProgress;
+import com.classbuddy.app.data.model.BatchWriteResult;
 import com.classbuddy.app.data.model.Classroom;
 import com.classbuddy.app.data.model.Exam;
+import com.classbuddy.app.data.model.InboxState;
 import com.classbuddy.app.data.model.Notice;
+import com.classbuddy.app.data.model.NoticeReadState;
 import com.classbuddy.app.data.model.Notification;
 import com.classbuddy.app.data.model.Routine;
 import com.classbuddy.app.data.model.User;
+import com.classbuddy.app.data.source.ClassBuddyDataSource;
+import com.classbuddy.app.data.source.Orderings;
+import com.classbuddy.app.data.source.ReadPolicy;
 import com.classbuddy.app.util.Constants;
 import com.classbuddy.app.util.Resource;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.Tasks;
+import com.google.firebase.Timestamp;
+import com.google.firebase.firestore.CollectionReference;
 import com.google.firebase.firestore.DocumentReference;
 import com.google.firebase.firestore.DocumentSnapshot;
 import com.google.firebase.firestore.FieldPath;
 import com.google.firebase.firestore.FieldValue;
 import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.FirebaseFirestoreException;
 import com.google.firebase.firestore.Query;
 import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.SetOptions;
+import com.google.firebase.firestore.WriteBatch;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.concurrent.atomic.AtomicBoolean;
 
-public class FirestoreSource {
+public class FirestoreSource implements ClassBuddyDataSource {
 
     private final FirebaseFirestore firestore;
-    private static final long FIRESTORE_TIMEOUT_MS = 30000; // 30 seconds timeout
+    private final SharedQueryRegistry queryRegistry;
+    private final OperationRunner operations;
+    private final CountCache counts;
+    private final ClassroomCodeRegistry codes;
 
     public FirestoreSource() {
         this.firestore = FirebaseFirestore.getInstance();
+        this.queryRegistry = SharedQueryRegistry.getInstance();
+        this.operations = OperationRunner.getInstance();
+        this.counts = CountCache.getInstance();
+        this.codes = ClassroomCodeRegistry.getInstance();
     }
     
     private String getFirestoreErrorMessage(Exception e) {
@@ -53,112 +74,77 @@ public class FirestoreSource {
 
     // ==================== USER OPERATIONS ====================
 
+    @Override
     public LiveData<Resource<Void>> createUser(User user) {
         MutableLiveData<Resource<Void>> result = new MutableLiveData<>();
         result.setValue(Resource.loading(null));
-        
-        AtomicBoolean isCompleted = new AtomicBoolean(false);
-        Handler handler = new Handler(Looper.getMainLooper());
-        
-        // Set timeout
-        Runnable timeoutRunnable = () -> {
-            if (!isCompleted.getAndSet(true)) {
-                result.setValue(Resource.error("Connection timed out. Please check your internet connection and try again.", null));
-            }
-        };
-        handler.postDelayed(timeoutRunnable, FIRESTORE_TIMEOUT_MS);
 
-        firestore.collection(Constants.COLLECTION_USERS)
-                .document(user.getId())
-                .set(user)
-                .addOnSuccessListener(aVoid -> {
-                    if (!isCompleted.getAndSet(true)) {
-                        handler.removeCallbacks(timeoutRunnable);
-                        result.setValue(Resource.success(null));
-                    }
-                })
-                .addOnFailureListener(e -> {
-                    if (!isCompleted.getAndSet(true)) {
-                        handler.removeCallbacks(timeoutRunnable);
-                        result.setValue(Resource.error(getFirestoreErrorMessage(e), null));
-                    }
-                });
+        operations.execute("createUser", OperationRunner.Policy.WRITE,
+                () -> firestore.collection(Constants.COLLECTION_USERS)
+                        .document(user.getId())
+                        .set(user))
+                .addOnSuccessListener(aVoid -> result.setValue(Resource.success(null)))
+                .addOnFailureListener(e -> result.setValue(Resource.error(getFirestoreErrorMessage(e), null)));
 
         return result;
     }
 
+    @Override
     public LiveData<Resource<User>> getUser(String userId) {
         MutableLiveData<Resource<User>> result = new MutableLiveData<>();
         result.setValue(Resource.loading(null));
-        
-        AtomicBoolean isCompleted = new AtomicBoolean(false);
-        Handler handler = new Handler(Looper.getMainLooper());
-        
-        // Set timeout
-        Runnable timeoutRunnable = () -> {
-            if (!isCompleted.getAndSet(true)) {
-                result.setValue(Resource.error("Connection timed out. Please check your internet connection and try again.", null));
-            }
-        };
-        handler.postDelayed(timeoutRunnable, FIRESTORE_TIMEOUT_MS);
 
-        firestore.collection(Constants.COLLECTION_USERS)
-                .document(userId)
-                .get()
+        operations.execute("getUser", OperationRunner.Policy.READ,
+                () -> firestore.collection(Constants.COLLECTION_USERS)
+                        .document(userId)
+                        .get())
                 .addOnSuccessListener(documentSnapshot -> {
-                    if (!isCompleted.getAndSet(true)) {
-                        handler.removeCallbacks(timeoutRunnable);
-                        if (documentSnapshot.exists()) {
-                            User user = documentSnapshot.toObject(User.class);
-                            result.setValue(Resource.success(user));
-                        } else {
-                            result.setValue(Resource.error("User not found", null));
-                        }
+                    if (documentSnapshot.exists()) {
+                        User user = documentSnapshot.toObject(User.class);
+                        result.setValue(Resource.success(user));
+                    } else {
+                        result.setValue(Resource.error("User not found", null));
                     }
                 })
-                .addOnFailureListener(e -> {
-                    if (!isCompleted.getAndSet(true)) {
-                        handler.removeCallbacks(timeoutRunnable);
-                        result.setValue(Resource.error(getFirestoreErrorMessage(e), null));
-                    }
-                });
+                .addOnFailureListener(e -> result.setValue(Resource.error(getFirestoreErrorMessage(e), null)));
 
         return result;
     }
 
+    @Override
     public LiveData<Resource<User>> getUserRealtime(String userId) {
-        MutableLiveData<Resource<User>> result = new MutableLiveData<>();
-        result.setValue(Resource. loading(null));
+        String key = QueryKey.document(Constants.COLLECTION_USERS, userId).build();
 
-        firestore.collection(Constants.COLLECTION_USERS)
+        return queryRegistry.observe(key, target -> firestore.collection(Constants.COLLECTION_USERS)
                 .document(userId)
-                .addSnapshotListener((documentSnapshot, error) -> {
+                .addSnapshotListener(FirestoreExecutors.decoder(), (documentSnapshot, error) -> {
                     if (error != null) {
-                        result.setValue(Resource.error(error.getMessage(), null));
+                        target.publish(Resource.error(error.getMessage(), null));
                         return;
                     }
                     if (documentSnapshot != null && documentSnapshot.exists()) {
-                        User user = documentSnapshot. toObject(User. class);
-                        result.setValue(Resource.success(user));
+                        User user = documentSnapshot.toObject(User.class);
+                        target.publish(Resource.success(user));
                     }
-                });
-
-        return result;
+                }));
     }
 
+    @Override
     public LiveData<Resource<Void>> updateUser(String userId, Map<String, Object> updates) {
         MutableLiveData<Resource<Void>> result = new MutableLiveData<>();
         result.setValue(Resource.loading(null));
 
-        firestore.collection(Constants.COLLECTION_USERS)
-                .document(userId)
-                .update(updates)
+        operations.execute("updateUser", OperationRunner.Policy.WRITE,
+                () -> firestore.collection(Constants.COLLECTION_USERS)
+                        .document(userId)
+                        .update(updates))
                 .addOnSuccessListener(aVoid -> result.setValue(Resource.success(null)))
                 .addOnFailureListener(e -> result.setValue(Resource.error(e.getMessage(), null)));
 
         return result;
     }
 
+    @Override
     public LiveData<Resource<Void>> updateFcmToken(String userId, String token) {
         Map<String, Object> updates = new HashMap<>();
         updates.put("fcmToken", token);
@@ -167,6 +153,7 @@ public class FirestoreSource {
 
     // ==================== CLASSROOM OPERATIONS ====================
 
+    @Override
     public LiveData<Resource<String>> createClassroom(Classroom classroom) {
         MutableLiveData<Resource<String>> result = new MutableLiveData<>();
         result.setValue(Resource.loading(null));
@@ -174,20 +161,22 @@ public class FirestoreSource {
         DocumentReference docRef = firestore. collection(Constants. COLLECTION_CLASSROOMS).document();
         classroom.setId(docRef.getId());
 
-        docRef.set(classroom)
-                .addOnSuccessListener(aVoid -> result.setValue(Resource.success(docRef.getId())))
+        codes.create(classroom)
+                .addOnSuccessListener(code -> result.setValue(Resource.success(docRef.getId())))
                 .addOnFailureListener(e -> result.setValue(Resource.error(e.getMessage(), null)));
 
         return result;
     }
 
+    @Override
     public LiveData<Resource<Classroom>> getClassroom(String classroomId) {
         MutableLiveData<Resource<Classroom>> result = new MutableLiveData<>();
         result.setValue(Resource. loading(null));
 
-        firestore.collection(Constants.COLLECTION_CLASSROOMS)
-                .document(classroomId)
-                .get()
+        operations.execute("getClassroom", OperationRunner.Policy.READ,
+                () -> firestore.collection(Constants.COLLECTION_CLASSROOMS)
+                        .document(classroomId)
+                        .get())
                 .addOnSuccessListener(documentSnapshot -> {
                     if (documentSnapshot.exists()) {
                         Classroom classroom = documentSnapshot.toObject(Classroom.class);
@@ -201,17 +190,14 @@ public class FirestoreSource {
         return result;
     }
 
+    @Override
     public LiveData<Resource<Classroom>> getClassroomByCode(String code) {
         MutableLiveData<Resource<Classroom>> result = new MutableLiveData<>();
         result.setValue(Resource.loading(null));
 
-        firestore.collection(Constants. COLLECTION_CLASSROOMS)
-                .whereEqualTo("code", code)
-                .limit(1)
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
-                    if (! querySnapshot.isEmpty()) {
-                        Classroom classroom = querySnapshot.getDocuments().get(0).toObject(Classroom.class);
+        codes.resolve(code)
+                .addOnSuccessListener(classroom -> {
+                    if (classroom != null) {
                         result. setValue(Resource.success(classroom));
                     } else {
                         result.setValue(Resource.error("Invalid classroom code", null));
@@ -222,38 +208,29 @@ public class FirestoreSource {
         return result;
     }
 
+    @Override
     public LiveData<Resource<List<Classroom>>> getClassroomsByAdmin(String adminId) {
-        MutableLiveData<Resource<List<Classroom>>> result = new MutableLiveData<>();
-        result.setValue(Resource.loading(null));
-
-        firestore.collection(Constants.COLLECTION_CLASSROOMS)
+        String key = QueryKey.collection(Constants.COLLECTION_CLASSROOMS)
                 .whereEqualTo("adminId", adminId)
-                .addSnapshotListener((querySnapshot, error) -> {
-                    if (error != null) {
-                        result.setValue(Resource. error(error.getMessage(), null));
-                        return;
-                    }
-                    if (querySnapshot != null) {
-                        List<Classroom> classrooms = new ArrayList<>();
-                        for (DocumentSnapshot doc : querySnapshot.getDocuments()) {
-                            Classroom classroom = doc. toObject(Classroom.class);
-                            if (classroom != null) {
-                                classrooms.add(classroom);
-                            }
-                        }
-                        classrooms.sort((c1, c2) -> {
-                            if (c1.getCreatedAt() != null && c2.getCreatedAt() != null) {
-                                return c2.getCreatedAt().compareTo(c1.getCreatedAt());
-                            }
-                            return 0;
-                        });
-                        result.setValue(Resource.success(classrooms));
-                    }
-                });
+                .build();
 
-        return result;
+        return queryRegistry.observe(key, target -> {
+            SnapshotMapper<Classroom> mapper = new SnapshotMapper<>(Classroom.class, Orderings.NEWEST_CLASSROOM_FIRST);
+            return firestore.collection(Constants.COLLECTION_CLASSROOMS)
+                    .whereEqualTo("adminId", adminId)
+                    .addSnapshotListener(FirestoreExecutors.decoder(), (querySnapshot, error) -> {
+                        if (error != null) {
+                            target.publish(Resource.error(error.getMessage(), null));
+                            return;
+                        }
+                        if (querySnapshot != null) {
+                            target.publish(Resource.success(withoutDeleted(mapper.apply(querySnapshot))));
+                        }
+                    });
+        });
     }
 
+    @Override
     public LiveData<Resource<List<Classroom>>> getClassroomsByStudent(List<String> classroomIds) {
         MutableLiveData<Resource<List<Classroom>>> result = new MutableLiveData<>();
 
@@ -262,130 +239,166 @@ public class FirestoreSource {
             return result;
         }
 
-        result.setValue(Resource.loading(null));
-
-        // Firestore whereIn has a limit of 10 items, so we need to batch
-        List<List<String>> batches = new ArrayList<>();
-        for (int i = 0; i < classroomIds.size(); i += 10) {
-            batches.add(classroomIds.subList(i, Math.min(i + 10, classroomIds.size())));
-        }
-
-        List<Classroom> allClassrooms = new ArrayList<>();
-        int[] completedBatches = {0};
-        int[] errorCount = {0};
+        String key = QueryKey.collection(Constants.COLLECTION_CLASSROOMS)
+                .whereIn("__name__", classroomIds)
+                .build();
 
-        for (List<String> batch : batches) {
-            firestore.collection(Constants.COLLECTION_CLASSROOMS)
-                    .whereIn(FieldPath.documentId(), batch)
-                    .addSnapshotListener((querySnapshot, error) -> {
-                        if (error != null) {
-                            errorCount[0]++;
-                            if (errorCount[0] == batches.size()) {
-                                result.setValue(Resource.error(error.getMessage(), null));
-                            }
-                            return;
-                        }
-                        if (querySnapshot != null) {
-                            // Remove old classrooms from this batch and add new ones
-                            synchronized (allClassrooms) {
-                                // Remove classrooms that were from this batch
-                                allClassrooms.removeIf(c -> batch.contains(c.getId()));
-
-                                for (DocumentSnapshot doc : querySnapshot.getDocuments()) {
-                                    Classroom classroom = doc.toObject(Classroom.class);
-                                    if (classroom != null) {
-                                        allClassrooms.add(classroom);
-                                    }
-                                }
-
-                                completedBatches[0]++;
-                                if (completedBatches[0] >= batches.size()) {
-                                    result.setValue(Resource.success(new ArrayList<>(allClassrooms)));
-                                }
-                            }
-                        }
-                    });
-        }
-
-        return result;
+        return queryRegistry.observe(key, WhereInFanOut.of(Classroom.class, classroomIds,
+                chunk -> firestore.collection(Constants.COLLECTION_CLASSROOMS)
+                        .whereIn(FieldPath.documentId(), chunk))
+                .filter(classroom -> classroom.getDeletionStage() == null));
     }
 
+    @Override
     public LiveData<Resource<Void>> updateClassroom(String classroomId, Map<String, Object> updates) {
         MutableLiveData<Resource<Void>> result = new MutableLiveData<>();
         result.setValue(Resource.loading(null));
 
-        firestore.collection(Constants.COLLECTION_CLASSROOMS)
-                .document(classroomId)
-                .update(updates)
+        operations.execute("updateClassroom", OperationRunner.Policy.WRITE,
+                () -> firestore.collection(Constants.COLLECTION_CLASSROOMS)
+                        .document(classroomId)
+                        .update(updates))
                 .addOnSuccessListener(aVoid -> result. setValue(Resource.success(null)))
                 .addOnFailureListener(e -> result.setValue(Resource. error(e.getMessage(), null)));
 
         return result;
     }
 
-    public LiveData<Resource<Void>> deleteClassroom(String classroomId) {
+    @Override
+    public LiveData<Resource<String>> regenerateClassroomCode(String classroomId) {
+        MutableLiveData<Resource<String>> result = new MutableLiveData<>();
+        result.setValue(Resource.loading(null));
+
+        codes.regenerate(classroomId)
+                .addOnSuccessListener(code -> result.setValue(Resource.success(code)))
+                .addOnFailureListener(e -> result.setValue(Resource.error(e.getMessage(), null)));
+
+        return result;
+    }
+
+    /**
+     * Checkpoints the classroom at the first deletion stage, which hides it from lists and
+     * joins. The documents themselves are removed by {@link ClassroomDeletionPipeline}.
+     */
+    @Override
+    public LiveData<Resource<Void>> markClassroomForDeletion(String classroomId) {
         MutableLiveData<Resource<Void>> result = new MutableLiveData<>();
         result.setValue(Resource.loading(null));
 
-        firestore.collection(Constants.COLLECTION_CLASSROOMS)
-                .document(classroomId)
-                .delete()
+        operations.execute("markClassroomForDeletion", OperationRunner.Policy.WRITE,
+                () -> firestore.collection(Constants.COLLECTION_CLASSROOMS)
+                        .document(classroomId)
+                        .update("deletionStage", ClassroomDeletionPipeline.Stage.ROUTINES.name()))
                 .addOnSuccessListener(aVoid -> result.setValue(Resource.success(null)))
                 .addOnFailureListener(e -> result.setValue(Resource.error(e.getMessage(), null)));
 
         return result;
     }
 
+    @Override
+    public boolean deletesInBackground() {
+        return true;
+    }
+
+    private static List<Classroom> withoutDeleted(List<Classroom> classrooms) {
+        List<Classroom> visible = new ArrayList<>(classrooms.size());
+        for (Classroom classroom : classrooms) {
+            if (classroom.getDeletionStage() == null) {
+                visible.add(classroom);
+            }
+        }
+        return Collections.unmodifiableList(visible);
+    }
+
+    /**
+     * Adds the student to the classroom and the classroom to the student's joined list in one
+     * transaction. Duplicate joins and {@link Constants#MAX_STUDENTS_PER_CLASSROOM} are
+     * checked against the classroom as read inside the transaction, so two students joining
+     * at once cannot both take the last seat.
+     */
+    @Override
     public LiveData<Resource<Void>> addStudentToClassroom(String classroomId, String studentId) {
         MutableLiveData<Resource<Void>> result = new MutableLiveData<>();
         result.setValue(Resource.loading(null));
 
-        Map<String, Object> updates = new HashMap<>();
-        updates.put("studentIds", FieldValue.arrayUnion(studentId));
-        updates.put("studentCount", FieldValue. increment(1));
+        DocumentReference classroomRef = firestore.collection(Constants.COLLECTION_CLASSROOMS).document(classroomId);
+        DocumentReference userRef = firestore.collection(Constants.COLLECTION_USERS).document(studentId);
+
+        // Not retried: if a commit succeeded but its response was lost, a second run would
+        // see the student already joined and report it as an error
+        operations.execute("addStudentToClassroom", OperationRunner.Policy.NO_RETRY,
+                () -> firestore.runTransaction(transaction -> {
+                        DocumentSnapshot classroom = transaction.get(classroomRef);
+                        if (!classroom.exists() || classroom.getString("deletionStage") != null) {
+                            throw new FirebaseFirestoreException("Classroom not found",
+                                    FirebaseFirestoreException.Code.NOT_FOUND);
+                        }
 
-        firestore.collection(Constants.COLLECTION_CLASSROOMS)
-                .document(classroomId)
-                .update(updates)
-                .addOnSuccessListener(aVoid -> {
-                    // Also update user's joined classrooms
-                    Map<String, Object> userUpdates = new HashMap<>();
-                    userUpdates.put("joinedClassrooms", FieldValue. arrayUnion(classroomId));
-                    firestore.collection(Constants.COLLECTION_USERS)
-                            .document(studentId)
-                            . update(userUpdates);
-                    result. setValue(Resource.success(null));
-                })
+                        List<String> studentIds = getStringList(classroom, "studentIds");
+                        if (studentIds.contains(studentId)) {
+                            throw new FirebaseFirestoreException("You have already joined this classroom",
+                                    FirebaseFirestoreException.Code.ALREADY_EXISTS);
+                        }
+                        if (studentIds.size() >= Constants.MAX_STUDENTS_PER_CLASSROOM) {
+                            throw new FirebaseFirestoreException("This classroom is full",
+                                    FirebaseFirestoreException.Code.FAILED_PRECONDITION);
+                        }
+
+                        Map<String, Object> updates = new HashMap<>();
+                        updates.put("studentIds", FieldValue.arrayUnion(studentId));
+                        updates.put("studentCount", studentIds.size() + 1);
+                        transaction.update(classroomRef, updates);
+                        transaction.update(userRef, "joinedClassrooms", FieldValue.arrayUnion(classroomId));
+                        return null;
+                    }))
+                .addOnSuccessListener(aVoid -> result.setValue(Resource.success(null)))
                 .addOnFailureListener(e -> result.setValue(Resource.error(e.getMessage(), null)));
 
         return result;
     }
 
+    /**
+     * Removes the student from the classroom and the classroom from the student's joined
+     * list in one transaction.
+     */
+    @Override
     public LiveData<Resource<Void>> removeStudentFromClassroom(String classroomId, String studentId) {
         MutableLiveData<Resource<Void>> result = new MutableLiveData<>();
         result.setValue(Resource.loading(null));
 
-        Map<String, Object> updates = new HashMap<>();
-        updates.put("studentIds", FieldValue.arrayRemove(studentId));
-        updates.put("studentCount", FieldValue.increment(-1));
-
-        firestore.collection(Constants.COLLECTION_CLASSROOMS)
-                .document(classroomId)
-                .update(updates)
-                .addOnSuccessListener(aVoid -> {
-                    // Also update user's joined classrooms
-                    Map<String, Object> userUpdates = new HashMap<>();
-                    userUpdates.put("joinedClassrooms", FieldValue. arrayRemove(classroomId));
-                    firestore. collection(Constants. COLLECTION_USERS)
-                            . document(studentId)
-                            .update(userUpdates);
-                    result.setValue(Resource.success(null));
-                })
+        DocumentReference classroomRef = firestore.collection(Constants.COLLECTION_CLASSROOMS).document(classroomId);
+        DocumentReference userRef = firestore.collection(Constants.COLLECTION_USERS).document(studentId);
+
+        operations.execute("removeStudentFromClassroom", OperationRunner.Policy.WRITE,
+                () -> firestore.runTransaction(transaction -> {
+                        DocumentSnapshot classroom = transaction.get(classroomRef);
+                        if (classroom.exists()) {
+                            List<String> studentIds = getStringList(classroom, "studentIds");
+                            if (studentIds.contains(studentId)) {
+                                Map<String, Object> updates = new HashMap<>();
+                                updates.put("studentIds", FieldValue.arrayRemove(studentId));
+                                updates.put("studentCount", studentIds.size() - 1);
+                                transaction.update(classroomRef, updates);
+                            }
+                        }
+                        transaction.update(userRef, "joinedClassrooms", FieldValue.arrayRemove(classroomId));
+                        // Nothing sweeps a former member's read state when the classroom is deleted
+                        transaction.delete(userRef.collection(Constants.COLLECTION_NOTICE_READS).document(classroomId));
+                        return null;
+                    }))
+                .addOnSuccessListener(aVoid -> result.setValue(Resource.success(null)))
                 .addOnFailureListener(e -> result.setValue(Resource.error(e.getMessage(), null)));
 
         return result;
     }
 
+    @SuppressWarnings("unchecked")
+    private static List<String> getStringList(DocumentSnapshot doc, String field) {
+        Object value = doc.get(field);
+        return value instanceof List ? (List<String>) value : new ArrayList<>();
+    }
+
+    @Override
     public LiveData<Resource<List<User>>> getStudentsInClassroom(List<String> studentIds) {
         MutableLiveData<Resource<List<User>>> result = new MutableLiveData<>();
 
@@ -394,33 +407,19 @@ public class FirestoreSource {
             return result;
         }
 
-        result.setValue(Resource.loading(null));
+        String key = QueryKey.collection(Constants.COLLECTION_USERS)
+                .whereIn("__name__", studentIds)
+                .build();
 
         // Use real-time listener for immediate updates when students join/leave
-        firestore.collection(Constants.COLLECTION_USERS)
-                .whereIn(FieldPath.documentId(), studentIds)
-                .addSnapshotListener((querySnapshot, error) -> {
-                    if (error != null) {
-                        result.setValue(Resource.error(error.getMessage(), null));
-                        return;
-                    }
-                    if (querySnapshot != null) {
-                        List<User> students = new ArrayList<>();
-                        for (DocumentSnapshot doc : querySnapshot.getDocuments()) {
-                            User user = doc.toObject(User.class);
-                            if (user != null) {
-                                students.add(user);
-                            }
-                        }
-                        result.setValue(Resource.success(students));
-                    }
-                });
-
-        return result;
+        return queryRegistry.observe(key, WhereInFanOut.of(User.class, studentIds,
+                chunk -> firestore.collection(Constants.COLLECTION_USERS)
+                        .whereIn(FieldPath.documentId(), chunk)));
     }
 
     // ==================== ROUTINE OPERATIONS ====================
 
+    @Override
     public LiveData<Resource<String>> createRoutine(Routine routine) {
         MutableLiveData<Resource<String>> result = new MutableLiveData<>();
         result.setValue(Resource.loading(null));
@@ -428,84 +427,52 @@ public class FirestoreSource {
         DocumentReference docRef = firestore.collection(Constants.COLLECTION_ROUTINES).document();
         routine.setId(docRef. getId());
 
-        docRef.set(routine)
-                .addOnSuccessListener(aVoid -> result.setValue(Resource. success(docRef.getId())))
+        operations.execute("createRoutine", OperationRunner.Policy.WRITE, () -> docRef.set(routine))
+                .addOnSuccessListener(aVoid -> {
+                    counts.invalidate(Constants.COLLECTION_ROUTINES);
+                    result.setValue(Resource.success(docRef.getId()));
+                })
                 .addOnFailureListener(e -> result.setValue(Resource.error(e.getMessage(), null)));
 
         return result;
     }
 
-    public LiveData<Resource<List<Routine>>> getRoutinesByClassroom(String classroomId) {
-        MutableLiveData<Resource<List<Routine>>> result = new MutableLiveData<>();
-        result.setValue(Resource.loading(null));
-
-        firestore. collection(Constants. COLLECTION_ROUTINES)
+    @Override
+    public LiveData<Resource<List<Routine>>> getRoutinesByClassroom(String classroomId, ReadPolicy policy) {
+        String key = QueryKey.collection(Constants.COLLECTION_ROUTINES)
                 .whereEqualTo("classroomId", classroomId)
-                .addSnapshotListener((querySnapshot, error) -> {
-                    if (error != null) {
-                        result.setValue(Resource.error(error. getMessage(), null));
-                        return;
-                    }
-                    if (querySnapshot != null) {
-                        List<Routine> routines = new ArrayList<>();
-                        for (DocumentSnapshot doc : querySnapshot. getDocuments()) {
-                            Routine routine = doc.toObject(Routine. class);
-                            if (routine != null) {
-                                routines.add(routine);
-                            }
-                        }
-                        routines.sort((r1, r2) -> {
-                            if (r1.getDayIndex() != r2.getDayIndex()) {
-                                return Integer.compare(r1.getDayIndex(), r2.getDayIndex());
-                            }
-                            return r1.getStartTime().compareTo(r2.getStartTime());
-                        });
-                        result. setValue(Resource.success(routines));
-                    }
-                });
+                .readPolicy(policy)
+                .build();
 
-        return result;
+        return queryRegistry.observe(key, target -> ReadPolicyListener.attach(
+                firestore.collection(Constants.COLLECTION_ROUTINES).whereEqualTo("classroomId", classroomId),
+                policy, "getRoutinesByClassroom",
+                new SnapshotMapper<>(Routine.class, Orderings.ROUTINE_WEEK_ORDER), target::publish));
     }
 
-    public LiveData<Resource<List<Routine>>> getRoutinesByClassrooms(List<String> classroomIds) {
+    @Override
+    public LiveData<Resource<List<Routine>>> getRoutinesByClassrooms(List<String> classroomIds, ReadPolicy policy) {
         MutableLiveData<Resource<List<Routine>>> result = new MutableLiveData<>();
 
-        if (classroomIds == null || classroomIds. isEmpty()) {
+        if (classroomIds == null || classroomIds.isEmpty()) {
             result.setValue(Resource.success(new ArrayList<>()));
             return result;
         }
 
-        result. setValue(Resource.loading(null));
-
-        firestore.collection(Constants.COLLECTION_ROUTINES)
+        String key = QueryKey.collection(Constants.COLLECTION_ROUTINES)
                 .whereIn("classroomId", classroomIds)
-                .addSnapshotListener((querySnapshot, error) -> {
-                    if (error != null) {
-                        result.setValue(Resource.error(error.getMessage(), null));
-                        return;
-                    }
-                    if (querySnapshot != null) {
-                        List<Routine> routines = new ArrayList<>();
-                        for (DocumentSnapshot doc : querySnapshot.getDocuments()) {
-                            Routine routine = doc.toObject(Routine.class);
-                            if (routine != null) {
-                                routines. add(routine);
-                            }
-                        }
-                        routines.sort((r1, r2) -> {
-                            if (r1.getDayIndex() != r2.getDayIndex()) {
-                                return Integer.compare(r1.getDayIndex(), r2.getDayIndex());
-                            }
-                            return r1.getStartTime().compareTo(r2.getStartTime());
-                        });
-                        result.setValue(Resource.success(routines));
-                    }
-                });
-
-        return result;
+                .readPolicy(policy)
+                .build();
+
+        return queryRegistry.observe(key, WhereInFanOut.of(Routine.class, classroomIds,
+                chunk -> firestore.collection(Constants.COLLECTION_ROUTINES)
+                        .whereIn("classroomId", chunk))
+                .orderBy(Orderings.ROUTINE_WEEK_ORDER)
+                .readPolicy("getRoutinesByClassrooms", policy));
     }
 
-    public LiveData<Resource<List<Routine>>> getTodaysRoutine(List<String> classroomIds, int dayIndex) {
+    @Override
+    public LiveData<Resource<List<Routine>>> getTodaysRoutine(List<String> classroomIds, int dayIndex, ReadPolicy policy) {
         MutableLiveData<Resource<List<Routine>>> result = new MutableLiveData<>();
 
         if (classroomIds == null || classroomIds.isEmpty()) {
@@ -513,54 +480,49 @@ public class FirestoreSource {
             return result;
         }
 
-        result.setValue(Resource.loading(null));
-
-        // Use real-time listener for immediate updates
-        firestore.collection(Constants.COLLECTION_ROUTINES)
+        String key = QueryKey.collection(Constants.COLLECTION_ROUTINES)
                 .whereIn("classroomId", classroomIds)
                 .whereEqualTo("dayIndex", dayIndex)
-                .addSnapshotListener((querySnapshot, error) -> {
-                    if (error != null) {
-                        result.setValue(Resource.error(error.getMessage(), null));
-                        return;
-                    }
-                    if (querySnapshot != null) {
-                        List<Routine> routines = new ArrayList<>();
-                        for (DocumentSnapshot doc : querySnapshot.getDocuments()) {
-                            Routine routine = doc.toObject(Routine.class);
-                            if (routine != null) {
-                                routines.add(routine);
-                            }
-                        }
-                        routines.sort((r1, r2) -> r1.getStartTime().compareTo(r2.getStartTime()));
-                        result.setValue(Resource.success(routines));
-                    }
-                });
+                .readPolicy(policy)
+                .build();
 
-        return result;
+        // Use real-time listener for immediate updates
+        return queryRegistry.observe(key, WhereInFanOut.of(Routine.class, classroomIds,
+                chunk -> firestore.collection(Constants.COLLECTION_ROUTINES)
+                        .whereIn("classroomId", chunk)
+                        .whereEqualTo("dayIndex", dayIndex))
+                .orderBy(Orderings.ROUTINE_TIME_ORDER)
+                .readPolicy("getTodaysRoutine", policy));
     }
 
+    @Override
     public LiveData<Resource<Void>> updateRoutine(String routineId, Map<String, Object> updates) {
         MutableLiveData<Resource<Void>> result = new MutableLiveData<>();
         result.setValue(Resource.loading(null));
 
-        firestore.collection(Constants.COLLECTION_ROUTINES)
-                .document(routineId)
-                .update(updates)
+        operations.execute("updateRoutine", OperationRunner.Policy.WRITE,
+                () -> firestore.collection(Constants.COLLECTION_ROUTINES)
+                        .document(routineId)
+                        .update(updates))
                 .addOnSuccessListener(aVoid -> result.setValue(Resource.success(null)))
                 .addOnFailureListener(e -> result. setValue(Resource.error(e.getMessage(), null)));
 
         return result;
     }
 
+    @Override
     public LiveData<Resource<Void>> deleteRoutine(String routineId) {
         MutableLiveData<Resource<Void>> result = new MutableLiveData<>();
         result.setValue(Resource.loading(null));
 
-        firestore. collection(Constants. COLLECTION_ROUTINES)
-                .document(routineId)
-                .delete()
-                .addOnSuccessListener(aVoid -> result. setValue(Resource.success(null)))
+        operations.execute("deleteRoutine", OperationRunner.Policy.WRITE,
+                () -> firestore. collection(Constants. COLLECTION_ROUTINES)
+                        .document(routineId)
+                        .delete())
+                .addOnSuccessListener(aVoid -> {
+                    counts.invalidate(Constants.COLLECTION_ROUTINES);
+                    result.setValue(Resource.success(null));
+                })
                 .addOnFailureListener(e -> result.setValue(Resource. error(e.getMessage(), null)));
 
         return result;
@@ -568,6 +530,7 @@ public class FirestoreSource {
 
     // ==================== EXAM OPERATIONS ====================
 
+    @Override
     public LiveData<Resource<String>> createExam(Exam exam) {
         MutableLiveData<Resource<String>> result = new MutableLiveData<>();
         result.setValue(Resource. loading(null));
@@ -575,46 +538,31 @@ public class FirestoreSource {
         DocumentReference docRef = firestore.collection(Constants.COLLECTION_EXAMS).document();
         exam.setId(docRef.getId());
 
-        docRef.set(exam)
-                .addOnSuccessListener(aVoid -> result.setValue(Resource.success(docRef.getId())))
+        operations.execute("createExam", OperationRunner.Policy.WRITE, () -> docRef.set(exam))
+                .addOnSuccessListener(aVoid -> {
+                    counts.invalidate(Constants.COLLECTION_EXAMS);
+                    result.setValue(Resource.success(docRef.getId()));
+                })
                 .addOnFailureListener(e -> result.setValue(Resource.error(e.getMessage(), null)));
 
         return result;
     }
 
-    public LiveData<Resource<List<Exam>>> getExamsByClassroom(String classroomId) {
-        MutableLiveData<Resource<List<Exam>>> result = new MutableLiveData<>();
-        result.setValue(Resource.loading(null));
-
-        firestore.collection(Constants. COLLECTION_EXAMS)
+    @Override
+    public LiveData<Resource<List<Exam>>> getExamsByClassroom(String classroomId, ReadPolicy policy) {
+        String key = QueryKey.collection(Constants.COLLECTION_EXAMS)
                 .whereEqualTo("classroomId", classroomId)
-                .addSnapshotListener((querySnapshot, error) -> {
-                    if (error != null) {
-                        result.setValue(Resource.error(error. getMessage(), null));
-                        return;
-                    }
-                    if (querySnapshot != null) {
-                        List<Exam> exams = new ArrayList<>();
-                        for (DocumentSnapshot doc : querySnapshot. getDocuments()) {
-                            Exam exam = doc.toObject(Exam. class);
-                            if (exam != null) {
-                                exams.add(exam);
-                            }
-                        }
-                        exams.sort((e1, e2) -> {
-                            if (e1.getExamDate() != null && e2.getExamDate() != null) {
-                                return e1.getExamDate().compareTo(e2.getExamDate());
-                            }
-                            return 0;
-                        });
-                        result. setValue(Resource.success(exams));
-                    }
-                });
+                .readPolicy(policy)
+                .build();
 
-        return result;
+        return queryRegistry.observe(key, target -> ReadPolicyListener.attach(
+                firestore.collection(Constants.COLLECTION_EXAMS).whereEqualTo("classroomId", classroomId),
+                policy, "getExamsByClassroom",
+                new SnapshotMapper<>(Exam.class, Orderings.EXAM_DATE_ORDER), target::publish));
     }
 
-    public LiveData<Resource<List<Exam>>> getExamsByClassrooms(List<String> classroomIds) {
+    @Override
+    public LiveData<Resource<List<Exam>>> getExamsByClassrooms(List<String> classroomIds, ReadPolicy policy) {
         MutableLiveData<Resource<List<Exam>>> result = new MutableLiveData<>();
 
         if (classroomIds == null || classroomIds.isEmpty()) {
@@ -622,37 +570,26 @@ public class FirestoreSource {
             return result;
         }
 
-        result.setValue(Resource.loading(null));
-
-        firestore. collection(Constants. COLLECTION_EXAMS)
+        String key = QueryKey.collection(Constants.COLLECTION_EXAMS)
                 .whereIn("classroomId", classroomIds)
-                .addSnapshotListener((querySnapshot, error) -> {
-                    if (error != null) {
-                        result.setValue(Resource.error(error.getMessage(), null));
-                        return;
-                    }
-                    if (querySnapshot != null) {
-                        List<Exam> exams = new ArrayList<>();
-                        for (DocumentSnapshot doc : querySnapshot.getDocuments()) {
-                            Exam exam = doc.toObject(Exam.class);
-                            if (exam != null) {
-                                exams. add(exam);
-                            }
-                        }
-                        exams.sort((e1, e2) -> {
-                            if (e1.getExamDate() != null && e2.getExamDate() != null) {
-                                return e1.getExamDate().compareTo(e2.getExamDate());
-                            }
-                            return 0;
-                        });
-                        result.setValue(Resource.success(exams));
-                    }
-                });
-
-        return result;
+                .readPolicy(policy)
+                .build();
+
+        return queryRegistry.observe(key, WhereInFanOut.of(Exam.class, classroomIds,
+                chunk -> firestore.collection(Constants.COLLECTION_EXAMS)
+                        .whereIn("classroomId", chunk))
+                .orderBy(Orderings.EXAM_DATE_ORDER)
+                .readPolicy("getExamsByClassrooms", policy));
     }
 
-    public LiveData<Resource<List<Exam>>> getUpcomingExams(List<String> classroomIds) {
+    /**
+     * Exams dated from (inclusive) to until (exclusive), soonest first.
+     */
+    @Override
+    public LiveData<Resource<List<Exam>>> getExamsBetween(List<String> classroomIds,
+                                                          com.google.firebase.Timestamp from,
+                                                          com.google.firebase.Timestamp until,
+                                                          ReadPolicy policy) {
         MutableLiveData<Resource<List<Exam>>> result = new MutableLiveData<>();
 
         if (classroomIds == null || classroomIds.isEmpty()) {
@@ -660,63 +597,113 @@ public class FirestoreSource {
             return result;
         }
 
-        result.setValue(Resource.loading(null));
+        String key = QueryKey.collection(Constants.COLLECTION_EXAMS)
+                .whereIn("classroomId", classroomIds)
+                .whereBetween("examDate", from.getSeconds(), until.getSeconds())
+                .orderBy("examDate", Query.Direction.ASCENDING)
+                .readPolicy(policy)
+                .build();
+
+        // Range and order run on the server (index: classroomId ASC, examDate ASC)
+        return queryRegistry.observe(key, WhereInFanOut.of(Exam.class, classroomIds,
+                chunk -> firestore.collection(Constants.COLLECTION_EXAMS)
+                        .whereIn("classroomId", chunk)
+                        .whereGreaterThanOrEqualTo("examDate", from)
+                        .whereLessThan("examDate", until)
+                        .orderBy("examDate", Query.Direction.ASCENDING))
+                .orderBy(Orderings.EXAM_DATE_ORDER)
+                .readPolicy("getExamsBetween", policy));
+    }
 
-        com.google.firebase.Timestamp now = com.google.firebase.Timestamp.now();
+    /**
+     * Exams from now on, soonest first. A limit of 0 or less returns every upcoming exam.
+     */
+    @Override
+    public LiveData<Resource<List<Exam>>> getUpcomingExams(List<String> classroomIds, int limit, ReadPolicy policy) {
+        MutableLiveData<Resource<List<Exam>>> result = new MutableLiveData<>();
 
-        // Use real-time listener for immediate updates
-        firestore.collection(Constants.COLLECTION_EXAMS)
+        if (classroomIds == null || classroomIds.isEmpty()) {
+            result.setValue(Resource.success(new ArrayList<>()));
+            return result;
+        }
+
+        // The examDate >= now bound is left out of the key so that callers keep sharing
+        QueryKey key = QueryKey.collection(Constants.COLLECTION_EXAMS)
                 .whereIn("classroomId", classroomIds)
-                .addSnapshotListener((querySnapshot, error) -> {
-                    if (error != null) {
-                        result.setValue(Resource.error(error.getMessage(), null));
-                        return;
-                    }
-                    if (querySnapshot != null) {
-                        List<Exam> exams = new ArrayList<>();
-                        for (DocumentSnapshot doc : querySnapshot.getDocuments()) {
-                            Exam exam = doc.toObject(Exam.class);
-                            if (exam != null && exam.getExamDate() != null && exam.getExamDate().compareTo(now) >= 0) {
-                                exams.add(exam);
-                            }
-                        }
-                        exams.sort((e1, e2) -> {
-                            if (e1.getExamDate() != null && e2.getExamDate() != null) {
-                                return e1.getExamDate().compareTo(e2.getExamDate());
-                            }
-                            return 0;
-                        });
-                        if (exams.size() > 10) {
-                            exams = exams.subList(0, 10);
-                        }
-                        result.setValue(Resource.success(exams));
-                    }
-                });
+                .view("upcoming")
+                .orderBy("examDate", Query.Direction.ASCENDING)
+                .readPolicy(policy);
+        if (limit > 0) {
+            key.limit(limit);
+        }
 
-        return result;
+        // Range, order and limit run on the server (index: classroomId ASC, examDate ASC)
+        WhereInFanOut<Exam> fanOut = WhereInFanOut.of(Exam.class, classroomIds, chunk -> {
+            Query query = firestore.collection(Constants.COLLECTION_EXAMS)
+                    .whereIn("classroomId", chunk)
+                    .whereGreaterThanOrEqualTo("examDate", com.google.firebase.Timestamp.now())
+                    .orderBy("examDate", Query.Direction.ASCENDING);
+            return limit > 0 ? query.limit(limit) : query;
+        })
+                // Drops exams that started while the shared listener was attached
+                .filter(exam -> exam.getExamDate() != null
+                        && exam.getExamDate().compareTo(com.google.firebase.Timestamp.now()) >= 0)
+                // Re-queries as each exam starts, so a limited list is refilled from the server
+                .refreshAt(exam -> exam.getExamDate().toDate().getTime())
+                .orderBy(Orderings.EXAM_DATE_ORDER)
+                .readPolicy("getUpcomingExams", policy);
+        if (limit > 0) {
+            fanOut.limit(limit);
+        }
+
+        return queryRegistry.observe(key.build(), fanOut);
     }
 
+    @Override
+    public FirestorePager<Exam> getPastExamPager(List<String> classroomIds) {
+        // Newest past exam first (index: classroomId ASC, examDate DESC)
+        com.google.firebase.Timestamp now = com.google.firebase.Timestamp.now();
+        List<Query> queries = new ArrayList<>();
+        for (List<String> chunk : WhereInFanOut.chunk(classroomIds, Constants.FIRESTORE_WHERE_IN_LIMIT)) {
+            queries.add(firestore.collection(Constants.COLLECTION_EXAMS)
+                    .whereIn("classroomId", chunk)
+                    .whereLessThan("examDate", now)
+                    .orderBy("examDate", Query.Direction.DESCENDING));
+        }
+        return FirestorePager.of(Exam.class, queries, Orderings.EXAM_DATE_ORDER.reversed());
+    }
+
+    @Override
     public LiveData<Resource<Void>> updateExam(String examId, Map<String, Object> updates) {
         MutableLiveData<Resource<Void>> result = new MutableLiveData<>();
         result.setValue(Resource.loading(null));
 
-        firestore.collection(Constants.COLLECTION_EXAMS)
-                .document(examId)
-                .update(updates)
-                .addOnSuccessListener(aVoid -> result.setValue(Resource.success(null)))
+        operations.execute("updateExam", OperationRunner.Policy.WRITE,
+                () -> firestore.collection(Constants.COLLECTION_EXAMS)
+                        .document(examId)
+                        .update(updates))
+                .addOnSuccessListener(aVoid -> {
+                    counts.invalidate(Constants.COLLECTION_EXAMS);
+                    result.setValue(Resource.success(null));
+                })
                 .addOnFailureListener(e -> result.setValue(Resource.error(e.getMessage(), null)));
 
         return result;
     }
 
+    @Override
     public LiveData<Resource<Void>> deleteExam(String examId) {
         MutableLiveData<Resource<Void>> result = new MutableLiveData<>();
         result.setValue(Resource.loading(null));
 
-        firestore.collection(Constants.COLLECTION_EXAMS)
-                .document(examId)
-                .delete()
-                .addOnSuccessListener(aVoid -> result.setValue(Resource.success(null)))
+        operations.execute("deleteExam", OperationRunner.Policy.WRITE,
+                () -> firestore.collection(Constants.COLLECTION_EXAMS)
+                        .document(examId)
+                        .delete())
+                .addOnSuccessListener(aVoid -> {
+                    counts.invalidate(Constants.COLLECTION_EXAMS);
+                    result.setValue(Resource.success(null));
+                })
                 .addOnFailureListener(e -> result.setValue(Resource.error(e.getMessage(), null)));
 
         return result;
@@ -724,6 +711,7 @@ public class FirestoreSource {
 
     // ==================== NOTICE OPERATIONS ====================
 
+    @Override
     public LiveData<Resource<String>> createNotice(Notice notice) {
         MutableLiveData<Resource<String>> result = new MutableLiveData<>();
         result.setValue(Resource.loading(null));
@@ -731,87 +719,58 @@ public class FirestoreSource {
         DocumentReference docRef = firestore. collection(Constants. COLLECTION_NOTICES).document();
         notice.setId(docRef.getId());
 
-        docRef.set(notice)
-                .addOnSuccessListener(aVoid -> result.setValue(Resource.success(docRef.getId())))
+        operations.execute("createNotice", OperationRunner.Policy.WRITE, () -> docRef.set(notice))
+                .addOnSuccessListener(aVoid -> {
+                    counts.invalidate(Constants.COLLECTION_NOTICES);
+                    result.setValue(Resource.success(docRef.getId()));
+                })
                 .addOnFailureListener(e -> result.setValue(Resource.error(e.getMessage(), null)));
 
         return result;
     }
 
+    @Override
     public LiveData<Resource<List<Notice>>> getNoticesByClassroom(String classroomId) {
-        MutableLiveData<Resource<List<Notice>>> result = new MutableLiveData<>();
-        result.setValue(Resource. loading(null));
-
-        firestore.collection(Constants.COLLECTION_NOTICES)
+        String key = QueryKey.collection(Constants.COLLECTION_NOTICES)
                 .whereEqualTo("classroomId", classroomId)
-                .addSnapshotListener((querySnapshot, error) -> {
-                    if (error != null) {
-                        result. setValue(Resource.error(error.getMessage(), null));
-                        return;
-                    }
-                    if (querySnapshot != null) {
-                        List<Notice> notices = new ArrayList<>();
-                        for (DocumentSnapshot doc : querySnapshot.getDocuments()) {
-                            Notice notice = doc.toObject(Notice.class);
-                            if (notice != null) {
-                                notices.add(notice);
-                            }
-                        }
-                        notices.sort((n1, n2) -> {
-                            if (n1.isPinned() && !n2.isPinned()) return -1;
-                            if (!n1.isPinned() && n2.isPinned()) return 1;
-                            if (n1.getCreatedAt() != null && n2.getCreatedAt() != null) {
-                                return n2.getCreatedAt().compareTo(n1.getCreatedAt());
-                            }
-                            return 0;
-                        });
-                        result.setValue(Resource.success(notices));
-                    }
-                });
+                .build();
 
-        return result;
+        return queryRegistry.observe(key, target -> {
+            SnapshotMapper<Notice> mapper = new SnapshotMapper<>(Notice.class, Orderings.NOTICE_BOARD_ORDER);
+            return firestore.collection(Constants.COLLECTION_NOTICES)
+                    .whereEqualTo("classroomId", classroomId)
+                    .addSnapshotListener(FirestoreExecutors.decoder(), (querySnapshot, error) -> {
+                        if (error != null) {
+                            target.publish(Resource.error(error.getMessage(), null));
+                            return;
+                        }
+                        if (querySnapshot != null) {
+                            target.publish(Resource.success(mapper.apply(querySnapshot)));
+                        }
+                    });
+        });
     }
 
+    @Override
     public LiveData<Resource<List<Notice>>> getNoticesByClassrooms(List<String> classroomIds) {
         MutableLiveData<Resource<List<Notice>>> result = new MutableLiveData<>();
 
-        if (classroomIds == null || classroomIds. isEmpty()) {
+        if (classroomIds == null || classroomIds.isEmpty()) {
             result.setValue(Resource.success(new ArrayList<>()));
             return result;
         }
 
-        result. setValue(Resource.loading(null));
-
-        firestore.collection(Constants.COLLECTION_NOTICES)
+        String key = QueryKey.collection(Constants.COLLECTION_NOTICES)
                 .whereIn("classroomId", classroomIds)
-                .addSnapshotListener((querySnapshot, error) -> {
-                    if (error != null) {
-                        result.setValue(Resource. error(error.getMessage(), null));
-                        return;
-                    }
-                    if (querySnapshot != null) {
-                        List<Notice> notices = new ArrayList<>();
-                        for (DocumentSnapshot doc : querySnapshot.getDocuments()) {
-                            Notice notice = doc. toObject(Notice. class);
-                            if (notice != null) {
-                                notices.add(notice);
-                            }
-                        }
-                        notices.sort((n1, n2) -> {
-                            if (n1.isPinned() && !n2.isPinned()) return -1;
-                            if (!n1.isPinned() && n2.isPinned()) return 1;
-                            if (n1.getCreatedAt() != null && n2.getCreatedAt() != null) {
-                                return n2.getCreatedAt().compareTo(n1.getCreatedAt());
-                            }
-                            return 0;
-                        });
-                        result.setValue(Resource.success(notices));
-                    }
-                });
+                .build();
 
-        return result;
+        return queryRegistry.observe(key, WhereInFanOut.of(Notice.class, classroomIds,
+                chunk -> firestore.collection(Constants.COLLECTION_NOTICES)
+                        .whereIn("classroomId", chunk))
+                .orderBy(Orderings.NOTICE_BOARD_ORDER));
     }
 
+    @Override
     public LiveData<Resource<List<Notice>>> getRecentNotices(List<String> classroomIds, int limit) {
         MutableLiveData<Resource<List<Notice>>> result = new MutableLiveData<>();
 
@@ -820,84 +779,242 @@ public class FirestoreSource {
             return result;
         }
 
-        result.setValue(Resource.loading(null));
-
-        // Use real-time listener for immediate updates
-        firestore.collection(Constants.COLLECTION_NOTICES)
+        String key = QueryKey.collection(Constants.COLLECTION_NOTICES)
                 .whereIn("classroomId", classroomIds)
-                .addSnapshotListener((querySnapshot, error) -> {
-                    if (error != null) {
-                        result.setValue(Resource.error(error.getMessage(), null));
-                        return;
-                    }
-                    if (querySnapshot != null) {
-                        List<Notice> notices = new ArrayList<>();
-                        for (DocumentSnapshot doc : querySnapshot.getDocuments()) {
-                            Notice notice = doc.toObject(Notice.class);
-                            if (notice != null) {
-                                notices.add(notice);
-                            }
-                        }
-                        notices.sort((n1, n2) -> {
-                            if (n1.getCreatedAt() != null && n2.getCreatedAt() != null) {
-                                return n2.getCreatedAt().compareTo(n1.getCreatedAt());
-                            }
-                            return 0;
-                        });
-                        if (notices.size() > limit) {
-                            notices = notices.subList(0, limit);
-                        }
-                        result.setValue(Resource.success(notices));
-                    }
-                });
+                .orderBy("createdAt", Query.Direction.DESCENDING)
+                .limit(limit)
+                .build();
+
+        // Order and limit run on the server (index: classroomId ASC, createdAt DESC);
+        // chunks are merged and trimmed again on the client
+        return queryRegistry.observe(key, WhereInFanOut.of(Notice.class, classroomIds,
+                chunk -> firestore.collection(Constants.COLLECTION_NOTICES)
+                        .whereIn("classroomId", chunk)
+                        .orderBy("createdAt", Query.Direction.DESCENDING)
+                        .limit(limit))
+                .orderBy(Orderings.NEWEST_NOTICE_FIRST)
+                .limit(limit));
+    }
 
-        return result;
+    @Override
+    public FirestorePager<Notice> getNoticePager(List<String> classroomIds) {
+        // Newest first (index: classroomId ASC, createdAt DESC)
+        List<Query> queries = new ArrayList<>();
+        for (List<String> chunk : WhereInFanOut.chunk(classroomIds, Constants.FIRESTORE_WHERE_IN_LIMIT)) {
+            queries.add(firestore.collection(Constants.COLLECTION_NOTICES)
+                    .whereIn("classroomId", chunk)
+                    .orderBy("createdAt", Query.Direction.DESCENDING));
+        }
+        return FirestorePager.of(Notice.class, queries, Orderings.NEWEST_NOTICE_FIRST);
     }
 
+    @Override
     public LiveData<Resource<Void>> updateNotice(String noticeId, Map<String, Object> updates) {
         MutableLiveData<Resource<Void>> result = new MutableLiveData<>();
         result.setValue(Resource.loading(null));
 
-        firestore. collection(Constants. COLLECTION_NOTICES)
-                .document(noticeId)
-                .update(updates)
+        operations.execute("updateNotice", OperationRunner.Policy.WRITE,
+                () -> firestore. collection(Constants. COLLECTION_NOTICES)
+                        .document(noticeId)
+                        .update(updates))
                 .addOnSuccessListener(aVoid -> result.setValue(Resource. success(null)))
                 .addOnFailureListener(e -> result.setValue(Resource.error(e. getMessage(), null)));
 
         return result;
     }
 
-    public LiveData<Resource<Void>> markNoticeAsRead(String noticeId, String studentId) {
+    @Override
+    public LiveData<Resource<List<NoticeReadState>>> getNoticeReadStates(String studentId) {
+        String key = QueryKey.collection(noticeReadsPath(studentId)).build();
+
+        return queryRegistry.observe(key, target -> {
+            SnapshotMapper<NoticeReadState> mapper = new SnapshotMapper<>(NoticeReadState.class);
+            return noticeReads(studentId)
+                    .addSnapshotListener(FirestoreExecutors.decoder(), (querySnapshot, error) -> {
+                        if (error != null) {
+                            target.publish(Resource.error(error.getMessage(), null));
+                            return;
+                        }
+                        if (querySnapshot != null) {
+                            target.publish(Resource.success(mapper.apply(querySnapshot)));
+                        }
+                    });
+        });
+    }
+
+    /**
+     * Records the reads in the student's read state and increments the readCount of every
+     * newly read notice, in one transaction per {@link Constants#FIRESTORE_BATCH_LIMIT}
+     * notices. The transaction re-checks the read state, so a retry never counts a reader
+     * twice.
+     */
+    @Override
+    public LiveData<Resource<Void>> markNoticesAsRead(String studentId, String classroomId,
+                                                     Collection<String> noticeIds) {
         MutableLiveData<Resource<Void>> result = new MutableLiveData<>();
         result.setValue(Resource.loading(null));
 
-        Map<String, Object> updates = new HashMap<>();
-        updates.put("readByStudentIds", FieldValue. arrayUnion(studentId));
+        List<Task<Void>> commits = new ArrayList<>();
+        // One write per newly read notice, plus the read state itself
+        for (List<String> chunk : WhereInFanOut.chunk(new ArrayList<>(noticeIds), Constants.FIRESTORE_BATCH_LIMIT - 1)) {
+            Task<Void> commit = operations.execute("markNoticesAsRead", OperationRunner.Policy.WRITE,
+                    () -> firestore.runTransaction(transaction -> {
+                        NoticeReadState state = transaction.get(noticeReads(studentId).document(classroomId))
+                                .toObject(NoticeReadState.class);
+                        List<String> newlyRead = new ArrayList<>();
+                        for (String noticeId : chunk) {
+                            Notice notice = transaction.get(notice(noticeId)).toObject(Notice.class);
+                            if (notice != null && !isRead(state, notice, studentId)) {
+                                newlyRead.add(noticeId);
+                            }
+                        }
+
+                        if (!newlyRead.isEmpty()) {
+                            for (String noticeId : newlyRead) {
+                                transaction.update(notice(noticeId), "readCount", FieldValue.increment(1));
+                            }
+                            Map<String, Object> update = readStateUpdate(studentId);
+                            update.put("readNoticeIds", FieldValue.arrayUnion(newlyRead.toArray()));
+                            transaction.set(noticeReads(studentId).document(classroomId), update, SetOptions.merge());
+                        }
+                        return null;
+                    }));
+            commits.add(commit);
+        }
 
-        firestore.collection(Constants.COLLECTION_NOTICES)
-                .document(noticeId)
-                .update(updates)
-                . addOnSuccessListener(aVoid -> result.setValue(Resource.success(null)))
+        Tasks.whenAll(commits)
+                .addOnSuccessListener(aVoid -> result.setValue(Resource.success(null)))
                 .addOnFailureListener(e -> result.setValue(Resource.error(e.getMessage(), null)));
 
         return result;
     }
 
-    public LiveData<Resource<Void>> deleteNotice(String noticeId) {
+    /**
+     * Advances the watermark over the classroom's notices oldest first, a page at a time, so
+     * every notice it passes has had its readCount incremented.
+     */
+    @Override
+    public LiveData<Resource<Void>> markAllNoticesAsRead(String studentId, String classroomId) {
         MutableLiveData<Resource<Void>> result = new MutableLiveData<>();
         result.setValue(Resource.loading(null));
 
-        firestore.collection(Constants.COLLECTION_NOTICES)
-                .document(noticeId)
-                .delete()
+        advanceWatermark(studentId, classroomId)
                 .addOnSuccessListener(aVoid -> result.setValue(Resource.success(null)))
                 .addOnFailureListener(e -> result.setValue(Resource.error(e.getMessage(), null)));
 
         return result;
     }
 
+    private Task<Void> advanceWatermark(String studentId, String classroomId) {
+        DocumentReference stateRef = noticeReads(studentId).document(classroomId);
+        int pageSize = Constants.FIRESTORE_BATCH_LIMIT - 1;
+
+        return operations.execute("markAllNoticesAsRead", OperationRunner.Policy.READ, stateRef::get)
+                .continueWithTask(stateTask -> {
+                    if (!stateTask.isSuccessful()) {
+                        return Tasks.forException(stateTask.getException());
+                    }
+                    NoticeReadState state = stateTask.getResult().toObject(NoticeReadState.class);
+                    Query query = firestore.collection(Constants.COLLECTION_NOTICES)
+                            .whereEqualTo("classroomId", classroomId);
+                    if (state != null && state.getWatermark() != null) {
+                        query = query.whereGreaterThan("createdAt", state.getWatermark());
+                    }
+                    Query page = query.orderBy("createdAt", Query.Direction.ASCENDING).limit(pageSize);
+                    return operations.execute("markAllNoticesAsRead", OperationRunner.Policy.READ, page::get);
+                })
+                .continueWithTask(pageTask -> {
+                    if (!pageTask.isSuccessful()) {
+                        return Tasks.forException(pageTask.getException());
+                    }
+                    List<Notice> page = pageTask.getResult().toObjects(Notice.class);
+                    if (page.isEmpty()) {
+                        return Tasks.forResult(null);
+                    }
+                    Timestamp watermark = page.get(page.size() - 1).getCreatedAt();
+
+                    Task<Void> commit = operations.execute("markAllNoticesAsRead", OperationRunner.Policy.WRITE,
+                            () -> firestore.runTransaction(transaction -> {
+                                NoticeReadState current = transaction.get(stateRef).toObject(NoticeReadState.class);
+                                List<String> newlyRead = new ArrayList<>();
+                                for (Notice notice : page) {
+                                    if (!isRead(current, notice, studentId)
+                                            && transaction.get(notice(notice.getId())).exists()) {
+                                        newlyRead.add(notice.getId());
+                                    }
+                                }
+                                for (String noticeId : newlyRead) {
+                                    transaction.update(notice(noticeId), "readCount", FieldValue.increment(1));
+                                }
+
+                                // Reads below the new watermark are covered by it
+                                List<String> remaining = new ArrayList<>();
+                                if (current != null && current.getReadNoticeIds() != null) {
+                                    remaining.addAll(current.getReadNoticeIds());
+                                }
+                                for (Notice notice : page) {
+                                    remaining.remove(notice.getId());
+                                }
+
+                                Map<String, Object> update = readStateUpdate(studentId);
+                                if (current == null || current.getWatermark() == null
+                                        || watermark.compareTo(current.getWatermark()) > 0) {
+                                    update.put("watermark", watermark);
+                                }
+                                update.put("readNoticeIds", remaining);
+                                transaction.set(stateRef, update, SetOptions.merge());
+                                return null;
+                            }));
+                    return page.size() < pageSize ? commit
+                            : commit.continueWithTask(task -> task.isSuccessful()
+                                    ? advanceWatermark(studentId, classroomId) : task);
+                });
+    }
+
+    private static boolean isRead(@Nullable NoticeReadState state, Notice notice, String studentId) {
+        return notice.isReadByStudent(studentId) || (state != null && state.isRead(notice));
+    }
+
+    private Map<String, Object> readStateUpdate(String studentId) {
+        Map<String, Object> update = new HashMap<>();
+        update.put("studentId", studentId);
+        update.put("updatedAt", FieldValue.serverTimestamp());
+        return update;
+    }
+
+    private String noticeReadsPath(String studentId) {
+        return Constants.COLLECTION_USERS + "/" + studentId + "/" + Constants.COLLECTION_NOTICE_READS;
+    }
+
+    private CollectionReference noticeReads(String studentId) {
+        return firestore.collection(noticeReadsPath(studentId));
+    }
+
+    private DocumentReference notice(String noticeId) {
+        return firestore.collection(Constants.COLLECTION_NOTICES).document(noticeId);
+    }
+
+    @Override
+    public LiveData<Resource<Void>> deleteNotice(String noticeId) {
+        MutableLiveData<Resource<Void>> result = new MutableLiveData<>();
+        result.setValue(Resource.loading(null));
+
+        operations.execute("deleteNotice", OperationRunner.Policy.WRITE,
+                () -> firestore.collection(Constants.COLLECTION_NOTICES)
+                        .document(noticeId)
+                        .delete())
+                .addOnSuccessListener(aVoid -> {
+                    counts.invalidate(Constants.COLLECTION_NOTICES);
+                    result.setValue(Resource.success(null));
+                })
+                .addOnFailureListener(e -> result.setValue(Resource.error(e.getMessage(), null)));
+
+        return result;
+    }
+
     // ==================== NOTIFICATION OPERATIONS ====================
 
+    @Override
     public LiveData<Resource<String>> createNotification(Notification notification) {
         MutableLiveData<Resource<String>> result = new MutableLiveData<>();
         result.setValue(Resource.loading(null));
@@ -905,109 +1022,221 @@ public class FirestoreSource {
         DocumentReference docRef = firestore. collection(Constants. COLLECTION_NOTIFICATIONS).document();
         notification.setId(docRef.getId());
 
-        docRef.set(notification)
+        operations.execute("createNotification", OperationRunner.Policy.WRITE, () -> docRef.set(notification))
                 .addOnSuccessListener(aVoid -> result.setValue(Resource. success(docRef.getId())))
                 .addOnFailureListener(e -> result.setValue(Resource.error(e.getMessage(), null)));
 
         return result;
     }
 
-    public LiveData<Resource<List<Notification>>> getNotificationsByUser(String userId) {
-        MutableLiveData<Resource<List<Notification>>> result = new MutableLiveData<>();
-        result.setValue(Resource.loading(null));
-
-        firestore.collection(Constants. COLLECTION_NOTIFICATIONS)
+    /**
+     * Personal notifications merged with those of the user's classrooms, newest first
+     * (indexes: userId ASC, createdAt DESC and classroomId ASC, createdAt DESC).
+     */
+    @Override
+    public FirestorePager<Notification> getNotificationPager(String userId, List<String> classroomIds) {
+        List<Query> queries = new ArrayList<>();
+        queries.add(firestore.collection(Constants.COLLECTION_NOTIFICATIONS)
                 .whereEqualTo("userId", userId)
-                .addSnapshotListener((querySnapshot, error) -> {
+                .orderBy("createdAt", Query.Direction.DESCENDING));
+        if (classroomIds != null && !classroomIds.isEmpty()) {
+            for (List<String> chunk : WhereInFanOut.chunk(classroomIds, Constants.FIRESTORE_WHERE_IN_LIMIT)) {
+                queries.add(firestore.collection(Constants.COLLECTION_CLASSROOM_NOTIFICATIONS)
+                        .whereIn("classroomId", chunk)
+                        .orderBy("createdAt", Query.Direction.DESCENDING));
+            }
+        }
+        return FirestorePager.of(Notification.class, queries, Orderings.NEWEST_NOTIFICATION_FIRST);
+    }
+
+    @Override
+    public LiveData<Resource<InboxState>> getInboxState(String userId) {
+        String key = QueryKey.document(Constants.COLLECTION_INBOX_STATES, userId).build();
+
+        return queryRegistry.observe(key, target -> firestore.collection(Constants.COLLECTION_INBOX_STATES)
+                .document(userId)
+                .addSnapshotListener(FirestoreExecutors.decoder(), (documentSnapshot, error) -> {
                     if (error != null) {
-                        result.setValue(Resource.error(error. getMessage(), null));
+                        target.publish(Resource.error(error.getMessage(), null));
                         return;
                     }
-                    if (querySnapshot != null) {
-                        List<Notification> notifications = new ArrayList<>();
-                        for (DocumentSnapshot doc : querySnapshot.getDocuments()) {
-                            Notification notification = doc.toObject(Notification.class);
-                            if (notification != null) {
-                                notifications.add(notification);
-                            }
-                        }
-                        notifications.sort((n1, n2) -> {
-                            if (n1.getCreatedAt() != null && n2.getCreatedAt() != null) {
-                                return n2.getCreatedAt().compareTo(n1.getCreatedAt());
-                            }
-                            return 0;
-                        });
-                        if (notifications.size() > 50) {
-                            notifications = notifications.subList(0, 50);
-                        }
-                        result.setValue(Resource. success(notifications));
+                    if (documentSnapshot != null) {
+                        // Estimated watermarks keep a just-cleared inbox from flashing back
+                        InboxState state = documentSnapshot.exists()
+                                ? documentSnapshot.toObject(InboxState.class,
+                                        DocumentSnapshot.ServerTimestampBehavior.ESTIMATE)
+                                : new InboxState();
+                        target.publish(Resource.success(state));
                     }
-                });
-
-        return result;
+                }));
     }
 
-    public LiveData<Resource<Void>> markNotificationAsRead(String notificationId) {
+    @Override
+    public LiveData<Resource<Void>> markNotificationAsRead(String userId, Notification notification) {
         MutableLiveData<Resource<Void>> result = new MutableLiveData<>();
         result.setValue(Resource.loading(null));
 
-        Map<String, Object> updates = new HashMap<>();
-        updates.put("isRead", true);
-
-        firestore.collection(Constants. COLLECTION_NOTIFICATIONS)
-                .document(notificationId)
-                .update(updates)
-                .addOnSuccessListener(aVoid -> result.setValue(Resource.success(null)))
+        Task<Void> write;
+        if (InboxState.isClassroomNotification(notification)) {
+            Map<String, Object> update = inboxStateUpdate();
+            update.put("readIds", FieldValue.arrayUnion(notification.getId()));
+            write = operations.execute("markNotificationAsRead", OperationRunner.Policy.WRITE,
+                    () -> inboxState(userId).set(update, SetOptions.merge()));
+        } else {
+            write = operations.execute("markNotificationAsRead", OperationRunner.Policy.WRITE,
+                    () -> firestore.collection(Constants. COLLECTION_NOTIFICATIONS)
+                            .document(notification.getId())
+                            .update("isRead", true));
+        }
+        write.addOnSuccessListener(aVoid -> result.setValue(Resource.success(null)))
                 .addOnFailureListener(e -> result.setValue(Resource.error(e.getMessage(), null)));
 
         return result;
     }
 
-    public LiveData<Resource<Void>> markAllNotificationsAsRead(String userId) {
-        MutableLiveData<Resource<Void>> result = new MutableLiveData<>();
-        result.setValue(Resource.loading(null));
+    /**
+     * Moves the read watermark to now, then marks the personal notifications read.
+     */
+    @Override
+    public LiveData<Resource<BatchProgress>> markAllNotificationsAsRead(String userId) {
+        Map<String, Object> update = inboxStateUpdate();
+        update.put("readWatermark", FieldValue.serverTimestamp());
+        update.put("readIds", new ArrayList<String>());
 
-        firestore.collection(Constants.COLLECTION_NOTIFICATIONS)
+        Query unread = firestore.collection(Constants.COLLECTION_NOTIFICATIONS)
                 .whereEqualTo("userId", userId)
-                .whereEqualTo("isRead", false)
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
-                    for (DocumentSnapshot doc :  querySnapshot.getDocuments()) {
-                        doc.getReference().update("isRead", true);
-                    }
-                    result. setValue(Resource.success(null));
-                })
-                .addOnFailureListener(e -> result.setValue(Resource.error(e.getMessage(), null)));
+                .whereEqualTo("isRead", false);
 
-        return result;
+        return updateInboxThen("markAllNotificationsAsRead", userId, update, new PagedBatchWriter(firestore, unread,
+                (batch, doc) -> batch.update(doc.getReference(), "isRead", true)));
     }
 
-    public LiveData<Resource<Void>> deleteNotification(String notificationId) {
+    @Override
+    public LiveData<Resource<Void>> deleteNotification(String userId, Notification notification) {
         MutableLiveData<Resource<Void>> result = new MutableLiveData<>();
         result.setValue(Resource.loading(null));
 
-        firestore.collection(Constants.COLLECTION_NOTIFICATIONS)
-                .document(notificationId)
-                .delete()
-                .addOnSuccessListener(aVoid -> result.setValue(Resource. success(null)))
+        Task<Void> write;
+        if (InboxState.isClassroomNotification(notification)) {
+            // Shared by the whole classroom, so it is only hidden for this user
+            Map<String, Object> update = inboxStateUpdate();
+            update.put("dismissedIds", FieldValue.arrayUnion(notification.getId()));
+            write = operations.execute("deleteNotification", OperationRunner.Policy.WRITE,
+                    () -> inboxState(userId).set(update, SetOptions.merge()));
+        } else {
+            write = operations.execute("deleteNotification", OperationRunner.Policy.WRITE,
+                    () -> firestore.collection(Constants.COLLECTION_NOTIFICATIONS)
+                            .document(notification.getId())
+                            .delete());
+        }
+        write.addOnSuccessListener(aVoid -> result.setValue(Resource. success(null)))
                 .addOnFailureListener(e -> result.setValue(Resource.error(e. getMessage(), null)));
 
         return result;
     }
 
-    public LiveData<Resource<Void>> deleteAllNotifications(String userId) {
-        MutableLiveData<Resource<Void>> result = new MutableLiveData<>();
+    /**
+     * Moves the cleared watermark to now, then deletes the personal notifications.
+     */
+    @Override
+    public LiveData<Resource<BatchProgress>> deleteAllNotifications(String userId) {
+        Map<String, Object> update = inboxStateUpdate();
+        update.put("clearedWatermark", FieldValue.serverTimestamp());
+        update.put("dismissedIds", new ArrayList<String>());
+
+        Query all = firestore.collection(Constants.COLLECTION_NOTIFICATIONS)
+                .whereEqualTo("userId", userId);
+
+        return updateInboxThen("deleteAllNotifications", userId, update, new PagedBatchWriter(firestore, all,
+                (batch, doc) -> batch.delete(doc.getReference())));
+    }
+
+    private LiveData<Resource<BatchProgress>> updateInboxThen(String name, String userId, Map<String, Object> update,
+                                                              PagedBatchWriter writer) {
+        MediatorLiveData<Resource<BatchProgress>> result = new MediatorLiveData<>();
         result.setValue(Resource.loading(null));
 
-        firestore.collection(Constants.COLLECTION_NOTIFICATIONS)
-                .whereEqualTo("userId", userId)
-                .get()
-                .addOnSuccessListener(querySnapshot -> {
-                    for (DocumentSnapshot doc : querySnapshot.getDocuments()) {
-                        doc.getReference().delete();
-                    }
-                    result. setValue(Resource.success(null));
-                })
+        operations.execute(name, OperationRunner.Policy.WRITE, () -> inboxState(userId).set(update, SetOptions.merge()))
+                .addOnSuccessListener(aVoid -> result.addSource(writer.start(), result::setValue))
+                .addOnFailureListener(e -> result.setValue(Resource.error(e.getMessage(), null)));
+
+        return result;
+    }
+
+    private DocumentReference inboxState(String userId) {
+        return firestore.collection(Constants.COLLECTION_INBOX_STATES).document(userId);
+    }
+
+    private Map<String, Object> inboxStateUpdate() {
+        Map<String, Object> update = new HashMap<>();
+        update.put("updatedAt", FieldValue.serverTimestamp());
+        return update;
+    }
+
+    // ==================== COUNTS ====================
+
+    @Override
+    public LiveData<Resource<Long>> countRoutines(List<String> classroomIds) {
+        return countByClassroom(Constants.COLLECTION_ROUTINES, classroomIds);
+    }
+
+    /**
+     * Exams from now on. The time bound is left out of the cache key, so the count can be
+     * up to {@link Constants#COUNT_CACHE_TTL_MS} old.
+     */
+    @Override
+    public LiveData<Resource<Long>> countUpcomingExams(List<String> classroomIds) {
+        com.google.firebase.Timestamp now = com.google.firebase.Timestamp.now();
+        String key = QueryKey.collection(Constants.COLLECTION_EXAMS)
+                .whereIn("classroomId", classroomIds)
+                .view("upcoming count")
+                .build();
+
+        List<Query> queries = new ArrayList<>();
+        for (List<String> chunk : WhereInFanOut.chunk(classroomIds, Constants.FIRESTORE_WHERE_IN_LIMIT)) {
+            queries.add(firestore.collection(Constants.COLLECTION_EXAMS)
+                    .whereIn("classroomId", chunk)
+                    .whereGreaterThanOrEqualTo("examDate", now));
+        }
+        return counts.count(key, queries);
+    }
+
+    @Override
+    public LiveData<Resource<Long>> countNotices(List<String> classroomIds) {
+        return countByClassroom(Constants.COLLECTION_NOTICES, classroomIds);
+    }
+
+    private LiveData<Resource<Long>> countByClassroom(String collection, List<String> classroomIds) {
+        String key = QueryKey.collection(collection)
+                .whereIn("classroomId", classroomIds)
+                .view("count")
+                .build();
+
+        List<Query> queries = new ArrayList<>();
+        for (List<String> chunk : WhereInFanOut.chunk(classroomIds, Constants.FIRESTORE_WHERE_IN_LIMIT)) {
+            queries.add(firestore.collection(collection).whereIn("classroomId", chunk));
+        }
+        return counts.count(key, queries);
+    }
+
+    // ==================== CLASSROOM NOTIFICATIONS ====================
+
+    /**
+     * Writes one notification for the whole classroom. Members find it through their
+     * joined classroom IDs, so the cost does not grow with the roster.
+     */
+    @Override
+    public LiveData<Resource<String>> sendNotificationToClassroom(String classroomId, String title, String message,
+                                                                 String type, String referenceId) {
+        MutableLiveData<Resource<String>> result = new MutableLiveData<>();
+        result.setValue(Resource.loading(null));
+
+        DocumentReference docRef = firestore.collection(Constants.COLLECTION_CLASSROOM_NOTIFICATIONS).document();
+        Notification notification = new Notification(null, title, message, type, referenceId, classroomId);
+        notification.setId(docRef.getId());
+
+        operations.execute("sendNotificationToClassroom", OperationRunner.Policy.WRITE, () -> docRef.set(notification))
+                .addOnSuccessListener(aVoid -> result.setValue(Resource.success(docRef.getId())))
                 .addOnFailureListener(e -> result.setValue(Resource.error(e.getMessage(), null)));
 
         return result;
@@ -1015,16 +1244,79 @@ public class FirestoreSource {
 
     // ==================== BATCH NOTIFICATION CREATION ====================
 
-    public void sendNotificationToStudents(List<String> studentIds, String title,
-                                           String message, String type,
-                                           String referenceId, String classroomId) {
-        for (String studentId :  studentIds) {
-            Notification notification = new Notification(
-                    studentId, title, message, type, referenceId, classroomId
-            );
-            DocumentReference docRef = firestore.collection(Constants.COLLECTION_NOTIFICATIONS).document();
-            notification.setId(docRef.getId());
-            docRef.set(notification);
+    /**
+     * Creates one notification per student, grouped into WriteBatches of up to
+     * {@link Constants#FIRESTORE_BATCH_LIMIT} writes that are committed concurrently.
+     * Reports how many notifications were written once every batch has completed; the
+     * result is an error (still carrying the counts) if any batch failed.
+     */
+    @Override
+    public LiveData<Resource<BatchWriteResult>> sendNotificationToStudents(List<String> studentIds, String title,
+                                                                          String message, String type,
+                                                                          String referenceId, String classroomId) {
+        MutableLiveData<Resource<BatchWriteResult>> result = new MutableLiveData<>();
+
+        if (studentIds == null || studentIds.isEmpty()) {
+            result.setValue(Resource.success(new BatchWriteResult(0, 0, 0)));
+            return result;
+        }
+
+        result.setValue(Resource.loading(null));
+
+        List<List<String>> chunks = WhereInFanOut.chunk(studentIds, Constants.FIRESTORE_BATCH_LIMIT);
+        // Chunking drops duplicate IDs, so count the students actually written to
+        int total = 0;
+        for (List<String> chunk : chunks) {
+            total += chunk.size();
+        }
+        int recipients = total;
+        int[] pending = {chunks.size()};
+        int[] succeeded = {0};
+        int[] failed = {0};
+        String[] lastError = {null};
+
+        for (List<String> chunk : chunks) {
+            Map<DocumentReference, Notification> writes = new HashMap<>();
+            for (String studentId : chunk) {
+                DocumentReference docRef = firestore.collection(Constants.COLLECTION_NOTIFICATIONS).document();
+                Notification notification = new Notification(
+                        studentId, title, message, type, referenceId, classroomId
+                );
+                notification.setId(docRef.getId());
+                writes.put(docRef, notification);
+            }
+
+            // IDs are fixed up front, so a retried commit rewrites the same documents
+            operations.execute("sendNotificationToStudents", OperationRunner.Policy.WRITE, () -> {
+                WriteBatch batch = firestore.batch();
+                for (Map.Entry<DocumentReference, Notification> write : writes.entrySet()) {
+                    batch.set(write.getKey(), write.getValue());
+                }
+                return batch.commit();
+            }).addOnCompleteListener(task -> {
+                if (task.isSuccessful()) {
+                    succeeded[0] += chunk.size();
+                } else {
+                    failed[0] += chunk.size();
+                    if (task.getException() != null) {
+                        lastError[0] = getFirestoreErrorMessage(task.getException());
+                    }
+                }
+
+                if (--pending[0] == 0) {
+                    BatchWriteResult writeResult =
+                            new BatchWriteResult(recipients, succeeded[0], failed[0]);
+                    if (writeResult.hasFailures()) {
+                        result.setValue(Resource.error(failed[0] + " of " + recipients
+                                + " notifications could not be sent"
+                                + (lastError[0] != null ? ": " + lastError[0] : ""), writeResult));
+                    } else {
+                        result.setValue(Resource.success(writeResult));
+                    }
+                }
+            });
         }
+
+        return result;
     }
 }
@@ -0,0 +1,96 @@
+package com.classbuddy.app.data.remote;
+
+import android.os.Looper;
+import android.os.SystemClock;
+import android.util.Log;
+import android.util.Printer;
+
+import com.google.firebase.firestore.EventListener;
+
+/**
+ * StrictMode-style check for snapshot listeners that do heavy work on the main looper.
+ *
+ * Once enabled it watches every message dispatched on the main looper and reports Firestore
+ * callbacks that take longer than the threshold, so a listener registered without
+ * {@link FirestoreExecutors#decoder()} is flagged even if nobody wrapped it. Listeners that
+ * run on the main thread on purpose can be wrapped with {@link #watch} to be reported by name.
+ *
+ * Disabled (and free) unless {@link #enable} was called, which the application does for
+ * debuggable builds only.
+ */
+public final class ListenerStrictMode {
+
+    private static final String TAG = "ListenerStrictMode";
+    private static final String FIRESTORE_PACKAGE = "com.google.firebase.firestore";
+
+    public static final long DEFAULT_THRESHOLD_MS = 8; // Half a 60 fps frame
+
+    private static volatile boolean enabled;
+    private static volatile long thresholdMs = DEFAULT_THRESHOLD_MS;
+
+    private ListenerStrictMode() {
+    }
+
+    public static void enable(long thresholdMs) {
+        ListenerStrictMode.thresholdMs = thresholdMs;
+        enabled = true;
+        Looper.getMainLooper().setMessageLogging(new MainLooperMonitor());
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Wraps listener so that slow main-thread invocations are reported under name. Returns
+     * listener itself when the check is disabled.
+     */
+    public static <T> EventListener<T> watch(String name, EventListener<T> listener) {
+        if (!enabled) {
+            return listener;
+        }
+        return (value, error) -> {
+            if (Looper.myLooper() != Looper.getMainLooper()) {
+                listener.onEvent(value, error);
+                return;
+            }
+
+            long start = SystemClock.uptimeMillis();
+            listener.onEvent(value, error);
+            report("Snapshot listener '" + name + "'", SystemClock.uptimeMillis() - start);
+        };
+    }
+
+    private static void report(String what, long elapsedMs) {
+        if (elapsedMs > thresholdMs) {
+            Log.w(TAG, what + " ran " + elapsedMs + " ms on the main thread (limit "
+                    + thresholdMs + " ms); register it with FirestoreExecutors.decoder()");
+        }
+    }
+
+    /**
+     * Times main looper messages using the ">>>>> Dispatching" / "<<<<< Finished" lines the
+     * looper logs around each dispatch.
+     */
+    private static class MainLooperMonitor implements Printer {
+        private static final String DISPATCHING = ">>>>> Dispatching to ";
+        private static final String FINISHED = "<<<<< Finished";
+
+        private long dispatchStart;
+        private String dispatching;
+
+        @Override
+        public void println(String line) {
+            if (line.startsWith(DISPATCHING)) {
+                dispatchStart = SystemClock.uptimeMillis();
+                dispatching = line;
+            } else if (line.startsWith(FINISHED) && dispatching != null) {
+                if (enabled && dispatching.contains(FIRESTORE_PACKAGE)) {
+                    report("Firestore callback " + dispatching.substring(DISPATCHING.length()),
+                            SystemClock.uptimeMillis() - dispatchStart);
+                }
+                dispatching = null;
+            }
+        }
+    }
+}
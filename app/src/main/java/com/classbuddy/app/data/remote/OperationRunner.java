@@ -0,0 +1,277 @@
+package com.classbuddy.app.data.remote;
+
+import android.os.Handler;
+import android.os.Looper;
+import android.os.SystemClock;
+
+import androidx.annotation.Nullable;
+
+import com.google.android.gms.tasks.CancellationToken;
+import com.google.android.gms.tasks.Task;
+import com.google.android.gms.tasks.TaskCompletionSource;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs one-shot Firestore operations (gets, writes, batch commits and transactions) under a
+ * common {@link Policy}: every attempt has a timeout, the whole operation has a deadline, and
+ * transient failures (UNAVAILABLE, DEADLINE_EXCEEDED) are retried with exponential backoff
+ * and jitter while attempts and time remain.
+ *
+ * Only idempotent operations should use a retrying policy. Writes to a fixed document ID are
+ * safe to repeat; anything whose second run could observe the first one (e.g. a transaction
+ * that rejects duplicates) should use {@link Policy#NO_RETRY}.
+ *
+ * The returned task fails with a {@link FirebaseFirestoreException} with code
+ * DEADLINE_EXCEEDED on timeout and CANCELLED when the cancellation token fires. Timers and
+ * callbacks run on the main thread; the task may be awaited from a worker thread.
+ */
+public class OperationRunner {
+
+    /**
+     * Starts one attempt of an operation. Called again for every retry.
+     */
+    public interface TaskFactory<T> {
+        Task<T> start();
+    }
+
+    public static final class Policy {
+        /** Reads: short attempts, a few quick retries. */
+        public static final Policy READ = new Policy(3, 10000, 30000, 500, 4000);
+        /** Idempotent writes. Attempts are longer since a write waits for the server ack. */
+        public static final Policy WRITE = new Policy(3, 15000, 45000, 1000, 8000);
+        /** Non-idempotent operations: one attempt, bounded by a deadline. */
+        public static final Policy NO_RETRY = new Policy(1, 30000, 30000, 0, 0);
+
+        final int maxAttempts;
+        final long attemptTimeoutMs;
+        final long deadlineMs;
+        final long baseBackoffMs;
+        final long maxBackoffMs;
+
+        public Policy(int maxAttempts, long attemptTimeoutMs, long deadlineMs,
+                      long baseBackoffMs, long maxBackoffMs) {
+            this.maxAttempts = Math.max(1, maxAttempts);
+            this.attemptTimeoutMs = attemptTimeoutMs;
+            this.deadlineMs = deadlineMs;
+            this.baseBackoffMs = baseBackoffMs;
+            this.maxBackoffMs = maxBackoffMs;
+        }
+    }
+
+    /**
+     * Counters for one operation name, updated as operations complete.
+     */
+    public static final class Stats {
+        private final String name;
+        private final AtomicLong operations = new AtomicLong();
+        private final AtomicLong attempts = new AtomicLong();
+        private final AtomicLong failures = new AtomicLong();
+        private final AtomicLong timeouts = new AtomicLong();
+        private final AtomicLong totalLatencyMs = new AtomicLong();
+        private final AtomicLong maxLatencyMs = new AtomicLong();
+
+        Stats(String name) {
+            this.name = name;
+        }
+
+        public String getName() { return name; }
+        public long getOperations() { return operations.get(); }
+        public long getAttempts() { return attempts.get(); }
+        public long getRetries() { return attempts.get() - operations.get(); }
+        public long getFailures() { return failures.get(); }
+        public long getTimeouts() { return timeouts.get(); }
+        public long getMaxLatencyMs() { return maxLatencyMs.get(); }
+
+        public long getAverageLatencyMs() {
+            long count = operations.get();
+            return count == 0 ? 0 : totalLatencyMs.get() / count;
+        }
+
+        void record(int attemptCount, long latencyMs, @Nullable Exception error) {
+            operations.incrementAndGet();
+            attempts.addAndGet(attemptCount);
+            totalLatencyMs.addAndGet(latencyMs);
+            maxLatencyMs.accumulateAndGet(latencyMs, Math::max);
+            if (error != null) {
+                failures.incrementAndGet();
+                if (isTimeout(error)) {
+                    timeouts.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    private static OperationRunner instance;
+
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Random random = new Random();
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+    private OperationRunner() {
+    }
+
+    public static synchronized OperationRunner getInstance() {
+        if (instance == null) {
+            instance = new OperationRunner();
+        }
+        return instance;
+    }
+
+    public <T> Task<T> execute(String name, Policy policy, TaskFactory<T> factory) {
+        return execute(name, policy, null, factory);
+    }
+
+    public <T> Task<T> execute(String name, Policy policy, @Nullable CancellationToken cancellationToken,
+                               TaskFactory<T> factory) {
+        Call<T> call = new Call<>(name, policy, cancellationToken, factory);
+        handler.post(call::start);
+        return call.source.getTask();
+    }
+
+    public Stats getStats(String name) {
+        return stats.computeIfAbsent(name, Stats::new);
+    }
+
+    public List<Stats> getAllStats() {
+        return new ArrayList<>(stats.values());
+    }
+
+    public static boolean isRetryable(Exception e) {
+        if (!(e instanceof FirebaseFirestoreException)) return false;
+        FirebaseFirestoreException.Code code = ((FirebaseFirestoreException) e).getCode();
+        return code == FirebaseFirestoreException.Code.UNAVAILABLE
+                || code == FirebaseFirestoreException.Code.DEADLINE_EXCEEDED;
+    }
+
+    private static boolean isTimeout(Exception e) {
+        return e instanceof FirebaseFirestoreException
+                && ((FirebaseFirestoreException) e).getCode() == FirebaseFirestoreException.Code.DEADLINE_EXCEEDED;
+    }
+
+    /**
+     * Exponential delay with equal jitter: a random point in the upper half of the step, so
+     * concurrent retries spread out but never fire immediately.
+     */
+    private long backoffMs(Policy policy, int attempt) {
+        long delay = policy.baseBackoffMs << Math.min(attempt - 1, 16);
+        delay = Math.min(delay, policy.maxBackoffMs);
+        if (delay <= 1) return delay;
+        long half = delay / 2;
+        synchronized (random) {
+            return half + (long) (random.nextDouble() * half);
+        }
+    }
+
+    /**
+     * State of one operation. Only touched on the main thread.
+     */
+    private class Call<T> {
+        final String name;
+        final Policy policy;
+        final CancellationToken cancellationToken;
+        final TaskFactory<T> factory;
+        final TaskCompletionSource<T> source = new TaskCompletionSource<>();
+        long startedAt;
+        int attempts;
+        int lastFailedAttempt;
+        boolean done;
+        Runnable attemptTimeout;
+        final Runnable deadline = () -> finish(null, timeout("Operation timed out"));
+
+        Call(String name, Policy policy, CancellationToken cancellationToken, TaskFactory<T> factory) {
+            this.name = name;
+            this.policy = policy;
+            this.cancellationToken = cancellationToken;
+            this.factory = factory;
+        }
+
+        void start() {
+            startedAt = SystemClock.elapsedRealtime();
+            handler.postDelayed(deadline, policy.deadlineMs);
+            if (cancellationToken != null) {
+                cancellationToken.onCanceledRequested(() -> handler.post(() -> finish(null,
+                        new FirebaseFirestoreException("Operation cancelled",
+                                FirebaseFirestoreException.Code.CANCELLED))));
+            }
+            attempt();
+        }
+
+        void attempt() {
+            if (done) return;
+            if (cancellationToken != null && cancellationToken.isCancellationRequested()) {
+                finish(null, new FirebaseFirestoreException("Operation cancelled",
+                        FirebaseFirestoreException.Code.CANCELLED));
+                return;
+            }
+
+            attempts++;
+            Task<T> task;
+            try {
+                task = factory.start();
+            } catch (RuntimeException e) {
+                finish(null, e);
+                return;
+            }
+
+            final int attempt = attempts;
+            Runnable timeout = () -> onAttemptFailed(attempt, timeout("Attempt timed out"));
+            attemptTimeout = timeout;
+            handler.postDelayed(timeout, policy.attemptTimeoutMs);
+
+            task.addOnCompleteListener(completed -> {
+                handler.removeCallbacks(timeout);
+                if (completed.isSuccessful()) {
+                    // A late success from a timed-out attempt is still a success
+                    finish(completed.getResult(), null);
+                } else {
+                    Exception e = completed.getException();
+                    onAttemptFailed(attempt, e != null ? e
+                            : new FirebaseFirestoreException("Operation cancelled",
+                                    FirebaseFirestoreException.Code.CANCELLED));
+                }
+            });
+        }
+
+        void onAttemptFailed(int attempt, Exception e) {
+            // An attempt can fail twice (timeout, then its real error); only the first counts
+            if (done || attempt <= lastFailedAttempt) return;
+            lastFailedAttempt = attempt;
+
+            long elapsed = SystemClock.elapsedRealtime() - startedAt;
+            long delay = backoffMs(policy, attempt);
+            if (isRetryable(e) && attempts < policy.maxAttempts
+                    && elapsed + delay < policy.deadlineMs) {
+                handler.postDelayed(this::attempt, delay);
+            } else {
+                finish(null, e);
+            }
+        }
+
+        void finish(T value, Exception error) {
+            if (done) return;
+            done = true;
+            handler.removeCallbacks(deadline);
+            if (attemptTimeout != null) {
+                handler.removeCallbacks(attemptTimeout);
+            }
+
+            getStats(name).record(Math.max(attempts, 1), SystemClock.elapsedRealtime() - startedAt, error);
+            if (error == null) {
+                source.trySetResult(value);
+            } else {
+                source.trySetException(error);
+            }
+        }
+
+        private FirebaseFirestoreException timeout(String message) {
+            return new FirebaseFirestoreException(message, FirebaseFirestoreException.Code.DEADLINE_EXCEEDED);
+        }
+    }
+}
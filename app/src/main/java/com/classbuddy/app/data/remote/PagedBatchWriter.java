@@ -0,0 +1,113 @@
+package com.classbuddy.app.data.remote;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.classbuddy.app.data.model.BatchProgress;
+import com.classbuddy.app.util.Constants;
+import com.classbuddy.app.util.Resource;
+import com.google.firebase.firestore.AggregateSource;
+import com.google.firebase.firestore.DocumentSnapshot;
+import com.google.firebase.firestore.FirebaseFirestore;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.WriteBatch;
+
+import java.util.List;
+
+/**
+ * Applies a write to every document matching a query, one page at a time: read a page,
+ * commit it as a single WriteBatch, then read the next page after it. Only one page is held
+ * in memory regardless of how many documents match.
+ *
+ * Progress is published as LOADING resources carrying a {@link BatchProgress}; the total
+ * comes from a count() aggregation and is -1 if that fails. The final resource is SUCCESS
+ * once a short page shows there is nothing left, or ERROR if a read or commit fails
+ * (batches committed before the failure stay applied).
+ */
+public class PagedBatchWriter {
+
+    /**
+     * Adds the write for one document to batch.
+     */
+    public interface Operation {
+        void apply(WriteBatch batch, DocumentSnapshot document);
+    }
+
+    private final FirebaseFirestore firestore;
+    private final OperationRunner operations = OperationRunner.getInstance();
+    private final Query query;
+    private final Operation operation;
+    private final MutableLiveData<Resource<BatchProgress>> result = new MutableLiveData<>();
+    private int pageSize = Constants.FIRESTORE_BATCH_LIMIT;
+
+    private int processed;
+    private int total = -1;
+
+    public PagedBatchWriter(FirebaseFirestore firestore, Query query, Operation operation) {
+        this.firestore = firestore;
+        this.query = query;
+        this.operation = operation;
+    }
+
+    public PagedBatchWriter pageSize(int pageSize) {
+        this.pageSize = Math.max(1, Math.min(pageSize, Constants.FIRESTORE_BATCH_LIMIT));
+        return this;
+    }
+
+    public LiveData<Resource<BatchProgress>> start() {
+        result.setValue(Resource.loading(new BatchProgress(0, -1)));
+
+        operations.execute("batchWriter.count", OperationRunner.Policy.READ,
+                () -> query.count().get(AggregateSource.SERVER))
+                .addOnCompleteListener(task -> {
+                    if (task.isSuccessful() && task.getResult() != null) {
+                        total = (int) task.getResult().getCount();
+                    }
+                    nextPage(null);
+                });
+
+        return result;
+    }
+
+    private void nextPage(DocumentSnapshot cursor) {
+        Query page = cursor == null ? query : query.startAfter(cursor);
+
+        operations.execute("batchWriter.page", OperationRunner.Policy.READ, () -> page.limit(pageSize).get())
+                .addOnSuccessListener(querySnapshot -> {
+                    List<DocumentSnapshot> documents = querySnapshot.getDocuments();
+                    if (documents.isEmpty()) {
+                        finish();
+                        return;
+                    }
+
+                    // A batch can only be committed once, so every attempt builds its own
+                    operations.execute("batchWriter.commit", OperationRunner.Policy.WRITE, () -> {
+                                WriteBatch batch = firestore.batch();
+                                for (DocumentSnapshot document : documents) {
+                                    operation.apply(batch, document);
+                                }
+                                return batch.commit();
+                            })
+                            .addOnSuccessListener(aVoid -> {
+                                processed += documents.size();
+                                if (documents.size() < pageSize) {
+                                    finish();
+                                } else {
+                                    result.setValue(Resource.loading(progress()));
+                                    nextPage(documents.get(documents.size() - 1));
+                                }
+                            })
+                            .addOnFailureListener(e -> result.setValue(Resource.error(e.getMessage(), progress())));
+                })
+                .addOnFailureListener(e -> result.setValue(Resource.error(e.getMessage(), progress())));
+    }
+
+    private void finish() {
+        result.setValue(Resource.success(new BatchProgress(processed, processed)));
+    }
+
+    private BatchProgress progress() {
+        // Documents may have been added since the count was taken
+        return new BatchProgress(processed, total >= 0 ? Math.max(total, processed) : -1);
+    }
+}
@@ -0,0 +1,87 @@
+package com.classbuddy.app.data.remote;
+
+import com.classbuddy.app.data.source.ReadPolicy;
+import com.google.firebase.firestore.Query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Builds the identity of a Firestore query (collection + filters + order + limit).
+ * Two calls that describe the same query produce the same key, so they can share
+ * one snapshot listener through {@link SharedQueryRegistry}.
+ */
+public final class QueryKey {
+
+    private final StringBuilder key;
+
+    private QueryKey(String root) {
+        this.key = new StringBuilder(root);
+    }
+
+    public static QueryKey collection(String collection) {
+        return new QueryKey(collection);
+    }
+
+    public static QueryKey document(String collection, String documentId) {
+        return new QueryKey(collection + "/" + documentId);
+    }
+
+    public QueryKey whereEqualTo(String field, Object value) {
+        key.append('|').append(field).append("==").append(value);
+        return this;
+    }
+
+    public QueryKey whereIn(String field, List<String> values) {
+        // whereIn is order-insensitive, so sort to make [a, b] and [b, a] share a listener
+        List<String> sorted = new ArrayList<>(values);
+        Collections.sort(sorted);
+        key.append('|').append(field).append(" in ").append(sorted);
+        return this;
+    }
+
+    /**
+     * A half-open range [from, until) on field.
+     */
+    public QueryKey whereBetween(String field, Object from, Object until) {
+        key.append('|').append(field).append(" in [").append(from).append(", ").append(until).append(')');
+        return this;
+    }
+
+    public QueryKey orderBy(String field, Query.Direction direction) {
+        key.append("|orderBy ").append(field).append(' ').append(direction);
+        return this;
+    }
+
+    public QueryKey limit(long limit) {
+        key.append("|limit ").append(limit);
+        return this;
+    }
+
+    /**
+     * Distinguishes listeners on the same query whose results are post-processed
+     * differently on the client (e.g. filtered to upcoming exams only).
+     */
+    public QueryKey view(String name) {
+        key.append("|view ").append(name);
+        return this;
+    }
+
+    /**
+     * Listeners under different read policies publish differently, so they are not shared.
+     */
+    public QueryKey readPolicy(ReadPolicy policy) {
+        key.append("|policy ").append(policy);
+        return this;
+    }
+
+    public String build() {
+        return key.toString();
+    }
+
+    @Override
+    public String toString() {
+        return build();
+    }
+}
@@ -0,0 +1,87 @@
+package com.classbuddy.app.data.remote;
+
+import android.os.SystemClock;
+
+import com.classbuddy.app.data.source.ReadPolicy;
+import com.classbuddy.app.util.Resource;
+import com.google.firebase.firestore.EventListener;
+import com.google.firebase.firestore.FirebaseFirestoreException;
+import com.google.firebase.firestore.ListenSource;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.MetadataChanges;
+import com.google.firebase.firestore.Query;
+import com.google.firebase.firestore.QuerySnapshot;
+import com.google.firebase.firestore.SnapshotListenOptions;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Snapshot listener that publishes a query's results according to a {@link ReadPolicy}.
+ *
+ * Metadata changes are included so that a cached result the server confirms without
+ * changes still turns from stale into a plain success. Every snapshot goes through the
+ * mapper, including those the policy does not publish, so the mapper never misses changes.
+ * A result is only published when the list or its staleness changed.
+ *
+ * Runs on {@link FirestoreExecutors#decoder()} and records its first cached and first server
+ * result in {@link ReadTimings} under name.
+ */
+final class ReadPolicyListener<T> implements EventListener<QuerySnapshot> {
+
+    private final ReadPolicy policy;
+    private final SnapshotMapper<T> mapper;
+    private final Consumer<Resource<List<T>>> publisher;
+    private final ReadTimings.Stats stats;
+    private final long attachedAt = SystemClock.elapsedRealtime();
+
+    private boolean cacheSeen;
+    private boolean serverSeen;
+    private List<T> published;
+    private boolean publishedStale;
+
+    private ReadPolicyListener(ReadPolicy policy, String name, SnapshotMapper<T> mapper,
+                               Consumer<Resource<List<T>>> publisher) {
+        this.policy = policy;
+        this.mapper = mapper;
+        this.publisher = publisher;
+        this.stats = ReadTimings.getInstance().getStats(name);
+    }
+
+    static <T> ListenerRegistration attach(Query query, ReadPolicy policy, String name,
+                                           SnapshotMapper<T> mapper, Consumer<Resource<List<T>>> publisher) {
+        SnapshotListenOptions options = new SnapshotListenOptions.Builder()
+                .setExecutor(FirestoreExecutors.decoder())
+                .setMetadataChanges(MetadataChanges.INCLUDE)
+                .setSource(policy == ReadPolicy.CACHE_ONLY ? ListenSource.CACHE : ListenSource.DEFAULT)
+                .build();
+        return query.addSnapshotListener(options, new ReadPolicyListener<>(policy, name, mapper, publisher));
+    }
+
+    @Override
+    public void onEvent(QuerySnapshot snapshot, FirebaseFirestoreException error) {
+        if (error != null) {
+            publisher.accept(Resource.error(error.getMessage(), null));
+            return;
+        }
+        if (snapshot == null) return;
+
+        boolean fromCache = snapshot.getMetadata().isFromCache();
+        long elapsed = SystemClock.elapsedRealtime() - attachedAt;
+        if (fromCache && !cacheSeen) {
+            cacheSeen = true;
+            stats.recordCache(elapsed);
+        } else if (!fromCache && !serverSeen) {
+            serverSeen = true;
+            stats.recordServer(elapsed);
+        }
+
+        List<T> items = mapper.apply(snapshot);
+        if (fromCache && policy == ReadPolicy.SERVER_ONLY) return;
+        if (items == published && fromCache == publishedStale) return;
+
+        published = items;
+        publishedStale = fromCache;
+        publisher.accept(fromCache ? Resource.stale(items) : Resource.success(items));
+    }
+}
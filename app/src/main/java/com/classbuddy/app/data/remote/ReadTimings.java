@@ -0,0 +1,76 @@
+package com.classbuddy.app.data.remote;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * How long realtime queries take to show something: the time from attaching a listener to
+ * its first cached result and to its first server result, per query name. Comparing the
+ * two shows what reading from the cache first saves on a cold screen.
+ */
+public class ReadTimings {
+
+    /**
+     * Counters for one query name, updated from the decoder thread.
+     */
+    public static final class Stats {
+        private final String name;
+        private final AtomicLong cacheHits = new AtomicLong();
+        private final AtomicLong totalCacheMs = new AtomicLong();
+        private final AtomicLong serverResults = new AtomicLong();
+        private final AtomicLong totalServerMs = new AtomicLong();
+
+        Stats(String name) {
+            this.name = name;
+        }
+
+        public String getName() { return name; }
+        public long getCacheHits() { return cacheHits.get(); }
+        public long getServerResults() { return serverResults.get(); }
+
+        public long getAverageCacheMs() {
+            long count = cacheHits.get();
+            return count == 0 ? 0 : totalCacheMs.get() / count;
+        }
+
+        public long getAverageServerMs() {
+            long count = serverResults.get();
+            return count == 0 ? 0 : totalServerMs.get() / count;
+        }
+
+        void recordCache(long elapsedMs) {
+            cacheHits.incrementAndGet();
+            totalCacheMs.addAndGet(elapsedMs);
+        }
+
+        void recordServer(long elapsedMs) {
+            serverResults.incrementAndGet();
+            totalServerMs.addAndGet(elapsedMs);
+        }
+    }
+
+    private static ReadTimings instance;
+
+    private final Map<String, Stats> stats = new ConcurrentHashMap<>();
+
+    private ReadTimings() {
+    }
+
+    public static synchronized ReadTimings getInstance() {
+        if (instance == null) {
+            instance = new ReadTimings();
+        }
+        return instance;
+    }
+
+    public Stats getStats(String name) {
+        return stats.computeIfAbsent(name, Stats::new);
+    }
+
+    public List<Stats> getAllStats() {
+        return new ArrayList<>(stats.values());
+    }
+}
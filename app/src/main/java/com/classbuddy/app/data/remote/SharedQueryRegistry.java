@@ -0,0 +1,127 @@
+package com.classbuddy.app.data.remote;
+
+import androidx.annotation.MainThread;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+
+import com.classbuddy.app.util.Resource;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Process-wide registry that attaches each distinct Firestore query once and multiplexes
+ * its results to every LiveData subscriber asking for the same {@link QueryKey}.
+ *
+ * Each key is backed by a single {@link SnapshotLiveData}. Subscribers are ref-counted
+ * while they have active observers. When the last one goes away the listener lingers for
+ * a short while (so tab switches and configuration changes reuse it) and is then removed.
+ *
+ * All methods must be called on the main thread.
+ */
+public class SharedQueryRegistry {
+
+    public static final long DEFAULT_LINGER_MS = 5000;
+
+    private static SharedQueryRegistry instance;
+
+    private final Map<String, Entry<?>> entries = new HashMap<>();
+    private long lingerMs = DEFAULT_LINGER_MS;
+
+    private SharedQueryRegistry() {
+    }
+
+    public static synchronized SharedQueryRegistry getInstance() {
+        if (instance == null) {
+            instance = new SharedQueryRegistry();
+        }
+        return instance;
+    }
+
+    /**
+     * Returns a LiveData that shares the listener registered under key. The binder is
+     * only invoked when no listener for key is currently attached.
+     */
+    @MainThread
+    public <T> LiveData<Resource<T>> observe(String key, SnapshotLiveData.Binder<T> binder) {
+        return new Subscription<>(key, binder);
+    }
+
+    /**
+     * How long an unobserved listener is kept alive before it is removed. Applies to
+     * queries attached after the call.
+     */
+    @MainThread
+    public void setLingerMs(long lingerMs) {
+        this.lingerMs = Math.max(0, lingerMs);
+    }
+
+    @MainThread
+    public int getAttachedQueryCount() {
+        return entries.size();
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T> Entry<T> acquire(String key, SnapshotLiveData.Binder<T> binder) {
+        Entry<T> entry = (Entry<T>) entries.get(key);
+        if (entry == null) {
+            entry = new Entry<>(key, binder, lingerMs);
+            entries.put(key, entry);
+        }
+        entry.refCount++;
+        return entry;
+    }
+
+    private void release(Entry<?> entry) {
+        entry.refCount = Math.max(0, entry.refCount - 1);
+    }
+
+    private class Entry<T> extends SnapshotLiveData<T> {
+        private final String key;
+        private int refCount;
+
+        Entry(String key, Binder<T> binder, long lingerMs) {
+            super(binder, lingerMs);
+            this.key = key;
+        }
+
+        @Override
+        protected void onDetached() {
+            if (refCount == 0 && entries.get(key) == this) {
+                entries.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Per-caller view of a shared entry. Holds one reference while it has active observers.
+     */
+    private class Subscription<T> extends MediatorLiveData<Resource<T>> {
+        private final String key;
+        private final SnapshotLiveData.Binder<T> binder;
+        private Entry<T> source;
+
+        Subscription(String key, SnapshotLiveData.Binder<T> binder) {
+            this.key = key;
+            this.binder = binder;
+            setValue(Resource.loading(null));
+        }
+
+        @Override
+        protected void onActive() {
+            super.onActive();
+            source = acquire(key, binder);
+            addSource(source, this::setValue);
+        }
+
+        @Override
+        protected void onInactive() {
+            if (source != null) {
+                removeSource(source);
+                release(source);
+                source = null;
+            }
+            super.onInactive();
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package com.classbuddy.app.data.remote;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.lifecycle.LiveData;
+
+import com.classbuddy.app.util.Resource;
+import com.google.firebase.firestore.ListenerRegistration;
+
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * LiveData backed by a Firestore snapshot listener that is only attached while the
+ * LiveData has active observers.
+ *
+ * The listener is attached in {@link #onActive()} and removed a short grace period after
+ * {@link #onInactive()}, so a configuration change or a quick tab switch does not tear it
+ * down and re-read everything. Firestore removes a listener that reports an error, so after
+ * one a new listener is attached with exponential backoff for as long as there are active
+ * observers.
+ *
+ * Results that would not change what observers see are dropped in {@link #publish}: same
+ * status, staleness and message, and the same data or a list holding the same item
+ * instances. Decoders reuse the instances of unchanged documents, so a snapshot that only
+ * changed metadata, or a document rewritten with identical data, ends here.
+ */
+public class SnapshotLiveData<T> extends LiveData<Resource<T>> {
+
+    public static final long DEFAULT_GRACE_MS = 2000;
+
+    private static final long RETRY_INITIAL_MS = 1000;
+    private static final long RETRY_MAX_MS = 60000;
+
+    private static final AtomicInteger liveRegistrations = new AtomicInteger();
+    private static final AtomicLong deliveredEmissions = new AtomicLong();
+    private static final AtomicLong suppressedEmissions = new AtomicLong();
+
+    /**
+     * Attaches the Firestore listener and publishes its results through target.
+     */
+    public interface Binder<T> {
+        ListenerRegistration bind(SnapshotLiveData<T> target);
+    }
+
+    private final Binder<T> binder;
+    private final long graceMs;
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable detachRunnable = this::detach;
+    private final Runnable retryRunnable = this::retry;
+
+    private ListenerRegistration registration;
+    private Resource<T> lastPublished;
+    // Written on the decoding executor after a result and on the main thread after an error
+    private volatile long retryDelayMs = RETRY_INITIAL_MS;
+
+    public SnapshotLiveData(Binder<T> binder) {
+        this(binder, DEFAULT_GRACE_MS);
+    }
+
+    public SnapshotLiveData(Binder<T> binder, long graceMs) {
+        this.binder = binder;
+        this.graceMs = graceMs;
+        setValue(Resource.loading(null));
+    }
+
+    /**
+     * Number of snapshot listeners currently attached across all instances. Debug only.
+     */
+    public static int getLiveRegistrationCount() {
+        return liveRegistrations.get();
+    }
+
+    /**
+     * Number of listener results handed to observers across all instances. Debug only.
+     */
+    public static long getDeliveredEmissionCount() {
+        return deliveredEmissions.get();
+    }
+
+    /**
+     * Number of listener results dropped as duplicates across all instances. Debug only.
+     */
+    public static long getSuppressedEmissionCount() {
+        return suppressedEmissions.get();
+    }
+
+    /**
+     * Publishes a result from the listener. Safe to call from the decoding executor: off the
+     * main thread the value is handed over with postValue, so only the final result crosses
+     * threads.
+     */
+    public void publish(Resource<T> resource) {
+        boolean onMainThread = Looper.myLooper() == Looper.getMainLooper();
+        // Even a repeated error has cost the listener, so it is always replaced
+        if (resource.isError()) {
+            if (onMainThread) {
+                onListenerFailed();
+            } else {
+                handler.post(this::onListenerFailed);
+            }
+        } else if (!resource.isLoading()) {
+            retryDelayMs = RETRY_INITIAL_MS;
+        }
+
+        synchronized (this) {
+            if (isDuplicate(lastPublished, resource)) {
+                suppressedEmissions.incrementAndGet();
+                return;
+            }
+            lastPublished = resource;
+        }
+        deliveredEmissions.incrementAndGet();
+
+        if (onMainThread) {
+            setValue(resource);
+        } else {
+            postValue(resource);
+        }
+    }
+
+    private static boolean isDuplicate(Resource<?> previous, Resource<?> next) {
+        return previous != null
+                && previous.status == next.status
+                && previous.stale == next.stale
+                && Objects.equals(previous.message, next.message)
+                && isSameData(previous.data, next.data);
+    }
+
+    private static boolean isSameData(Object previous, Object next) {
+        if (previous == next) return true;
+        if (!(previous instanceof List) || !(next instanceof List)) return false;
+
+        List<?> previousItems = (List<?>) previous;
+        List<?> nextItems = (List<?>) next;
+        if (previousItems.size() != nextItems.size()) return false;
+        for (int i = 0; i < nextItems.size(); i++) {
+            if (previousItems.get(i) != nextItems.get(i)) return false;
+        }
+        return true;
+    }
+
+    public boolean isAttached() {
+        return registration != null;
+    }
+
+    @Override
+    protected void onActive() {
+        super.onActive();
+        handler.removeCallbacks(detachRunnable);
+        bind();
+    }
+
+    @Override
+    protected void onInactive() {
+        super.onInactive();
+        handler.postDelayed(detachRunnable, graceMs);
+    }
+
+    /**
+     * Called after the listener has been removed because nobody observed it for the
+     * whole grace period.
+     */
+    protected void onDetached() {
+    }
+
+    private void detach() {
+        if (hasActiveObservers()) return;
+        handler.removeCallbacks(retryRunnable);
+        release();
+        onDetached();
+    }
+
+    private void bind() {
+        handler.removeCallbacks(retryRunnable);
+        if (registration == null) {
+            registration = binder.bind(this);
+            liveRegistrations.incrementAndGet();
+        }
+    }
+
+    private void onListenerFailed() {
+        release();
+        if (hasActiveObservers()) {
+            long delay = retryDelayMs;
+            retryDelayMs = Math.min(delay * 2, RETRY_MAX_MS);
+            handler.removeCallbacks(retryRunnable);
+            handler.postDelayed(retryRunnable, delay);
+        }
+    }
+
+    // Without active observers the next onActive() attaches a listener instead
+    private void retry() {
+        if (hasActiveObservers()) {
+            bind();
+        }
+    }
+
+    private void release() {
+        if (registration != null) {
+            registration.remove();
+            registration = null;
+            liveRegistrations.decrementAndGet();
+        }
+    }
+}
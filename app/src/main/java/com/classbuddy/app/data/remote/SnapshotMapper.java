@@ -0,0 +1,163 @@
+package com.classbuddy.app.data.remote;
+
+import com.google.firebase.firestore.DocumentChange;
+import com.google.firebase.firestore.QueryDocumentSnapshot;
+import com.google.firebase.firestore.QuerySnapshot;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Keeps the decoded results of one snapshot listener and updates them from
+ * {@link QuerySnapshot#getDocumentChanges()} instead of decoding every document again.
+ *
+ * Only added and modified documents are passed through toObject; everything else keeps its
+ * previously decoded instance, so consecutive lists share their unchanged items. Without a
+ * comparator items keep the server order using the change indices; with one they are kept
+ * sorted by binary insertion (ties broken by document ID).
+ *
+ * A modified document whose data is unchanged keeps its instance as well. Listeners that
+ * include metadata changes get such changes when a pending write is acknowledged or a
+ * cached document is confirmed by the server; if nothing else changed, the previous list
+ * instance is returned.
+ *
+ * A mapper holds the state of a single listener registration and must be recreated when the
+ * listener is re-attached, since a new listener reports every document as ADDED again.
+ */
+public class SnapshotMapper<T> {
+
+    private final Class<T> type;
+    private final Comparator<T> order;
+    private final List<Entry<T>> entries = new ArrayList<>();
+    private final Map<String, Entry<T>> byId = new HashMap<>();
+    private List<T> current = Collections.emptyList();
+    private List<String> currentIds = Collections.emptyList();
+
+    public SnapshotMapper(Class<T> type) {
+        this(type, null);
+    }
+
+    public SnapshotMapper(Class<T> type, Comparator<T> order) {
+        this.type = type;
+        this.order = order;
+    }
+
+    /**
+     * Applies the changes in snapshot and returns the resulting unmodifiable list. Returns
+     * the previous list instance when nothing changed (e.g. metadata-only snapshots).
+     */
+    public List<T> apply(QuerySnapshot snapshot) {
+        List<DocumentChange> changes = snapshot.getDocumentChanges();
+        if (changes.isEmpty()) {
+            return current;
+        }
+
+        boolean changed = false;
+        for (DocumentChange change : changes) {
+            QueryDocumentSnapshot doc = change.getDocument();
+            switch (change.getType()) {
+                case ADDED:
+                    insert(change.getNewIndex(), new Entry<>(doc.getId(), doc.getData(), doc.toObject(type)));
+                    break;
+                case MODIFIED:
+                    Entry<T> previous = byId.get(doc.getId());
+                    Map<String, Object> data = doc.getData();
+                    if (previous != null && Objects.equals(previous.data, data)
+                            && change.getOldIndex() == change.getNewIndex()) {
+                        continue;
+                    }
+                    remove(change.getOldIndex(), doc.getId());
+                    insert(change.getNewIndex(), new Entry<>(doc.getId(), data, doc.toObject(type)));
+                    break;
+                case REMOVED:
+                    remove(change.getOldIndex(), doc.getId());
+                    break;
+            }
+            changed = true;
+        }
+        if (!changed) {
+            return current;
+        }
+
+        List<T> items = new ArrayList<>(entries.size());
+        List<String> ids = new ArrayList<>(entries.size());
+        for (Entry<T> entry : entries) {
+            if (entry.item != null) {
+                items.add(entry.item);
+                ids.add(entry.id);
+            }
+        }
+        current = Collections.unmodifiableList(items);
+        currentIds = Collections.unmodifiableList(ids);
+        return current;
+    }
+
+    public List<T> getCurrent() {
+        return current;
+    }
+
+    /**
+     * The document IDs of {@link #getCurrent()}, position for position.
+     */
+    public List<String> getCurrentIds() {
+        return currentIds;
+    }
+
+    private void insert(int newIndex, Entry<T> entry) {
+        if (order == null) {
+            // Entries that failed to decode are kept as placeholders so server indices stay valid
+            entries.add(Math.min(Math.max(newIndex, 0), entries.size()), entry);
+            byId.put(entry.id, entry);
+            return;
+        }
+        if (entry.item == null) return;
+
+        int index = Collections.binarySearch(entries, entry, this::compare);
+        entries.add(index < 0 ? -index - 1 : index, entry);
+        byId.put(entry.id, entry);
+    }
+
+    private void remove(int oldIndex, String id) {
+        Entry<T> entry = byId.remove(id);
+        if (entry == null) return;
+
+        if (order == null) {
+            if (oldIndex >= 0 && oldIndex < entries.size() && entries.get(oldIndex) == entry) {
+                entries.remove(oldIndex);
+            } else {
+                entries.remove(entry);
+            }
+            return;
+        }
+
+        int index = Collections.binarySearch(entries, entry, this::compare);
+        if (index >= 0) {
+            entries.remove(index);
+        } else {
+            entries.remove(entry);
+        }
+    }
+
+    private int compare(Entry<T> e1, Entry<T> e2) {
+        int result = order.compare(e1.item, e2.item);
+        return result != 0 ? result : e1.id.compareTo(e2.id);
+    }
+
+    private static class Entry<T> {
+        final String id;
+        // Raw field values, compared to tell real modifications from metadata-only ones
+        final Map<String, Object> data;
+        final T item;
+
+        Entry(String id, Map<String, Object> data, T item) {
+            this.id = id;
+            this.data = data;
+            this.item = item;
+        }
+    }
+}
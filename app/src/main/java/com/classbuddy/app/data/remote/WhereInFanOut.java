@@ -0,0 +1,254 @@
+package com.classbuddy.app.data.remote;
+
+import android.os.Handler;
+import android.os.Looper;
+
+import com.classbuddy.app.data.source.ReadPolicy;
+import com.classbuddy.app.util.Constants;
+import com.classbuddy.app.util.Resource;
+import com.google.firebase.firestore.ListenerRegistration;
+import com.google.firebase.firestore.Query;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Predicate;
+import java.util.function.ToLongFunction;
+
+/**
+ * Runs a whereIn query over an arbitrary number of IDs by splitting them into chunks of
+ * {@link Constants#FIRESTORE_WHERE_IN_LIMIT} and attaching one listener per chunk.
+ *
+ * Each chunk keeps its own decoded results in a {@link SnapshotMapper}. Whenever a chunk
+ * reports, only its changed documents are decoded and a single merged, ordered list is
+ * published, keyed by document ID so a document reported by two chunks appears once.
+ * Nothing is published until every chunk has delivered its first snapshot.
+ *
+ * All chunk listeners run on {@link FirestoreExecutors#decoder()}, which is serial, so the
+ * per-chunk results are only ever touched from that one thread.
+ *
+ * With a {@link ReadPolicy} each chunk listens through {@link ReadPolicyListener}, and the
+ * merged list is stale while any chunk's part of it came from the cache.
+ *
+ * Queries bounded by the time they were built (e.g. examDate >= now) go out of date while
+ * the listener stays attached. With {@link #refreshAt} every chunk listener is re-attached,
+ * and so re-queried, once the earliest published item's deadline has passed.
+ */
+public class WhereInFanOut<T> implements SnapshotLiveData.Binder<List<T>> {
+
+    /**
+     * Builds the query for one chunk of IDs.
+     */
+    public interface ChunkQuery {
+        Query create(List<String> chunk);
+    }
+
+    private final Class<T> type;
+    private final List<List<String>> chunks;
+    private final ChunkQuery chunkQuery;
+    private Comparator<T> order;
+    private Predicate<T> filter;
+    private int limit = -1;
+    private ReadPolicy policy;
+    private String name;
+    private ToLongFunction<T> deadline;
+
+    private WhereInFanOut(Class<T> type, List<String> ids, ChunkQuery chunkQuery) {
+        this.type = type;
+        this.chunks = chunk(ids, Constants.FIRESTORE_WHERE_IN_LIMIT);
+        this.chunkQuery = chunkQuery;
+    }
+
+    public static <T> WhereInFanOut<T> of(Class<T> type, List<String> ids, ChunkQuery chunkQuery) {
+        return new WhereInFanOut<>(type, ids, chunkQuery);
+    }
+
+    public WhereInFanOut<T> orderBy(Comparator<T> order) {
+        this.order = order;
+        return this;
+    }
+
+    public WhereInFanOut<T> filter(Predicate<T> filter) {
+        this.filter = filter;
+        return this;
+    }
+
+    public WhereInFanOut<T> limit(int limit) {
+        this.limit = limit;
+        return this;
+    }
+
+    /**
+     * Publishes according to policy and records timings under name.
+     */
+    public WhereInFanOut<T> readPolicy(String name, ReadPolicy policy) {
+        this.name = name;
+        this.policy = policy;
+        return this;
+    }
+
+    /**
+     * Re-attaches the listeners once the earliest deadline (epoch milliseconds) among the
+     * published items has passed.
+     */
+    public WhereInFanOut<T> refreshAt(ToLongFunction<T> deadline) {
+        this.deadline = deadline;
+        return this;
+    }
+
+    /**
+     * Splits ids into chunks of at most size, dropping repeated IDs.
+     */
+    public static List<List<String>> chunk(List<String> ids, int size) {
+        List<String> distinct = new ArrayList<>(new LinkedHashSet<>(ids));
+        List<List<String>> chunks = new ArrayList<>();
+        for (int i = 0; i < distinct.size(); i += size) {
+            chunks.add(new ArrayList<>(distinct.subList(i, Math.min(i + size, distinct.size()))));
+        }
+        return chunks;
+    }
+
+    @Override
+    public ListenerRegistration bind(SnapshotLiveData<List<T>> target) {
+        Binding binding = new Binding(target);
+        binding.attach();
+        return binding::remove;
+    }
+
+    private static boolean isAnyStale(boolean[] chunkStale) {
+        for (boolean stale : chunkStale) {
+            if (stale) return true;
+        }
+        return false;
+    }
+
+    private List<T> merge(List<List<T>> chunkResults, List<List<String>> chunkIds) {
+        Map<String, T> byId = new LinkedHashMap<>();
+        for (int i = 0; i < chunkResults.size(); i++) {
+            List<T> items = chunkResults.get(i);
+            List<String> ids = chunkIds.get(i);
+            for (int j = 0; j < items.size(); j++) {
+                T item = items.get(j);
+                if (filter == null || filter.test(item)) {
+                    byId.putIfAbsent(ids.get(j), item);
+                }
+            }
+        }
+        List<T> merged = new ArrayList<>(byId.values());
+        if (order != null && chunkResults.size() > 1) {
+            // Each chunk is already sorted, so this is a run merge rather than a full sort
+            merged.sort(order);
+        }
+        if (limit >= 0 && merged.size() > limit) {
+            merged = new ArrayList<>(merged.subList(0, limit));
+        }
+        return Collections.unmodifiableList(merged);
+    }
+
+    /**
+     * The listeners attached for one target. Attached on the main thread; results of a
+     * previous generation of listeners that are still queued on the decoder are dropped.
+     */
+    private final class Binding {
+        private final SnapshotLiveData<List<T>> target;
+        private final Handler handler = new Handler(Looper.getMainLooper());
+        private final Runnable refresh = this::refresh;
+
+        private List<ListenerRegistration> registrations = new ArrayList<>();
+        private volatile int generation;
+
+        Binding(SnapshotLiveData<List<T>> target) {
+            this.target = target;
+        }
+
+        void attach() {
+            int current = ++generation;
+            List<List<T>> chunkResults = new ArrayList<>();
+            List<List<String>> chunkIds = new ArrayList<>();
+            boolean[] chunkStale = new boolean[chunks.size()];
+
+            for (int i = 0; i < chunks.size(); i++) {
+                chunkResults.add(null);
+                chunkIds.add(null);
+            }
+
+            for (int i = 0; i < chunks.size(); i++) {
+                final int index = i;
+                SnapshotMapper<T> mapper = new SnapshotMapper<>(type, order);
+                if (policy != null) {
+                    registrations.add(ReadPolicyListener.attach(chunkQuery.create(chunks.get(i)), policy, name, mapper,
+                            resource -> {
+                                if (generation != current) return;
+                                if (resource.isError()) {
+                                    target.publish(resource);
+                                    return;
+                                }
+                                // The listener publishes right after applying a snapshot, so the
+                                // mapper's IDs still match resource.data here
+                                chunkResults.set(index, resource.data);
+                                chunkIds.set(index, mapper.getCurrentIds());
+                                chunkStale[index] = resource.isStale();
+
+                                if (!chunkResults.contains(null)) {
+                                    List<T> merged = merge(chunkResults, chunkIds);
+                                    target.publish(isAnyStale(chunkStale) ? Resource.stale(merged) : Resource.success(merged));
+                                    scheduleRefresh(merged);
+                                }
+                            }));
+                    continue;
+                }
+                registrations.add(chunkQuery.create(chunks.get(i))
+                        .addSnapshotListener(FirestoreExecutors.decoder(), (querySnapshot, error) -> {
+                            if (generation != current) return;
+                            if (error != null) {
+                                target.publish(Resource.error(error.getMessage(), null));
+                                return;
+                            }
+                            if (querySnapshot != null) {
+                                chunkResults.set(index, mapper.apply(querySnapshot));
+                                chunkIds.set(index, mapper.getCurrentIds());
+
+                                if (!chunkResults.contains(null)) {
+                                    List<T> merged = merge(chunkResults, chunkIds);
+                                    target.publish(Resource.success(merged));
+                                    scheduleRefresh(merged);
+                                }
+                            }
+                        }));
+            }
+        }
+
+        void remove() {
+            generation++;
+            handler.removeCallbacks(refresh);
+            for (ListenerRegistration registration : registrations) {
+                registration.remove();
+            }
+            registrations = new ArrayList<>();
+        }
+
+        // Called on the decoder; the refresh itself runs on the main thread
+        private void scheduleRefresh(List<T> published) {
+            if (deadline == null) return;
+            handler.removeCallbacks(refresh);
+            if (published.isEmpty()) return;
+
+            long earliest = Long.MAX_VALUE;
+            for (T item : published) {
+                earliest = Math.min(earliest, deadline.applyAsLong(item));
+            }
+            // Just past the deadline, so a rebuilt query no longer matches the item
+            handler.postDelayed(refresh, Math.max(0, earliest - System.currentTimeMillis() + 1));
+        }
+
+        // The previous list stays published until every new listener has reported
+        private void refresh() {
+            remove();
+            attach();
+        }
+    }
+}
@@ -6,7 +6,8 @@ import androidx.lifecycle.MediatorLiveData;
 import com.classbuddy.app.data.model.User;
 import com.classbuddy.app.data.remote.FCMService;
 import com.classbuddy.app.data.remote.FirebaseAuthSource;
-import com.classbuddy.app.data.remote.FirestoreSource;
+import com.classbuddy.app.data.source.ClassBuddyDataSource;
+import com.classbuddy.app.data.source.DataSourceProvider;
 import com.classbuddy.app.util.Resource;
 import com.google.firebase.auth.AuthResult;
 import com.google.firebase.auth.FirebaseUser;
@@ -14,11 +15,11 @@ import com.google.firebase.auth.FirebaseUser;
 public class AuthRepository {
 
     private final FirebaseAuthSource authSource;
-    private final FirestoreSource firestoreSource;
+    private final ClassBuddyDataSource dataSource;
 
     public AuthRepository() {
         this. authSource = new FirebaseAuthSource();
-        this.firestoreSource = new FirestoreSource();
+        this.dataSource = DataSourceProvider.get();
     }
 
     public FirebaseUser getCurrentUser() {
@@ -44,7 +45,7 @@ public class AuthRepository {
                 String userId = authResource.data.getUser().getUid();
 
                 // Get user data from Firestore
-                LiveData<Resource<User>> userResult = firestoreSource.getUser(userId);
+                LiveData<Resource<User>> userResult = dataSource.getUser(userId);
                 result.addSource(userResult, userResource -> {
                     if (userResource.isSuccess()) {
                         result.removeSource(userResult); // Remove source to prevent memory leak
@@ -79,7 +80,7 @@ public class AuthRepository {
                 User user = new User(email, fullName, role);
                 user.setId(userId);
 
-                LiveData<Resource<Void>> createResult = firestoreSource.createUser(user);
+                LiveData<Resource<Void>> createResult = dataSource.createUser(user);
                 result.addSource(createResult, createResource -> {
                     if (createResource.isSuccess()) {
                         result.removeSource(createResult); // Remove source to prevent memory leak
@@ -111,7 +112,7 @@ public class AuthRepository {
     private void updateFcmToken(String userId) {
         FCMService.getToken(token -> {
             if (token != null) {
-                firestoreSource.updateFcmToken(userId, token);
+                dataSource.updateFcmToken(userId, token);
             }
         });
     }
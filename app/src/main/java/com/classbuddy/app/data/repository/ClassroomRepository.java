@@ -1,15 +1,22 @@
 package com.classbuddy.app.data.repository;
 
+import android.content.Context;
+
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MediatorLiveData;
+import androidx.lifecycle.MutableLiveData;
+import androidx.work.WorkInfo;
 
+import com.classbuddy.app.data.model.BatchProgress;
 import com.classbuddy.app.data.model.Classroom;
 import com.classbuddy.app.data.model.User;
 import com.classbuddy.app.data.remote.FirebaseAuthSource;
-import com.classbuddy.app.data.remote.FirestoreSource;
+import com.classbuddy.app.data.source.ClassBuddyDataSource;
+import com.classbuddy.app.data.source.DataSourceProvider;
 import com.classbuddy.app.util.CodeGenerator;
 import com.classbuddy.app.util.Constants;
 import com.classbuddy.app.util.Resource;
+import com.classbuddy.app.worker.ClassroomDeletionWorker;
 
 import java.util.HashMap;
 import java.util.List;
@@ -18,11 +25,11 @@ import java.util.Map;
 public class ClassroomRepository {
 
     private final FirebaseAuthSource authSource;
-    private final FirestoreSource firestoreSource;
+    private final ClassBuddyDataSource dataSource;
 
     public ClassroomRepository() {
         this.authSource = new FirebaseAuthSource();
-        this.firestoreSource = new FirestoreSource();
+        this.dataSource = DataSourceProvider.get();
     }
 
     public String getCurrentUserId() {
@@ -60,7 +67,7 @@ public class ClassroomRepository {
         classroom.setCode(CodeGenerator.generateClassroomCode());
         classroom.setPassword(CodeGenerator.generatePassword(4));
 
-        return firestoreSource.createClassroom(classroom);
+        return dataSource.createClassroom(classroom);
     }
 
     public LiveData<Resource<List<Classroom>>> getAdminClassrooms() {
@@ -72,7 +79,7 @@ public class ClassroomRepository {
             return result;
         }
 
-        return firestoreSource.getClassroomsByAdmin(adminId);
+        return dataSource.getClassroomsByAdmin(adminId);
     }
 
     public LiveData<Resource<Void>> updateClassroom(
@@ -88,41 +95,68 @@ public class ClassroomRepository {
         updates.put("section", section);
         updates.put("department", department);
 
-        return firestoreSource.updateClassroom(classroomId, updates);
+        return dataSource.updateClassroom(classroomId, updates);
     }
 
-    public LiveData<Resource<Void>> deleteClassroom(String classroomId) {
-        return firestoreSource.deleteClassroom(classroomId);
-    }
+    /**
+     * Starts deleting the classroom with its routines, exams, notices and notifications and
+     * removes it from its members. The rest runs in {@link ClassroomDeletionWorker} and
+     * survives the app being killed.
+     *
+     * With a background deletion, SUCCESS means the deletion was enqueued; follow it with
+     * {@link #getDeletionProgress}. The worker is the only source of truth from then on.
+     */
+    public LiveData<Resource<Void>> deleteClassroom(Context context, String classroomId) {
+        if (!dataSource.deletesInBackground()) {
+            return dataSource.markClassroomForDeletion(classroomId);
+        }
 
-    public LiveData<Resource<String>> regenerateClassroomCode(String classroomId) {
-        MediatorLiveData<Resource<String>> result = new MediatorLiveData<>();
-        result.setValue(Resource.loading(null));
+        ClassroomDeletionWorker.enqueue(context, classroomId);
+        // Hides the classroom right away when online. If this write fails the worker marks
+        // the classroom itself before deleting anything, so the failure is not reported.
+        dataSource.markClassroomForDeletion(classroomId);
 
-        String newCode = CodeGenerator.generateClassroomCode();
-        Map<String, Object> updates = new HashMap<>();
-        updates.put("code", newCode);
+        MutableLiveData<Resource<Void>> result = new MutableLiveData<>();
+        result.setValue(Resource.success(null));
+        return result;
+    }
 
-        LiveData<Resource<Void>> updateResult =
-                firestoreSource.updateClassroom(classroomId, updates);
+    /**
+     * Progress of a deletion started with {@link #deleteClassroom}. SUCCESS once every
+     * dependent document and the classroom itself are gone.
+     */
+    public LiveData<Resource<BatchProgress>> getDeletionProgress(Context context, String classroomId) {
+        MediatorLiveData<Resource<BatchProgress>> result = new MediatorLiveData<>();
+        result.setValue(Resource.loading(null));
 
-        result.addSource(updateResult, resource -> {
-            if (resource.isSuccess()) {
-                result.setValue(Resource.success(newCode));
-            } else if (resource.isError()) {
-                result.setValue(Resource.error(resource.message, null));
+        result.addSource(ClassroomDeletionWorker.getWorkInfos(context, classroomId), workInfos -> {
+            if (workInfos == null || workInfos.isEmpty()) return;
+
+            WorkInfo workInfo = workInfos.get(0);
+            int processed = workInfo.getProgress().getInt(ClassroomDeletionWorker.KEY_PROCESSED, 0);
+            if (workInfo.getState() == WorkInfo.State.SUCCEEDED) {
+                result.setValue(Resource.success(new BatchProgress(processed, processed)));
+            } else if (workInfo.getState() == WorkInfo.State.FAILED
+                    || workInfo.getState() == WorkInfo.State.CANCELLED) {
+                result.setValue(Resource.error("Could not delete classroom", new BatchProgress(processed, -1)));
+            } else {
+                result.setValue(Resource.loading(new BatchProgress(processed, -1)));
             }
         });
 
         return result;
     }
 
+    public LiveData<Resource<String>> regenerateClassroomCode(String classroomId) {
+        return dataSource.regenerateClassroomCode(classroomId);
+    }
+
     public LiveData<Resource<List<User>>> getClassroomStudents(List<String> studentIds) {
-        return firestoreSource.getStudentsInClassroom(studentIds);
+        return dataSource.getStudentsInClassroom(studentIds);
     }
 
     public LiveData<Resource<Void>> removeStudent(String classroomId, String studentId) {
-        return firestoreSource.removeStudentFromClassroom(classroomId, studentId);
+        return dataSource.removeStudentFromClassroom(classroomId, studentId);
     }
 
     // =======================
@@ -130,11 +164,11 @@ public class ClassroomRepository {
     // =======================
 
     public LiveData<Resource<List<Classroom>>> getStudentClassrooms(List<String> classroomIds) {
-        return firestoreSource.getClassroomsByStudent(classroomIds);
+        return dataSource.getClassroomsByStudent(classroomIds);
     }
 
     public LiveData<Resource<Classroom>> getClassroomByCode(String code) {
-        return firestoreSource.getClassroomByCode(code);
+        return dataSource.getClassroomByCode(code);
     }
 
     public LiveData<Resource<Void>> joinClassroom(
@@ -156,6 +190,8 @@ public class ClassroomRepository {
             return result;
         }
 
+        // Quick check against the classroom we already have; the join transaction re-checks
+        // duplicates and capacity against the latest data
         if (classroom.getStudentIds() != null &&
                 classroom.getStudentIds().contains(studentId)) {
             result.setValue(Resource.error("You have already joined this classroom", null));
@@ -163,12 +199,12 @@ public class ClassroomRepository {
         }
 
         LiveData<Resource<Void>> addResult =
-                firestoreSource.addStudentToClassroom(classroomId, studentId);
+                dataSource.addStudentToClassroom(classroomId, studentId);
 
         result.addSource(addResult, resource -> {
             if (resource.isSuccess()) {
 
-                firestoreSource.sendNotificationToStudents(
+                dataSource.sendNotificationToStudents(
                         java.util.Collections.singletonList(studentId),
                         "Welcome to " + classroom.getName(),
                         "You have successfully joined " + classroom.getName(),
@@ -195,10 +231,10 @@ public class ClassroomRepository {
             return result;
         }
 
-        return firestoreSource.removeStudentFromClassroom(classroomId, studentId);
+        return dataSource.removeStudentFromClassroom(classroomId, studentId);
     }
 
     public LiveData<Resource<Classroom>> getClassroom(String classroomId) {
-        return firestoreSource.getClassroom(classroomId);
+        return dataSource.getClassroom(classroomId);
     }
 }
@@ -5,12 +5,16 @@ import androidx.lifecycle.MediatorLiveData;
 
 import com.classbuddy.app.data.model.Exam;
 import com.classbuddy.app.data.remote.FirebaseAuthSource;
-import com.classbuddy.app.data.remote.FirestoreSource;
+import com.classbuddy.app.data.source.ClassBuddyDataSource;
+import com.classbuddy.app.data.source.DataSourceProvider;
+import com.classbuddy.app.data.source.Pager;
+import com.classbuddy.app.data.source.ReadPolicy;
 import com.classbuddy.app.util.Constants;
 import com.classbuddy.app.util.DateTimeUtils;
 import com.classbuddy.app.util.Resource;
 import com.google.firebase.Timestamp;
 
+import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -18,11 +22,11 @@ import java.util.Map;
 public class ExamRepository {
 
     private final FirebaseAuthSource authSource;
-    private final FirestoreSource firestoreSource;
+    private final ClassBuddyDataSource dataSource;
 
     public ExamRepository() {
         this.authSource = new FirebaseAuthSource();
-        this.firestoreSource = new FirestoreSource();
+        this.dataSource = DataSourceProvider.get();
     }
 
     public String getCurrentUserId() {
@@ -65,19 +69,39 @@ public class ExamRepository {
                 adminId
         );
 
-        return firestoreSource.createExam(exam);
+        return dataSource.createExam(exam);
     }
 
     public LiveData<Resource<List<Exam>>> getExamsByClassroom(String classroomId) {
-        return firestoreSource.getExamsByClassroom(classroomId);
+        return dataSource.getExamsByClassroom(classroomId, ReadPolicy.CACHE_THEN_SERVER);
     }
 
     public LiveData<Resource<List<Exam>>> getExamsByClassrooms(List<String> classroomIds) {
-        return firestoreSource.getExamsByClassrooms(classroomIds);
+        return dataSource.getExamsByClassrooms(classroomIds, ReadPolicy.CACHE_THEN_SERVER);
+    }
+
+    /**
+     * Exams dated from (inclusive) to until (exclusive), soonest first.
+     */
+    public LiveData<Resource<List<Exam>>> getExamsBetween(List<String> classroomIds, Date from, Date until) {
+        return dataSource.getExamsBetween(classroomIds, new Timestamp(from), new Timestamp(until),
+                ReadPolicy.CACHE_THEN_SERVER);
     }
 
     public LiveData<Resource<List<Exam>>> getUpcomingExams(List<String> classroomIds) {
-        return firestoreSource.getUpcomingExams(classroomIds);
+        return dataSource.getUpcomingExams(classroomIds, Constants.UPCOMING_EXAMS_LIMIT, ReadPolicy.CACHE_THEN_SERVER);
+    }
+
+    public LiveData<Resource<List<Exam>>> getAllUpcomingExams(List<String> classroomIds) {
+        return dataSource.getUpcomingExams(classroomIds, 0, ReadPolicy.CACHE_THEN_SERVER);
+    }
+
+    public Pager<Exam> getPastExamPager(List<String> classroomIds) {
+        return dataSource.getPastExamPager(classroomIds);
+    }
+
+    public LiveData<Resource<Long>> countUpcomingExams(List<String> classroomIds) {
+        return dataSource.countUpcomingExams(classroomIds);
     }
 
     public LiveData<Resource<Void>> updateExam(
@@ -103,21 +127,21 @@ public class ExamRepository {
         updates.put("totalMarks", totalMarks);
         updates.put("notes", notes);
 
-        return firestoreSource.updateExam(examId, updates);
+        return dataSource.updateExam(examId, updates);
     }
 
     public LiveData<Resource<Void>> deleteExam(String examId) {
-        return firestoreSource.deleteExam(examId);
+        return dataSource.deleteExam(examId);
     }
 
     public LiveData<Resource<Void>> cancelExam(String examId, String reason) {
         Map<String, Object> updates = new HashMap<>();
         updates.put("isCancelled", true);
         updates.put("cancellationReason", reason);
-        return firestoreSource.updateExam(examId, updates);
+        return dataSource.updateExam(examId, updates);
     }
 
-    public void notifyStudentsOfExamCancellation(List<String> studentIds, Exam exam, String reason) {
+    public LiveData<Resource<String>> notifyStudentsOfExamCancellation(Exam exam, String reason) {
         String title = exam.getExamTypeDisplay() + " Cancelled";
         String message = exam.getCourseName() + " exam scheduled for " +
                 DateTimeUtils.formatDate(exam.getExamDate()) + " has been cancelled.";
@@ -125,28 +149,26 @@ public class ExamRepository {
             message += "\nReason: " + reason;
         }
 
-        firestoreSource.sendNotificationToStudents(
-                studentIds,
+        return dataSource.sendNotificationToClassroom(
+                exam.getClassroomId(),
                 title,
                 message,
                 Constants.NOTIFICATION_TYPE_EXAM_CANCELLED,
-                exam.getId(),
-                exam.getClassroomId()
+                exam.getId()
         );
     }
 
-    public void notifyStudentsOfNewExam(List<String> studentIds, Exam exam) {
+    public LiveData<Resource<String>> notifyStudentsOfNewExam(Exam exam) {
         String title = "New " + exam.getExamTypeDisplay() + " Scheduled";
         String message = exam.getCourseName() + " on " +
                 DateTimeUtils.formatDate(exam.getExamDate());
 
-        firestoreSource.sendNotificationToStudents(
-                studentIds,
+        return dataSource.sendNotificationToClassroom(
+                exam.getClassroomId(),
                 title,
                 message,
                 Constants.NOTIFICATION_TYPE_EXAM,
-                exam.getId(),
-                exam.getClassroomId()
+                exam.getId()
         );
     }
 }
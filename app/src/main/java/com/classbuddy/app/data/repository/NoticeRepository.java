@@ -1,12 +1,17 @@
 package com.classbuddy.app.data.repository;
 
+import android.content.Context;
 import android.net.Uri;
 
 import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
 
 import com.classbuddy.app.data.model.Notice;
+import com.classbuddy.app.data.model.NoticeReadState;
 import com.classbuddy.app.data.remote.FirebaseAuthSource;
-import com.classbuddy.app.data.remote.FirestoreSource;
+import com.classbuddy.app.data.source.ClassBuddyDataSource;
+import com.classbuddy.app.data.source.DataSourceProvider;
+import com.classbuddy.app.data.source.Pager;
 import com.classbuddy.app.util.Constants;
 import com.classbuddy.app.util.Resource;
 import com.google.firebase.Timestamp;
@@ -21,11 +26,11 @@ import java.util.Map;
 public class NoticeRepository {
 
     private final FirebaseAuthSource authSource;
-    private final FirestoreSource firestoreSource;
+    private final ClassBuddyDataSource dataSource;
 
     public NoticeRepository() {
         authSource = new FirebaseAuthSource();
-        firestoreSource = new FirestoreSource();
+        dataSource = DataSourceProvider.get();
     }
 
     // Create notice WITHOUT image (Storage not available)
@@ -49,15 +54,14 @@ public class NoticeRepository {
         notice.setAdminName(adminName);
         notice.setImageUrl(null); // No image support
         notice.setPinned(false);
-        notice.setReadByStudentIds(new ArrayList<>());
         notice.setCreatedAt(Timestamp.now());
         notice.setUpdatedAt(Timestamp.now());
 
-        return firestoreSource.createNotice(notice);
+        return dataSource.createNotice(notice);
     }
 
     public LiveData<Resource<List<Notice>>> getNoticesByClassroom(String classroomId) {
-        return firestoreSource.getNoticesByClassroom(classroomId);
+        return dataSource.getNoticesByClassroom(classroomId);
     }
 
     public LiveData<Resource<List<Notice>>> getNoticesByClassrooms(List<String> classroomIds) {
@@ -66,7 +70,7 @@ public class NoticeRepository {
             result.setValue(Resource.success(new ArrayList<>()));
             return result;
         }
-        return firestoreSource.getNoticesByClassrooms(classroomIds);
+        return dataSource.getNoticesByClassrooms(classroomIds);
     }
 
     public LiveData<Resource<List<Notice>>> getRecentNotices(List<String> classroomIds, int limit) {
@@ -75,54 +79,123 @@ public class NoticeRepository {
             result.setValue(Resource.success(new ArrayList<>()));
             return result;
         }
-        return firestoreSource.getRecentNotices(classroomIds, limit);
+        return dataSource.getRecentNotices(classroomIds, limit);
+    }
+
+    public Pager<Notice> getNoticePager(List<String> classroomIds) {
+        return dataSource.getNoticePager(classroomIds);
+    }
+
+    public LiveData<Resource<Long>> countNotices(List<String> classroomIds) {
+        return dataSource.countNotices(classroomIds);
     }
 
     public LiveData<Resource<Void>> togglePinNotice(String noticeId, boolean isPinned) {
         Map<String, Object> updates = new HashMap<>();
         updates.put("isPinned", isPinned);
         updates.put("updatedAt", Timestamp.now());
-        return firestoreSource.updateNotice(noticeId, updates);
+        return dataSource.updateNotice(noticeId, updates);
     }
 
     public LiveData<Resource<Void>> deleteNotice(String noticeId) {
-        return firestoreSource.deleteNotice(noticeId);
+        return dataSource.deleteNotice(noticeId);
+    }
+
+    public String getCurrentUserId() {
+        return authSource.getCurrentUserId();
+    }
+
+    /**
+     * Read states of the current user, by classroom ID.
+     */
+    public LiveData<Resource<Map<String, NoticeReadState>>> getReadStates() {
+        MediatorLiveData<Resource<Map<String, NoticeReadState>>> result = new MediatorLiveData<>();
+        String currentUserId = authSource.getCurrentUserId();
+        if (currentUserId == null) {
+            result.setValue(Resource.error("User not logged in", null));
+            return result;
+        }
+
+        result.addSource(dataSource.getNoticeReadStates(currentUserId), resource -> {
+            if (resource.isSuccess() && resource.data != null) {
+                Map<String, NoticeReadState> states = new HashMap<>();
+                for (NoticeReadState state : resource.data) {
+                    states.put(state.getClassroomId(), state);
+                }
+                result.setValue(Resource.success(states));
+            } else if (resource.isError()) {
+                result.setValue(Resource.error(resource.message, null));
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Queues a read receipt for the current user. Callers skip notices already read.
+     */
+    public void markAsRead(Context context, Notice notice) {
+        String currentUserId = authSource.getCurrentUserId();
+        if (currentUserId == null || notice.isReadByStudent(currentUserId)) return;
+        ReadReceiptQueue.getInstance(context).enqueue(currentUserId, notice.getClassroomId(), notice.getId());
     }
 
-    public void markAsRead(String noticeId) {
+    public LiveData<Resource<Void>> markAllAsRead(List<String> classroomIds) {
+        MediatorLiveData<Resource<Void>> result = new MediatorLiveData<>();
         String currentUserId = authSource.getCurrentUserId();
-        if (currentUserId == null) return;
-        firestoreSource.markNoticeAsRead(noticeId, currentUserId);
+        if (currentUserId == null) {
+            result.setValue(Resource.error("User not logged in", null));
+            return result;
+        }
+        if (classroomIds == null || classroomIds.isEmpty()) {
+            result.setValue(Resource.success(null));
+            return result;
+        }
+
+        result.setValue(Resource.loading(null));
+        int[] pending = {classroomIds.size()};
+        String[] error = {null};
+        for (String classroomId : classroomIds) {
+            LiveData<Resource<Void>> source = dataSource.markAllNoticesAsRead(currentUserId, classroomId);
+            result.addSource(source, resource -> {
+                if (resource.isLoading()) return;
+                result.removeSource(source);
+                if (resource.isError()) {
+                    error[0] = resource.message;
+                }
+                if (--pending[0] == 0) {
+                    result.setValue(error[0] == null ? Resource.success(null) : Resource.error(error[0], null));
+                }
+            });
+        }
+        return result;
     }
 
-    public void notifyStudentsOfNewNotice(List<String> studentIds, Notice notice) {
+    public LiveData<Resource<String>> notifyStudentsOfNewNotice(Notice notice) {
         String title = "New Notice: " + notice.getTitle();
         String message = notice.getContent();
         if (message.length() > 100) {
             message = message.substring(0, 97) + "...";
         }
 
-        firestoreSource.sendNotificationToStudents(
-                studentIds,
+        return dataSource.sendNotificationToClassroom(
+                notice.getClassroomId(),
                 title,
                 message,
                 Constants.NOTIFICATION_TYPE_NOTICE,
-                notice.getId(),
-                notice.getClassroomId()
+                notice.getId()
         );
     }
 
-    public void notifyStudentsOfNoticeUpdate(List<String> studentIds, Notice notice) {
+    public LiveData<Resource<String>> notifyStudentsOfNoticeUpdate(Notice notice) {
         String title = "Notice Updated: " + notice.getTitle();
         String message = "A notice has been updated in " + notice.getClassroomName();
 
-        firestoreSource.sendNotificationToStudents(
-                studentIds,
+        return dataSource.sendNotificationToClassroom(
+                notice.getClassroomId(),
                 title,
                 message,
                 Constants.NOTIFICATION_TYPE_NOTICE_UPDATE,
-                notice.getId(),
-                notice.getClassroomId()
+                notice.getId()
         );
     }
 }
@@ -3,9 +3,13 @@ package com.classbuddy.app.data.repository;
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MediatorLiveData;
 
+import com.classbuddy.app.data.model.BatchProgress;
+import com.classbuddy.app.data.model.InboxState;
 import com.classbuddy.app.data.model.Notification;
 import com.classbuddy.app.data.remote.FirebaseAuthSource;
-import com.classbuddy.app.data.remote.FirestoreSource;
+import com.classbuddy.app.data.source.ClassBuddyDataSource;
+import com.classbuddy.app.data.source.DataSourceProvider;
+import com.classbuddy.app.data.source.Pager;
 import com.classbuddy.app.util.Resource;
 
 import java.util.List;
@@ -13,52 +17,76 @@ import java.util.List;
 public class NotificationRepository {
 
     private final FirebaseAuthSource authSource;
-    private final FirestoreSource firestoreSource;
+    private final ClassBuddyDataSource dataSource;
 
     public NotificationRepository() {
         this.authSource = new FirebaseAuthSource();
-        this.firestoreSource = new FirestoreSource();
+        this.dataSource = DataSourceProvider.get();
     }
 
     public String getCurrentUserId() {
         return authSource.getCurrentUserId();
     }
 
-    public LiveData<Resource<List<Notification>>> getNotifications() {
+    /**
+     * Pages through the current user's notifications and those of the given classrooms,
+     * newest first. Returns null when no user is logged in.
+     */
+    public Pager<Notification> getNotificationPager(List<String> classroomIds) {
         String userId = getCurrentUserId();
         if (userId == null) {
-            MediatorLiveData<Resource<List<Notification>>> result = new MediatorLiveData<>();
-            result.setValue(Resource.error("User not logged in", null));
-            return result;
+            return null;
         }
-        return firestoreSource.getNotificationsByUser(userId);
+        return dataSource.getNotificationPager(userId, classroomIds);
     }
 
-    public LiveData<Resource<Void>> markAsRead(String notificationId) {
-        return firestoreSource.markNotificationAsRead(notificationId);
+    public LiveData<Resource<InboxState>> getInboxState() {
+        String userId = getCurrentUserId();
+        if (userId == null) {
+            MediatorLiveData<Resource<InboxState>> result = new MediatorLiveData<>();
+            result.setValue(Resource.error("User not logged in", null));
+            return result;
+        }
+        return dataSource.getInboxState(userId);
     }
 
-    public LiveData<Resource<Void>> markAllAsRead() {
+    public LiveData<Resource<Void>> markAsRead(Notification notification) {
         String userId = getCurrentUserId();
         if (userId == null) {
             MediatorLiveData<Resource<Void>> result = new MediatorLiveData<>();
             result.setValue(Resource.error("User not logged in", null));
             return result;
         }
-        return firestoreSource.markAllNotificationsAsRead(userId);
+        return dataSource.markNotificationAsRead(userId, notification);
     }
 
-    public LiveData<Resource<Void>> deleteNotification(String notificationId) {
-        return firestoreSource.deleteNotification(notificationId);
+    public LiveData<Resource<BatchProgress>> markAllAsRead() {
+        String userId = getCurrentUserId();
+        if (userId == null) {
+            MediatorLiveData<Resource<BatchProgress>> result = new MediatorLiveData<>();
+            result.setValue(Resource.error("User not logged in", null));
+            return result;
+        }
+        return dataSource.markAllNotificationsAsRead(userId);
     }
 
-    public LiveData<Resource<Void>> clearAllNotifications() {
+    public LiveData<Resource<Void>> deleteNotification(Notification notification) {
         String userId = getCurrentUserId();
         if (userId == null) {
             MediatorLiveData<Resource<Void>> result = new MediatorLiveData<>();
             result.setValue(Resource.error("User not logged in", null));
             return result;
         }
-        return firestoreSource.deleteAllNotifications(userId);
+        return dataSource.deleteNotification(userId, notification);
+    }
+
+    public LiveData<Resource<BatchProgress>> clearAllNotifications() {
+        String userId = getCurrentUserId();
+        if (userId == null) {
+            MediatorLiveData<Resource<BatchProgress>> result = new MediatorLiveData<>();
+            result.setValue(Resource.error("User not logged in", null));
+            return result;
+        }
+        return dataSource.deleteAllNotifications(userId);
     }
 }
@@ -0,0 +1,133 @@
+package com.classbuddy.app.data.repository;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.os.Handler;
+import android.os.Looper;
+
+import androidx.annotation.MainThread;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
+
+import com.classbuddy.app.data.source.ClassBuddyDataSource;
+import com.classbuddy.app.data.source.DataSourceProvider;
+import com.classbuddy.app.util.Constants;
+import com.classbuddy.app.util.Resource;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Write-behind queue for notice read receipts. Receipts are collected for
+ * {@link Constants#READ_RECEIPT_FLUSH_DELAY_MS} and then committed together, one commit per
+ * classroom, so opening several notices wakes the admins' notice listeners once instead of
+ * once per notice.
+ *
+ * Pending receipts are kept in SharedPreferences until their batch commits, so receipts
+ * queued before the process dies are sent on the next start. A failed flush is retried
+ * after {@link Constants#READ_RECEIPT_RETRY_DELAY_MS}.
+ *
+ * All methods must be called on the main thread.
+ */
+public class ReadReceiptQueue {
+
+    private static ReadReceiptQueue instance;
+
+    private final SharedPreferences prefs;
+    private final ClassBuddyDataSource dataSource = DataSourceProvider.get();
+    private final Handler handler = new Handler(Looper.getMainLooper());
+    private final Runnable flush = this::flush;
+
+    // Receipts as "studentId/classroomId/noticeId"; document IDs never contain a slash
+    private final Set<String> pending;
+    private final Set<String> committed = new HashSet<>();
+    private final Set<String> inFlight = new HashSet<>();
+    private boolean scheduled;
+
+    private ReadReceiptQueue(Context context) {
+        prefs = context.getSharedPreferences(Constants.PREF_NAME, Context.MODE_PRIVATE);
+        pending = new HashSet<>();
+        for (String receipt : prefs.getStringSet(Constants.PREF_PENDING_READ_RECEIPTS, new HashSet<>())) {
+            // Receipts saved without a classroom cannot be sent any more
+            if (receipt.split("/").length == 3) {
+                pending.add(receipt);
+            }
+        }
+        if (!pending.isEmpty()) {
+            schedule(Constants.READ_RECEIPT_FLUSH_DELAY_MS);
+        }
+    }
+
+    @MainThread
+    public static ReadReceiptQueue getInstance(Context context) {
+        if (instance == null) {
+            instance = new ReadReceiptQueue(context.getApplicationContext());
+        }
+        return instance;
+    }
+
+    /**
+     * Queues a receipt unless the same one was already queued or sent by this process.
+     */
+    @MainThread
+    public void enqueue(String studentId, String classroomId, String noticeId) {
+        String receipt = studentId + "/" + classroomId + "/" + noticeId;
+        if (committed.contains(receipt) || !pending.add(receipt)) return;
+
+        save();
+        schedule(Constants.READ_RECEIPT_FLUSH_DELAY_MS);
+    }
+
+    private void schedule(long delayMs) {
+        if (scheduled) return;
+        scheduled = true;
+        handler.postDelayed(flush, delayMs);
+    }
+
+    private void flush() {
+        scheduled = false;
+
+        // One commit per student and classroom
+        Map<String, Set<String>> groups = new HashMap<>();
+        for (String receipt : pending) {
+            if (inFlight.contains(receipt)) continue;
+            String group = receipt.substring(0, receipt.lastIndexOf('/'));
+            groups.computeIfAbsent(group, k -> new HashSet<>()).add(receipt);
+        }
+
+        for (Set<String> receipts : groups.values()) {
+            String[] first = receipts.iterator().next().split("/");
+            List<String> noticeIds = new ArrayList<>();
+            for (String receipt : receipts) {
+                noticeIds.add(receipt.substring(receipt.lastIndexOf('/') + 1));
+            }
+            inFlight.addAll(receipts);
+
+            LiveData<Resource<Void>> commit = dataSource.markNoticesAsRead(first[0], first[1], noticeIds);
+            commit.observeForever(new Observer<Resource<Void>>() {
+                @Override
+                public void onChanged(Resource<Void> resource) {
+                    if (resource.isLoading()) return;
+                    commit.removeObserver(this);
+                    inFlight.removeAll(receipts);
+
+                    if (resource.isSuccess()) {
+                        pending.removeAll(receipts);
+                        committed.addAll(receipts);
+                        save();
+                    } else {
+                        schedule(Constants.READ_RECEIPT_RETRY_DELAY_MS);
+                    }
+                }
+            });
+        }
+    }
+
+    private void save() {
+        prefs.edit().putStringSet(Constants.PREF_PENDING_READ_RECEIPTS, new HashSet<>(pending)).apply();
+    }
+}
@@ -5,7 +5,9 @@ import androidx.lifecycle.MediatorLiveData;
 
 import com.classbuddy.app.data.model.Routine;
 import com.classbuddy.app.data.remote.FirebaseAuthSource;
-import com.classbuddy.app.data.remote.FirestoreSource;
+import com.classbuddy.app.data.source.ClassBuddyDataSource;
+import com.classbuddy.app.data.source.DataSourceProvider;
+import com.classbuddy.app.data.source.ReadPolicy;
 import com.classbuddy.app.util.Constants;
 import com.classbuddy.app.util.DateTimeUtils;
 import com.classbuddy.app.util.Resource;
@@ -17,11 +19,11 @@ import java.util.Map;
 public class RoutineRepository {
 
     private final FirebaseAuthSource authSource;
-    private final FirestoreSource firestoreSource;
+    private final ClassBuddyDataSource dataSource;
 
     public RoutineRepository() {
         this.authSource = new FirebaseAuthSource();
-        this.firestoreSource = new FirestoreSource();
+        this.dataSource = DataSourceProvider.get();
     }
 
     public String getCurrentUserId() {
@@ -68,20 +70,24 @@ public class RoutineRepository {
         routine.setRecurring(isRecurring);
         routine.setSpecificDate(specificDate);
 
-        return firestoreSource.createRoutine(routine);
+        return dataSource.createRoutine(routine);
     }
 
     public LiveData<Resource<List<Routine>>> getRoutinesByClassroom(String classroomId) {
-        return firestoreSource.getRoutinesByClassroom(classroomId);
+        return dataSource.getRoutinesByClassroom(classroomId, ReadPolicy.CACHE_THEN_SERVER);
     }
 
     public LiveData<Resource<List<Routine>>> getRoutinesByClassrooms(List<String> classroomIds) {
-        return firestoreSource.getRoutinesByClassrooms(classroomIds);
+        return dataSource.getRoutinesByClassrooms(classroomIds, ReadPolicy.CACHE_THEN_SERVER);
     }
 
     public LiveData<Resource<List<Routine>>> getTodaysRoutine(List<String> classroomIds) {
         int todayIndex = DateTimeUtils.getCurrentDayIndex();
-        return firestoreSource.getTodaysRoutine(classroomIds, todayIndex);
+        return dataSource.getTodaysRoutine(classroomIds, todayIndex, ReadPolicy.CACHE_THEN_SERVER);
+    }
+
+    public LiveData<Resource<Long>> countRoutines(List<String> classroomIds) {
+        return dataSource.countRoutines(classroomIds);
     }
 
     public LiveData<Resource<Void>> updateRoutine(
@@ -109,11 +115,11 @@ public class RoutineRepository {
         updates.put("recurring", isRecurring);
         updates.put("specificDate", specificDate);
 
-        return firestoreSource.updateRoutine(routineId, updates);
+        return dataSource.updateRoutine(routineId, updates);
     }
 
     public LiveData<Resource<Void>> deleteRoutine(String routineId) {
-        return firestoreSource.deleteRoutine(routineId);
+        return dataSource.deleteRoutine(routineId);
     }
 
     public LiveData<Resource<Void>> cancelClass(String routineId, String reason, String cancelledDate) {
@@ -121,7 +127,7 @@ public class RoutineRepository {
         updates.put("isCancelled", true);
         updates.put("cancellationReason", reason);
         updates.put("cancelledDate", cancelledDate);
-        return firestoreSource.updateRoutine(routineId, updates);
+        return dataSource.updateRoutine(routineId, updates);
     }
 
     public LiveData<Resource<Void>> restoreClass(String routineId) {
@@ -129,33 +135,31 @@ public class RoutineRepository {
         updates.put("isCancelled", false);
         updates.put("cancellationReason", null);
         updates.put("cancelledDate", null);
-        return firestoreSource.updateRoutine(routineId, updates);
+        return dataSource.updateRoutine(routineId, updates);
     }
 
-    public void notifyStudentsOfClassCancellation(List<String> studentIds, Routine routine, String reason, String date) {
+    public LiveData<Resource<String>> notifyStudentsOfClassCancellation(Routine routine, String reason, String date) {
         String title = "Class Cancelled";
         String message = routine.getSubject() + " class on " + date + " has been cancelled.";
         if (reason != null && !reason.isEmpty()) {
             message += "\nReason: " + reason;
         }
 
-        firestoreSource.sendNotificationToStudents(
-                studentIds,
+        return dataSource.sendNotificationToClassroom(
+                routine.getClassroomId(),
                 title,
                 message,
                 Constants.NOTIFICATION_TYPE_CLASS_CANCELLED,
-                routine.getId(),
-                routine.getClassroomId()
+                routine.getId()
         );
     }
 
-    public void notifyStudentsOfRoutineUpdate(List<String> studentIds, String classroomName) {
-        firestoreSource.sendNotificationToStudents(
-                studentIds,
+    public LiveData<Resource<String>> notifyStudentsOfRoutineUpdate(String classroomId, String classroomName) {
+        return dataSource.sendNotificationToClassroom(
+                classroomId,
                 "Routine Updated",
                 "Class routine has been updated for " + classroomName,
                 Constants.NOTIFICATION_TYPE_ROUTINE,
-                null,
                 null
         );
     }
@@ -7,7 +7,8 @@ import androidx.lifecycle.MutableLiveData;
 
 import com.classbuddy.app.data.model.User;
 import com.classbuddy.app.data.remote.FirebaseAuthSource;
-import com.classbuddy.app.data.remote.FirestoreSource;
+import com.classbuddy.app.data.source.ClassBuddyDataSource;
+import com.classbuddy.app.data.source.DataSourceProvider;
 import com.classbuddy.app.util.Resource;
 import com.google.firebase.auth.FirebaseUser;
 
@@ -17,11 +18,11 @@ import java.util.Map;
 public class UserRepository {
 
     private final FirebaseAuthSource authSource;
-    private final FirestoreSource firestoreSource;
+    private final ClassBuddyDataSource dataSource;
 
     public UserRepository() {
         authSource = new FirebaseAuthSource();
-        firestoreSource = new FirestoreSource();
+        dataSource = DataSourceProvider.get();
     }
 
     /**
@@ -36,7 +37,7 @@ public class UserRepository {
             return result;
         }
         // Use real-time listener for instant updates when user data changes
-        return firestoreSource.getUserRealtime(firebaseUser.getUid());
+        return dataSource.getUserRealtime(firebaseUser.getUid());
     }
 
     /**
@@ -50,18 +51,18 @@ public class UserRepository {
             result.setValue(Resource.error("User not logged in", null));
             return result;
         }
-        return firestoreSource.getUser(firebaseUser.getUid());
+        return dataSource.getUser(firebaseUser.getUid());
     }
 
     public LiveData<Resource<User>> getUser(String userId) {
-        return firestoreSource.getUser(userId);
+        return dataSource.getUser(userId);
     }
 
     /**
      * Get user with real-time updates
      */
     public LiveData<Resource<User>> getUserRealtime(String userId) {
-        return firestoreSource.getUserRealtime(userId);
+        return dataSource.getUserRealtime(userId);
     }
 
     // REMOVED: uploadProfileImage method - Storage not available
@@ -84,7 +85,7 @@ public class UserRepository {
 
         Map<String, Object> updates = new HashMap<>();
         updates.put("fullName", fullName);
-        return firestoreSource.updateUser(firebaseUser.getUid(), updates);
+        return dataSource.updateUser(firebaseUser.getUid(), updates);
     }
 
     public void updateNotificationSettings(boolean enabled) {
@@ -94,7 +95,7 @@ public class UserRepository {
         Map<String, Object> updates = new HashMap<>();
         updates.put("notificationsEnabled", enabled);
 
-        firestoreSource.updateUser(firebaseUser.getUid(), updates);
+        dataSource.updateUser(firebaseUser.getUid(), updates);
     }
 
     public void updateFcmToken(String token) {
@@ -104,6 +105,6 @@ public class UserRepository {
         Map<String, Object> updates = new HashMap<>();
         updates.put("fcmToken", token);
 
-        firestoreSource.updateUser(firebaseUser.getUid(), updates);
+        dataSource.updateUser(firebaseUser.getUid(), updates);
     }
 }
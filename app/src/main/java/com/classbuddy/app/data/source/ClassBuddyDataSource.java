@@ -0,0 +1,216 @@
+package com.classbuddy.app.data.source;
+
+import androidx.lifecycle.LiveData;
+
+import com.classbuddy.app.data.model.BatchProgress;
+import com.classbuddy.app.data.model.BatchWriteResult;
+import com.classbuddy.app.data.model.Classroom;
+import com.classbuddy.app.data.model.Exam;
+import com.classbuddy.app.data.model.InboxState;
+import com.classbuddy.app.data.model.Notice;
+import com.classbuddy.app.data.model.NoticeReadState;
+import com.classbuddy.app.data.model.Notification;
+import com.classbuddy.app.data.model.Routine;
+import com.classbuddy.app.data.model.User;
+import com.classbuddy.app.util.Resource;
+import com.google.firebase.Timestamp;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Storage behind the repositories. List queries are realtime: the returned LiveData keeps
+ * emitting while it is observed. Everything else completes once with SUCCESS or ERROR.
+ * Queries taking a {@link ReadPolicy} may emit stale successes from a local cache first.
+ *
+ * Implementations: {@link com.classbuddy.app.data.remote.FirestoreSource} and
+ * {@link com.classbuddy.app.data.source.memory.InMemoryDataSource}.
+ */
+public interface ClassBuddyDataSource {
+
+    // ==================== USER OPERATIONS ====================
+
+    LiveData<Resource<Void>> createUser(User user);
+
+    LiveData<Resource<User>> getUser(String userId);
+
+    LiveData<Resource<User>> getUserRealtime(String userId);
+
+    LiveData<Resource<Void>> updateUser(String userId, Map<String, Object> updates);
+
+    LiveData<Resource<Void>> updateFcmToken(String userId, String token);
+
+    // ==================== CLASSROOM OPERATIONS ====================
+
+    /**
+     * Stores the classroom under a new ID and returns the ID. If the classroom's code is
+     * already held by another classroom, a fresh code is assigned to it.
+     */
+    LiveData<Resource<String>> createClassroom(Classroom classroom);
+
+    LiveData<Resource<Classroom>> getClassroom(String classroomId);
+
+    LiveData<Resource<Classroom>> getClassroomByCode(String code);
+
+    LiveData<Resource<List<Classroom>>> getClassroomsByAdmin(String adminId);
+
+    LiveData<Resource<List<Classroom>>> getClassroomsByStudent(List<String> classroomIds);
+
+    LiveData<Resource<Void>> updateClassroom(String classroomId, Map<String, Object> updates);
+
+    /**
+     * Gives the classroom a new join code that no other classroom holds and returns it.
+     */
+    LiveData<Resource<String>> regenerateClassroomCode(String classroomId);
+
+    /**
+     * Hides the classroom from lists and joins and starts removing it with everything that
+     * belongs to it.
+     */
+    LiveData<Resource<Void>> markClassroomForDeletion(String classroomId);
+
+    /**
+     * Whether classrooms marked for deletion still need
+     * {@link com.classbuddy.app.worker.ClassroomDeletionWorker} to remove their dependents.
+     */
+    boolean deletesInBackground();
+
+    LiveData<Resource<Void>> addStudentToClassroom(String classroomId, String studentId);
+
+    LiveData<Resource<Void>> removeStudentFromClassroom(String classroomId, String studentId);
+
+    LiveData<Resource<List<User>>> getStudentsInClassroom(List<String> studentIds);
+
+    // ==================== ROUTINE OPERATIONS ====================
+
+    LiveData<Resource<String>> createRoutine(Routine routine);
+
+    LiveData<Resource<List<Routine>>> getRoutinesByClassroom(String classroomId, ReadPolicy policy);
+
+    LiveData<Resource<List<Routine>>> getRoutinesByClassrooms(List<String> classroomIds, ReadPolicy policy);
+
+    LiveData<Resource<List<Routine>>> getTodaysRoutine(List<String> classroomIds, int dayIndex, ReadPolicy policy);
+
+    LiveData<Resource<Void>> updateRoutine(String routineId, Map<String, Object> updates);
+
+    LiveData<Resource<Void>> deleteRoutine(String routineId);
+
+    // ==================== EXAM OPERATIONS ====================
+
+    LiveData<Resource<String>> createExam(Exam exam);
+
+    LiveData<Resource<List<Exam>>> getExamsByClassroom(String classroomId, ReadPolicy policy);
+
+    LiveData<Resource<List<Exam>>> getExamsByClassrooms(List<String> classroomIds, ReadPolicy policy);
+
+    /**
+     * Exams dated from (inclusive) to until (exclusive), soonest first.
+     */
+    LiveData<Resource<List<Exam>>> getExamsBetween(List<String> classroomIds, Timestamp from, Timestamp until,
+                                                   ReadPolicy policy);
+
+    /**
+     * Exams from now on, soonest first. A limit of 0 or less returns every upcoming exam.
+     */
+    LiveData<Resource<List<Exam>>> getUpcomingExams(List<String> classroomIds, int limit, ReadPolicy policy);
+
+    /**
+     * Exams before now, newest first.
+     */
+    Pager<Exam> getPastExamPager(List<String> classroomIds);
+
+    LiveData<Resource<Void>> updateExam(String examId, Map<String, Object> updates);
+
+    LiveData<Resource<Void>> deleteExam(String examId);
+
+    // ==================== NOTICE OPERATIONS ====================
+
+    LiveData<Resource<String>> createNotice(Notice notice);
+
+    LiveData<Resource<List<Notice>>> getNoticesByClassroom(String classroomId);
+
+    LiveData<Resource<List<Notice>>> getNoticesByClassrooms(List<String> classroomIds);
+
+    LiveData<Resource<List<Notice>>> getRecentNotices(List<String> classroomIds, int limit);
+
+    /**
+     * Notices of the given classrooms, newest first.
+     */
+    Pager<Notice> getNoticePager(List<String> classroomIds);
+
+    LiveData<Resource<Void>> updateNotice(String noticeId, Map<String, Object> updates);
+
+    /**
+     * The student's notice read states, one per classroom they have read notices in.
+     */
+    LiveData<Resource<List<NoticeReadState>>> getNoticeReadStates(String studentId);
+
+    /**
+     * Adds the notices, all of one classroom, to the student's read state and counts the
+     * student as a reader of each. Deleted and already-read notices are skipped.
+     */
+    LiveData<Resource<Void>> markNoticesAsRead(String studentId, String classroomId, Collection<String> noticeIds);
+
+    /**
+     * Moves the student's read watermark for the classroom past its newest notice.
+     */
+    LiveData<Resource<Void>> markAllNoticesAsRead(String studentId, String classroomId);
+
+    LiveData<Resource<Void>> deleteNotice(String noticeId);
+
+    // ==================== NOTIFICATION OPERATIONS ====================
+
+    LiveData<Resource<String>> createNotification(Notification notification);
+
+    /**
+     * The user's personal notifications together with those of their classrooms, newest
+     * first. Classroom notifications carry no userId and no read flag of their own; apply
+     * the user's {@link InboxState} to them.
+     */
+    Pager<Notification> getNotificationPager(String userId, List<String> classroomIds);
+
+    LiveData<Resource<InboxState>> getInboxState(String userId);
+
+    LiveData<Resource<Void>> markNotificationAsRead(String userId, Notification notification);
+
+    LiveData<Resource<BatchProgress>> markAllNotificationsAsRead(String userId);
+
+    /**
+     * Deletes a personal notification; a classroom notification is only dismissed for the user.
+     */
+    LiveData<Resource<Void>> deleteNotification(String userId, Notification notification);
+
+    LiveData<Resource<BatchProgress>> deleteAllNotifications(String userId);
+
+    // ==================== COUNTS ====================
+
+    /**
+     * Counts may be served from a short-lived cache; writes made through this data source
+     * invalidate it.
+     */
+    LiveData<Resource<Long>> countRoutines(List<String> classroomIds);
+
+    LiveData<Resource<Long>> countUpcomingExams(List<String> classroomIds);
+
+    LiveData<Resource<Long>> countNotices(List<String> classroomIds);
+
+    // ==================== CLASSROOM NOTIFICATIONS ====================
+
+    /**
+     * Writes one notification shared by every member of the classroom and returns its ID.
+     */
+    LiveData<Resource<String>> sendNotificationToClassroom(String classroomId, String title, String message,
+                                                          String type, String referenceId);
+
+    // ==================== BATCH NOTIFICATION CREATION ====================
+
+    /**
+     * Creates one personal notification per student, for messages meant for those students
+     * only; events of a whole classroom use {@link #sendNotificationToClassroom}. The result
+     * is an error (still carrying the counts) if some of them could not be written.
+     */
+    LiveData<Resource<BatchWriteResult>> sendNotificationToStudents(List<String> studentIds, String title,
+                                                                   String message, String type,
+                                                                   String referenceId, String classroomId);
+}
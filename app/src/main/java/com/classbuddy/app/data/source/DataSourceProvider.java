@@ -0,0 +1,27 @@
+package com.classbuddy.app.data.source;
+
+import com.classbuddy.app.data.remote.FirestoreSource;
+
+/**
+ * Supplies the {@link ClassBuddyDataSource} used by the repositories. Defaults to
+ * {@link FirestoreSource}; tests, benchmarks and demo mode install another implementation
+ * before any repository is created.
+ */
+public final class DataSourceProvider {
+
+    private static ClassBuddyDataSource instance;
+
+    private DataSourceProvider() {
+    }
+
+    public static synchronized ClassBuddyDataSource get() {
+        if (instance == null) {
+            instance = new FirestoreSource();
+        }
+        return instance;
+    }
+
+    public static synchronized void set(ClassBuddyDataSource dataSource) {
+        instance = dataSource;
+    }
+}
@@ -0,0 +1,60 @@
+package com.classbuddy.app.data.source;
+
+import com.classbuddy.app.data.model.Classroom;
+import com.classbuddy.app.data.model.Exam;
+import com.classbuddy.app.data.model.Notice;
+import com.classbuddy.app.data.model.Notification;
+import com.classbuddy.app.data.model.Routine;
+import com.google.firebase.Timestamp;
+
+import java.util.Comparator;
+
+/**
+ * Client-side orderings of the list queries, shared by every {@link ClassBuddyDataSource}
+ * so that single-query, fanned-out and in-memory results come out in the same order.
+ */
+public final class Orderings {
+
+    // Every ordering is total: ties and missing fields fall back to the document ID, so
+    // binary searches over sorted lists (see SnapshotMapper) find every item.
+    private static final Comparator<String> ID_ORDER = Comparator.nullsFirst(Comparator.naturalOrder());
+
+    // A missing createdAt is a pending server timestamp, i.e. the newest item
+    private static final Comparator<Timestamp> NEWEST_FIRST = Comparator.nullsFirst(Comparator.reverseOrder());
+
+    private static final Comparator<String> TIME_ORDER = Comparator.nullsLast(Comparator.naturalOrder());
+
+    public static final Comparator<Classroom> NEWEST_CLASSROOM_FIRST =
+            Comparator.comparing(Classroom::getCreatedAt, NEWEST_FIRST)
+                    .thenComparing(Classroom::getId, ID_ORDER);
+
+    public static final Comparator<Routine> ROUTINE_TIME_ORDER =
+            Comparator.comparing(Routine::getStartTime, TIME_ORDER)
+                    .thenComparing(Routine::getId, ID_ORDER);
+
+    public static final Comparator<Routine> ROUTINE_WEEK_ORDER =
+            Comparator.comparingInt(Routine::getDayIndex)
+                    .thenComparing(ROUTINE_TIME_ORDER);
+
+    // Exams without a date sort after every dated exam
+    public static final Comparator<Exam> EXAM_DATE_ORDER =
+            Comparator.comparing(Exam::getExamDate, Comparator.nullsLast(Comparator.<Timestamp>naturalOrder()))
+                    .thenComparing(Exam::getId, ID_ORDER);
+
+    public static final Comparator<Notice> NEWEST_NOTICE_FIRST =
+            Comparator.comparing(Notice::getCreatedAt, NEWEST_FIRST)
+                    .thenComparing(Notice::getId, ID_ORDER);
+
+    public static final Comparator<Notification> NEWEST_NOTIFICATION_FIRST =
+            Comparator.comparing(Notification::getCreatedAt, NEWEST_FIRST)
+                    .thenComparing(Notification::getId, ID_ORDER);
+
+    public static final Comparator<Notice> NOTICE_BOARD_ORDER = (n1, n2) -> {
+        if (n1.isPinned() && !n2.isPinned()) return -1;
+        if (!n1.isPinned() && n2.isPinned()) return 1;
+        return NEWEST_NOTICE_FIRST.compare(n1, n2);
+    };
+
+    private Orderings() {
+    }
+}
@@ -0,0 +1,29 @@
+package com.classbuddy.app.data.source;
+
+import androidx.annotation.MainThread;
+import androidx.lifecycle.LiveData;
+
+import com.classbuddy.app.util.Resource;
+
+import java.util.List;
+
+/**
+ * A list that is loaded a page at a time as the user scrolls towards its end.
+ */
+public interface Pager<T> {
+
+    LiveData<Resource<List<T>>> getItems();
+
+    boolean hasMore();
+
+    boolean isLoading();
+
+    /**
+     * Requests the next page once the last visible position is close to the end of the list.
+     */
+    @MainThread
+    void onScrolled(int lastVisiblePosition, int itemCount);
+
+    @MainThread
+    LiveData<Resource<Void>> loadMore();
+}
@@ -0,0 +1,16 @@
+package com.classbuddy.app.data.source;
+
+import com.classbuddy.app.util.Resource;
+
+/**
+ * Where a realtime query may take its results from. Results read from the local cache are
+ * published as {@link Resource#stale stale} successes.
+ */
+public enum ReadPolicy {
+    /** Only the local cache; never waits for the network. Every result is stale. */
+    CACHE_ONLY,
+    /** Cached results right away, replaced by the server's once they arrive. */
+    CACHE_THEN_SERVER,
+    /** Stays loading until the server has answered. */
+    SERVER_ONLY
+}
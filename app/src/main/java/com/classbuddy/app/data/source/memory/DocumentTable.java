@@ -0,0 +1,158 @@
+package com.classbuddy.app.data.source.memory;
+
+import androidx.annotation.Nullable;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Function;
+
+/**
+ * One in-memory collection: documents by ID plus sorted secondary indexes on selected
+ * fields, so equality, whereIn and range lookups touch only the matching documents.
+ *
+ * Stored documents are never mutated; an update replaces the document with a new instance.
+ * Listeners are called synchronously after every write with the old and new version.
+ */
+class DocumentTable<T> {
+
+    interface Listener<T> {
+        void onChanged(@Nullable T before, @Nullable T after);
+    }
+
+    private final Map<String, T> documents = new LinkedHashMap<>();
+    private final Map<String, Function<T, ? extends Comparable<?>>> keyFunctions = new HashMap<>();
+    private final Map<String, TreeMap<Comparable<?>, Set<String>>> indexes = new HashMap<>();
+    private final List<Listener<T>> listeners = new CopyOnWriteArrayList<>();
+
+    /**
+     * Maintains an index on field. Documents whose key is null are left out of it.
+     */
+    DocumentTable<T> index(String field, Function<T, ? extends Comparable<?>> key) {
+        keyFunctions.put(field, key);
+        TreeMap<Comparable<?>, Set<String>> index = new TreeMap<>();
+        indexes.put(field, index);
+        for (Map.Entry<String, T> entry : documents.entrySet()) {
+            add(index, key.apply(entry.getValue()), entry.getKey());
+        }
+        return this;
+    }
+
+    @Nullable
+    T get(String id) {
+        return documents.get(id);
+    }
+
+    int size() {
+        return documents.size();
+    }
+
+    List<T> all() {
+        return new ArrayList<>(documents.values());
+    }
+
+    List<T> whereEqualTo(String field, Comparable<?> value) {
+        return resolve(index(field).get(value));
+    }
+
+    List<T> whereIn(String field, Collection<? extends Comparable<?>> values) {
+        TreeMap<Comparable<?>, Set<String>> index = index(field);
+        List<T> result = new ArrayList<>();
+        for (Comparable<?> value : new LinkedHashSet<>(values)) {
+            result.addAll(resolve(index.get(value)));
+        }
+        return result;
+    }
+
+    int count(String field, Comparable<?> value) {
+        Set<String> ids = index(field).get(value);
+        return ids == null ? 0 : ids.size();
+    }
+
+    /**
+     * Entries of the index on field in key order, for range scans. Values are document IDs.
+     */
+    NavigableMap<Comparable<?>, Set<String>> range(String field) {
+        return Collections.unmodifiableNavigableMap(index(field));
+    }
+
+    void put(String id, T document) {
+        T before = documents.put(id, document);
+        for (Map.Entry<String, TreeMap<Comparable<?>, Set<String>>> entry : indexes.entrySet()) {
+            Function<T, ? extends Comparable<?>> key = keyFunctions.get(entry.getKey());
+            if (before != null) {
+                remove(entry.getValue(), key.apply(before), id);
+            }
+            add(entry.getValue(), key.apply(document), id);
+        }
+        notifyChanged(before, document);
+    }
+
+    @Nullable
+    T remove(String id) {
+        T before = documents.remove(id);
+        if (before == null) return null;
+
+        for (Map.Entry<String, TreeMap<Comparable<?>, Set<String>>> entry : indexes.entrySet()) {
+            remove(entry.getValue(), keyFunctions.get(entry.getKey()).apply(before), id);
+        }
+        notifyChanged(before, null);
+        return before;
+    }
+
+    void addListener(Listener<T> listener) {
+        listeners.add(listener);
+    }
+
+    void removeListener(Listener<T> listener) {
+        listeners.remove(listener);
+    }
+
+    List<T> resolve(@Nullable Collection<String> ids) {
+        if (ids == null || ids.isEmpty()) return new ArrayList<>();
+        List<T> result = new ArrayList<>(ids.size());
+        for (String id : ids) {
+            T document = documents.get(id);
+            if (document != null) {
+                result.add(document);
+            }
+        }
+        return result;
+    }
+
+    private TreeMap<Comparable<?>, Set<String>> index(String field) {
+        TreeMap<Comparable<?>, Set<String>> index = indexes.get(field);
+        if (index == null) {
+            throw new IllegalArgumentException("No index on " + field);
+        }
+        return index;
+    }
+
+    private void notifyChanged(@Nullable T before, @Nullable T after) {
+        for (Listener<T> listener : listeners) {
+            listener.onChanged(before, after);
+        }
+    }
+
+    private static void add(TreeMap<Comparable<?>, Set<String>> index, @Nullable Comparable<?> key, String id) {
+        if (key == null) return;
+        index.computeIfAbsent(key, k -> new LinkedHashSet<>()).add(id);
+    }
+
+    private static void remove(TreeMap<Comparable<?>, Set<String>> index, @Nullable Comparable<?> key, String id) {
+        if (key == null) return;
+        Set<String> ids = index.get(key);
+        if (ids != null && ids.remove(id) && ids.isEmpty()) {
+            index.remove(key);
+        }
+    }
+}
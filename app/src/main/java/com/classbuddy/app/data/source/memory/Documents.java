@@ -0,0 +1,93 @@
+package com.classbuddy.app.data.source.memory;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reflection helpers that give model objects document semantics: independent copies and
+ * field updates addressed by the same names the Firestore update maps use.
+ */
+final class Documents {
+
+    private Documents() {
+    }
+
+    /**
+     * Field-by-field copy; lists are copied too so the copy can be changed independently.
+     */
+    @SuppressWarnings("unchecked")
+    static <T> T copy(T document) {
+        try {
+            Class<T> type = (Class<T>) document.getClass();
+            T copy = type.getDeclaredConstructor().newInstance();
+            for (Class<?> c = type; c != null && c != Object.class; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers())) continue;
+                    field.setAccessible(true);
+                    Object value = field.get(document);
+                    field.set(copy, value instanceof List ? new ArrayList<>((List<?>) value) : value);
+                }
+            }
+            return copy;
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot copy " + document.getClass().getSimpleName(), e);
+        }
+    }
+
+    /**
+     * Returns a copy of document with updates applied through its setters. A key such as
+     * "isPinned" maps to setPinned, like the boolean fields of the models.
+     *
+     * @throws IllegalArgumentException if a key has no matching setter
+     */
+    static <T> T update(T document, Map<String, Object> updates) {
+        T copy = copy(document);
+        for (Map.Entry<String, Object> update : updates.entrySet()) {
+            Method setter = findSetter(copy.getClass(), update.getKey());
+            if (setter == null) {
+                throw new IllegalArgumentException("Unknown field " + update.getKey());
+            }
+            try {
+                setter.invoke(copy, coerce(update.getValue(), setter.getParameterTypes()[0]));
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalArgumentException("Cannot set " + update.getKey(), e);
+            }
+        }
+        return copy;
+    }
+
+    private static Method findSetter(Class<?> type, String field) {
+        String name = field;
+        if (name.length() > 2 && name.startsWith("is") && Character.isUpperCase(name.charAt(2))) {
+            name = name.substring(2);
+        }
+        String setter = "set" + Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        for (Method method : type.getMethods()) {
+            if (method.getName().equals(setter) && method.getParameterTypes().length == 1) {
+                return method;
+            }
+        }
+        return null;
+    }
+
+    private static Object coerce(Object value, Class<?> type) {
+        if (value == null) {
+            if (type == boolean.class) return false;
+            if (type == long.class) return 0L;
+            if (type == double.class) return 0d;
+            if (type.isPrimitive()) return 0;
+            return null;
+        }
+        if (value instanceof Number) {
+            Number number = (Number) value;
+            if (type == int.class || type == Integer.class) return number.intValue();
+            if (type == long.class || type == Long.class) return number.longValue();
+            if (type == double.class || type == Double.class) return number.doubleValue();
+        }
+        return value;
+    }
+}
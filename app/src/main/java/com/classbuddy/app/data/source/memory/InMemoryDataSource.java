@@ -0,0 +1,860 @@
+package com.classbuddy.app.data.source.memory;
+
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.classbuddy.app.data.model.BatchProgress;
+import com.classbuddy.app.data.model.BatchWriteResult;
+import com.classbuddy.app.data.model.Classroom;
+import com.classbuddy.app.data.model.Exam;
+import com.classbuddy.app.data.model.InboxState;
+import com.classbuddy.app.data.model.Notice;
+import com.classbuddy.app.data.model.NoticeReadState;
+import com.classbuddy.app.data.model.Notification;
+import com.classbuddy.app.data.model.Routine;
+import com.classbuddy.app.data.model.User;
+import com.classbuddy.app.data.source.ClassBuddyDataSource;
+import com.classbuddy.app.data.source.Orderings;
+import com.classbuddy.app.data.source.Pager;
+import com.classbuddy.app.data.source.ReadPolicy;
+import com.classbuddy.app.util.CodeGenerator;
+import com.classbuddy.app.util.Constants;
+import com.classbuddy.app.util.Resource;
+import com.google.firebase.Timestamp;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.LongSupplier;
+import java.util.function.Predicate;
+
+/**
+ * {@link ClassBuddyDataSource} backed by indexed in-memory collections, for JVM tests,
+ * load tests and demo/offline mode. Results match {@link com.classbuddy.app.data.remote.FirestoreSource}
+ * (same filters, orderings and limits) and list queries are realtime: they re-emit after
+ * every write that affects them. There is no cache in front of the store, so every
+ * {@link ReadPolicy} reads the same data and nothing is ever stale.
+ *
+ * Writes complete synchronously. Document IDs and classroom codes come from a seeded
+ * generator and "now" from an injectable clock, so runs are reproducible. Emitted
+ * documents are shared with the store and must not be modified; every write stores a new
+ * instance.
+ *
+ * All methods must be called on the main thread (or with LiveData's executor replaced by
+ * a synchronous one in tests).
+ */
+public class InMemoryDataSource implements ClassBuddyDataSource {
+
+    private static final String ID_ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789";
+
+    private final DocumentTable<User> users = new DocumentTable<>();
+    private final DocumentTable<Classroom> classrooms = new DocumentTable<Classroom>()
+            .index("adminId", Classroom::getAdminId)
+            .index("code", Classroom::getCode);
+    private final DocumentTable<Routine> routines = new DocumentTable<Routine>()
+            .index("classroomId", Routine::getClassroomId)
+            .index("dayIndex", Routine::getDayIndex);
+    private final DocumentTable<Exam> exams = new DocumentTable<Exam>()
+            .index("classroomId", Exam::getClassroomId)
+            .index("examDate", Exam::getExamDate);
+    private final DocumentTable<Notice> notices = new DocumentTable<Notice>()
+            .index("classroomId", Notice::getClassroomId);
+    private final DocumentTable<InboxState> inboxStates = new DocumentTable<>();
+    // Keyed by "studentId/classroomId"
+    private final DocumentTable<NoticeReadState> noticeReads = new DocumentTable<NoticeReadState>()
+            .index("studentId", NoticeReadState::getStudentId);
+    private final DocumentTable<Notification> notifications = new DocumentTable<Notification>()
+            .index("userId", Notification::getUserId)
+            .index("classroomId", Notification::getClassroomId);
+
+    private final Random random;
+    private final LongSupplier clock;
+
+    public InMemoryDataSource() {
+        this(0, System::currentTimeMillis);
+    }
+
+    /**
+     * @param seed  seed for generated document IDs and classroom codes
+     * @param clock current time in milliseconds, used for "now" in queries and timestamps
+     */
+    public InMemoryDataSource(long seed, LongSupplier clock) {
+        this.random = new Random(seed);
+        this.clock = clock;
+    }
+
+    // ==================== USER OPERATIONS ====================
+
+    @Override
+    public LiveData<Resource<Void>> createUser(User user) {
+        User stored = Documents.copy(user);
+        if (stored.getCreatedAt() == null) stored.setCreatedAt(now());
+        if (stored.getUpdatedAt() == null) stored.setUpdatedAt(now());
+        users.put(user.getId(), stored);
+        return completed(Resource.success(null));
+    }
+
+    @Override
+    public LiveData<Resource<User>> getUser(String userId) {
+        User user = users.get(userId);
+        return completed(user != null ? Resource.success(user) : Resource.error("User not found", null));
+    }
+
+    @Override
+    public LiveData<Resource<User>> getUserRealtime(String userId) {
+        return new LiveQuery<>(users, user -> userId.equals(user.getId()), () -> {
+            User user = users.get(userId);
+            return user != null ? Resource.success(user) : null;
+        });
+    }
+
+    @Override
+    public LiveData<Resource<Void>> updateUser(String userId, Map<String, Object> updates) {
+        return update(users, userId, updates);
+    }
+
+    @Override
+    public LiveData<Resource<Void>> updateFcmToken(String userId, String token) {
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("fcmToken", token);
+        return updateUser(userId, updates);
+    }
+
+    // ==================== CLASSROOM OPERATIONS ====================
+
+    @Override
+    public LiveData<Resource<String>> createClassroom(Classroom classroom) {
+        classroom.setId(newId());
+        if (classroom.getCode() == null || classrooms.count("code", classroom.getCode()) > 0) {
+            classroom.setCode(unusedCode());
+        }
+        Classroom stored = Documents.copy(classroom);
+        stored.setCreatedAt(now());
+        stored.setUpdatedAt(now());
+        classrooms.put(stored.getId(), stored);
+        return completed(Resource.success(stored.getId()));
+    }
+
+    @Override
+    public LiveData<Resource<Classroom>> getClassroom(String classroomId) {
+        Classroom classroom = classrooms.get(classroomId);
+        return completed(classroom != null ? Resource.success(classroom)
+                : Resource.error("Classroom not found", null));
+    }
+
+    @Override
+    public LiveData<Resource<Classroom>> getClassroomByCode(String code) {
+        for (Classroom classroom : classrooms.whereEqualTo("code", code)) {
+            if (classroom.getDeletionStage() == null) {
+                return completed(Resource.success(classroom));
+            }
+        }
+        return completed(Resource.error("Invalid classroom code", null));
+    }
+
+    @Override
+    public LiveData<Resource<List<Classroom>>> getClassroomsByAdmin(String adminId) {
+        return new LiveQuery<>(classrooms, classroom -> adminId.equals(classroom.getAdminId()),
+                () -> Resource.success(sorted(classrooms.whereEqualTo("adminId", adminId),
+                        classroom -> classroom.getDeletionStage() == null, Orderings.NEWEST_CLASSROOM_FIRST)));
+    }
+
+    @Override
+    public LiveData<Resource<List<Classroom>>> getClassroomsByStudent(List<String> classroomIds) {
+        if (classroomIds == null || classroomIds.isEmpty()) {
+            return completed(Resource.success(new ArrayList<>()));
+        }
+
+        Set<String> ids = new HashSet<>(classroomIds);
+        return new LiveQuery<>(classrooms, classroom -> ids.contains(classroom.getId()),
+                () -> Resource.success(sorted(classrooms.resolve(ids),
+                        classroom -> classroom.getDeletionStage() == null,
+                        Comparator.comparing(Classroom::getId))));
+    }
+
+    @Override
+    public LiveData<Resource<Void>> updateClassroom(String classroomId, Map<String, Object> updates) {
+        return update(classrooms, classroomId, updates);
+    }
+
+    @Override
+    public LiveData<Resource<String>> regenerateClassroomCode(String classroomId) {
+        Classroom classroom = classrooms.get(classroomId);
+        if (classroom == null || classroom.getDeletionStage() != null) {
+            return completed(Resource.error("Classroom not found", null));
+        }
+        Classroom updated = Documents.copy(classroom);
+        updated.setCode(unusedCode());
+        classrooms.put(classroomId, updated);
+        return completed(Resource.success(updated.getCode()));
+    }
+
+    /**
+     * Removes the classroom and everything that belongs to it right away; there is nothing
+     * to resume, so no worker is needed.
+     */
+    @Override
+    public LiveData<Resource<Void>> markClassroomForDeletion(String classroomId) {
+        for (Routine routine : routines.whereEqualTo("classroomId", classroomId)) {
+            routines.remove(routine.getId());
+        }
+        for (Exam exam : exams.whereEqualTo("classroomId", classroomId)) {
+            exams.remove(exam.getId());
+        }
+        for (Notice notice : notices.whereEqualTo("classroomId", classroomId)) {
+            notices.remove(notice.getId());
+        }
+        Set<String> removedNotifications = new HashSet<>();
+        for (Notification notification : notifications.whereEqualTo("classroomId", classroomId)) {
+            notifications.remove(notification.getId());
+            removedNotifications.add(notification.getId());
+        }
+        for (InboxState stored : inboxStates.all()) {
+            InboxState state = inboxState(stored.getUserId());
+            boolean changed = state.getReadIds().removeAll(removedNotifications);
+            changed |= state.getDismissedIds().removeAll(removedNotifications);
+            if (changed) {
+                inboxStates.put(state.getUserId(), state);
+            }
+        }
+        for (User user : users.all()) {
+            if (user.getJoinedClassrooms() != null && user.getJoinedClassrooms().contains(classroomId)) {
+                User updated = Documents.copy(user);
+                updated.getJoinedClassrooms().remove(classroomId);
+                users.put(updated.getId(), updated);
+                noticeReads.remove(user.getId() + "/" + classroomId);
+            }
+        }
+        classrooms.remove(classroomId);
+        return completed(Resource.success(null));
+    }
+
+    @Override
+    public boolean deletesInBackground() {
+        return false;
+    }
+
+    @Override
+    public LiveData<Resource<Void>> addStudentToClassroom(String classroomId, String studentId) {
+        Classroom classroom = classrooms.get(classroomId);
+        User user = users.get(studentId);
+        if (classroom == null || classroom.getDeletionStage() != null) {
+            return completed(Resource.error("Classroom not found", null));
+        }
+        if (user == null) {
+            return completed(Resource.error("User not found", null));
+        }
+
+        List<String> studentIds = classroom.getStudentIds() != null ? classroom.getStudentIds() : new ArrayList<>();
+        if (studentIds.contains(studentId)) {
+            return completed(Resource.error("You have already joined this classroom", null));
+        }
+        if (studentIds.size() >= Constants.MAX_STUDENTS_PER_CLASSROOM) {
+            return completed(Resource.error("This classroom is full", null));
+        }
+
+        Classroom updatedClassroom = Documents.copy(classroom);
+        List<String> members = new ArrayList<>(studentIds);
+        members.add(studentId);
+        updatedClassroom.setStudentIds(members);
+        updatedClassroom.setStudentCount(members.size());
+
+        User updatedUser = Documents.copy(user);
+        List<String> joined = user.getJoinedClassrooms() != null
+                ? new ArrayList<>(user.getJoinedClassrooms()) : new ArrayList<>();
+        if (!joined.contains(classroomId)) {
+            joined.add(classroomId);
+        }
+        updatedUser.setJoinedClassrooms(joined);
+
+        classrooms.put(classroomId, updatedClassroom);
+        users.put(studentId, updatedUser);
+        return completed(Resource.success(null));
+    }
+
+    @Override
+    public LiveData<Resource<Void>> removeStudentFromClassroom(String classroomId, String studentId) {
+        User user = users.get(studentId);
+        if (user == null) {
+            return completed(Resource.error("User not found", null));
+        }
+
+        Classroom classroom = classrooms.get(classroomId);
+        if (classroom != null && classroom.getStudentIds() != null && classroom.getStudentIds().contains(studentId)) {
+            Classroom updatedClassroom = Documents.copy(classroom);
+            updatedClassroom.getStudentIds().remove(studentId);
+            updatedClassroom.setStudentCount(updatedClassroom.getStudentIds().size());
+            classrooms.put(classroomId, updatedClassroom);
+        }
+
+        if (user.getJoinedClassrooms() != null && user.getJoinedClassrooms().contains(classroomId)) {
+            User updatedUser = Documents.copy(user);
+            updatedUser.getJoinedClassrooms().remove(classroomId);
+            users.put(studentId, updatedUser);
+        }
+        noticeReads.remove(studentId + "/" + classroomId);
+        return completed(Resource.success(null));
+    }
+
+    @Override
+    public LiveData<Resource<List<User>>> getStudentsInClassroom(List<String> studentIds) {
+        if (studentIds == null || studentIds.isEmpty()) {
+            return completed(Resource.success(new ArrayList<>()));
+        }
+
+        Set<String> ids = new HashSet<>(studentIds);
+        return new LiveQuery<>(users, user -> ids.contains(user.getId()),
+                () -> Resource.success(sorted(users.resolve(ids), null, Comparator.comparing(User::getId))));
+    }
+
+    // ==================== ROUTINE OPERATIONS ====================
+
+    @Override
+    public LiveData<Resource<String>> createRoutine(Routine routine) {
+        routine.setId(newId());
+        Routine stored = Documents.copy(routine);
+        stored.setCreatedAt(now());
+        stored.setUpdatedAt(now());
+        routines.put(stored.getId(), stored);
+        return completed(Resource.success(stored.getId()));
+    }
+
+    @Override
+    public LiveData<Resource<List<Routine>>> getRoutinesByClassroom(String classroomId, ReadPolicy policy) {
+        return new LiveQuery<>(routines, routine -> classroomId.equals(routine.getClassroomId()),
+                () -> Resource.success(sorted(routines.whereEqualTo("classroomId", classroomId),
+                        null, Orderings.ROUTINE_WEEK_ORDER)));
+    }
+
+    @Override
+    public LiveData<Resource<List<Routine>>> getRoutinesByClassrooms(List<String> classroomIds, ReadPolicy policy) {
+        if (classroomIds == null || classroomIds.isEmpty()) {
+            return completed(Resource.success(new ArrayList<>()));
+        }
+
+        Set<String> ids = new HashSet<>(classroomIds);
+        return new LiveQuery<>(routines, routine -> ids.contains(routine.getClassroomId()),
+                () -> Resource.success(sorted(routines.whereIn("classroomId", ids),
+                        null, Orderings.ROUTINE_WEEK_ORDER)));
+    }
+
+    @Override
+    public LiveData<Resource<List<Routine>>> getTodaysRoutine(List<String> classroomIds, int dayIndex, ReadPolicy policy) {
+        if (classroomIds == null || classroomIds.isEmpty()) {
+            return completed(Resource.success(new ArrayList<>()));
+        }
+
+        Set<String> ids = new HashSet<>(classroomIds);
+        Predicate<Routine> matches = routine -> routine.getDayIndex() == dayIndex
+                && ids.contains(routine.getClassroomId());
+        return new LiveQuery<>(routines, matches, () -> {
+            // Scan whichever index yields fewer candidates
+            int byClassroom = 0;
+            for (String id : ids) {
+                byClassroom += routines.count("classroomId", id);
+            }
+            List<Routine> candidates = byClassroom <= routines.count("dayIndex", dayIndex)
+                    ? routines.whereIn("classroomId", ids)
+                    : routines.whereEqualTo("dayIndex", dayIndex);
+            return Resource.success(sorted(candidates, matches, Orderings.ROUTINE_TIME_ORDER));
+        });
+    }
+
+    @Override
+    public LiveData<Resource<Void>> updateRoutine(String routineId, Map<String, Object> updates) {
+        return update(routines, routineId, updates);
+    }
+
+    @Override
+    public LiveData<Resource<Void>> deleteRoutine(String routineId) {
+        routines.remove(routineId);
+        return completed(Resource.success(null));
+    }
+
+    // ==================== EXAM OPERATIONS ====================
+
+    @Override
+    public LiveData<Resource<String>> createExam(Exam exam) {
+        exam.setId(newId());
+        Exam stored = Documents.copy(exam);
+        stored.setCreatedAt(now());
+        stored.setUpdatedAt(now());
+        exams.put(stored.getId(), stored);
+        return completed(Resource.success(stored.getId()));
+    }
+
+    @Override
+    public LiveData<Resource<List<Exam>>> getExamsByClassroom(String classroomId, ReadPolicy policy) {
+        return new LiveQuery<>(exams, exam -> classroomId.equals(exam.getClassroomId()),
+                () -> Resource.success(sorted(exams.whereEqualTo("classroomId", classroomId),
+                        null, Orderings.EXAM_DATE_ORDER)));
+    }
+
+    @Override
+    public LiveData<Resource<List<Exam>>> getExamsByClassrooms(List<String> classroomIds, ReadPolicy policy) {
+        if (classroomIds == null || classroomIds.isEmpty()) {
+            return completed(Resource.success(new ArrayList<>()));
+        }
+
+        Set<String> ids = new HashSet<>(classroomIds);
+        return new LiveQuery<>(exams, exam -> ids.contains(exam.getClassroomId()),
+                () -> Resource.success(sorted(exams.whereIn("classroomId", ids),
+                        null, Orderings.EXAM_DATE_ORDER)));
+    }
+
+    @Override
+    public LiveData<Resource<List<Exam>>> getExamsBetween(List<String> classroomIds, Timestamp from, Timestamp until,
+                                                          ReadPolicy policy) {
+        if (classroomIds == null || classroomIds.isEmpty()) {
+            return completed(Resource.success(new ArrayList<>()));
+        }
+
+        Set<String> ids = new HashSet<>(classroomIds);
+        return new LiveQuery<>(exams, exam -> ids.contains(exam.getClassroomId()), () -> {
+            // The date index is already in order, so only the window is visited
+            List<Exam> result = new ArrayList<>();
+            for (Set<String> examIds : exams.range("examDate").subMap(from, true, until, false).values()) {
+                for (Exam exam : exams.resolve(examIds)) {
+                    if (ids.contains(exam.getClassroomId())) {
+                        result.add(exam);
+                    }
+                }
+            }
+            result.sort(Orderings.EXAM_DATE_ORDER);
+            return Resource.success(Collections.unmodifiableList(result));
+        });
+    }
+
+    @Override
+    public LiveData<Resource<List<Exam>>> getUpcomingExams(List<String> classroomIds, int limit, ReadPolicy policy) {
+        if (classroomIds == null || classroomIds.isEmpty()) {
+            return completed(Resource.success(new ArrayList<>()));
+        }
+
+        Set<String> ids = new HashSet<>(classroomIds);
+        return new LiveQuery<>(exams, exam -> ids.contains(exam.getClassroomId()),
+                () -> Resource.success(upcomingExams(ids, limit)));
+    }
+
+    private List<Exam> upcomingExams(Set<String> classroomIds, int limit) {
+        Timestamp now = now();
+        int candidates = 0;
+        for (String id : classroomIds) {
+            candidates += exams.count("classroomId", id);
+        }
+
+        // With a limit, walking the date index from now stops after about
+        // limit * total / candidates exams; otherwise sort the classrooms' exams
+        if (limit > 0 && candidates > 0 && (long) limit * exams.size() / candidates < candidates) {
+            List<Exam> result = new ArrayList<>(limit);
+            for (Set<String> examIds : exams.range("examDate").tailMap(now, true).values()) {
+                for (Exam exam : exams.resolve(examIds)) {
+                    if (classroomIds.contains(exam.getClassroomId())) {
+                        result.add(exam);
+                    }
+                }
+                if (result.size() >= limit) break;
+            }
+            return Collections.unmodifiableList(sortAndLimit(result, Orderings.EXAM_DATE_ORDER, limit));
+        }
+
+        List<Exam> upcoming = sorted(exams.whereIn("classroomId", classroomIds),
+                exam -> exam.getExamDate() != null && exam.getExamDate().compareTo(now) >= 0,
+                Orderings.EXAM_DATE_ORDER);
+        return limit > 0 && upcoming.size() > limit
+                ? Collections.unmodifiableList(new ArrayList<>(upcoming.subList(0, limit))) : upcoming;
+    }
+
+    @Override
+    public Pager<Exam> getPastExamPager(List<String> classroomIds) {
+        Set<String> ids = new HashSet<>(classroomIds);
+        return new InMemoryPager<>(new LiveQuery<>(exams, exam -> ids.contains(exam.getClassroomId()), () -> {
+            Timestamp now = now();
+            return Resource.success(sorted(exams.whereIn("classroomId", ids),
+                    exam -> exam.getExamDate() != null && exam.getExamDate().compareTo(now) < 0,
+                    Orderings.EXAM_DATE_ORDER.reversed()));
+        }));
+    }
+
+    @Override
+    public LiveData<Resource<Void>> updateExam(String examId, Map<String, Object> updates) {
+        return update(exams, examId, updates);
+    }
+
+    @Override
+    public LiveData<Resource<Void>> deleteExam(String examId) {
+        exams.remove(examId);
+        return completed(Resource.success(null));
+    }
+
+    // ==================== NOTICE OPERATIONS ====================
+
+    @Override
+    public LiveData<Resource<String>> createNotice(Notice notice) {
+        notice.setId(newId());
+        Notice stored = Documents.copy(notice);
+        stored.setCreatedAt(now());
+        stored.setUpdatedAt(now());
+        notices.put(stored.getId(), stored);
+        return completed(Resource.success(stored.getId()));
+    }
+
+    @Override
+    public LiveData<Resource<List<Notice>>> getNoticesByClassroom(String classroomId) {
+        return new LiveQuery<>(notices, notice -> classroomId.equals(notice.getClassroomId()),
+                () -> Resource.success(sorted(notices.whereEqualTo("classroomId", classroomId),
+                        null, Orderings.NOTICE_BOARD_ORDER)));
+    }
+
+    @Override
+    public LiveData<Resource<List<Notice>>> getNoticesByClassrooms(List<String> classroomIds) {
+        if (classroomIds == null || classroomIds.isEmpty()) {
+            return completed(Resource.success(new ArrayList<>()));
+        }
+
+        Set<String> ids = new HashSet<>(classroomIds);
+        return new LiveQuery<>(notices, notice -> ids.contains(notice.getClassroomId()),
+                () -> Resource.success(sorted(notices.whereIn("classroomId", ids),
+                        null, Orderings.NOTICE_BOARD_ORDER)));
+    }
+
+    @Override
+    public LiveData<Resource<List<Notice>>> getRecentNotices(List<String> classroomIds, int limit) {
+        if (classroomIds == null || classroomIds.isEmpty()) {
+            return completed(Resource.success(new ArrayList<>()));
+        }
+
+        Set<String> ids = new HashSet<>(classroomIds);
+        return new LiveQuery<>(notices, notice -> ids.contains(notice.getClassroomId()),
+                () -> Resource.success(Collections.unmodifiableList(sortAndLimit(
+                        notices.whereIn("classroomId", ids), Orderings.NEWEST_NOTICE_FIRST, limit))));
+    }
+
+    @Override
+    public Pager<Notice> getNoticePager(List<String> classroomIds) {
+        Set<String> ids = new HashSet<>(classroomIds);
+        return new InMemoryPager<>(new LiveQuery<>(notices, notice -> ids.contains(notice.getClassroomId()),
+                () -> Resource.success(sorted(notices.whereIn("classroomId", ids),
+                        null, Orderings.NEWEST_NOTICE_FIRST))));
+    }
+
+    @Override
+    public LiveData<Resource<Void>> updateNotice(String noticeId, Map<String, Object> updates) {
+        return update(notices, noticeId, updates);
+    }
+
+    @Override
+    public LiveData<Resource<List<NoticeReadState>>> getNoticeReadStates(String studentId) {
+        return new LiveQuery<>(noticeReads, state -> studentId.equals(state.getStudentId()),
+                () -> Resource.success(noticeReads.whereEqualTo("studentId", studentId)));
+    }
+
+    @Override
+    public LiveData<Resource<Void>> markNoticesAsRead(String studentId, String classroomId,
+                                                     Collection<String> noticeIds) {
+        NoticeReadState state = readState(studentId, classroomId);
+        List<String> newlyRead = new ArrayList<>();
+        for (String noticeId : noticeIds) {
+            Notice notice = notices.get(noticeId);
+            if (notice == null || notice.isReadByStudent(studentId) || state.isRead(notice)) continue;
+            countReader(notice);
+            newlyRead.add(noticeId);
+        }
+        if (!newlyRead.isEmpty()) {
+            state.getReadNoticeIds().addAll(newlyRead);
+            state.setUpdatedAt(now());
+            noticeReads.put(studentId + "/" + classroomId, state);
+        }
+        return completed(Resource.success(null));
+    }
+
+    @Override
+    public LiveData<Resource<Void>> markAllNoticesAsRead(String studentId, String classroomId) {
+        NoticeReadState state = readState(studentId, classroomId);
+        Timestamp watermark = state.getWatermark();
+        for (Notice notice : notices.whereEqualTo("classroomId", classroomId)) {
+            if (notice.getCreatedAt() == null) continue;
+            if (!notice.isReadByStudent(studentId) && !state.isRead(notice)) {
+                countReader(notice);
+            }
+            state.getReadNoticeIds().remove(notice.getId());
+            if (watermark == null || notice.getCreatedAt().compareTo(watermark) > 0) {
+                watermark = notice.getCreatedAt();
+            }
+        }
+        state.setWatermark(watermark);
+        state.setUpdatedAt(now());
+        noticeReads.put(studentId + "/" + classroomId, state);
+        return completed(Resource.success(null));
+    }
+
+    /**
+     * A copy of the stored read state, or a new one.
+     */
+    private NoticeReadState readState(String studentId, String classroomId) {
+        NoticeReadState state = noticeReads.get(studentId + "/" + classroomId);
+        if (state == null) {
+            return new NoticeReadState(studentId, classroomId);
+        }
+        NoticeReadState copy = Documents.copy(state);
+        if (copy.getReadNoticeIds() == null) {
+            copy.setReadNoticeIds(new ArrayList<>());
+        }
+        return copy;
+    }
+
+    private void countReader(Notice notice) {
+        Notice updated = Documents.copy(notice);
+        updated.setReadCount(notice.getReadCount() + 1);
+        notices.put(notice.getId(), updated);
+    }
+
+    @Override
+    public LiveData<Resource<Void>> deleteNotice(String noticeId) {
+        notices.remove(noticeId);
+        return completed(Resource.success(null));
+    }
+
+    // ==================== NOTIFICATION OPERATIONS ====================
+
+    @Override
+    public LiveData<Resource<String>> createNotification(Notification notification) {
+        notification.setId(newId());
+        Notification stored = Documents.copy(notification);
+        stored.setCreatedAt(now());
+        notifications.put(stored.getId(), stored);
+        return completed(Resource.success(stored.getId()));
+    }
+
+    /**
+     * Classroom notifications live in the same table, without a userId.
+     */
+    @Override
+    public Pager<Notification> getNotificationPager(String userId, List<String> classroomIds) {
+        Set<String> ids = classroomIds != null ? new HashSet<>(classroomIds) : new HashSet<>();
+        Predicate<Notification> inInbox = notification -> userId.equals(notification.getUserId())
+                || (notification.getUserId() == null && ids.contains(notification.getClassroomId()));
+
+        return new InMemoryPager<>(new LiveQuery<>(notifications, inInbox, () -> {
+            List<Notification> inbox = notifications.whereEqualTo("userId", userId);
+            for (Notification notification : notifications.whereIn("classroomId", ids)) {
+                if (notification.getUserId() == null) {
+                    inbox.add(notification);
+                }
+            }
+            return Resource.success(sorted(inbox, null, Orderings.NEWEST_NOTIFICATION_FIRST));
+        }));
+    }
+
+    @Override
+    public LiveData<Resource<InboxState>> getInboxState(String userId) {
+        return new LiveQuery<>(inboxStates, state -> userId.equals(state.getUserId()), () -> {
+            InboxState state = inboxStates.get(userId);
+            return Resource.success(state != null ? state : new InboxState());
+        });
+    }
+
+    @Override
+    public LiveData<Resource<Void>> markNotificationAsRead(String userId, Notification notification) {
+        if (InboxState.isClassroomNotification(notification)) {
+            InboxState state = inboxState(userId);
+            if (!state.getReadIds().contains(notification.getId())) {
+                state.getReadIds().add(notification.getId());
+            }
+            inboxStates.put(userId, state);
+            return completed(Resource.success(null));
+        }
+
+        Map<String, Object> updates = new HashMap<>();
+        updates.put("isRead", true);
+        return update(notifications, notification.getId(), updates);
+    }
+
+    @Override
+    public LiveData<Resource<BatchProgress>> markAllNotificationsAsRead(String userId) {
+        InboxState state = inboxState(userId);
+        state.setReadWatermark(now());
+        state.getReadIds().clear();
+        inboxStates.put(userId, state);
+
+        int processed = 0;
+        for (Notification notification : notifications.whereEqualTo("userId", userId)) {
+            if (!notification.isRead()) {
+                Notification updated = Documents.copy(notification);
+                updated.setRead(true);
+                notifications.put(updated.getId(), updated);
+                processed++;
+            }
+        }
+        return completed(Resource.success(new BatchProgress(processed, processed)));
+    }
+
+    @Override
+    public LiveData<Resource<Void>> deleteNotification(String userId, Notification notification) {
+        if (InboxState.isClassroomNotification(notification)) {
+            InboxState state = inboxState(userId);
+            if (!state.getDismissedIds().contains(notification.getId())) {
+                state.getDismissedIds().add(notification.getId());
+            }
+            inboxStates.put(userId, state);
+        } else {
+            notifications.remove(notification.getId());
+        }
+        return completed(Resource.success(null));
+    }
+
+    @Override
+    public LiveData<Resource<BatchProgress>> deleteAllNotifications(String userId) {
+        InboxState state = inboxState(userId);
+        state.setClearedWatermark(now());
+        state.getDismissedIds().clear();
+        inboxStates.put(userId, state);
+
+        List<Notification> all = notifications.whereEqualTo("userId", userId);
+        for (Notification notification : all) {
+            notifications.remove(notification.getId());
+        }
+        return completed(Resource.success(new BatchProgress(all.size(), all.size())));
+    }
+
+    /**
+     * A copy of the stored inbox state, or a new one.
+     */
+    private InboxState inboxState(String userId) {
+        InboxState stored = inboxStates.get(userId);
+        InboxState state = stored != null ? Documents.copy(stored) : new InboxState();
+        state.setUserId(userId);
+        if (state.getReadIds() == null) state.setReadIds(new ArrayList<>());
+        if (state.getDismissedIds() == null) state.setDismissedIds(new ArrayList<>());
+        state.setUpdatedAt(now());
+        return state;
+    }
+
+    // ==================== COUNTS ====================
+
+    @Override
+    public LiveData<Resource<Long>> countRoutines(List<String> classroomIds) {
+        return completed(Resource.success(countByClassroom(routines, classroomIds)));
+    }
+
+    @Override
+    public LiveData<Resource<Long>> countUpcomingExams(List<String> classroomIds) {
+        Timestamp now = now();
+        long count = 0;
+        for (Exam exam : exams.whereIn("classroomId", new HashSet<>(classroomIds))) {
+            if (exam.getExamDate() != null && exam.getExamDate().compareTo(now) >= 0) {
+                count++;
+            }
+        }
+        return completed(Resource.success(count));
+    }
+
+    @Override
+    public LiveData<Resource<Long>> countNotices(List<String> classroomIds) {
+        return completed(Resource.success(countByClassroom(notices, classroomIds)));
+    }
+
+    private static long countByClassroom(DocumentTable<?> table, List<String> classroomIds) {
+        long count = 0;
+        for (String id : new HashSet<>(classroomIds)) {
+            count += table.count("classroomId", id);
+        }
+        return count;
+    }
+
+    // ==================== CLASSROOM NOTIFICATIONS ====================
+
+    @Override
+    public LiveData<Resource<String>> sendNotificationToClassroom(String classroomId, String title, String message,
+                                                                 String type, String referenceId) {
+        return createNotification(new Notification(null, title, message, type, referenceId, classroomId));
+    }
+
+    // ==================== BATCH NOTIFICATION CREATION ====================
+
+    @Override
+    public LiveData<Resource<BatchWriteResult>> sendNotificationToStudents(List<String> studentIds, String title,
+                                                                          String message, String type,
+                                                                          String referenceId, String classroomId) {
+        if (studentIds == null || studentIds.isEmpty()) {
+            return completed(Resource.success(new BatchWriteResult(0, 0, 0)));
+        }
+
+        // Like the Firestore source, each student gets one notification however often listed
+        Set<String> recipients = new LinkedHashSet<>(studentIds);
+        for (String studentId : recipients) {
+            createNotification(new Notification(studentId, title, message, type, referenceId, classroomId));
+        }
+        return completed(Resource.success(new BatchWriteResult(recipients.size(), recipients.size(), 0)));
+    }
+
+    // ==================== HELPERS ====================
+
+    private <T> LiveData<Resource<Void>> update(DocumentTable<T> table, String id, Map<String, Object> updates) {
+        T document = table.get(id);
+        if (document == null) {
+            return completed(Resource.error("No document to update: " + id, null));
+        }
+        try {
+            table.put(id, Documents.update(document, updates));
+        } catch (IllegalArgumentException e) {
+            return completed(Resource.error(e.getMessage(), null));
+        }
+        return completed(Resource.success(null));
+    }
+
+    private static <R> LiveData<Resource<R>> completed(Resource<R> value) {
+        MutableLiveData<Resource<R>> result = new MutableLiveData<>();
+        result.setValue(value);
+        return result;
+    }
+
+    private static <T> List<T> sorted(List<T> items, Predicate<T> filter, Comparator<T> order) {
+        List<T> result = new ArrayList<>(items.size());
+        for (T item : items) {
+            if (filter == null || filter.test(item)) {
+                result.add(item);
+            }
+        }
+        result.sort(order);
+        return Collections.unmodifiableList(result);
+    }
+
+    private static <T> List<T> sortAndLimit(List<T> items, Comparator<T> order, int limit) {
+        List<T> result = new ArrayList<>(items);
+        result.sort(order);
+        return limit > 0 && result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+    }
+
+    private Timestamp now() {
+        return new Timestamp(new Date(clock.getAsLong()));
+    }
+
+    /**
+     * 20 alphanumeric characters, like Firestore's auto-generated IDs.
+     */
+    private String newId() {
+        char[] id = new char[20];
+        for (int i = 0; i < id.length; i++) {
+            id[i] = ID_ALPHABET.charAt(random.nextInt(ID_ALPHABET.length()));
+        }
+        return new String(id);
+    }
+
+    private String unusedCode() {
+        String code;
+        do {
+            code = CodeGenerator.generateClassroomCode(random);
+        } while (classrooms.count("code", code) > 0);
+        return code;
+    }
+}
@@ -0,0 +1,84 @@
+package com.classbuddy.app.data.source.memory;
+
+import androidx.annotation.MainThread;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+import androidx.lifecycle.MutableLiveData;
+
+import com.classbuddy.app.data.source.Pager;
+import com.classbuddy.app.util.Constants;
+import com.classbuddy.app.util.Resource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * {@link Pager} over a realtime in-memory query. The whole result is kept live; paging
+ * only widens the window that is published, so it behaves like
+ * {@link com.classbuddy.app.data.remote.FirestorePager} from the caller's side.
+ */
+class InMemoryPager<T> implements Pager<T> {
+
+    private final MediatorLiveData<Resource<List<T>>> items = new MediatorLiveData<>();
+    private final int pageSize;
+    private List<T> all = Collections.emptyList();
+    private int loaded;
+
+    InMemoryPager(LiveData<Resource<List<T>>> query) {
+        this(query, Constants.PAGE_SIZE);
+    }
+
+    InMemoryPager(LiveData<Resource<List<T>>> query, int pageSize) {
+        this.pageSize = Math.max(1, pageSize);
+        this.loaded = this.pageSize;
+        items.addSource(query, resource -> {
+            if (resource.isSuccess() && resource.data != null) {
+                all = resource.data;
+                publish();
+            } else {
+                items.setValue(resource);
+            }
+        });
+    }
+
+    @Override
+    public LiveData<Resource<List<T>>> getItems() {
+        return items;
+    }
+
+    @Override
+    public boolean hasMore() {
+        return all.size() > loaded;
+    }
+
+    @Override
+    public boolean isLoading() {
+        return false;
+    }
+
+    @Override
+    @MainThread
+    public void onScrolled(int lastVisiblePosition, int itemCount) {
+        if (lastVisiblePosition >= itemCount - 1 - Constants.PAGE_PREFETCH_DISTANCE) {
+            loadMore();
+        }
+    }
+
+    @Override
+    @MainThread
+    public LiveData<Resource<Void>> loadMore() {
+        if (hasMore()) {
+            loaded += pageSize;
+            publish();
+        }
+        MutableLiveData<Resource<Void>> result = new MutableLiveData<>();
+        result.setValue(Resource.success(null));
+        return result;
+    }
+
+    private void publish() {
+        List<T> page = all.size() <= loaded ? all : new ArrayList<>(all.subList(0, loaded));
+        items.setValue(Resource.success(Collections.unmodifiableList(page)));
+    }
+}
@@ -0,0 +1,62 @@
+package com.classbuddy.app.data.source.memory;
+
+import androidx.annotation.Nullable;
+import androidx.lifecycle.MutableLiveData;
+
+import com.classbuddy.app.util.Resource;
+
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * Realtime query over a {@link DocumentTable}, the in-memory counterpart of a snapshot
+ * listener. While observed it is registered with the table and re-evaluated after every
+ * write that touches a matching document (before or after the write). Like a Firestore
+ * listener it emits the current result as soon as it becomes active.
+ *
+ * Must be observed and written to on the main thread.
+ */
+class LiveQuery<T, R> extends MutableLiveData<Resource<R>> implements DocumentTable.Listener<T> {
+
+    private final DocumentTable<T> table;
+    private final Predicate<T> matches;
+    private final Supplier<Resource<R>> evaluate;
+
+    /**
+     * @param matches  whether a document can affect the result; cheap, called on every write
+     * @param evaluate computes the result, or returns null to emit nothing
+     */
+    LiveQuery(DocumentTable<T> table, Predicate<T> matches, Supplier<Resource<R>> evaluate) {
+        this.table = table;
+        this.matches = matches;
+        this.evaluate = evaluate;
+        setValue(Resource.loading(null));
+    }
+
+    @Override
+    protected void onActive() {
+        super.onActive();
+        table.addListener(this);
+        refresh();
+    }
+
+    @Override
+    protected void onInactive() {
+        table.removeListener(this);
+        super.onInactive();
+    }
+
+    @Override
+    public void onChanged(@Nullable T before, @Nullable T after) {
+        if ((before != null && matches.test(before)) || (after != null && matches.test(after))) {
+            refresh();
+        }
+    }
+
+    private void refresh() {
+        Resource<R> result = evaluate.get();
+        if (result != null) {
+            setValue(result);
+        }
+    }
+}
@@ -95,7 +95,7 @@ public class AdminClassroomFragment extends Fragment {
                 .setTitle(R.string.delete)
                 .setMessage("Are you sure you want to delete '" + classroom.getName() + "'?  This action cannot be undone.")
                 .setPositiveButton(R.string.delete, (dialog, which) -> {
-                    viewModel.deleteClassroom(classroom. getId());
+                    viewModel.deleteClassroom(requireContext().getApplicationContext(), classroom. getId());
                 })
                 .setNegativeButton(R.string.cancel, null)
                 .show();
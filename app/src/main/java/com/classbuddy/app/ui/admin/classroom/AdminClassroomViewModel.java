@@ -1,9 +1,12 @@
 package com.classbuddy.app.ui.admin.classroom;
 
+import android.content.Context;
+
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.ViewModel;
 
+import com.classbuddy.app.data.model.BatchProgress;
 import com.classbuddy.app.data.model.Classroom;
 import com.classbuddy.app.data.repository.ClassroomRepository;
 import com.classbuddy.app.util.Resource;
@@ -30,12 +33,29 @@ public class AdminClassroomViewModel extends ViewModel {
         loadClassrooms();
     }
 
-    public void deleteClassroom(String classroomId) {
-        LiveData<Resource<Void>> source = classroomRepository.deleteClassroom(classroomId);
+    public void deleteClassroom(Context context, String classroomId) {
+        LiveData<Resource<Void>> source = classroomRepository.deleteClassroom(context, classroomId);
         deleteResult.addSource(source, resource -> {
-            deleteResult.setValue(resource);
-            if (resource.isSuccess() || resource.isError()) {
+            if (resource.isSuccess()) {
+                deleteResult.removeSource(source);
+                observeDeletion(context, classroomId);
+            } else if (resource.isError()) {
                 deleteResult.removeSource(source);
+                deleteResult.setValue(resource);
+            }
+        });
+    }
+
+    // Reports success only once the background deletion has removed everything
+    private void observeDeletion(Context context, String classroomId) {
+        LiveData<Resource<BatchProgress>> progress = classroomRepository.getDeletionProgress(context, classroomId);
+        deleteResult.addSource(progress, resource -> {
+            if (resource.isSuccess()) {
+                deleteResult.removeSource(progress);
+                deleteResult.setValue(Resource.success(null));
+            } else if (resource.isError()) {
+                deleteResult.removeSource(progress);
+                deleteResult.setValue(Resource.error(resource.message, null));
             }
         });
     }
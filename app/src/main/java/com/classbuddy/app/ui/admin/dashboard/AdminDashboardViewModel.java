@@ -6,8 +6,6 @@ import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 
 import com.classbuddy.app.data.model.Classroom;
-import com.classbuddy.app.data.model.Exam;
-import com.classbuddy.app.data.model.Notice;
 import com.classbuddy.app.data.model.User;
 import com.classbuddy.app.data.repository.AuthRepository;
 import com.classbuddy.app.data.repository.ClassroomRepository;
@@ -89,12 +87,7 @@ public class AdminDashboardViewModel extends ViewModel {
             return;
         }
 
-        LiveData<Resource<List<Exam>>> examSource = examRepository. getUpcomingExams(classroomIds);
-        currentUser.addSource(examSource, resource -> {
-            if (resource.isSuccess() && resource.data != null) {
-                upcomingEventsCount.setValue(resource. data.size());
-            }
-        });
+        observeCount(examRepository.countUpcomingExams(new ArrayList<>(classroomIds)), upcomingEventsCount);
     }
 
     private void loadActiveNotices() {
@@ -103,10 +96,16 @@ public class AdminDashboardViewModel extends ViewModel {
             return;
         }
 
-        LiveData<Resource<List<Notice>>> noticeSource = noticeRepository.getRecentNotices(classroomIds, 100);
-        currentUser.addSource(noticeSource, resource -> {
+        observeCount(noticeRepository.countNotices(new ArrayList<>(classroomIds)), activeNoticesCount);
+    }
+
+    private void observeCount(LiveData<Resource<Long>> source, MutableLiveData<Integer> target) {
+        currentUser.addSource(source, resource -> {
             if (resource.isSuccess() && resource.data != null) {
-                activeNoticesCount. setValue(resource.data.size());
+                target.setValue(resource.data.intValue());
+            }
+            if (!resource.isLoading()) {
+                currentUser.removeSource(source);
             }
         });
     }
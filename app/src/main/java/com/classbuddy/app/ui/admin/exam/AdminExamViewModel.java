@@ -100,9 +100,7 @@ public class AdminExamViewModel extends ViewModel {
                     // Notify students
                     Classroom classroom = classroomMap.get(exam.getClassroomId());
                     if (classroom != null && classroom.getStudentIds() != null) {
-                        examRepository.notifyStudentsOfExamCancellation(
-                                classroom.getStudentIds(), exam, reason
-                        );
+                        examRepository.notifyStudentsOfExamCancellation(exam, reason);
                     }
                     loadExams();
                 }
@@ -115,7 +113,7 @@ public class AdminExamViewModel extends ViewModel {
         updates.put("isCancelled", false);
         updates.put("cancellationReason", null);
         
-        LiveData<Resource<Void>> source = new com.classbuddy.app.data.remote.FirestoreSource().updateExam(examId, updates);
+        LiveData<Resource<Void>> source = com.classbuddy.app.data.source.DataSourceProvider.get().updateExam(examId, updates);
         cancelResult.addSource(source, resource -> {
             cancelResult.setValue(resource);
             if (resource.isSuccess() || resource.isError()) {
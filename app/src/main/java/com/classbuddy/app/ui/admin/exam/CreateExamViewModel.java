@@ -78,7 +78,7 @@ public class CreateExamViewModel extends ViewModel {
                         exam.setCourseName(finalCourseName);
                         exam.setExamType(finalExamType);
                         exam.setExamDate(finalExamDate);
-                        examRepository.notifyStudentsOfNewExam(classroom.getStudentIds(), exam);
+                        examRepository.notifyStudentsOfNewExam(exam);
                     }
                 }
             }
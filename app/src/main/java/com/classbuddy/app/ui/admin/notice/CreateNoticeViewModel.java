@@ -90,7 +90,7 @@ public class CreateNoticeViewModel extends ViewModel {
                         notice.setContent(finalContent);
                         notice.setClassroomId(classroomId);
                         notice.setClassroomName(classroomName);
-                        noticeRepository.notifyStudentsOfNewNotice(classroom.getStudentIds(), notice);
+                        noticeRepository.notifyStudentsOfNewNotice(notice);
                     }
                 }
             }
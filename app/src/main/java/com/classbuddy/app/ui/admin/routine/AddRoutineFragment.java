@@ -16,12 +16,16 @@ import androidx.lifecycle.ViewModelProvider;
 import androidx.navigation.Navigation;
 
 import com.classbuddy.app.R;
+import com.classbuddy.app.data.model.Routine;
 import com.classbuddy.app.databinding.FragmentAddRoutineBinding;
 import com.classbuddy.app.util.Constants;
+import com.classbuddy.app.util.DateTimeUtils;
 import com.classbuddy.app.util.ValidationUtils;
 
 import java.text.SimpleDateFormat;
+import java.util.ArrayList;
 import java.util.Calendar;
+import java.util.List;
 import java.util.Locale;
 
 public class AddRoutineFragment extends Fragment {
@@ -86,6 +90,7 @@ public class AddRoutineFragment extends Fragment {
         binding.actvScheduleType.setOnItemClickListener((parent, v, position, id) -> {
             isRecurring = (position == 0);
             updateScheduleTypeVisibility();
+            checkConflicts();
         });
 
         // Day of Week Dropdown
@@ -97,6 +102,7 @@ public class AddRoutineFragment extends Fragment {
         binding.actvDay.setAdapter(dayAdapter);
         binding.actvDay.setOnItemClickListener((parent, v, position, id) -> {
             selectedDayIndex = position;
+            checkConflicts();
         });
 
         // Class Type Dropdown
@@ -139,6 +145,47 @@ public class AddRoutineFragment extends Fragment {
         binding.etSpecificDate.setOnClickListener(v -> showDatePicker());
 
         binding.btnSave.setOnClickListener(v -> attemptSave());
+
+        binding.etRoom.setOnFocusChangeListener((v, hasFocus) -> {
+            if (!hasFocus) checkConflicts();
+        });
+        binding.etFaculty.setOnFocusChangeListener((v, hasFocus) -> {
+            if (!hasFocus) checkConflicts();
+        });
+    }
+
+    private void checkConflicts() {
+        viewModel.checkConflicts(
+                binding.etFaculty.getText().toString().trim(),
+                binding.etRoom.getText().toString().trim(),
+                selectedDayIndex, selectedStartTime, selectedEndTime,
+                isRecurring, selectedSpecificDate);
+    }
+
+    private void showConflicts(List<TimetableConflicts.Conflict> conflicts) {
+        binding.tilRoom.setError(describe(conflicts, TimetableConflicts.Reason.ROOM, "Room is booked for "));
+        binding.tilFaculty.setError(describe(conflicts, TimetableConflicts.Reason.FACULTY, "Faculty is teaching "));
+        binding.tilStartTime.setError(describe(conflicts, TimetableConflicts.Reason.CLASSROOM, "Classroom has "));
+    }
+
+    // e.g. "Room is booked for Physics (CSE 3A), Sun 10:00 AM - 11:00 AM (+1 more)"
+    @Nullable
+    private String describe(List<TimetableConflicts.Conflict> conflicts,
+                            TimetableConflicts.Reason reason, String prefix) {
+        List<Routine> clashing = new ArrayList<>();
+        for (TimetableConflicts.Conflict conflict : conflicts) {
+            if (conflict.reasons.contains(reason)) {
+                clashing.add(conflict.routine);
+            }
+        }
+        if (clashing.isEmpty()) return null;
+
+        Routine first = clashing.get(0);
+        String day = first.getSpecificDate() != null && !first.getSpecificDate().isEmpty()
+                ? first.getSpecificDate() : DateTimeUtils.getDayShortName(first.getDayIndex());
+        String message = prefix + first.getSubject() + " (" + first.getClassroomName() + "), " + day + " "
+                + DateTimeUtils.formatTime(first.getStartTime()) + " - " + DateTimeUtils.formatTime(first.getEndTime());
+        return clashing.size() > 1 ? message + " (+" + (clashing.size() - 1) + " more)" : message;
     }
 
     private void showDatePicker() {
@@ -153,6 +200,7 @@ public class AddRoutineFragment extends Fragment {
                     
                     SimpleDateFormat displayFormat = new SimpleDateFormat("EEE, dd MMM yyyy", Locale.getDefault());
                     binding.etSpecificDate.setText(displayFormat.format(selectedDate.getTime()));
+                    checkConflicts();
                 },
                 calendar.get(Calendar.YEAR),
                 calendar.get(Calendar.MONTH),
@@ -180,6 +228,7 @@ public class AddRoutineFragment extends Fragment {
                             selectedEndTime = time24;
                             binding.etEndTime.setText(formattedTime);
                         }
+                        checkConflicts();
                     } catch (Exception e) {
                         e.printStackTrace();
                     }
@@ -198,6 +247,9 @@ public class AddRoutineFragment extends Fragment {
         String dayOfWeek = binding.actvDay.getText().toString().trim();
         String typeDisplay = binding.actvType.getText().toString().trim();
 
+        // Room and faculty may have been typed without leaving the field
+        checkConflicts();
+
         // Clear errors
         binding.tilSubject.setError(null);
         binding.tilFaculty.setError(null);
@@ -254,6 +306,11 @@ public class AddRoutineFragment extends Fragment {
             }
         }
 
+        if (isValid && viewModel.hasConflicts()) {
+            showConflicts(viewModel.getConflicts().getValue());
+            isValid = false;
+        }
+
         if (isValid) {
             String type = convertTypeToValue(typeDisplay);
 
@@ -336,6 +393,8 @@ public class AddRoutineFragment extends Fragment {
             }
         });
 
+        viewModel.getConflicts().observe(getViewLifecycleOwner(), this::showConflicts);
+
         viewModel.getSaveResult().observe(getViewLifecycleOwner(), resource -> {
             switch (resource.status) {
                 case LOADING:
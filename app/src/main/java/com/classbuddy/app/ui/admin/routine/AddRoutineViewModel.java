@@ -11,6 +11,12 @@ import com.classbuddy.app.data.repository.ClassroomRepository;
 import com.classbuddy.app.data.repository.RoutineRepository;
 import com.classbuddy.app.util.Resource;
 
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.Locale;
+
 public class AddRoutineViewModel extends ViewModel {
 
     private final ClassroomRepository classroomRepository;
@@ -19,8 +25,15 @@ public class AddRoutineViewModel extends ViewModel {
     private final MutableLiveData<String> classroomName = new MutableLiveData<>();
     private final MutableLiveData<Routine> routineData = new MutableLiveData<>();
     private final MediatorLiveData<Resource<String>> saveResult = new MediatorLiveData<>();
+    private final MediatorLiveData<List<TimetableConflicts.Conflict>> conflicts = new MediatorLiveData<>();
+
+    private LiveData<Resource<List<Classroom>>> classroomsSource;
+    private LiveData<Resource<List<Routine>>> scheduleSource;
+    private TimetableConflicts timetable = TimetableConflicts.EMPTY;
+    private Routine candidate;
 
     private String classroomId;
+    private String routineId;
 
     public AddRoutineViewModel() {
         classroomRepository = new ClassroomRepository();
@@ -30,6 +43,58 @@ public class AddRoutineViewModel extends ViewModel {
     public void setClassroomId(String classroomId) {
         this.classroomId = classroomId;
         loadClassroomName();
+        loadSchedule();
+    }
+
+    // Rooms and faculty are shared across the admin's classrooms, so check against all of them
+    private void loadSchedule() {
+        // The schedule does not depend on the classroom, so a repeated call (e.g. after
+        // rotation) keeps the existing queries
+        if (classroomsSource != null) return;
+        classroomsSource = classroomRepository.getAdminClassrooms();
+        conflicts.addSource(classroomsSource, resource -> {
+            if (!resource.isSuccess() || resource.data == null) return;
+
+            List<String> classroomIds = new ArrayList<>();
+            for (Classroom classroom : resource.data) {
+                classroomIds.add(classroom.getId());
+            }
+            if (scheduleSource != null) {
+                conflicts.removeSource(scheduleSource);
+            }
+            scheduleSource = routineRepository.getRoutinesByClassrooms(classroomIds);
+            conflicts.addSource(scheduleSource, routines -> {
+                if (routines.isSuccess() && routines.data != null) {
+                    String today = new SimpleDateFormat("yyyy-MM-dd", Locale.US).format(new Date());
+                    timetable = TimetableConflicts.build(routines.data, today);
+                    publishConflicts();
+                }
+            });
+        });
+    }
+
+    /**
+     * Checks the form's current values for room, faculty and classroom clashes; results go
+     * to {@link #getConflicts()}. Called as the form is edited.
+     */
+    public void checkConflicts(String faculty, String room, int dayIndex,
+                               String startTime, String endTime,
+                               boolean isRecurring, String specificDate) {
+        candidate = new Routine();
+        candidate.setId(routineId);
+        candidate.setClassroomId(classroomId);
+        candidate.setFaculty(faculty);
+        candidate.setRoom(room);
+        candidate.setDayIndex(dayIndex);
+        candidate.setStartTime(startTime);
+        candidate.setEndTime(endTime);
+        candidate.setSpecificDate(isRecurring ? null : specificDate);
+        publishConflicts();
+    }
+
+    private void publishConflicts() {
+        if (candidate == null) return;
+        conflicts.setValue(timetable.find(candidate));
     }
 
     private void loadClassroomName() {
@@ -42,6 +107,7 @@ public class AddRoutineViewModel extends ViewModel {
     }
 
     public void loadRoutine(String routineId) {
+        this.routineId = routineId;
         // In a real implementation, you would fetch the routine from Firebase
         // For now, we'll rely on the routines already loaded in the list
     }
@@ -99,6 +165,18 @@ public class AddRoutineViewModel extends ViewModel {
         return routineData;
     }
 
+    /**
+     * Routines clashing with the last checked form values.
+     */
+    public LiveData<List<TimetableConflicts.Conflict>> getConflicts() {
+        return conflicts;
+    }
+
+    public boolean hasConflicts() {
+        List<TimetableConflicts.Conflict> current = conflicts.getValue();
+        return current != null && !current.isEmpty();
+    }
+
     public LiveData<Resource<String>> getSaveResult() {
         return saveResult;
     }
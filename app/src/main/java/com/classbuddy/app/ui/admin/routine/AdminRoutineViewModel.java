@@ -110,9 +110,7 @@ public class AdminRoutineViewModel extends ViewModel {
                 if (resource.isSuccess()) {
                     // Notify students
                     if (currentClassroom != null && currentClassroom.getStudentIds() != null) {
-                        routineRepository.notifyStudentsOfClassCancellation(
-                                currentClassroom.getStudentIds(), routine, reason, date
-                        );
+                        routineRepository.notifyStudentsOfClassCancellation(routine, reason, date);
                     }
                     loadRoutines();
                 }
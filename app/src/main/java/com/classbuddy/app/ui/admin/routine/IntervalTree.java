@@ -0,0 +1,75 @@
+package com.classbuddy.app.ui.admin.routine;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A static interval tree over half-open [start, end) intervals. Intervals are sorted by
+ * start and laid out as an implicit balanced tree in which each node also stores the
+ * largest end in its subtree, so an overlap query takes O(log n + k) for k results.
+ */
+final class IntervalTree<T> {
+
+    /**
+     * An interval to add with {@link IntervalTree#of(List)}.
+     */
+    static final class Interval<T> {
+        final int start;
+        final int end;
+        final T value;
+
+        Interval(int start, int end, T value) {
+            this.start = start;
+            this.end = end;
+            this.value = value;
+        }
+    }
+
+    private final List<Interval<T>> intervals;
+    private final int[] maxEnd;
+
+    private IntervalTree(List<Interval<T>> intervals) {
+        this.intervals = intervals;
+        this.maxEnd = new int[intervals.size()];
+        buildMaxEnd(0, intervals.size());
+    }
+
+    static <T> IntervalTree<T> of(List<Interval<T>> intervals) {
+        List<Interval<T>> sorted = new ArrayList<>(intervals);
+        sorted.sort((i1, i2) -> Integer.compare(i1.start, i2.start));
+        return new IntervalTree<>(sorted);
+    }
+
+    /**
+     * Adds the values of every interval overlapping [start, end) to out.
+     */
+    void overlapping(int start, int end, List<T> out) {
+        overlapping(0, intervals.size(), start, end, out);
+    }
+
+    private int buildMaxEnd(int lo, int hi) {
+        if (lo >= hi) return Integer.MIN_VALUE;
+        int mid = (lo + hi) >>> 1;
+        int max = Math.max(intervals.get(mid).end,
+                Math.max(buildMaxEnd(lo, mid), buildMaxEnd(mid + 1, hi)));
+        maxEnd[mid] = max;
+        return max;
+    }
+
+    private void overlapping(int lo, int hi, int start, int end, List<T> out) {
+        if (lo >= hi) return;
+        int mid = (lo + hi) >>> 1;
+        // Nothing in this subtree ends after start
+        if (maxEnd[mid] <= start) return;
+
+        overlapping(lo, mid, start, end, out);
+
+        Interval<T> interval = intervals.get(mid);
+        // Everything from here on starts at or after end
+        if (interval.start >= end) return;
+        if (interval.end > start) {
+            out.add(interval.value);
+        }
+        overlapping(mid + 1, hi, start, end, out);
+    }
+}
@@ -0,0 +1,202 @@
+package com.classbuddy.app.ui.admin.routine;
+
+import com.classbuddy.app.data.model.Routine;
+
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds routines that clash with a proposed class: same room, same faculty or same
+ * classroom at an overlapping time.
+ *
+ * Built once per routine change. Class times become minute-of-day intervals in one
+ * {@link IntervalTree} per room, faculty and classroom and per day: weekly classes by day
+ * of week, one-time classes by date and, for checking weekly slots, by day of week too.
+ * A check is a handful of O(log n) tree queries, cheap enough to run on every form edit.
+ */
+final class TimetableConflicts {
+
+    enum Reason { ROOM, FACULTY, CLASSROOM }
+
+    /**
+     * A clashing routine and what it clashes on.
+     */
+    static final class Conflict {
+        final Routine routine;
+        final Set<Reason> reasons = EnumSet.noneOf(Reason.class);
+
+        Conflict(Routine routine) {
+            this.routine = routine;
+        }
+    }
+
+    static final TimetableConflicts EMPTY = new TimetableConflicts(Collections.emptyMap());
+
+    private final Map<String, IntervalTree<Routine>> trees;
+
+    private TimetableConflicts(Map<String, IntervalTree<Routine>> trees) {
+        this.trees = trees;
+    }
+
+    /**
+     * Indexes routines. One-time classes before today (yyyy-MM-dd) and cancelled ones are
+     * left out, as nothing can clash with them any more.
+     */
+    static TimetableConflicts build(List<Routine> routines, String today) {
+        Map<String, List<IntervalTree.Interval<Routine>>> buckets = new HashMap<>();
+
+        for (Routine routine : routines) {
+            int start = minuteOfDay(routine.getStartTime());
+            int end = minuteOfDay(routine.getEndTime());
+            if (start < 0 || end <= start) continue;
+
+            List<String> days = new ArrayList<>(2);
+            if (isOneTime(routine)) {
+                String date = routine.getSpecificDate();
+                int dayIndex = dayIndexOf(date);
+                if (routine.isCancelled() || date.compareTo(today) < 0 || dayIndex < 0) continue;
+                days.add(onDate(date));
+                days.add(onceOnWeekday(dayIndex));
+            } else {
+                days.add(weekly(routine.getDayIndex()));
+            }
+
+            IntervalTree.Interval<Routine> interval = new IntervalTree.Interval<>(start, end, routine);
+            for (Reason reason : Reason.values()) {
+                String value = valueOf(routine, reason);
+                if (value == null) continue;
+                for (String day : days) {
+                    buckets.computeIfAbsent(key(reason, value, day), k -> new ArrayList<>()).add(interval);
+                }
+            }
+        }
+
+        Map<String, IntervalTree<Routine>> trees = new HashMap<>();
+        for (Map.Entry<String, List<IntervalTree.Interval<Routine>>> entry : buckets.entrySet()) {
+            trees.put(entry.getKey(), IntervalTree.of(entry.getValue()));
+        }
+        return new TimetableConflicts(trees);
+    }
+
+    /**
+     * The routines clashing with candidate, in the order found. candidate itself (same ID)
+     * is never reported, so an edited routine does not clash with its saved version.
+     */
+    List<Conflict> find(Routine candidate) {
+        int start = minuteOfDay(candidate.getStartTime());
+        int end = minuteOfDay(candidate.getEndTime());
+        if (start < 0 || end <= start) return Collections.emptyList();
+
+        // A weekly class can clash with weekly and one-time classes on its weekday; a one-time
+        // class with weekly classes on its weekday that are not cancelled that date
+        String date = null;
+        List<String> days = new ArrayList<>(2);
+        if (isOneTime(candidate)) {
+            date = candidate.getSpecificDate();
+            int dayIndex = dayIndexOf(date);
+            if (dayIndex < 0) return Collections.emptyList();
+            days.add(weekly(dayIndex));
+            days.add(onDate(date));
+        } else {
+            days.add(weekly(candidate.getDayIndex()));
+            days.add(onceOnWeekday(candidate.getDayIndex()));
+        }
+
+        Map<String, Conflict> conflicts = new LinkedHashMap<>();
+        List<Routine> found = new ArrayList<>();
+        for (Reason reason : Reason.values()) {
+            String value = valueOf(candidate, reason);
+            if (value == null) continue;
+            for (String day : days) {
+                IntervalTree<Routine> tree = trees.get(key(reason, value, day));
+                if (tree == null) continue;
+
+                found.clear();
+                tree.overlapping(start, end, found);
+                for (Routine routine : found) {
+                    if (routine.getId() != null && routine.getId().equals(candidate.getId())) continue;
+                    if (date != null && !isOneTime(routine) && routine.isCancelled()
+                            && date.equals(routine.getCancelledDate())) continue;
+                    conflicts.computeIfAbsent(routine.getId(), id -> new Conflict(routine)).reasons.add(reason);
+                }
+            }
+        }
+        return new ArrayList<>(conflicts.values());
+    }
+
+    private static boolean isOneTime(Routine routine) {
+        return routine.getSpecificDate() != null && !routine.getSpecificDate().isEmpty();
+    }
+
+    // Rooms and faculty names are typed by hand, so "Room 301 " and "room 301" are the same
+    private static String valueOf(Routine routine, Reason reason) {
+        String value;
+        switch (reason) {
+            case ROOM:
+                value = routine.getRoom();
+                break;
+            case FACULTY:
+                value = routine.getFaculty();
+                break;
+            default:
+                value = routine.getClassroomId();
+                break;
+        }
+        if (value == null || value.trim().isEmpty()) return null;
+        return reason == Reason.CLASSROOM ? value : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static String key(Reason reason, String value, String day) {
+        return reason + "|" + value + "|" + day;
+    }
+
+    private static String weekly(int dayIndex) {
+        return "weekly " + dayIndex;
+    }
+
+    private static String onceOnWeekday(int dayIndex) {
+        return "once " + dayIndex;
+    }
+
+    private static String onDate(String date) {
+        return "on " + date;
+    }
+
+    // Minutes since midnight of an HH:mm time, or -1
+    private static int minuteOfDay(String time) {
+        if (time == null) return -1;
+        int colon = time.indexOf(':');
+        if (colon <= 0) return -1;
+        try {
+            int hours = Integer.parseInt(time.substring(0, colon));
+            int minutes = Integer.parseInt(time.substring(colon + 1));
+            if (hours < 0 || hours > 23 || minutes < 0 || minutes > 59) return -1;
+            return hours * 60 + minutes;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+
+    // Day index (Sunday = 0) of a yyyy-MM-dd date, or -1
+    private static int dayIndexOf(String date) {
+        if (date.length() != 10) return -1;
+        try {
+            Calendar calendar = Calendar.getInstance();
+            calendar.clear();
+            calendar.set(Integer.parseInt(date.substring(0, 4)),
+                    Integer.parseInt(date.substring(5, 7)) - 1,
+                    Integer.parseInt(date.substring(8, 10)));
+            return calendar.get(Calendar.DAY_OF_WEEK) - 1;
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package com.classbuddy.app.ui.student;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The classroom IDs added and removed between two versions of a student's joined
+ * classrooms. Computed with hash sets, so it is linear in the number of classrooms.
+ */
+public final class MembershipDiff {
+
+    private final List<String> added;
+    private final List<String> removed;
+
+    private MembershipDiff(List<String> added, List<String> removed) {
+        this.added = Collections.unmodifiableList(added);
+        this.removed = Collections.unmodifiableList(removed);
+    }
+
+    /**
+     * Added IDs keep their order in after, removed ones their order in before.
+     */
+    public static MembershipDiff between(Collection<String> before, Collection<String> after) {
+        Set<String> beforeSet = new HashSet<>(before);
+        Set<String> afterSet = new HashSet<>(after);
+
+        List<String> added = new ArrayList<>();
+        for (String id : after) {
+            if (!beforeSet.contains(id) && !added.contains(id)) {
+                added.add(id);
+            }
+        }
+        List<String> removed = new ArrayList<>();
+        for (String id : before) {
+            if (!afterSet.contains(id)) {
+                removed.add(id);
+            }
+        }
+        return new MembershipDiff(added, removed);
+    }
+
+    public List<String> getAdded() {
+        return added;
+    }
+
+    public List<String> getRemoved() {
+        return removed;
+    }
+
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty();
+    }
+}
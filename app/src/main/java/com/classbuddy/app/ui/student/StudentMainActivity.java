@@ -21,6 +21,9 @@ public class StudentMainActivity extends AppCompatActivity {
         binding = ActivityStudentMainBinding.inflate(getLayoutInflater());
         setContentView(binding.getRoot());
 
+        // Tabs read their data from the session, which stays loaded while this activity does
+        StudentSession.get().keepActive(this);
+
         setupNavigation();
     }
 
@@ -42,6 +45,9 @@ public class StudentMainActivity extends AppCompatActivity {
     @Override
     protected void onDestroy() {
         super. onDestroy();
+        if (isFinishing()) {
+            StudentSession.end();
+        }
         binding = null;
     }
 }
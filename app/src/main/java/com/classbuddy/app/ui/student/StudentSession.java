@@ -0,0 +1,529 @@
+package com.classbuddy.app.ui.student;
+
+import androidx.annotation.MainThread;
+import androidx.lifecycle.LifecycleOwner;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.MediatorLiveData;
+
+import com.classbuddy.app.data.model.Classroom;
+import com.classbuddy.app.data.model.Exam;
+import com.classbuddy.app.data.model.Notice;
+import com.classbuddy.app.data.model.Routine;
+import com.classbuddy.app.data.model.User;
+import com.classbuddy.app.data.repository.ClassroomRepository;
+import com.classbuddy.app.data.repository.ExamRepository;
+import com.classbuddy.app.data.repository.NoticeRepository;
+import com.classbuddy.app.data.repository.RoutineRepository;
+import com.classbuddy.app.data.repository.UserRepository;
+import com.classbuddy.app.data.source.Orderings;
+import com.classbuddy.app.data.source.Pager;
+import com.classbuddy.app.util.Constants;
+import com.classbuddy.app.util.Resource;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * The data every student screen reads, loaded once per {@link StudentMainActivity}: the
+ * current user, their joined classroom IDs, and one stream each of classrooms, routines,
+ * the next few exams, all upcoming exams, past exams and notices for those classrooms.
+ *
+ * Screens observe these streams and derive what they show (today's routine, one classroom's
+ * exams, the latest notices) instead of querying themselves, so switching tabs attaches no
+ * new listeners and each dataset is held once. When the student joins or leaves a
+ * classroom, only the queries that read it change (see {@link MembershipDiff}); the other
+ * classrooms' data stays on screen.
+ *
+ * All methods must be called on the main thread.
+ */
+public class StudentSession {
+
+    // Queries a merged stream may hold beyond the fewest its classrooms need
+    private static final int MAX_EXTRA_QUERIES = 2;
+
+    private static StudentSession instance;
+
+    private final UserRepository userRepository = new UserRepository();
+    private final ClassroomRepository classroomRepository = new ClassroomRepository();
+    private final RoutineRepository routineRepository = new RoutineRepository();
+    private final ExamRepository examRepository = new ExamRepository();
+    private final NoticeRepository noticeRepository = new NoticeRepository();
+
+    private final LiveData<Resource<User>> user;
+    private final MediatorLiveData<Resource<List<String>>> classroomIds = new MediatorLiveData<>();
+    private final MergedStream<Classroom> classrooms;
+    private final MergedStream<Routine> routines;
+    private final MergedStream<Exam> nextExams;
+    private final MergedStream<Exam> upcomingExams;
+    private final PagedStream<Exam> pastExams;
+    private final PagedStream<Notice> notices;
+
+    private StudentSession() {
+        user = userRepository.getCurrentUser();
+        classroomIds.setValue(Resource.loading(null));
+        classroomIds.addSource(user, resource -> {
+            if (resource.isSuccess() && resource.data != null) {
+                List<String> ids = resource.data.getJoinedClassrooms() != null
+                        ? resource.data.getJoinedClassrooms() : new ArrayList<>();
+                Resource<List<String>> current = classroomIds.getValue();
+                if (current == null || !current.isSuccess() || !isSameSet(current.data, ids)) {
+                    classroomIds.setValue(Resource.success(Collections.unmodifiableList(new ArrayList<>(ids))));
+                }
+            } else if (resource.isError()) {
+                classroomIds.setValue(Resource.error(resource.message, null));
+            }
+        });
+
+        classrooms = new MergedStream<>(classroomRepository::getStudentClassrooms, Classroom::getId, null);
+        routines = new MergedStream<>(routineRepository::getRoutinesByClassrooms, Routine::getClassroomId,
+                Orderings.ROUTINE_WEEK_ORDER);
+        nextExams = new MergedStream<>(examRepository::getUpcomingExams, Exam::getClassroomId,
+                Orderings.EXAM_DATE_ORDER);
+        upcomingExams = new MergedStream<>(examRepository::getAllUpcomingExams, Exam::getClassroomId,
+                Orderings.EXAM_DATE_ORDER);
+        pastExams = new PagedStream<>(examRepository::getPastExamPager, Exam::getClassroomId);
+        notices = new PagedStream<>(noticeRepository::getNoticePager, Notice::getClassroomId);
+    }
+
+    @MainThread
+    public static StudentSession get() {
+        if (instance == null) {
+            instance = new StudentSession();
+        }
+        return instance;
+    }
+
+    /**
+     * Drops the session; the next {@link #get()} starts a new one. Called when
+     * {@link StudentMainActivity} finishes, e.g. on logout.
+     */
+    @MainThread
+    public static void end() {
+        instance = null;
+    }
+
+    /**
+     * Keeps the streams attached while owner is started, so screens that come and go within
+     * the activity find their data already loaded. The unbounded upcoming exams are left to
+     * the screens that list them.
+     */
+    @MainThread
+    public void keepActive(LifecycleOwner owner) {
+        classrooms.observe(owner, resource -> { });
+        routines.observe(owner, resource -> { });
+        nextExams.observe(owner, resource -> { });
+        pastExams.observe(owner, resource -> { });
+        notices.observe(owner, resource -> { });
+    }
+
+    /**
+     * Reloads the paged streams from their first page, e.g. for pull-to-refresh. The other
+     * streams are realtime and already current.
+     */
+    @MainThread
+    public void refresh() {
+        pastExams.reload();
+        notices.reload();
+    }
+
+    public LiveData<Resource<User>> getUser() {
+        return user;
+    }
+
+    /**
+     * The joined classroom IDs. Only emits when the set of IDs changes.
+     */
+    public LiveData<Resource<List<String>>> getClassroomIds() {
+        return classroomIds;
+    }
+
+    public LiveData<Resource<List<Classroom>>> getClassrooms() {
+        return classrooms;
+    }
+
+    public LiveData<Resource<List<Routine>>> getRoutines() {
+        return routines;
+    }
+
+    /**
+     * The next exams, soonest first, for summaries. Each query reads at most
+     * {@link Constants#UPCOMING_EXAMS_LIMIT} exams, so the list may hold more than that, but
+     * its first UPCOMING_EXAMS_LIMIT items are the next exams overall.
+     */
+    public LiveData<Resource<List<Exam>>> getNextExams() {
+        return nextExams;
+    }
+
+    /**
+     * Every exam from now on, soonest first.
+     */
+    public LiveData<Resource<List<Exam>>> getUpcomingExams() {
+        return upcomingExams;
+    }
+
+    /**
+     * Exams before now, newest first, a page at a time.
+     */
+    public LiveData<Resource<List<Exam>>> getPastExams() {
+        return pastExams;
+    }
+
+    public void loadMorePastExams() {
+        Pager<Exam> pager = pastExams.pager;
+        if (pager != null) {
+            pager.loadMore();
+        }
+    }
+
+    /**
+     * Notices, newest first, a page at a time.
+     */
+    public LiveData<Resource<List<Notice>>> getNotices() {
+        return notices;
+    }
+
+    public void onNoticesScrolled(int lastVisiblePosition, int itemCount) {
+        Pager<Notice> pager = notices.pager;
+        if (pager != null) {
+            pager.onScrolled(lastVisiblePosition, itemCount);
+        }
+    }
+
+    /**
+     * A view of source with its data passed through projection. Status and staleness are
+     * kept, so a derived list shows cached data exactly when its source does.
+     */
+    public static <T, R> LiveData<Resource<R>> project(LiveData<Resource<T>> source, Function<T, R> projection) {
+        MediatorLiveData<Resource<R>> result = new MediatorLiveData<>();
+        result.addSource(source, resource -> result.setValue(map(resource, projection)));
+        return result;
+    }
+
+    public static <T, R> Resource<R> map(Resource<T> resource, Function<T, R> projection) {
+        R data = resource.data != null ? projection.apply(resource.data) : null;
+        if (resource.isSuccess()) {
+            return resource.isStale() ? Resource.stale(data) : Resource.success(data);
+        }
+        if (resource.isError()) {
+            return Resource.error(resource.message, data);
+        }
+        return Resource.loading(data);
+    }
+
+    /**
+     * The items of one classroom, for screens opened from a classroom's page.
+     */
+    public static <T> LiveData<Resource<List<T>>> forClassroom(LiveData<Resource<List<T>>> source,
+                                                               Function<T, String> classroomOf,
+                                                               String classroomId) {
+        return project(source, items -> {
+            List<T> filtered = new ArrayList<>();
+            for (T item : items) {
+                if (classroomId.equals(classroomOf.apply(item))) {
+                    filtered.add(item);
+                }
+            }
+            return filtered;
+        });
+    }
+
+    private static boolean isSameSet(List<String> a, List<String> b) {
+        return a != null && a.size() == b.size() && new HashSet<>(a).equals(new HashSet<>(b));
+    }
+
+    /**
+     * Loads a list for the given classrooms.
+     */
+    private interface StreamFactory<T> {
+        LiveData<Resource<List<T>>> create(List<String> classroomIds);
+    }
+
+    /**
+     * Pages through a list for the given classrooms.
+     */
+    private interface PagerFactory<T> {
+        Pager<T> create(List<String> classroomIds);
+    }
+
+    /**
+     * A realtime list merged from queries of up to {@link Constants#FIRESTORE_WHERE_IN_LIMIT}
+     * joined classrooms each. Classrooms joined later get queries of their own, so the rest
+     * of the list never reloads; a left classroom's items are dropped at once and only the
+     * query that held it is replaced. Once joins have added more than
+     * {@link #MAX_EXTRA_QUERIES} queries beyond the fewest needed, all classrooms are packed
+     * into full queries again, with the current items kept on screen until they reload.
+     * LOADING is only emitted before the first result. A query that fails is left out and
+     * the rest is published as an ERROR carrying the merged data.
+     */
+    private class MergedStream<T> extends MediatorLiveData<Resource<List<T>>> {
+        private final StreamFactory<T> factory;
+        private final Function<T, String> classroomOf;
+        private final Comparator<? super T> order;
+
+        private final List<Chunk> chunks = new ArrayList<>();
+        private final Map<String, Chunk> owners = new HashMap<>();
+        private List<String> joined = new ArrayList<>();
+        private boolean published;
+
+        /**
+         * @param order the list order, or null to keep the order the student joined in
+         */
+        MergedStream(StreamFactory<T> factory, Function<T, String> classroomOf, Comparator<? super T> order) {
+            this.factory = factory;
+            this.classroomOf = classroomOf;
+            this.order = order;
+            setValue(Resource.loading(null));
+            addSource(classroomIds, ids -> {
+                if (ids.isError()) {
+                    setValue(Resource.error(ids.message, null));
+                    return;
+                }
+                if (ids.isSuccess() && ids.data != null) {
+                    onClassroomsChanged(ids.data);
+                }
+            });
+        }
+
+        private void onClassroomsChanged(List<String> ids) {
+            MembershipDiff diff = MembershipDiff.between(owners.keySet(), ids);
+            joined = ids;
+            if (diff.isEmpty() && published) return;
+
+            Set<Chunk> shrunk = new LinkedHashSet<>();
+            for (String id : diff.getRemoved()) {
+                Chunk chunk = owners.remove(id);
+                chunk.ids.remove(id);
+                shrunk.add(chunk);
+            }
+            for (Chunk chunk : shrunk) {
+                if (chunk.ids.isEmpty()) {
+                    removeSource(chunk.source);
+                    chunks.remove(chunk);
+                } else {
+                    chunk.result = keepOnly(chunk.result, chunk.ids);
+                    attach(chunk);
+                }
+            }
+
+            List<List<String>> added = partition(diff.getAdded());
+            if (chunks.size() + added.size() > partitionSize(ids.size()) + MAX_EXTRA_QUERIES) {
+                repack(ids);
+            } else {
+                for (List<String> group : added) {
+                    attach(newChunk(group, null));
+                }
+            }
+            publish();
+        }
+
+        private void repack(List<String> ids) {
+            Map<String, List<T>> shown = new HashMap<>();
+            for (Chunk chunk : chunks) {
+                removeSource(chunk.source);
+                if (chunk.result == null || chunk.result.data == null) continue;
+                for (T item : chunk.result.data) {
+                    shown.computeIfAbsent(classroomOf.apply(item), id -> new ArrayList<>()).add(item);
+                }
+            }
+            chunks.clear();
+            owners.clear();
+
+            for (List<String> group : partition(ids)) {
+                List<T> carried = new ArrayList<>();
+                for (String id : group) {
+                    List<T> items = shown.get(id);
+                    if (items != null) carried.addAll(items);
+                }
+                // Marked stale until the new query confirms it
+                attach(newChunk(group, carried.isEmpty() ? null : Resource.stale(carried)));
+            }
+        }
+
+        private Chunk newChunk(List<String> ids, Resource<List<T>> result) {
+            Chunk chunk = new Chunk(ids);
+            chunk.result = result;
+            chunks.add(chunk);
+            for (String id : ids) {
+                owners.put(id, chunk);
+            }
+            return chunk;
+        }
+
+        private void attach(Chunk chunk) {
+            if (chunk.source != null) {
+                removeSource(chunk.source);
+            }
+            chunk.source = factory.create(new ArrayList<>(chunk.ids));
+            addSource(chunk.source, resource -> {
+                // The chunk's current items stay until its new query has loaded
+                if (resource.isLoading() && chunk.result != null) return;
+                chunk.result = resource;
+                publish();
+            });
+        }
+
+        private Resource<List<T>> keepOnly(Resource<List<T>> result, List<String> ids) {
+            if (result == null || result.data == null) return result;
+            Set<String> keep = new HashSet<>(ids);
+            return map(result, items -> {
+                List<T> kept = new ArrayList<>(items.size());
+                for (T item : items) {
+                    if (keep.contains(classroomOf.apply(item))) {
+                        kept.add(item);
+                    }
+                }
+                return kept;
+            });
+        }
+
+        private void publish() {
+            List<T> merged = new ArrayList<>();
+            String error = null;
+            boolean complete = true;
+            boolean stale = false;
+            for (Chunk chunk : chunks) {
+                Resource<List<T>> result = chunk.result;
+                if (result == null || result.isLoading()) {
+                    complete = false;
+                    continue;
+                }
+                // One failing query does not hide the others
+                if (result.isError()) {
+                    error = result.message;
+                    continue;
+                }
+                stale |= result.isStale();
+                if (result.data != null) {
+                    merged.addAll(result.data);
+                }
+            }
+            // Wait for the first result of every query, then keep publishing what is loaded
+            if (!complete && !published) return;
+
+            if (order != null) {
+                merged.sort(order);
+            } else {
+                Map<String, Integer> position = new HashMap<>();
+                for (int i = 0; i < joined.size(); i++) {
+                    position.put(joined.get(i), i);
+                }
+                merged.sort(Comparator.comparingInt(item -> position.getOrDefault(classroomOf.apply(item), 0)));
+            }
+            published = true;
+            if (error != null) {
+                setValue(Resource.error(error, merged));
+            } else {
+                setValue(stale ? Resource.stale(merged) : Resource.success(merged));
+            }
+        }
+
+        /**
+         * The classrooms read by one query.
+         */
+        private class Chunk {
+            final List<String> ids;
+            LiveData<Resource<List<T>>> source;
+            Resource<List<T>> result;
+
+            Chunk(List<String> ids) {
+                this.ids = new ArrayList<>(ids);
+            }
+        }
+    }
+
+    private static List<List<String>> partition(List<String> ids) {
+        List<List<String>> groups = new ArrayList<>();
+        for (int i = 0; i < ids.size(); i += Constants.FIRESTORE_WHERE_IN_LIMIT) {
+            groups.add(ids.subList(i, Math.min(ids.size(), i + Constants.FIRESTORE_WHERE_IN_LIMIT)));
+        }
+        return groups;
+    }
+
+    private static int partitionSize(int ids) {
+        return (ids + Constants.FIRESTORE_WHERE_IN_LIMIT - 1) / Constants.FIRESTORE_WHERE_IN_LIMIT;
+    }
+
+    /**
+     * A paged list for the joined classrooms. A pager cannot take queries in or out, so it
+     * is replaced when the joined classrooms change; meanwhile the current items minus those
+     * of removed classrooms stay on screen, and the new pager's LOADING is not shown.
+     */
+    private class PagedStream<T> extends MediatorLiveData<Resource<List<T>>> {
+        private final PagerFactory<T> factory;
+        private final Function<T, String> classroomOf;
+
+        private List<String> ids;
+        private Pager<T> pager;
+        private LiveData<Resource<List<T>>> upstream;
+
+        PagedStream(PagerFactory<T> factory, Function<T, String> classroomOf) {
+            this.factory = factory;
+            this.classroomOf = classroomOf;
+            setValue(Resource.loading(null));
+            addSource(classroomIds, ids -> {
+                if (ids.isError()) {
+                    setValue(Resource.error(ids.message, null));
+                    return;
+                }
+                if (ids.isSuccess() && ids.data != null) {
+                    onClassroomsChanged(ids.data);
+                }
+            });
+        }
+
+        private void onClassroomsChanged(List<String> newIds) {
+            if (ids != null) {
+                MembershipDiff diff = MembershipDiff.between(ids, newIds);
+                if (diff.isEmpty()) return;
+                if (!diff.getRemoved().isEmpty()) {
+                    dropItemsOutside(newIds);
+                }
+            }
+            ids = newIds;
+            reload();
+        }
+
+        void reload() {
+            if (ids == null) return;
+            if (upstream != null) {
+                removeSource(upstream);
+                upstream = null;
+            }
+            pager = null;
+            if (ids.isEmpty()) {
+                setValue(Resource.success(new ArrayList<>()));
+                return;
+            }
+            pager = factory.create(ids);
+            upstream = pager.getItems();
+            addSource(upstream, resource -> {
+                Resource<List<T>> current = getValue();
+                if (resource.isLoading() && current != null && current.data != null) return;
+                setValue(resource);
+            });
+        }
+
+        private void dropItemsOutside(List<String> joined) {
+            Resource<List<T>> current = getValue();
+            if (current == null || current.data == null) return;
+            Set<String> keep = new HashSet<>(joined);
+            setValue(map(current, items -> {
+                List<T> kept = new ArrayList<>(items.size());
+                for (T item : items) {
+                    if (keep.contains(classroomOf.apply(item))) {
+                        kept.add(item);
+                    }
+                }
+                return kept;
+            }));
+        }
+    }
+}
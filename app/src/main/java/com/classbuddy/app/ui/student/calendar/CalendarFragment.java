@@ -97,6 +97,7 @@ public class CalendarFragment extends Fragment {
 
     private void updateMonthTitle() {
         binding.tvMonthYear.setText(DateTimeUtils.formatMonthYear(currentMonth.getTime()));
+        viewModel.setVisibleMonth(currentMonth.getTime());
     }
 
     private void showDatePicker() {
@@ -146,6 +147,13 @@ public class CalendarFragment extends Fragment {
                 }
             }
         });
+
+        // CalendarView cannot decorate days, so the month's event days are summarised instead
+        viewModel.getEventDaysInMonth().observe(getViewLifecycleOwner(), days -> {
+            int count = days.cardinality();
+            binding.toolbar.setSubtitle(count == 0 ? null
+                    : count + (count == 1 ? " day" : " days") + " with events");
+        });
     }
 
     @Override
@@ -2,231 +2,207 @@ package com.classbuddy.app.ui.student.calendar;
 
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MediatorLiveData;
+import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 
 import com.classbuddy.app.data.model.CalendarEvent;
 import com.classbuddy.app.data.model.Exam;
 import com.classbuddy.app.data.model.Routine;
-import com.classbuddy.app.data.model.User;
 import com.classbuddy.app.data.repository.ExamRepository;
-import com.classbuddy.app.data.repository.RoutineRepository;
-import com.classbuddy.app.data.repository.UserRepository;
-import com.classbuddy.app.util.DateTimeUtils;
+import com.classbuddy.app.ui.student.StudentSession;
 import com.classbuddy.app.util.Resource;
 
-import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Calendar;
 import java.util.Date;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Locale;
+import java.util.Map;
 
 public class CalendarViewModel extends ViewModel {
 
-    private final UserRepository userRepository;
-    private final RoutineRepository routineRepository;
+    private static final int MAX_MONTH_WINDOWS = 6;
+
+    private final StudentSession session;
     private final ExamRepository examRepository;
 
     private final MediatorLiveData<Resource<List<CalendarEvent>>> eventsForSelectedDate = new MediatorLiveData<>();
+    private final MutableLiveData<BitSet> eventDaysInMonth = new MutableLiveData<>();
+
+    // Exam queries per month, least recently shown first; the eldest is dropped past the cap
+    private final LinkedHashMap<Integer, MonthWindow> monthWindows =
+            new LinkedHashMap<Integer, MonthWindow>(MAX_MONTH_WINDOWS + 1, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Integer, MonthWindow> eldest) {
+                    if (size() <= MAX_MONTH_WINDOWS) return false;
+                    eldest.getValue().detach();
+                    windowEvicted = true;
+                    return true;
+                }
+            };
 
-    // Track current sources for cleanup
-    private LiveData<Resource<User>> userSource;
-    private LiveData<Resource<List<Routine>>> routineSource;
-    private LiveData<Resource<List<Exam>>> examSource;
-
-    private List<String> classroomIds = new ArrayList<>();
+    private boolean windowEvicted;
+    private List<String> classroomIds;
     private List<Routine> allRoutines = new ArrayList<>();
     private List<Exam> allExams = new ArrayList<>();
+    private ScheduleIndex index = ScheduleIndex.EMPTY;
     private Date selectedDate = new Date();
-
-    // Track current classroom IDs to detect changes
-    private List<String> currentClassroomIds = new ArrayList<>();
+    private Date visibleMonth = new Date();
 
     public CalendarViewModel() {
-        userRepository = new UserRepository();
-        routineRepository = new RoutineRepository();
+        session = StudentSession.get();
         examRepository = new ExamRepository();
 
-        loadUserData();
-    }
-
-    private void loadUserData() {
-        // Clean up old source
-        if (userSource != null) {
-            eventsForSelectedDate.removeSource(userSource);
-        }
-
-        userSource = userRepository.getCurrentUser();
-        eventsForSelectedDate.addSource(userSource, userResource -> {
-            if (userResource.isSuccess() && userResource.data != null) {
-                List<String> newClassroomIds = userResource.data.getJoinedClassrooms();
-                if (newClassroomIds == null) {
-                    newClassroomIds = new ArrayList<>();
-                }
-
-                // Check if classroom IDs changed
-                if (!areListsEqual(currentClassroomIds, newClassroomIds)) {
-                    currentClassroomIds = new ArrayList<>(newClassroomIds);
-                    classroomIds = newClassroomIds;
-
-                    if (!classroomIds.isEmpty()) {
-                        loadRoutines();
-                        loadExams();
-                    } else {
-                        allRoutines = new ArrayList<>();
-                        allExams = new ArrayList<>();
-                        eventsForSelectedDate.setValue(Resource.success(new ArrayList<>()));
-                    }
-                }
-            }
-        });
-    }
-
-    private boolean areListsEqual(List<String> list1, List<String> list2) {
-        if (list1 == null && list2 == null) return true;
-        if (list1 == null || list2 == null) return false;
-        if (list1.size() != list2.size()) return false;
-        return list1.containsAll(list2) && list2.containsAll(list1);
-    }
-
-    private void loadRoutines() {
-        // Clean up old source
-        if (routineSource != null) {
-            eventsForSelectedDate.removeSource(routineSource);
-        }
-
-        routineSource = routineRepository.getRoutinesByClassrooms(classroomIds);
-        eventsForSelectedDate.addSource(routineSource, resource -> {
+        eventsForSelectedDate.addSource(session.getRoutines(), resource -> {
             if (resource.isSuccess() && resource.data != null) {
                 allRoutines = resource.data;
-                generateEventsForDate(selectedDate);
+                rebuildIndex();
             }
         });
-    }
 
-    private void loadExams() {
-        // Clean up old source
-        if (examSource != null) {
-            eventsForSelectedDate.removeSource(examSource);
-        }
-
-        examSource = examRepository.getExamsByClassrooms(classroomIds);
-        eventsForSelectedDate.addSource(examSource, resource -> {
+        // The calendar also shows past exams, which the session only pages
+        eventsForSelectedDate.addSource(session.getClassroomIds(), resource -> {
             if (resource.isSuccess() && resource.data != null) {
-                allExams = resource.data;
-                generateEventsForDate(selectedDate);
+                classroomIds = resource.data;
+                for (MonthWindow window : monthWindows.values()) {
+                    window.attach();
+                }
+                showMonth(visibleMonth);
+                showMonth(selectedDate);
             }
         });
     }
 
     public void loadEventsForDate(Date date) {
         this.selectedDate = date;
+        showMonth(date);
         generateEventsForDate(date);
     }
 
-    public void refreshEvents() {
-        // Force reload by clearing tracked classroom IDs
-        currentClassroomIds = new ArrayList<>();
-        loadUserData();
+    /**
+     * Sets the month whose event days {@link #getEventDaysInMonth()} reports.
+     */
+    public void setVisibleMonth(Date month) {
+        this.visibleMonth = month;
+        showMonth(month);
+        eventDaysInMonth.setValue(index.eventDaysInMonth(month));
     }
 
-    private void generateEventsForDate(Date date) {
-        List<CalendarEvent> events = new ArrayList<>();
-
-        // Get day of week for routines
-        Calendar calendar = Calendar.getInstance();
-        calendar.setTime(date);
-        int dayIndex = calendar.get(Calendar.DAY_OF_WEEK) - 1;
-        String dayName = DateTimeUtils.getDayOfWeekFromDate(date);
-        
-        // Format the selected date for comparison
-        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd", Locale.getDefault());
-        String selectedDateStr = sdf.format(date);
-
-        // Add routines for this day
-        for (Routine routine : allRoutines) {
-            boolean shouldAdd = false;
-            boolean isCancelledForThisDate = false;
-            
-            // Check if this is a specific date class
-            if (routine.getSpecificDate() != null && !routine.getSpecificDate().isEmpty()) {
-                // One-time class - check if it matches the selected date
-                if (routine.getSpecificDate().equals(selectedDateStr)) {
-                    shouldAdd = true;
-                    isCancelledForThisDate = routine.isCancelled();
-                }
-            } else {
-                // Recurring weekly class - check day of week
-                if (routine.getDayIndex() == dayIndex) {
-                    shouldAdd = true;
-                    // Check if cancelled for this specific date
-                    if (routine.isCancelled() && routine.getCancelledDate() != null) {
-                        isCancelledForThisDate = routine.getCancelledDate().equals(selectedDateStr);
-                    }
-                }
-            }
-            
-            if (shouldAdd) {
-                String title = routine.getSubject();
-                if (isCancelledForThisDate) {
-                    title = routine.getSubject() + " (CANCELLED)";
-                }
-                
-                CalendarEvent event = new CalendarEvent(
-                        routine.getId(),
-                        title,
-                        routine.getClassroomName(),
-                        DateTimeUtils.formatTime(routine.getStartTime()) + " - " +
-                                DateTimeUtils.formatTime(routine.getEndTime()),
-                        routine.getType().equalsIgnoreCase("lab") ? "Lab" : "Class",
-                        "Room: " + routine.getRoom() + " | " + routine.getFaculty(),
-                        date,
-                        isCancelledForThisDate
-                );
-                events.add(event);
+    // Queries the exams of date's month and prefetches the months either side
+    private void showMonth(Date date) {
+        if (classroomIds == null) return;
+        int month = monthNumber(date);
+        for (int m : new int[]{month - 1, month + 1, month}) {
+            if (monthWindows.get(m) == null) {
+                MonthWindow window = new MonthWindow(m);
+                monthWindows.put(m, window);
+                window.attach();
             }
         }
+        // The evicted month's exams are still in the index
+        if (windowEvicted) {
+            windowEvicted = false;
+            onExamsChanged();
+        }
+    }
 
-        // Add exams for this date
-        for (Exam exam : allExams) {
-            if (exam.getExamDate() != null &&
-                    DateTimeUtils.isSameDay(exam.getExamDate().toDate(), date)) {
-                
-                String title = exam.getExamTypeDisplay() + ": " + exam.getCourseName();
-                if (exam.isCancelled()) {
-                    title = title + " (CANCELLED)";
-                }
-                
-                CalendarEvent event = new CalendarEvent(
-                        exam.getId(),
-                        title,
-                        exam.getClassroomName(),
-                        DateTimeUtils.formatTime(exam.getStartTime()),
-                        "Exam",
-                        "Course: " + exam.getCourseNo() + " | Room: " + exam.getRoom(),
-                        date,
-                        exam.isCancelled()
-                );
-                events.add(event);
-            }
+    private void onExamsChanged() {
+        List<Exam> exams = new ArrayList<>();
+        for (MonthWindow window : monthWindows.values()) {
+            exams.addAll(window.exams);
         }
+        allExams = exams;
+        rebuildIndex();
+    }
+
+    // Months since January of year 0, so adjacent months differ by one
+    private static int monthNumber(Date date) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(date);
+        return calendar.get(Calendar.YEAR) * 12 + calendar.get(Calendar.MONTH);
+    }
+
+    private static Date startOfMonth(int monthNumber) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(Math.floorDiv(monthNumber, 12), Math.floorMod(monthNumber, 12), 1);
+        return calendar.getTime();
+    }
 
-        // Sort by time
-        events.sort((e1, e2) -> e1.getTime().compareTo(e2.getTime()));
+    public void refreshEvents() {
+        session.refresh();
+    }
+
+    private void rebuildIndex() {
+        index = ScheduleIndex.build(allRoutines, allExams);
+        generateEventsForDate(selectedDate);
+        eventDaysInMonth.setValue(index.eventDaysInMonth(visibleMonth));
+    }
 
-        eventsForSelectedDate.setValue(Resource.success(events));
+    private void generateEventsForDate(Date date) {
+        eventsForSelectedDate.setValue(Resource.success(index.eventsOn(date)));
     }
 
     @Override
     protected void onCleared() {
         super.onCleared();
         // Clean up all sources
-        if (userSource != null) eventsForSelectedDate.removeSource(userSource);
-        if (routineSource != null) eventsForSelectedDate.removeSource(routineSource);
-        if (examSource != null) eventsForSelectedDate.removeSource(examSource);
+        eventsForSelectedDate.removeSource(session.getRoutines());
+        eventsForSelectedDate.removeSource(session.getClassroomIds());
+        for (MonthWindow window : monthWindows.values()) {
+            window.detach();
+        }
     }
 
     public LiveData<Resource<List<CalendarEvent>>> getEventsForSelectedDate() {
         return eventsForSelectedDate;
     }
+
+    /**
+     * The days of the visible month with at least one event: bit n is set for day n + 1.
+     */
+    public LiveData<BitSet> getEventDaysInMonth() {
+        return eventDaysInMonth;
+    }
+
+    /**
+     * The exams of one calendar month, kept while the month is among the recently shown.
+     */
+    private class MonthWindow {
+        private final Date from;
+        private final Date until;
+
+        private LiveData<Resource<List<Exam>>> source;
+        private List<Exam> exams = new ArrayList<>();
+
+        MonthWindow(int monthNumber) {
+            from = startOfMonth(monthNumber);
+            until = startOfMonth(monthNumber + 1);
+        }
+
+        // Queries the current classrooms; the previous result stays until the new one arrives
+        void attach() {
+            detach();
+            if (classroomIds.isEmpty()) {
+                exams = new ArrayList<>();
+                onExamsChanged();
+                return;
+            }
+            source = examRepository.getExamsBetween(classroomIds, from, until);
+            eventsForSelectedDate.addSource(source, resource -> {
+                if (resource.isSuccess() && resource.data != null) {
+                    exams = resource.data;
+                    onExamsChanged();
+                }
+            });
+        }
+
+        void detach() {
+            if (source != null) {
+                eventsForSelectedDate.removeSource(source);
+                source = null;
+            }
+        }
+    }
 }
@@ -0,0 +1,221 @@
+package com.classbuddy.app.ui.student.calendar;
+
+import com.classbuddy.app.data.model.CalendarEvent;
+import com.classbuddy.app.data.model.Exam;
+import com.classbuddy.app.data.model.Routine;
+import com.classbuddy.app.util.DateTimeUtils;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The student's schedule bucketed by day, built once per routine or exam change so that
+ * looking up a date does not scan every routine and exam.
+ *
+ * Weekly routines are bucketed by day of week, one-time classes and exams by epoch day
+ * (days since 1970-01-01 in the device's time zone). A weekly routine cancelled for one
+ * date is kept as an exception for that date. Buckets are sorted by start time, so a
+ * lookup merges two sorted lists.
+ */
+final class ScheduleIndex {
+
+    static final ScheduleIndex EMPTY = build(Collections.emptyList(), Collections.emptyList());
+
+    private static final int NO_DAY = Integer.MIN_VALUE;
+    private static final Comparator<Item> START_TIME_ORDER = (i1, i2) -> i1.startTime.compareTo(i2.startTime);
+
+    private final List<List<Item>> weekly = new ArrayList<>(7);
+    private final Map<Integer, List<Item>> dated = new HashMap<>();
+    private final Map<Integer, Set<String>> cancellations = new HashMap<>();
+
+    private ScheduleIndex() {
+        for (int i = 0; i < 7; i++) {
+            weekly.add(new ArrayList<>());
+        }
+    }
+
+    static ScheduleIndex build(List<Routine> routines, List<Exam> exams) {
+        ScheduleIndex index = new ScheduleIndex();
+
+        for (Routine routine : routines) {
+            String specificDate = routine.getSpecificDate();
+            if (specificDate != null && !specificDate.isEmpty()) {
+                int day = parseEpochDay(specificDate);
+                if (day != NO_DAY) {
+                    index.datedBucket(day).add(new Item(routine));
+                }
+            } else if (routine.getDayIndex() >= 0 && routine.getDayIndex() < 7) {
+                index.weekly.get(routine.getDayIndex()).add(new Item(routine));
+                if (routine.isCancelled() && routine.getCancelledDate() != null) {
+                    int day = parseEpochDay(routine.getCancelledDate());
+                    if (day != NO_DAY) {
+                        index.cancellations.computeIfAbsent(day, d -> new HashSet<>()).add(routine.getId());
+                    }
+                }
+            }
+        }
+
+        Calendar calendar = Calendar.getInstance();
+        for (Exam exam : exams) {
+            if (exam.getExamDate() != null) {
+                calendar.setTime(exam.getExamDate().toDate());
+                index.datedBucket(epochDay(calendar)).add(new Item(exam));
+            }
+        }
+
+        for (List<Item> bucket : index.weekly) {
+            bucket.sort(START_TIME_ORDER);
+        }
+        for (List<Item> bucket : index.dated.values()) {
+            bucket.sort(START_TIME_ORDER);
+        }
+        return index;
+    }
+
+    /**
+     * The events on date, by start time.
+     */
+    List<CalendarEvent> eventsOn(Date date) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(date);
+        int day = epochDay(calendar);
+
+        List<Item> recurring = weekly.get(dayIndex(day));
+        List<Item> once = dated.getOrDefault(day, Collections.emptyList());
+        Set<String> cancelled = cancellations.getOrDefault(day, Collections.emptySet());
+
+        List<CalendarEvent> events = new ArrayList<>(recurring.size() + once.size());
+        int r = 0;
+        int o = 0;
+        while (r < recurring.size() || o < once.size()) {
+            if (o == once.size() || (r < recurring.size()
+                    && START_TIME_ORDER.compare(recurring.get(r), once.get(o)) <= 0)) {
+                Item item = recurring.get(r++);
+                events.add(item.toEvent(date, cancelled.contains(item.routine.getId())));
+            } else {
+                Item item = once.get(o++);
+                events.add(item.toEvent(date, item.isCancelled()));
+            }
+        }
+        return events;
+    }
+
+    /**
+     * The days of the month containing date that have at least one event: bit n is set
+     * for day n + 1.
+     */
+    BitSet eventDaysInMonth(Date date) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(date);
+        calendar.set(Calendar.DAY_OF_MONTH, 1);
+        int firstDay = epochDay(calendar);
+        int length = calendar.getActualMaximum(Calendar.DAY_OF_MONTH);
+
+        BitSet days = new BitSet(length);
+        for (int i = 0; i < length; i++) {
+            int day = firstDay + i;
+            if (!weekly.get(dayIndex(day)).isEmpty() || dated.containsKey(day)) {
+                days.set(i);
+            }
+        }
+        return days;
+    }
+
+    private List<Item> datedBucket(int day) {
+        return dated.computeIfAbsent(day, d -> new ArrayList<>());
+    }
+
+    // 1970-01-01 was a Thursday; day indexes start at Sunday = 0
+    private static int dayIndex(int epochDay) {
+        return Math.floorMod(epochDay + 4, 7);
+    }
+
+    private static int epochDay(Calendar calendar) {
+        return epochDay(calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH) + 1,
+                calendar.get(Calendar.DAY_OF_MONTH));
+    }
+
+    // Parses the yyyy-MM-dd dates routines are stored with
+    private static int parseEpochDay(String date) {
+        if (date.length() != 10 || date.charAt(4) != '-' || date.charAt(7) != '-') return NO_DAY;
+        try {
+            return epochDay(Integer.parseInt(date.substring(0, 4)),
+                    Integer.parseInt(date.substring(5, 7)),
+                    Integer.parseInt(date.substring(8, 10)));
+        } catch (NumberFormatException e) {
+            return NO_DAY;
+        }
+    }
+
+    // Days since 1970-01-01 in the proleptic Gregorian calendar, month 1-12
+    private static int epochDay(int year, int month, int day) {
+        int y = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(y, 400);
+        int yearOfEra = y - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    /**
+     * A routine or exam with its 24-hour start time, which sorts correctly as a string.
+     */
+    private static final class Item {
+        final Routine routine;
+        final Exam exam;
+        final String startTime;
+
+        Item(Routine routine) {
+            this.routine = routine;
+            this.exam = null;
+            this.startTime = routine.getStartTime() != null ? routine.getStartTime() : "";
+        }
+
+        Item(Exam exam) {
+            this.routine = null;
+            this.exam = exam;
+            this.startTime = exam.getStartTime() != null ? exam.getStartTime() : "";
+        }
+
+        boolean isCancelled() {
+            return routine != null ? routine.isCancelled() : exam.isCancelled();
+        }
+
+        CalendarEvent toEvent(Date date, boolean cancelled) {
+            if (routine != null) {
+                String title = cancelled ? routine.getSubject() + " (CANCELLED)" : routine.getSubject();
+                return new CalendarEvent(
+                        routine.getId(),
+                        title,
+                        routine.getClassroomName(),
+                        DateTimeUtils.formatTime(routine.getStartTime()) + " - " +
+                                DateTimeUtils.formatTime(routine.getEndTime()),
+                        "lab".equalsIgnoreCase(routine.getType()) ? "Lab" : "Class",
+                        "Room: " + routine.getRoom() + " | " + routine.getFaculty(),
+                        date,
+                        cancelled
+                );
+            }
+            String title = exam.getExamTypeDisplay() + ": " + exam.getCourseName();
+            return new CalendarEvent(
+                    exam.getId(),
+                    cancelled ? title + " (CANCELLED)" : title,
+                    exam.getClassroomName(),
+                    DateTimeUtils.formatTime(exam.getStartTime()),
+                    "Exam",
+                    "Course: " + exam.getCourseNo() + " | Room: " + exam.getRoom(),
+                    date,
+                    cancelled
+            );
+        }
+    }
+}
@@ -6,17 +6,15 @@ import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 
 import com.classbuddy.app.data.model.Classroom;
-import com.classbuddy.app.data.model.Exam;
-import com.classbuddy.app.data.model.Notice;
-import com.classbuddy.app.data.model.Routine;
 import com.classbuddy.app.data.repository.ClassroomRepository;
 import com.classbuddy.app.data.repository.ExamRepository;
 import com.classbuddy.app.data.repository.NoticeRepository;
 import com.classbuddy.app.data.repository.RoutineRepository;
 import com.classbuddy.app.util.Resource;
 
-import java.util.Date;
+import java.util.Collections;
 import java.util.List;
+import java.util.function.IntConsumer;
 
 public class ClassroomDetailViewModel extends ViewModel {
 
@@ -48,34 +46,25 @@ public class ClassroomDetailViewModel extends ViewModel {
 
     private void loadStats(String classroomId) {
         ClassroomStats classroomStats = new ClassroomStats();
+        List<String> classroomIds = Collections.singletonList(classroomId);
+
+        observeCount(routineRepository.countRoutines(classroomIds), classroomStats,
+                count -> classroomStats.routineCount = count);
+        observeCount(examRepository.countUpcomingExams(classroomIds), classroomStats,
+                count -> classroomStats.examCount = count);
+        observeCount(noticeRepository.countNotices(classroomIds), classroomStats,
+                count -> classroomStats.noticeCount = count);
+    }
 
-        // Load routine count
-        LiveData<Resource<List<Routine>>> routineSource = routineRepository.getRoutinesByClassroom(classroomId);
-        classroom.addSource(routineSource, resource -> {
+    private void observeCount(LiveData<Resource<Long>> source, ClassroomStats classroomStats,
+                              IntConsumer setter) {
+        classroom.addSource(source, resource -> {
             if (resource.isSuccess() && resource.data != null) {
-                classroomStats.routineCount = resource.data.size();
+                setter.accept(resource.data.intValue());
                 stats.setValue(classroomStats);
             }
-        });
-
-        // Load upcoming exam count
-        LiveData<Resource<List<Exam>>> examSource = examRepository.getExamsByClassroom(classroomId);
-        classroom.addSource(examSource, resource -> {
-            if (resource.isSuccess() && resource.data != null) {
-                Date now = new Date();
-                classroomStats.examCount = (int) resource.data.stream()
-                        .filter(exam -> exam.getExamDate() != null && exam.getExamDate().toDate().after(now))
-                        .count();
-                stats. setValue(classroomStats);
-            }
-        });
-
-        // Load notice count
-        LiveData<Resource<List<Notice>>> noticeSource = noticeRepository.getNoticesByClassroom(classroomId);
-        classroom.addSource(noticeSource, resource -> {
-            if (resource.isSuccess() && resource.data != null) {
-                classroomStats.noticeCount = resource.data.size();
-                stats.setValue(classroomStats);
+            if (!resource.isLoading()) {
+                classroom.removeSource(source);
             }
         });
     }
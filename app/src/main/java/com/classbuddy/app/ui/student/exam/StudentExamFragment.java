@@ -10,6 +10,7 @@ import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
+import androidx.core.widget.NestedScrollView;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
@@ -75,6 +76,17 @@ public class StudentExamFragment extends Fragment {
         binding.rvPastExams.setLayoutManager(new LinearLayoutManager(requireContext()));
         binding.rvPastExams. setAdapter(pastAdapter);
         binding.rvPastExams.setNestedScrollingEnabled(false);
+
+        // The lists are laid out in full inside the scroll view, so page past exams
+        // when the bottom of the content is less than a screen away
+        binding.scrollView.setOnScrollChangeListener((NestedScrollView.OnScrollChangeListener)
+                (v, scrollX, scrollY, oldScrollX, oldScrollY) -> {
+                    View content = v.getChildAt(0);
+                    if (content != null && binding.rvPastExams.getVisibility() == View.VISIBLE
+                            && scrollY + 2 * v.getHeight() >= content.getHeight()) {
+                        viewModel.loadMorePastExams();
+                    }
+                });
     }
 
     private void setupClickListeners() {
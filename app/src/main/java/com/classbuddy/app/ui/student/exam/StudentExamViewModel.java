@@ -6,19 +6,17 @@ import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 
 import com.classbuddy.app.data.model.Exam;
-import com.classbuddy.app.data.model.User;
 import com.classbuddy.app.data.repository.ExamRepository;
-import com.classbuddy.app.data.repository.UserRepository;
+import com.classbuddy.app.data.source.Pager;
+import com.classbuddy.app.ui.student.StudentSession;
 import com.classbuddy.app.util.Resource;
 
-import java.util.ArrayList;
-import java.util.Date;
+import java.util.Collections;
 import java.util.List;
-import java.util.stream.Collectors;
 
 public class StudentExamViewModel extends ViewModel {
 
-    private final UserRepository userRepository;
+    private final StudentSession session;
     private final ExamRepository examRepository;
 
     private final MediatorLiveData<Resource<List<Exam>>> upcomingExams = new MediatorLiveData<>();
@@ -26,114 +24,76 @@ public class StudentExamViewModel extends ViewModel {
     private final MutableLiveData<Boolean> isEmpty = new MutableLiveData<>(false);
 
     // Track current sources for cleanup
-    private LiveData<Resource<User>> userSource;
-    private LiveData<Resource<List<Exam>>> examSource;
+    private LiveData<Resource<List<Exam>>> upcomingSource;
+    private LiveData<Resource<List<Exam>>> pastSource;
 
-    // Track current classroom IDs to detect changes
-    private List<String> currentClassroomIds = new ArrayList<>();
+    // Only set for a single classroom; otherwise past exams are paged by the session
+    private Pager<Exam> pastExamPager;
 
     public StudentExamViewModel() {
-        userRepository = new UserRepository();
+        session = StudentSession.get();
         examRepository = new ExamRepository();
     }
 
     public void loadAllExams() {
-        upcomingExams.setValue(Resource.loading(null));
-
-        // Clean up old source
-        if (userSource != null) {
-            upcomingExams.removeSource(userSource);
-        }
-
-        userSource = userRepository.getCurrentUser();
-        upcomingExams.addSource(userSource, userResource -> {
-            if (userResource.isSuccess() && userResource.data != null) {
-                List<String> newClassroomIds = userResource.data.getJoinedClassrooms();
-                if (newClassroomIds == null) {
-                    newClassroomIds = new ArrayList<>();
-                }
-
-                // Check if classroom IDs changed
-                if (!areListsEqual(currentClassroomIds, newClassroomIds)) {
-                    currentClassroomIds = new ArrayList<>(newClassroomIds);
-
-                    if (!newClassroomIds.isEmpty()) {
-                        loadExamsForClassrooms(newClassroomIds);
-                    } else {
-                        upcomingExams.setValue(Resource.success(new ArrayList<>()));
-                        pastExams.setValue(Resource.success(new ArrayList<>()));
-                        isEmpty.setValue(true);
-                    }
-                }
-            } else if (userResource.isError()) {
-                upcomingExams.setValue(Resource.error(userResource.message, null));
-            }
-        });
+        pastExamPager = null;
+        showExams(session.getUpcomingExams(), session.getPastExams());
     }
 
-    private boolean areListsEqual(List<String> list1, List<String> list2) {
-        if (list1 == null && list2 == null) return true;
-        if (list1 == null || list2 == null) return false;
-        if (list1.size() != list2.size()) return false;
-        return list1.containsAll(list2) && list2.containsAll(list1);
+    public void loadExamsForClassroom(String classroomId) {
+        // Past exams only grow, so they are paged newest first instead of loaded in full
+        pastExamPager = examRepository.getPastExamPager(Collections.singletonList(classroomId));
+        showExams(StudentSession.forClassroom(session.getUpcomingExams(), Exam::getClassroomId, classroomId),
+                pastExamPager.getItems());
     }
 
-    private void loadExamsForClassrooms(List<String> classroomIds) {
-        // Clean up old source
-        if (examSource != null) {
-            upcomingExams.removeSource(examSource);
+    private void showExams(LiveData<Resource<List<Exam>>> upcoming, LiveData<Resource<List<Exam>>> past) {
+        // Clean up old sources
+        if (upcomingSource != null) {
+            upcomingExams.removeSource(upcomingSource);
+        }
+        if (pastSource != null) {
+            pastExams.removeSource(pastSource);
         }
 
-        examSource = examRepository.getExamsByClassrooms(classroomIds);
-        upcomingExams.addSource(examSource, resource -> {
-            if (resource.isSuccess() && resource.data != null) {
-                separateExams(resource.data);
-            } else if (resource.isError()) {
-                upcomingExams.setValue(resource);
-            }
+        upcomingSource = upcoming;
+        upcomingExams.addSource(upcomingSource, resource -> {
+            upcomingExams.setValue(resource);
+            updateIsEmpty();
         });
-    }
 
-    public void loadExamsForClassroom(String classroomId) {
-        upcomingExams.setValue(Resource.loading(null));
-
-        // Clean up old source
-        if (examSource != null) {
-            upcomingExams.removeSource(examSource);
-        }
-
-        examSource = examRepository.getExamsByClassroom(classroomId);
-        upcomingExams.addSource(examSource, resource -> {
-            if (resource.isSuccess() && resource.data != null) {
-                separateExams(resource.data);
-            } else {
-                upcomingExams.setValue(resource);
-            }
+        pastSource = past;
+        pastExams.addSource(pastSource, resource -> {
+            pastExams.setValue(resource);
+            updateIsEmpty();
         });
     }
 
-    private void separateExams(List<Exam> allExams) {
-        Date now = new Date();
-
-        List<Exam> upcoming = allExams.stream()
-                .filter(exam -> exam.getExamDate() != null && exam.getExamDate().toDate().after(now))
-                .collect(Collectors.toList());
+    public void loadMorePastExams() {
+        if (pastExamPager != null) {
+            pastExamPager.loadMore();
+        } else {
+            session.loadMorePastExams();
+        }
+    }
 
-        List<Exam> past = allExams.stream()
-                .filter(exam -> exam.getExamDate() != null && exam.getExamDate().toDate().before(now))
-                .collect(Collectors.toList());
+    private void updateIsEmpty() {
+        Resource<List<Exam>> upcoming = upcomingExams.getValue();
+        Resource<List<Exam>> past = pastExams.getValue();
+        isEmpty.setValue(isLoadedAndEmpty(upcoming) && isLoadedAndEmpty(past));
+    }
 
-        upcomingExams.setValue(Resource.success(upcoming));
-        pastExams.setValue(Resource.success(past));
-        isEmpty.setValue(upcoming.isEmpty() && past.isEmpty());
+    private boolean isLoadedAndEmpty(Resource<List<Exam>> resource) {
+        return resource != null && resource.isSuccess()
+                && (resource.data == null || resource.data.isEmpty());
     }
 
     @Override
     protected void onCleared() {
         super.onCleared();
         // Clean up all sources
-        if (userSource != null) upcomingExams.removeSource(userSource);
-        if (examSource != null) upcomingExams.removeSource(examSource);
+        if (upcomingSource != null) upcomingExams.removeSource(upcomingSource);
+        if (pastSource != null) pastExams.removeSource(pastSource);
     }
 
     public LiveData<Resource<List<Exam>>> getUpcomingExams() {
@@ -6,12 +6,14 @@ import android.view.LayoutInflater;
 import android.view.View;
 import android.view.ViewGroup;
 import android.widget.SearchView;
+import android.widget.Toast;
 
 import androidx.annotation.NonNull;
 import androidx.annotation.Nullable;
 import androidx.fragment.app.Fragment;
 import androidx.lifecycle.ViewModelProvider;
 import androidx.recyclerview.widget.LinearLayoutManager;
+import androidx.recyclerview.widget.RecyclerView;
 
 import com.bumptech.glide.Glide;
 import com.classbuddy.app.R;
@@ -61,11 +63,21 @@ public class StudentNoticeFragment extends Fragment {
     private void setupRecyclerView() {
         adapter = new NoticeAdapter((notice, position) -> {
             showNoticeDetail(notice);
-            viewModel.markAsRead(notice.getId());
+            viewModel.markAsRead(requireContext(), notice);
         });
 
-        binding.rvNotices.setLayoutManager(new LinearLayoutManager(requireContext()));
+        LinearLayoutManager layoutManager = new LinearLayoutManager(requireContext());
+        binding.rvNotices.setLayoutManager(layoutManager);
         binding. rvNotices.setAdapter(adapter);
+
+        // Load older notices as the end of the list comes into view
+        binding.rvNotices.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                viewModel.onListScrolled(layoutManager.findLastVisibleItemPosition(),
+                        layoutManager.getItemCount());
+            }
+        });
     }
 
     private void setupSearch() {
@@ -89,6 +101,18 @@ public class StudentNoticeFragment extends Fragment {
             requireActivity().onBackPressed();
         });
 
+        binding.toolbar.setOnMenuItemClickListener(item -> {
+            if (item.getItemId() == R.id.action_mark_all_read) {
+                viewModel.markAllAsRead().observe(getViewLifecycleOwner(), resource -> {
+                    if (resource.isError()) {
+                        Toast.makeText(requireContext(), resource.message, Toast.LENGTH_SHORT).show();
+                    }
+                });
+                return true;
+            }
+            return false;
+        });
+
         binding.swipeRefresh. setOnRefreshListener(() -> {
             if (classroomId != null) {
                 viewModel. loadNoticesForClassroom(classroomId);
@@ -156,6 +180,21 @@ public class StudentNoticeFragment extends Fragment {
     }
 
     private void observeViewModel() {
+        adapter.setCurrentUserId(viewModel.getCurrentUserId());
+        viewModel.getReadStates().observe(getViewLifecycleOwner(), resource -> {
+            if (resource.isSuccess()) {
+                adapter.setReadStates(resource.data);
+            }
+        });
+
+        viewModel.getUnreadCount().observe(getViewLifecycleOwner(), unreadCount -> {
+            if (unreadCount > 0) {
+                binding.toolbar.setSubtitle(unreadCount + " unread");
+            } else {
+                binding.toolbar.setSubtitle(null);
+            }
+        });
+
         viewModel.getFilteredNotices().observe(getViewLifecycleOwner(), resource -> {
             binding.swipeRefresh.setRefreshing(false);
 
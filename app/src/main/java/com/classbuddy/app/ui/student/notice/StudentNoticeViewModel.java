@@ -1,117 +1,97 @@
 package com.classbuddy.app.ui.student.notice;
 
+import android.content.Context;
+
 import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 
 import com.classbuddy.app.data.model.Notice;
-import com.classbuddy.app.data.model.User;
+import com.classbuddy.app.data.model.NoticeReadState;
 import com.classbuddy.app.data.repository.NoticeRepository;
-import com.classbuddy.app.data.repository.UserRepository;
+import com.classbuddy.app.data.source.Pager;
+import com.classbuddy.app.ui.student.StudentSession;
 import com.classbuddy.app.util.Resource;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 public class StudentNoticeViewModel extends ViewModel {
 
-    private final UserRepository userRepository;
+    private final StudentSession session;
     private final NoticeRepository noticeRepository;
 
     private final MediatorLiveData<Resource<List<Notice>>> filteredNotices = new MediatorLiveData<>();
     private final MutableLiveData<String> currentPriorityFilter = new MutableLiveData<>(null);
     private final MutableLiveData<String> searchQuery = new MutableLiveData<>("");
 
-    // Track current sources for cleanup
-    private LiveData<Resource<User>> userSource;
+    // Track current source for cleanup
     private LiveData<Resource<List<Notice>>> noticeSource;
 
-    // Track current classroom IDs to detect changes
-    private List<String> currentClassroomIds = new ArrayList<>();
+    // Only set for a single classroom; otherwise notices are paged by the session
+    private Pager<Notice> noticePager;
+    private String classroomId;
 
     private List<Notice> allNotices = new ArrayList<>();
 
+    private final MediatorLiveData<Resource<Map<String, NoticeReadState>>> readStates = new MediatorLiveData<>();
+    private final MediatorLiveData<Integer> unreadCount = new MediatorLiveData<>();
+    private LiveData<Resource<Map<String, NoticeReadState>>> readStateSource;
+
     public StudentNoticeViewModel() {
-        userRepository = new UserRepository();
+        session = StudentSession.get();
         noticeRepository = new NoticeRepository();
     }
 
     public void loadAllNotices() {
-        filteredNotices.setValue(Resource.loading(null));
-
-        // Clean up old source
-        if (userSource != null) {
-            filteredNotices.removeSource(userSource);
-        }
-
-        userSource = userRepository.getCurrentUser();
-        filteredNotices.addSource(userSource, userResource -> {
-            if (userResource.isSuccess() && userResource.data != null) {
-                List<String> newClassroomIds = userResource.data.getJoinedClassrooms();
-                if (newClassroomIds == null) {
-                    newClassroomIds = new ArrayList<>();
-                }
-
-                // Check if classroom IDs changed
-                if (!areListsEqual(currentClassroomIds, newClassroomIds)) {
-                    currentClassroomIds = new ArrayList<>(newClassroomIds);
-
-                    if (!newClassroomIds.isEmpty()) {
-                        loadNoticesForClassrooms(newClassroomIds);
-                    } else {
-                        allNotices = new ArrayList<>();
-                        filteredNotices.setValue(Resource.success(new ArrayList<>()));
-                    }
-                }
-            } else if (userResource.isError()) {
-                filteredNotices.setValue(Resource.error(userResource.message, null));
-            }
-        });
+        classroomId = null;
+        noticePager = null;
+        showNotices(session.getNotices());
     }
 
-    private boolean areListsEqual(List<String> list1, List<String> list2) {
-        if (list1 == null && list2 == null) return true;
-        if (list1 == null || list2 == null) return false;
-        if (list1.size() != list2.size()) return false;
-        return list1.containsAll(list2) && list2.containsAll(list1);
+    public void loadNoticesForClassroom(String classroomId) {
+        this.classroomId = classroomId;
+        noticePager = noticeRepository.getNoticePager(Collections.singletonList(classroomId));
+        showNotices(noticePager.getItems());
     }
 
-    private void loadNoticesForClassrooms(List<String> classroomIds) {
+    private void showNotices(LiveData<Resource<List<Notice>>> source) {
         // Clean up old source
         if (noticeSource != null) {
             filteredNotices.removeSource(noticeSource);
         }
 
-        noticeSource = noticeRepository.getNoticesByClassrooms(classroomIds);
+        observeReadStates();
+
+        noticeSource = source;
         filteredNotices.addSource(noticeSource, resource -> {
             if (resource.isSuccess() && resource.data != null) {
-                allNotices = resource.data;
+                allNotices = pinnedFirst(resource.data);
                 applyFilters();
+                updateUnreadCount();
             } else {
                 filteredNotices.setValue(resource);
             }
         });
     }
 
-    public void loadNoticesForClassroom(String classroomId) {
-        filteredNotices.setValue(Resource.loading(null));
-
-        // Clean up old source
-        if (noticeSource != null) {
-            filteredNotices.removeSource(noticeSource);
+    public void onListScrolled(int lastVisiblePosition, int itemCount) {
+        if (noticePager != null) {
+            noticePager.onScrolled(lastVisiblePosition, itemCount);
+        } else {
+            session.onNoticesScrolled(lastVisiblePosition, itemCount);
         }
+    }
 
-        noticeSource = noticeRepository.getNoticesByClassroom(classroomId);
-        filteredNotices.addSource(noticeSource, resource -> {
-            if (resource.isSuccess() && resource.data != null) {
-                allNotices = resource.data;
-                applyFilters();
-            } else {
-                filteredNotices.setValue(resource);
-            }
-        });
+    // Pages arrive newest first; pinned notices among the loaded ones stay on top
+    private List<Notice> pinnedFirst(List<Notice> notices) {
+        List<Notice> sorted = new ArrayList<>(notices);
+        sorted.sort((n1, n2) -> Boolean.compare(n2.isPinned(), n1.isPinned()));
+        return sorted;
     }
 
     public void filterByPriority(String priority) {
@@ -124,8 +104,50 @@ public class StudentNoticeViewModel extends ViewModel {
         applyFilters();
     }
 
-    public void markAsRead(String noticeId) {
-        noticeRepository.markAsRead(noticeId);
+    private void observeReadStates() {
+        if (readStateSource != null) return;
+
+        readStateSource = noticeRepository.getReadStates();
+        readStates.addSource(readStateSource, resource -> {
+            readStates.setValue(resource);
+            updateUnreadCount();
+        });
+    }
+
+    // Counts the loaded notices only; older pages are not known yet
+    private void updateUnreadCount() {
+        String studentId = noticeRepository.getCurrentUserId();
+        if (studentId == null) return;
+
+        Map<String, NoticeReadState> states = readStates.getValue() != null ? readStates.getValue().data : null;
+        int unread = 0;
+        for (Notice notice : allNotices) {
+            if (!NoticeReadState.isRead(states, notice, studentId)) {
+                unread++;
+            }
+        }
+        unreadCount.setValue(unread);
+    }
+
+    public void markAsRead(Context context, Notice notice) {
+        String studentId = noticeRepository.getCurrentUserId();
+        Resource<Map<String, NoticeReadState>> states = readStates.getValue();
+        if (studentId != null && states != null
+                && NoticeReadState.isRead(states.data, notice, studentId)) {
+            return;
+        }
+        noticeRepository.markAsRead(context, notice);
+    }
+
+    public LiveData<Resource<Void>> markAllAsRead() {
+        List<String> classroomIds;
+        if (classroomId != null) {
+            classroomIds = Collections.singletonList(classroomId);
+        } else {
+            Resource<List<String>> joined = session.getClassroomIds().getValue();
+            classroomIds = joined != null && joined.data != null ? joined.data : new ArrayList<>();
+        }
+        return noticeRepository.markAllAsRead(classroomIds);
     }
 
     private void applyFilters() {
@@ -159,11 +181,23 @@ public class StudentNoticeViewModel extends ViewModel {
     protected void onCleared() {
         super.onCleared();
         // Clean up all sources
-        if (userSource != null) filteredNotices.removeSource(userSource);
         if (noticeSource != null) filteredNotices.removeSource(noticeSource);
+        if (readStateSource != null) readStates.removeSource(readStateSource);
     }
 
     public LiveData<Resource<List<Notice>>> getFilteredNotices() {
         return filteredNotices;
     }
+
+    public LiveData<Resource<Map<String, NoticeReadState>>> getReadStates() {
+        return readStates;
+    }
+
+    public LiveData<Integer> getUnreadCount() {
+        return unreadCount;
+    }
+
+    public String getCurrentUserId() {
+        return noticeRepository.getCurrentUserId();
+    }
 }
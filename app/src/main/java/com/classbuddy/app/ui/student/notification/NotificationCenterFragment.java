@@ -21,12 +21,17 @@ import com.classbuddy.app.databinding.FragmentNotificationCenterBinding;
 import com.google.android.material.dialog.MaterialAlertDialogBuilder;
 import com.google.android.material.snackbar.Snackbar;
 
+import java.util.List;
+
 public class NotificationCenterFragment extends Fragment {
 
     private FragmentNotificationCenterBinding binding;
     private NotificationCenterViewModel viewModel;
     private NotificationAdapter adapter;
 
+    // Shown once the running bulk operation completes
+    private String bulkDoneMessage;
+
     @Override
     public View onCreateView(@NonNull LayoutInflater inflater, ViewGroup container, Bundle savedInstanceState) {
         binding = FragmentNotificationCenterBinding. inflate(inflater, container, false);
@@ -48,20 +53,30 @@ public class NotificationCenterFragment extends Fragment {
     private void setupRecyclerView() {
         adapter = new NotificationAdapter((notification, position) -> {
             // Mark as read and handle click
-            viewModel.markAsRead(notification.getId());
+            viewModel.markAsRead(notification);
             handleNotificationClick(notification);
         });
 
-        binding.rvNotifications. setLayoutManager(new LinearLayoutManager(requireContext()));
+        LinearLayoutManager layoutManager = new LinearLayoutManager(requireContext());
+        binding.rvNotifications. setLayoutManager(layoutManager);
         binding.rvNotifications.setAdapter(adapter);
+
+        // Load older notifications as the end of the list comes into view
+        binding.rvNotifications.addOnScrollListener(new RecyclerView.OnScrollListener() {
+            @Override
+            public void onScrolled(@NonNull RecyclerView recyclerView, int dx, int dy) {
+                viewModel.onListScrolled(layoutManager.findLastVisibleItemPosition(),
+                        layoutManager.getItemCount());
+            }
+        });
     }
 
     private void setupClickListeners() {
         binding.toolbar.setOnMenuItemClickListener(item -> {
             int itemId = item.getItemId();
             if (itemId == R.id.action_mark_all_read) {
+                bulkDoneMessage = "All marked as read";
                 viewModel.markAllAsRead();
-                Toast.makeText(requireContext(), "All marked as read", Toast.LENGTH_SHORT).show();
                 return true;
             } else if (itemId == R. id.action_clear_all) {
                 showClearAllDialog();
@@ -89,7 +104,7 @@ public class NotificationCenterFragment extends Fragment {
                 int position = viewHolder.getAdapterPosition();
                 Notification notification = adapter.getCurrentList().get(position);
 
-                viewModel.deleteNotification(notification. getId());
+                viewModel.deleteNotification(notification);
 
                 Snackbar.make(binding. getRoot(), "Notification deleted", Snackbar.LENGTH_LONG)
                         .setAction("Undo", v -> {
@@ -153,8 +168,8 @@ public class NotificationCenterFragment extends Fragment {
                 .setTitle(R.string.clear_all)
                 .setMessage("Are you sure you want to clear all notifications? ")
                 .setPositiveButton(R.string.yes, (dialog, which) -> {
+                    bulkDoneMessage = "All notifications cleared";
                     viewModel.clearAllNotifications();
-                    Toast.makeText(requireContext(), "All notifications cleared", Toast.LENGTH_SHORT).show();
                 })
                 .setNegativeButton(R.string.no, null)
                 .show();
@@ -178,14 +193,7 @@ public class NotificationCenterFragment extends Fragment {
                         adapter.submitList(resource.data);
 
                         // Update unread count in toolbar
-                        long unreadCount = resource.data. stream()
-                                .filter(n -> ! n.isRead())
-                                .count();
-                        if (unreadCount > 0) {
-                            binding.toolbar. setSubtitle(unreadCount + " unread");
-                        } else {
-                            binding.toolbar.setSubtitle(null);
-                        }
+                        showUnreadCount(resource.data);
                     } else {
                         binding.rvNotifications. setVisibility(View.GONE);
                         binding.layoutEmpty.setVisibility(View. VISIBLE);
@@ -199,6 +207,45 @@ public class NotificationCenterFragment extends Fragment {
                     break;
             }
         });
+
+        viewModel.getBulkOperation().observe(getViewLifecycleOwner(), resource -> {
+            switch (resource.status) {
+                case LOADING:
+                    binding.progressBar.setVisibility(View.VISIBLE);
+                    if (resource.data != null && resource.data.isTotalKnown()) {
+                        binding.toolbar.setSubtitle("Updating " + resource.data.getProcessed()
+                                + " of " + resource.data.getTotal());
+                    }
+                    break;
+
+                case SUCCESS:
+                    binding.progressBar.setVisibility(View.GONE);
+                    showUnreadCount(adapter.getCurrentList());
+                    if (bulkDoneMessage != null) {
+                        Toast.makeText(requireContext(), bulkDoneMessage, Toast.LENGTH_SHORT).show();
+                        bulkDoneMessage = null;
+                    }
+                    break;
+
+                case ERROR:
+                    binding.progressBar.setVisibility(View.GONE);
+                    showUnreadCount(adapter.getCurrentList());
+                    bulkDoneMessage = null;
+                    Toast.makeText(requireContext(), resource.message, Toast.LENGTH_SHORT).show();
+                    break;
+            }
+        });
+    }
+
+    private void showUnreadCount(List<Notification> notifications) {
+        long unreadCount = notifications.stream()
+                .filter(n -> ! n.isRead())
+                .count();
+        if (unreadCount > 0) {
+            binding.toolbar. setSubtitle(unreadCount + " unread");
+        } else {
+            binding.toolbar.setSubtitle(null);
+        }
     }
 
     @Override
@@ -4,8 +4,12 @@ import androidx.lifecycle.LiveData;
 import androidx.lifecycle.MediatorLiveData;
 import androidx.lifecycle.ViewModel;
 
+import com.classbuddy.app.data.model.BatchProgress;
+import com.classbuddy.app.data.model.InboxState;
 import com.classbuddy.app.data.model.Notification;
 import com.classbuddy.app.data.repository.NotificationRepository;
+import com.classbuddy.app.data.source.Pager;
+import com.classbuddy.app.ui.student.StudentSession;
 import com.classbuddy.app.util.Resource;
 
 import java.util.List;
@@ -13,39 +17,129 @@ import java.util.List;
 public class NotificationCenterViewModel extends ViewModel {
 
     private final NotificationRepository notificationRepository;
+    private final StudentSession session;
     private final MediatorLiveData<Resource<List<Notification>>> notifications = new MediatorLiveData<>();
 
+    private final MediatorLiveData<Resource<BatchProgress>> bulkOperation = new MediatorLiveData<>();
+
+    private Pager<Notification> pager;
+    private LiveData<Resource<BatchProgress>> bulkSource;
+    private LiveData<Resource<List<Notification>>> source;
+    private LiveData<Resource<InboxState>> inboxStateSource;
+
+    private List<String> classroomIds;
+    private Resource<List<Notification>> latest;
+    private InboxState inboxState;
+
     public NotificationCenterViewModel() {
         notificationRepository = new NotificationRepository();
-        loadNotifications();
+        session = StudentSession.get();
+        observeClassrooms();
+        observeInboxState();
+    }
+
+    // The inbox includes the notifications of every joined classroom
+    private void observeClassrooms() {
+        notifications.addSource(session.getClassroomIds(), resource -> {
+            if (resource.isSuccess() && resource.data != null) {
+                classroomIds = resource.data;
+                loadNotifications();
+            } else if (resource.isError()) {
+                notifications.setValue(Resource.error(resource.message, null));
+            }
+        });
+    }
+
+    private void observeInboxState() {
+        inboxStateSource = notificationRepository.getInboxState();
+        notifications.addSource(inboxStateSource, resource -> {
+            if (resource.isSuccess()) {
+                inboxState = resource.data;
+                publish();
+            }
+        });
     }
 
     private void loadNotifications() {
-        LiveData<Resource<List<Notification>>> source = notificationRepository.getNotifications();
-        notifications.addSource(source, notifications:: setValue);
+        if (source != null) {
+            notifications.removeSource(source);
+        }
+
+        pager = notificationRepository.getNotificationPager(classroomIds);
+        if (pager == null) {
+            notifications.setValue(Resource.error("User not logged in", null));
+            return;
+        }
+
+        source = pager.getItems();
+        notifications.addSource(source, resource -> {
+            // Keep the current inbox on screen while a replacement pager loads
+            if (resource.isLoading() && latest != null && latest.data != null) return;
+            latest = resource;
+            publish();
+        });
+    }
+
+    private void publish() {
+        if (latest == null) return;
+        if (latest.isSuccess() && latest.data != null) {
+            notifications.setValue(Resource.success(InboxState.apply(inboxState, latest.data)));
+        } else {
+            notifications.setValue(latest);
+        }
+    }
+
+    public void onListScrolled(int lastVisiblePosition, int itemCount) {
+        if (pager != null) {
+            pager.onScrolled(lastVisiblePosition, itemCount);
+        }
     }
 
     public void refreshNotifications() {
-        loadNotifications();
+        if (classroomIds != null) {
+            loadNotifications();
+        }
     }
 
-    public void markAsRead(String notificationId) {
-        notificationRepository. markAsRead(notificationId);
+    public void markAsRead(Notification notification) {
+        if (notification.isRead()) return;
+        notificationRepository.markAsRead(notification);
     }
 
     public void markAllAsRead() {
-        notificationRepository.markAllAsRead();
+        runBulkOperation(notificationRepository.markAllAsRead());
     }
 
-    public void deleteNotification(String notificationId) {
-        notificationRepository.deleteNotification(notificationId);
+    public void deleteNotification(Notification notification) {
+        notificationRepository.deleteNotification(notification);
     }
 
     public void clearAllNotifications() {
-        notificationRepository.clearAllNotifications();
+        runBulkOperation(notificationRepository.clearAllNotifications());
+    }
+
+    private void runBulkOperation(LiveData<Resource<BatchProgress>> source) {
+        if (bulkSource != null) {
+            bulkOperation.removeSource(bulkSource);
+        }
+
+        bulkSource = source;
+        bulkOperation.addSource(source, resource -> {
+            bulkOperation.setValue(resource);
+            if (!resource.isLoading()) {
+                bulkOperation.removeSource(source);
+            }
+        });
     }
 
     public LiveData<Resource<List<Notification>>> getNotifications() {
         return notifications;
     }
+
+    /**
+     * Progress of the running mark-all-read or clear-all operation.
+     */
+    public LiveData<Resource<BatchProgress>> getBulkOperation() {
+        return bulkOperation;
+    }
 }
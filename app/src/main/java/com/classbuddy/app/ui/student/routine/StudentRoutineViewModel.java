@@ -6,9 +6,7 @@ import androidx.lifecycle.MutableLiveData;
 import androidx.lifecycle.ViewModel;
 
 import com.classbuddy.app.data.model.Routine;
-import com.classbuddy.app.data.model.User;
-import com.classbuddy.app.data.repository.RoutineRepository;
-import com.classbuddy.app.data.repository.UserRepository;
+import com.classbuddy.app.ui.student.StudentSession;
 import com.classbuddy.app.util.DateTimeUtils;
 import com.classbuddy.app.util.Resource;
 
@@ -20,92 +18,35 @@ import java.util.stream.Collectors;
 
 public class StudentRoutineViewModel extends ViewModel {
 
-    private final UserRepository userRepository;
-    private final RoutineRepository routineRepository;
+    private final StudentSession session;
 
     private final MediatorLiveData<Resource<List<Routine>>> filteredRoutines = new MediatorLiveData<>();
     private final MutableLiveData<Integer> selectedDayIndex = new MutableLiveData<>(DateTimeUtils.getCurrentDayIndex());
 
-    // Track current sources for cleanup
-    private LiveData<Resource<User>> userSource;
+    // Track current source for cleanup
     private LiveData<Resource<List<Routine>>> routineSource;
 
-    // Track current classroom IDs to detect changes
-    private List<String> currentClassroomIds = new ArrayList<>();
-
     private List<Routine> allRoutines = new ArrayList<>();
 
     public StudentRoutineViewModel() {
-        userRepository = new UserRepository();
-        routineRepository = new RoutineRepository();
+        session = StudentSession.get();
     }
 
     public void loadAllRoutines() {
-        filteredRoutines.setValue(Resource.loading(null));
-
-        // Clean up old source
-        if (userSource != null) {
-            filteredRoutines.removeSource(userSource);
-        }
-
-        userSource = userRepository.getCurrentUser();
-        filteredRoutines.addSource(userSource, userResource -> {
-            if (userResource.isSuccess() && userResource.data != null) {
-                List<String> newClassroomIds = userResource.data.getJoinedClassrooms();
-                if (newClassroomIds == null) {
-                    newClassroomIds = new ArrayList<>();
-                }
-
-                // Check if classroom IDs changed
-                if (!areListsEqual(currentClassroomIds, newClassroomIds)) {
-                    currentClassroomIds = new ArrayList<>(newClassroomIds);
-
-                    if (!newClassroomIds.isEmpty()) {
-                        loadRoutinesForClassrooms(newClassroomIds);
-                    } else {
-                        allRoutines = new ArrayList<>();
-                        filteredRoutines.setValue(Resource.success(new ArrayList<>()));
-                    }
-                }
-            } else if (userResource.isError()) {
-                filteredRoutines.setValue(Resource.error(userResource.message, null));
-            }
-        });
-    }
-
-    private boolean areListsEqual(List<String> list1, List<String> list2) {
-        if (list1 == null && list2 == null) return true;
-        if (list1 == null || list2 == null) return false;
-        if (list1.size() != list2.size()) return false;
-        return list1.containsAll(list2) && list2.containsAll(list1);
-    }
-
-    private void loadRoutinesForClassrooms(List<String> classroomIds) {
-        // Clean up old source
-        if (routineSource != null) {
-            filteredRoutines.removeSource(routineSource);
-        }
-
-        routineSource = routineRepository.getRoutinesByClassrooms(classroomIds);
-        filteredRoutines.addSource(routineSource, resource -> {
-            if (resource.isSuccess() && resource.data != null) {
-                allRoutines = resource.data;
-                applyDayFilter();
-            } else {
-                filteredRoutines.setValue(resource);
-            }
-        });
+        showRoutines(session.getRoutines());
     }
 
     public void loadRoutinesForClassroom(String classroomId) {
-        filteredRoutines.setValue(Resource.loading(null));
+        showRoutines(StudentSession.forClassroom(session.getRoutines(), Routine::getClassroomId, classroomId));
+    }
 
+    private void showRoutines(LiveData<Resource<List<Routine>>> source) {
         // Clean up old source
         if (routineSource != null) {
             filteredRoutines.removeSource(routineSource);
         }
 
-        routineSource = routineRepository.getRoutinesByClassroom(classroomId);
+        routineSource = source;
         filteredRoutines.addSource(routineSource, resource -> {
             if (resource.isSuccess() && resource.data != null) {
                 allRoutines = resource.data;
@@ -157,8 +98,6 @@ public class StudentRoutineViewModel extends ViewModel {
     @Override
     protected void onCleared() {
         super.onCleared();
-        // Clean up all sources
-        if (userSource != null) filteredRoutines.removeSource(userSource);
         if (routineSource != null) filteredRoutines.removeSource(routineSource);
     }
 
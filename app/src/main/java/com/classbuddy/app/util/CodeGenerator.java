@@ -2,6 +2,7 @@ package com.classbuddy.app.util;
 
 
 import java.security.SecureRandom;
+import java.util.Random;
 
 public class CodeGenerator {
 
@@ -10,21 +11,28 @@ public class CodeGenerator {
     private static final SecureRandom random = new SecureRandom();
 
     public static String generateClassroomCode() {
-        return generateCode(Constants.CLASSROOM_CODE_LENGTH, ALPHA_NUMERIC);
+        return generateClassroomCode(random);
+    }
+
+    /**
+     * A classroom code drawn from source, so a seeded source gives reproducible codes.
+     */
+    public static String generateClassroomCode(Random source) {
+        return generateCode(Constants.CLASSROOM_CODE_LENGTH, ALPHA_NUMERIC, source);
     }
 
     public static String generatePassword(int length) {
-        return generateCode(length, NUMERIC);
+        return generateCode(length, NUMERIC, random);
     }
 
     public static String generateUniqueId() {
-        return generateCode(16, ALPHA_NUMERIC);
+        return generateCode(16, ALPHA_NUMERIC, random);
     }
 
-    private static String generateCode(int length, String characters) {
+    private static String generateCode(int length, String characters, Random source) {
         StringBuilder sb = new StringBuilder(length);
         for (int i = 0; i < length; i++) {
-            int index = random.nextInt(characters.length());
+            int index = source.nextInt(characters.length());
             sb.append(characters.charAt(index));
         }
         return sb.toString();
@@ -9,6 +9,10 @@ public class Constants {
     public static final String COLLECTION_EXAMS = "exams";
     public static final String COLLECTION_NOTICES = "notices";
     public static final String COLLECTION_NOTIFICATIONS = "notifications";
+    public static final String COLLECTION_CLASSROOM_NOTIFICATIONS = "classroomNotifications";
+    public static final String COLLECTION_INBOX_STATES = "inboxStates";
+    public static final String COLLECTION_CLASSROOM_CODES = "classroomCodes";
+    public static final String COLLECTION_NOTICE_READS = "noticeReads"; // Under users/{userId}
 
     // User Roles
     public static final String ROLE_ADMIN = "admin";
@@ -58,6 +62,16 @@ public class Constants {
     public static final int CODE_LENGTH = 6;
     public static final int PASSWORD_LENGTH = 4;
     public static final int CLASSROOM_CODE_LENGTH = 6;
+    public static final int FIRESTORE_WHERE_IN_LIMIT = 30; // Max disjunctions per whereIn query
+    public static final int FIRESTORE_BATCH_LIMIT = 500; // Max writes per WriteBatch
+    public static final int UPCOMING_EXAMS_LIMIT = 10;
+    public static final int PAGE_SIZE = 20;
+    public static final int PAGE_PREFETCH_DISTANCE = 5; // Items from the end before the next page loads
+    public static final long COUNT_CACHE_TTL_MS = 60000; // How long an aggregated count is reused
+    public static final int CLASSROOM_CODE_ATTEMPTS = 5; // Fresh codes tried before giving up on a collision
+    public static final int CLASSROOM_CODE_CACHE_SIZE = 64; // Resolved codes remembered for repeat joins
+    public static final long READ_RECEIPT_FLUSH_DELAY_MS = 3000; // Read receipts collected per batch
+    public static final long READ_RECEIPT_RETRY_DELAY_MS = 30000;
 
     // SharedPreferences Keys
     public static final String PREF_NAME = "classbuddy_prefs";
@@ -65,6 +79,7 @@ public class Constants {
     public static final String PREF_USER_ROLE = "user_role";
     public static final String PREF_FCM_TOKEN = "fcm_token";
     public static final String PREF_NOTIFICATIONS_ENABLED = "notifications_enabled";
+    public static final String PREF_PENDING_READ_RECEIPTS = "pending_read_receipts";
 
     // Intent Extras
     public static final String EXTRA_CLASSROOM_ID = "classroom_id";
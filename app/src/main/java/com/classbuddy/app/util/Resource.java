@@ -22,16 +22,33 @@ public class Resource<T> {
     @Nullable
     public final String message;
 
+    /**
+     * Whether data came from the local cache and may be replaced by a newer result.
+     */
+    public final boolean stale;
+
     private Resource(@NonNull Status status, @Nullable T data, @Nullable String message) {
+        this(status, data, message, false);
+    }
+
+    private Resource(@NonNull Status status, @Nullable T data, @Nullable String message, boolean stale) {
         this.status = status;
         this. data = data;
         this.message = message;
+        this.stale = stale;
     }
 
     public static <T> Resource<T> success(@Nullable T data) {
         return new Resource<>(Status.SUCCESS, data, null);
     }
 
+    /**
+     * A success read from the local cache, to be shown until the server's result arrives.
+     */
+    public static <T> Resource<T> stale(@Nullable T data) {
+        return new Resource<>(Status.SUCCESS, data, null, true);
+    }
+
     public static <T> Resource<T> error(String message, @Nullable T data) {
         return new Resource<>(Status.ERROR, data, message);
     }
@@ -51,4 +68,8 @@ public class Resource<T> {
     public boolean isLoading() {
         return status == Status.LOADING;
     }
+
+    public boolean isStale() {
+        return stale;
+    }
 }
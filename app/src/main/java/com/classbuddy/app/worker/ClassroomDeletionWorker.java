@@ -0,0 +1,88 @@
+package com.classbuddy.app.worker;
+
+import android.content.Context;
+import android.util.Log;
+
+import androidx.annotation.NonNull;
+import androidx.lifecycle.LiveData;
+import androidx.work.BackoffPolicy;
+import androidx.work.Constraints;
+import androidx.work.Data;
+import androidx.work.ExistingWorkPolicy;
+import androidx.work.NetworkType;
+import androidx.work.OneTimeWorkRequest;
+import androidx.work.WorkInfo;
+import androidx.work.WorkManager;
+import androidx.work.Worker;
+import androidx.work.WorkerParameters;
+
+import com.classbuddy.app.data.remote.ClassroomDeletionPipeline;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs {@link ClassroomDeletionPipeline} for one classroom. WorkManager keeps the request
+ * across process death and the pipeline resumes from its checkpoint, so a deletion started
+ * once always finishes.
+ */
+public class ClassroomDeletionWorker extends Worker {
+
+    private static final String TAG = "ClassroomDeletion";
+    private static final int MAX_ATTEMPTS = 10;
+
+    public static final String KEY_CLASSROOM_ID = "classroomId";
+    public static final String KEY_STAGE = "stage";
+    public static final String KEY_PROCESSED = "processed";
+
+    public ClassroomDeletionWorker(@NonNull Context context, @NonNull WorkerParameters workerParams) {
+        super(context, workerParams);
+    }
+
+    public static String uniqueWorkName(String classroomId) {
+        return "delete_classroom_" + classroomId;
+    }
+
+    public static void enqueue(Context context, String classroomId) {
+        Data inputData = new Data.Builder()
+                .putString(KEY_CLASSROOM_ID, classroomId)
+                .build();
+
+        OneTimeWorkRequest workRequest = new OneTimeWorkRequest.Builder(ClassroomDeletionWorker.class)
+                .setInputData(inputData)
+                .setConstraints(new Constraints.Builder()
+                        .setRequiredNetworkType(NetworkType.CONNECTED)
+                        .build())
+                .setBackoffCriteria(BackoffPolicy.EXPONENTIAL, 30, TimeUnit.SECONDS)
+                .build();
+
+        // KEEP: asking again while a deletion is running must not restart it
+        WorkManager.getInstance(context)
+                .enqueueUniqueWork(uniqueWorkName(classroomId), ExistingWorkPolicy.KEEP, workRequest);
+    }
+
+    public static LiveData<List<WorkInfo>> getWorkInfos(Context context, String classroomId) {
+        return WorkManager.getInstance(context).getWorkInfosForUniqueWorkLiveData(uniqueWorkName(classroomId));
+    }
+
+    @NonNull
+    @Override
+    public Result doWork() {
+        String classroomId = getInputData().getString(KEY_CLASSROOM_ID);
+        if (classroomId == null) {
+            return Result.failure();
+        }
+
+        try {
+            new ClassroomDeletionPipeline().run(classroomId, (stage, processed) ->
+                    setProgressAsync(new Data.Builder()
+                            .putString(KEY_STAGE, stage.name())
+                            .putInt(KEY_PROCESSED, processed)
+                            .build()));
+            return Result.success();
+        } catch (Exception e) {
+            Log.w(TAG, "Deleting classroom " + classroomId + " failed", e);
+            return getRunAttemptCount() < MAX_ATTEMPTS ? Result.retry() : Result.failure();
+        }
+    }
+}
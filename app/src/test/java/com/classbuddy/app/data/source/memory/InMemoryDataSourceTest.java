@@ -0,0 +1,274 @@
+package com.classbuddy.app.data.source.memory;
+
+import androidx.arch.core.executor.testing.InstantTaskExecutorRule;
+import androidx.lifecycle.LiveData;
+import androidx.lifecycle.Observer;
+
+import com.classbuddy.app.data.model.Classroom;
+import com.classbuddy.app.data.model.Exam;
+import com.classbuddy.app.data.model.InboxState;
+import com.classbuddy.app.data.model.Notice;
+import com.classbuddy.app.data.model.NoticeReadState;
+import com.classbuddy.app.data.model.Notification;
+import com.classbuddy.app.data.model.Routine;
+import com.classbuddy.app.data.model.User;
+import com.classbuddy.app.data.source.Pager;
+import com.classbuddy.app.data.source.ReadPolicy;
+import com.classbuddy.app.util.Resource;
+import com.google.firebase.Timestamp;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+
+public class InMemoryDataSourceTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+    private static final long DAY = TimeUnit.DAYS.toMillis(1);
+
+    @Rule
+    public InstantTaskExecutorRule instantTaskExecutorRule = new InstantTaskExecutorRule();
+
+    private InMemoryDataSource dataSource;
+
+    @Before
+    public void setUp() {
+        dataSource = new InMemoryDataSource(42, () -> NOW);
+    }
+
+    @Test
+    public void sameSeed_generatesSameIdsAndCodes() {
+        InMemoryDataSource other = new InMemoryDataSource(42, () -> NOW);
+
+        String id = value(dataSource.createClassroom(classroom("admin"))).data;
+        String otherId = value(other.createClassroom(classroom("admin"))).data;
+
+        assertEquals(id, otherId);
+        assertEquals(value(dataSource.getClassroom(id)).data.getCode(),
+                value(other.getClassroom(otherId)).data.getCode());
+        assertEquals(value(dataSource.regenerateClassroomCode(id)).data,
+                value(other.regenerateClassroomCode(otherId)).data);
+    }
+
+    @Test
+    public void routinesByClassroom_returnsOnlyThatClassroomInWeekOrder() {
+        String math = createClassroom();
+        String physics = createClassroom();
+        createRoutine(math, 2, "10:00");
+        createRoutine(physics, 1, "09:00");
+        createRoutine(math, 1, "11:00");
+        createRoutine(math, 1, "08:00");
+
+        List<Routine> routines = value(dataSource.getRoutinesByClassroom(math, ReadPolicy.CACHE_THEN_SERVER)).data;
+
+        assertEquals(3, routines.size());
+        for (Routine routine : routines) {
+            assertEquals(math, routine.getClassroomId());
+        }
+        assertEquals("08:00", routines.get(0).getStartTime());
+        assertEquals("11:00", routines.get(1).getStartTime());
+        assertEquals(2, routines.get(2).getDayIndex());
+    }
+
+    @Test
+    public void classroomByCode_findsClassroomAndIgnoresUnknownCodes() {
+        String id = createClassroom();
+        String code = value(dataSource.getClassroom(id)).data.getCode();
+
+        assertEquals(id, value(dataSource.getClassroomByCode(code)).data.getId());
+        assertTrue(value(dataSource.getClassroomByCode("NOPE00")).isError());
+    }
+
+    @Test
+    public void examsBetween_returnsOnlyExamsInWindow() {
+        String classroom = createClassroom();
+        String other = createClassroom();
+        createExam(classroom, NOW - DAY);
+        String inWindow = createExam(classroom, NOW + DAY);
+        createExam(classroom, NOW + 10 * DAY);
+        createExam(other, NOW + DAY);
+
+        List<Exam> exams = value(dataSource.getExamsBetween(Collections.singletonList(classroom),
+                timestamp(NOW), timestamp(NOW + 10 * DAY), ReadPolicy.CACHE_THEN_SERVER)).data;
+
+        assertEquals(1, exams.size());
+        assertEquals(inWindow, exams.get(0).getId());
+    }
+
+    @Test
+    public void upcomingExams_areSoonestFirstAndLimited() {
+        String classroom = createClassroom();
+        String later = createExam(classroom, NOW + 3 * DAY);
+        String soonest = createExam(classroom, NOW + DAY);
+        createExam(classroom, NOW - DAY);
+        createExam(classroom, NOW + 5 * DAY);
+
+        List<Exam> exams = value(dataSource.getUpcomingExams(Collections.singletonList(classroom), 2,
+                ReadPolicy.CACHE_THEN_SERVER)).data;
+
+        assertEquals(Arrays.asList(soonest, later), ids(exams));
+    }
+
+    @Test
+    public void liveQuery_reemitsOnMatchingWritesOnly() {
+        String classroom = createClassroom();
+        String other = createClassroom();
+        LiveData<Resource<List<Routine>>> query =
+                dataSource.getRoutinesByClassroom(classroom, ReadPolicy.CACHE_THEN_SERVER);
+        List<Resource<List<Routine>>> emissions = new ArrayList<>();
+        Observer<Resource<List<Routine>>> observer = emissions::add;
+        query.observeForever(observer);
+
+        assertEquals(1, emissions.size());
+        assertTrue(emissions.get(0).data.isEmpty());
+
+        String routineId = createRoutine(classroom, 1, "09:00");
+        assertEquals(2, emissions.size());
+        assertEquals(1, emissions.get(1).data.size());
+
+        createRoutine(other, 1, "09:00");
+        assertEquals(2, emissions.size());
+
+        dataSource.updateRoutine(routineId, Collections.singletonMap("room", "B-204"));
+        assertEquals(3, emissions.size());
+        assertEquals("B-204", emissions.get(2).data.get(0).getRoom());
+
+        dataSource.deleteRoutine(routineId);
+        assertEquals(4, emissions.size());
+        assertTrue(emissions.get(3).data.isEmpty());
+
+        query.removeObserver(observer);
+        createRoutine(classroom, 2, "10:00");
+        assertEquals(4, emissions.size());
+    }
+
+    @Test
+    public void markClassroomForDeletion_cascadesToEverythingInTheClassroom() {
+        String classroom = createClassroom();
+        String kept = createClassroom();
+        createUser("student", classroom, kept);
+        dataSource.addStudentToClassroom(classroom, "student");
+        createRoutine(classroom, 1, "09:00");
+        createExam(classroom, NOW + DAY);
+        dataSource.createNotice(new Notice(classroom, "Math", "Quiz", "Bring a pencil", "normal", "admin", "Admin"));
+        dataSource.sendNotificationToClassroom(classroom, "Quiz", "Tomorrow", "exam", null);
+        String keptRoutine = createRoutine(kept, 1, "09:00");
+        dataSource.markAllNoticesAsRead("student", classroom);
+        dataSource.markAllNoticesAsRead("student", kept);
+        Notification sent = value(dataSource.getNotificationPager("student", Collections.singletonList(classroom))
+                .getItems()).data.get(0);
+        dataSource.markNotificationAsRead("student", sent);
+        dataSource.deleteNotification("student", sent);
+
+        assertTrue(value(dataSource.markClassroomForDeletion(classroom)).isSuccess());
+
+        assertTrue(value(dataSource.getClassroom(classroom)).isError());
+        assertTrue(value(dataSource.getRoutinesByClassroom(classroom, ReadPolicy.CACHE_THEN_SERVER)).data.isEmpty());
+        assertTrue(value(dataSource.getExamsByClassroom(classroom, ReadPolicy.CACHE_THEN_SERVER)).data.isEmpty());
+        assertTrue(value(dataSource.getNoticesByClassroom(classroom)).data.isEmpty());
+        assertEquals(0L, (long) value(dataSource.countNotices(Collections.singletonList(classroom))).data);
+
+        Pager<Notification> inbox = dataSource.getNotificationPager("student", Collections.singletonList(classroom));
+        assertTrue(value(inbox.getItems()).data.isEmpty());
+
+        User student = value(dataSource.getUser("student")).data;
+        assertEquals(Collections.singletonList(kept), student.getJoinedClassrooms());
+        List<NoticeReadState> readStates = value(dataSource.getNoticeReadStates("student")).data;
+        assertEquals(1, readStates.size());
+        assertEquals(kept, readStates.get(0).getClassroomId());
+        InboxState inboxState = value(dataSource.getInboxState("student")).data;
+        assertTrue(inboxState.getReadIds().isEmpty());
+        assertTrue(inboxState.getDismissedIds().isEmpty());
+        assertEquals(Collections.singletonList(keptRoutine),
+                ids(value(dataSource.getRoutinesByClassroom(kept, ReadPolicy.CACHE_THEN_SERVER)).data));
+    }
+
+    @Test
+    public void removeStudent_dropsTheirNoticeReadState() {
+        String classroom = createClassroom();
+        createUser("student", classroom);
+        dataSource.addStudentToClassroom(classroom, "student");
+        dataSource.markAllNoticesAsRead("student", classroom);
+
+        assertTrue(value(dataSource.removeStudentFromClassroom(classroom, "student")).isSuccess());
+
+        assertTrue(value(dataSource.getNoticeReadStates("student")).data.isEmpty());
+    }
+
+    @Test
+    public void regeneratedCode_neverCollidesWithExistingCodes() {
+        String first = createClassroom();
+        String second = createClassroom();
+
+        for (int i = 0; i < 50; i++) {
+            String code = value(dataSource.regenerateClassroomCode(first)).data;
+            assertNotEquals(value(dataSource.getClassroom(second)).data.getCode(), code);
+        }
+        assertFalse(value(dataSource.getClassroom(first)).data.getCode().isEmpty());
+    }
+
+    // ==================== HELPERS ====================
+
+    /**
+     * The current value of live, observing it once so realtime queries evaluate.
+     */
+    private static <T> T value(LiveData<T> live) {
+        Observer<T> observer = value -> { };
+        live.observeForever(observer);
+        T value = live.getValue();
+        live.removeObserver(observer);
+        return value;
+    }
+
+    private static <T> List<String> ids(List<T> documents) {
+        List<String> ids = new ArrayList<>();
+        for (T document : documents) {
+            if (document instanceof Exam) ids.add(((Exam) document).getId());
+            if (document instanceof Routine) ids.add(((Routine) document).getId());
+        }
+        return ids;
+    }
+
+    private static Timestamp timestamp(long millis) {
+        return new Timestamp(new Date(millis));
+    }
+
+    private static Classroom classroom(String adminId) {
+        return new Classroom("Math", "", "A", "CSE", adminId, "Admin");
+    }
+
+    private String createClassroom() {
+        return value(dataSource.createClassroom(classroom("admin"))).data;
+    }
+
+    private void createUser(String id, String... joined) {
+        User user = new User(id + "@example.com", id, "student");
+        user.setId(id);
+        user.setJoinedClassrooms(new ArrayList<>(Arrays.asList(joined)));
+        dataSource.createUser(user);
+    }
+
+    private String createRoutine(String classroomId, int dayIndex, String startTime) {
+        Routine routine = new Routine(classroomId, "Math", "Algebra", "Dr. Rahman", "A-101",
+                "Day " + dayIndex, dayIndex, startTime, "23:59", "lecture", "admin");
+        return value(dataSource.createRoutine(routine)).data;
+    }
+
+    private String createExam(String classroomId, long examDate) {
+        Exam exam = new Exam(classroomId, "Math", "MATH101", "Algebra", "quiz", timestamp(examDate),
+                "10:00", "11:00", "A-101", 20, "", "admin");
+        return value(dataSource.createExam(exam)).data;
+    }
+}
@@ -0,0 +1,81 @@
+package com.classbuddy.app.ui.admin.routine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class IntervalTreeTest {
+
+    @Test
+    public void empty_findsNothing() {
+        IntervalTree<String> tree = IntervalTree.of(Collections.emptyList());
+
+        assertTrue(query(tree, 0, 1440).isEmpty());
+    }
+
+    @Test
+    public void touchingEnds_doNotOverlap() {
+        IntervalTree<String> tree = IntervalTree.of(Arrays.asList(
+                new IntervalTree.Interval<>(540, 600, "nine"),
+                new IntervalTree.Interval<>(660, 720, "eleven")));
+
+        assertTrue(query(tree, 600, 660).isEmpty());
+        assertTrue(query(tree, 480, 540).isEmpty());
+        assertTrue(query(tree, 720, 780).isEmpty());
+        assertEquals(Collections.singletonList("nine"), query(tree, 599, 660));
+        assertEquals(Collections.singletonList("eleven"), query(tree, 600, 661));
+        assertEquals(Arrays.asList("nine", "eleven"), query(tree, 599, 661));
+    }
+
+    @Test
+    public void containedAndContaining_overlap() {
+        IntervalTree<String> tree = IntervalTree.of(Arrays.asList(
+                new IntervalTree.Interval<>(480, 720, "morning"),
+                new IntervalTree.Interval<>(540, 560, "short")));
+
+        assertEquals(Arrays.asList("morning", "short"), query(tree, 545, 550));
+        assertEquals(Arrays.asList("morning", "short"), query(tree, 0, 1440));
+    }
+
+    @Test
+    public void matchesBruteForce() {
+        Random random = new Random(7);
+        for (int round = 0; round < 200; round++) {
+            List<IntervalTree.Interval<Integer>> intervals = new ArrayList<>();
+            int count = random.nextInt(40);
+            for (int i = 0; i < count; i++) {
+                int start = random.nextInt(1400);
+                intervals.add(new IntervalTree.Interval<>(start, start + 1 + random.nextInt(180), i));
+            }
+            IntervalTree<Integer> tree = IntervalTree.of(intervals);
+
+            int start = random.nextInt(1400);
+            int end = start + 1 + random.nextInt(180);
+            List<Integer> expected = new ArrayList<>();
+            for (IntervalTree.Interval<Integer> interval : intervals) {
+                if (interval.start < end && start < interval.end) {
+                    expected.add(interval.value);
+                }
+            }
+            List<Integer> found = new ArrayList<>();
+            tree.overlapping(start, end, found);
+
+            Collections.sort(expected);
+            Collections.sort(found);
+            assertEquals(expected, found);
+        }
+    }
+
+    private static List<String> query(IntervalTree<String> tree, int start, int end) {
+        List<String> out = new ArrayList<>();
+        tree.overlapping(start, end, out);
+        return out;
+    }
+}
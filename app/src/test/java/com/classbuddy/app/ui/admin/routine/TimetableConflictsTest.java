@@ -0,0 +1,165 @@
+package com.classbuddy.app.ui.admin.routine;
+
+import com.classbuddy.app.data.model.Routine;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+public class TimetableConflictsTest {
+
+    // A Monday; weekly classes below are on Mondays (day index 1)
+    private static final String TODAY = "2030-01-07";
+    private static final String NEXT_MONDAY = "2030-01-14";
+    private static final String TUESDAY = "2030-01-08";
+    private static final String LAST_MONDAY = "2029-12-31";
+
+    @Test
+    public void backToBackClasses_doNotClash() {
+        TimetableConflicts timetable = TimetableConflicts.build(Collections.singletonList(
+                weekly("math", "c1", "Dr. Rahman", "A-101", "09:00", "10:00")), TODAY);
+
+        assertTrue(timetable.find(weekly(null, "c2", "Dr. Karim", "A-101", "10:00", "11:00")).isEmpty());
+        assertTrue(timetable.find(weekly(null, "c2", "Dr. Karim", "A-101", "08:00", "09:00")).isEmpty());
+        assertEquals(1, timetable.find(weekly(null, "c2", "Dr. Karim", "A-101", "09:59", "11:00")).size());
+    }
+
+    @Test
+    public void overlap_reportsEveryReasonOnce() {
+        TimetableConflicts timetable = TimetableConflicts.build(Collections.singletonList(
+                weekly("math", "c1", "Dr. Rahman", "A-101", "09:00", "10:00")), TODAY);
+
+        List<TimetableConflicts.Conflict> conflicts =
+                timetable.find(weekly(null, "c1", " dr. rahman ", "a-101", "09:30", "10:30"));
+
+        assertEquals(1, conflicts.size());
+        assertEquals("math", conflicts.get(0).routine.getId());
+        assertEquals(EnumSet.allOf(TimetableConflicts.Reason.class), conflicts.get(0).reasons);
+    }
+
+    @Test
+    public void differentRoomFacultyAndClassroom_doNotClash() {
+        TimetableConflicts timetable = TimetableConflicts.build(Collections.singletonList(
+                weekly("math", "c1", "Dr. Rahman", "A-101", "09:00", "10:00")), TODAY);
+
+        assertTrue(timetable.find(weekly(null, "c2", "Dr. Karim", "B-202", "09:00", "10:00")).isEmpty());
+    }
+
+    @Test
+    public void editedRoutine_doesNotClashWithItself() {
+        TimetableConflicts timetable = TimetableConflicts.build(Arrays.asList(
+                weekly("math", "c1", "Dr. Rahman", "A-101", "09:00", "10:00"),
+                weekly("physics", "c2", "Dr. Karim", "B-202", "10:30", "11:30")), TODAY);
+
+        assertTrue(timetable.find(weekly("math", "c1", "Dr. Rahman", "A-101", "09:00", "10:15")).isEmpty());
+        assertEquals(Collections.singletonList("physics"),
+                ids(timetable.find(weekly("math", "c1", "Dr. Karim", "A-101", "09:00", "10:45"))));
+    }
+
+    @Test
+    public void oneTimeClass_clashesWithWeeklyClassOnItsWeekday() {
+        TimetableConflicts timetable = TimetableConflicts.build(Collections.singletonList(
+                weekly("math", "c1", "Dr. Rahman", "A-101", "09:00", "10:00")), TODAY);
+
+        assertEquals(Collections.singletonList("math"),
+                ids(timetable.find(once(null, "c2", "Dr. Karim", "A-101", NEXT_MONDAY, "09:30", "10:30"))));
+        assertTrue(timetable.find(once(null, "c2", "Dr. Karim", "A-101", TUESDAY, "09:30", "10:30")).isEmpty());
+    }
+
+    @Test
+    public void weeklyClass_clashesWithUpcomingOneTimeClassOnItsWeekday() {
+        TimetableConflicts timetable = TimetableConflicts.build(Collections.singletonList(
+                once("makeup", "c1", "Dr. Rahman", "A-101", NEXT_MONDAY, "09:00", "10:00")), TODAY);
+
+        assertEquals(Collections.singletonList("makeup"),
+                ids(timetable.find(weekly(null, "c2", "Dr. Karim", "A-101", "09:30", "10:30"))));
+    }
+
+    @Test
+    public void oneTimeClasses_onlyClashOnTheSameDate() {
+        TimetableConflicts timetable = TimetableConflicts.build(Collections.singletonList(
+                once("makeup", "c1", "Dr. Rahman", "A-101", TODAY, "09:00", "10:00")), TODAY);
+
+        assertEquals(Collections.singletonList("makeup"),
+                ids(timetable.find(once(null, "c2", "Dr. Karim", "A-101", TODAY, "09:30", "10:30"))));
+        assertTrue(timetable.find(once(null, "c2", "Dr. Karim", "A-101", NEXT_MONDAY, "09:30", "10:30")).isEmpty());
+    }
+
+    @Test
+    public void pastOneTimeClasses_areIgnored() {
+        TimetableConflicts timetable = TimetableConflicts.build(Collections.singletonList(
+                once("makeup", "c1", "Dr. Rahman", "A-101", LAST_MONDAY, "09:00", "10:00")), TODAY);
+
+        assertTrue(timetable.find(weekly(null, "c2", "Dr. Karim", "A-101", "09:00", "10:00")).isEmpty());
+        assertTrue(timetable.find(once(null, "c2", "Dr. Karim", "A-101", LAST_MONDAY, "09:00", "10:00")).isEmpty());
+    }
+
+    @Test
+    public void cancelledWeeklyClass_isFreeOnlyOnTheCancelledDate() {
+        Routine math = weekly("math", "c1", "Dr. Rahman", "A-101", "09:00", "10:00");
+        math.setCancelled(true);
+        math.setCancelledDate(TODAY);
+        TimetableConflicts timetable = TimetableConflicts.build(Collections.singletonList(math), TODAY);
+
+        assertTrue(timetable.find(once(null, "c2", "Dr. Karim", "A-101", TODAY, "09:00", "10:00")).isEmpty());
+        assertEquals(Collections.singletonList("math"),
+                ids(timetable.find(once(null, "c2", "Dr. Karim", "A-101", NEXT_MONDAY, "09:00", "10:00"))));
+        assertEquals(Collections.singletonList("math"),
+                ids(timetable.find(weekly(null, "c2", "Dr. Karim", "A-101", "09:00", "10:00"))));
+    }
+
+    @Test
+    public void cancelledOneTimeClass_isIgnored() {
+        Routine makeup = once("makeup", "c1", "Dr. Rahman", "A-101", NEXT_MONDAY, "09:00", "10:00");
+        makeup.setCancelled(true);
+        TimetableConflicts timetable = TimetableConflicts.build(Collections.singletonList(makeup), TODAY);
+
+        assertTrue(timetable.find(once(null, "c2", "Dr. Karim", "A-101", NEXT_MONDAY, "09:00", "10:00")).isEmpty());
+    }
+
+    @Test
+    public void invalidTimes_findNothing() {
+        TimetableConflicts timetable = TimetableConflicts.build(Arrays.asList(
+                weekly("math", "c1", "Dr. Rahman", "A-101", "09:00", "10:00"),
+                weekly("broken", "c1", "Dr. Rahman", "A-101", "25:00", "26:00")), TODAY);
+
+        assertTrue(timetable.find(weekly(null, "c1", "Dr. Rahman", "A-101", "10:00", "09:00")).isEmpty());
+        assertTrue(timetable.find(weekly(null, "c1", "Dr. Rahman", "A-101", "", "10:00")).isEmpty());
+        assertTrue(TimetableConflicts.EMPTY.find(weekly(null, "c1", "Dr. Rahman", "A-101", "09:00", "10:00")).isEmpty());
+    }
+
+    private static Routine weekly(String id, String classroomId, String faculty, String room,
+                                  String startTime, String endTime) {
+        Routine routine = new Routine();
+        routine.setId(id);
+        routine.setClassroomId(classroomId);
+        routine.setFaculty(faculty);
+        routine.setRoom(room);
+        routine.setDayIndex(1);
+        routine.setStartTime(startTime);
+        routine.setEndTime(endTime);
+        return routine;
+    }
+
+    private static Routine once(String id, String classroomId, String faculty, String room, String date,
+                                String startTime, String endTime) {
+        Routine routine = weekly(id, classroomId, faculty, room, startTime, endTime);
+        routine.setSpecificDate(date);
+        return routine;
+    }
+
+    private static List<String> ids(List<TimetableConflicts.Conflict> conflicts) {
+        List<String> ids = new ArrayList<>();
+        for (TimetableConflicts.Conflict conflict : conflicts) {
+            ids.add(conflict.routine.getId());
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,62 @@
+package com.classbuddy.app.ui.student;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class MembershipDiffTest {
+
+    @Test
+    public void sameIds_isEmptyWhateverTheOrder() {
+        MembershipDiff diff = MembershipDiff.between(Arrays.asList("a", "b", "c"), Arrays.asList("c", "a", "b"));
+
+        assertTrue(diff.isEmpty());
+        assertTrue(diff.getAdded().isEmpty());
+        assertTrue(diff.getRemoved().isEmpty());
+    }
+
+    @Test
+    public void fromNothing_addsEverythingInOrder() {
+        MembershipDiff diff = MembershipDiff.between(Collections.emptyList(), Arrays.asList("b", "a"));
+
+        assertEquals(Arrays.asList("b", "a"), diff.getAdded());
+        assertTrue(diff.getRemoved().isEmpty());
+        assertFalse(diff.isEmpty());
+    }
+
+    @Test
+    public void toNothing_removesEverythingInOrder() {
+        MembershipDiff diff = MembershipDiff.between(Arrays.asList("b", "a"), Collections.emptyList());
+
+        assertTrue(diff.getAdded().isEmpty());
+        assertEquals(Arrays.asList("b", "a"), diff.getRemoved());
+    }
+
+    @Test
+    public void joinAndLeave_reportsOnlyTheChangedIds() {
+        MembershipDiff diff = MembershipDiff.between(Arrays.asList("a", "b", "c"), Arrays.asList("a", "d", "c", "e"));
+
+        assertEquals(Arrays.asList("d", "e"), diff.getAdded());
+        assertEquals(Collections.singletonList("b"), diff.getRemoved());
+    }
+
+    @Test
+    public void duplicateIds_areAddedOnce() {
+        MembershipDiff diff = MembershipDiff.between(Collections.singletonList("a"), Arrays.asList("b", "a", "b"));
+
+        assertEquals(Collections.singletonList("b"), diff.getAdded());
+        assertTrue(diff.getRemoved().isEmpty());
+    }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void results_areUnmodifiable() {
+        List<String> added = MembershipDiff.between(Collections.emptyList(), Collections.singletonList("a")).getAdded();
+        added.add("b");
+    }
+}
@@ -0,0 +1,148 @@
+package com.classbuddy.app.ui.student.calendar;
+
+import com.classbuddy.app.data.model.CalendarEvent;
+import com.classbuddy.app.data.model.Exam;
+import com.classbuddy.app.data.model.Routine;
+import com.google.firebase.Timestamp;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Calendar;
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+public class ScheduleIndexTest {
+
+    @Test
+    public void weeklyRoutines_fallOnTheirWeekdayAcrossDecades() {
+        List<Routine> routines = new ArrayList<>();
+        for (int dayIndex = 0; dayIndex < 7; dayIndex++) {
+            routines.add(weekly("day" + dayIndex, dayIndex, "09:00"));
+        }
+        ScheduleIndex index = ScheduleIndex.build(routines, Collections.emptyList());
+
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(1960, Calendar.JANUARY, 1, 12, 0);
+        while (calendar.get(Calendar.YEAR) < 2040) {
+            int dayIndex = calendar.get(Calendar.DAY_OF_WEEK) - 1;
+            assertEquals(Collections.singletonList("day" + dayIndex), ids(index.eventsOn(calendar.getTime())));
+            calendar.add(Calendar.DAY_OF_MONTH, 1);
+        }
+    }
+
+    @Test
+    public void oneTimeRoutines_fallOnExactlyTheirDate() {
+        for (String date : Arrays.asList("1969-12-31", "1970-01-01", "2000-02-29", "2024-02-29",
+                "2024-03-01", "2024-12-31", "2100-03-01")) {
+            ScheduleIndex index = ScheduleIndex.build(
+                    Collections.singletonList(once("extra", date, "10:00")), Collections.emptyList());
+            Date day = date(date);
+
+            assertEquals(date, Collections.singletonList("extra"), ids(index.eventsOn(day)));
+            assertTrue(date, index.eventsOn(addDays(day, -1)).isEmpty());
+            assertTrue(date, index.eventsOn(addDays(day, 1)).isEmpty());
+        }
+    }
+
+    @Test
+    public void cancelledWeeklyRoutine_isCancelledOnlyOnItsDate() {
+        // 2024-03-04 is a Monday
+        Routine routine = weekly("math", 1, "09:00");
+        routine.setCancelled(true);
+        routine.setCancelledDate("2024-03-04");
+        ScheduleIndex index = ScheduleIndex.build(Collections.singletonList(routine), Collections.emptyList());
+
+        assertTrue(index.eventsOn(date("2024-03-04")).get(0).isCancelled());
+        assertFalse(index.eventsOn(date("2024-03-11")).get(0).isCancelled());
+        assertFalse(index.eventsOn(date("2024-02-26")).get(0).isCancelled());
+    }
+
+    @Test
+    public void eventsOn_mergesWeeklyOneTimeAndExamsByStartTime() {
+        // 2024-03-05 is a Tuesday
+        List<Routine> routines = Arrays.asList(
+                weekly("late", 2, "14:00"),
+                weekly("early", 2, "08:00"),
+                once("extra", "2024-03-05", "11:00"),
+                weekly("otherDay", 3, "09:00"));
+        Exam exam = new Exam("c1", "Math", "MATH101", "Algebra", "quiz", new Timestamp(date("2024-03-05")),
+                "10:00", "11:00", "A-101", 20, "", "admin");
+        exam.setId("exam");
+        ScheduleIndex index = ScheduleIndex.build(routines, Collections.singletonList(exam));
+
+        assertEquals(Arrays.asList("early", "exam", "extra", "late"), ids(index.eventsOn(date("2024-03-05"))));
+    }
+
+    @Test
+    public void eventDaysInMonth_coversEveryDayOfALeapFebruary() {
+        // February 2024 has 29 days and starts on a Thursday; Thursdays are the 1st, 8th, 15th, 22nd, 29th
+        ScheduleIndex index = ScheduleIndex.build(
+                Arrays.asList(weekly("thursday", 4, "09:00"), once("extra", "2024-02-10", "09:00")),
+                Collections.emptyList());
+
+        BitSet days = index.eventDaysInMonth(date("2024-02-15"));
+
+        BitSet expected = new BitSet();
+        for (int day : new int[]{1, 8, 10, 15, 22, 29}) {
+            expected.set(day - 1);
+        }
+        assertEquals(expected, days);
+    }
+
+    @Test
+    public void malformedDates_areIgnored() {
+        ScheduleIndex index = ScheduleIndex.build(
+                Arrays.asList(once("bad", "2024-3-5", "09:00"), once("worse", "tomorrow!!", "09:00")),
+                Collections.emptyList());
+
+        assertTrue(index.eventDaysInMonth(date("2024-03-05")).isEmpty());
+    }
+
+    private static Routine weekly(String id, int dayIndex, String startTime) {
+        Routine routine = new Routine();
+        routine.setId(id);
+        routine.setSubject(id);
+        routine.setDayIndex(dayIndex);
+        routine.setStartTime(startTime);
+        routine.setEndTime("23:00");
+        return routine;
+    }
+
+    private static Routine once(String id, String date, String startTime) {
+        Routine routine = weekly(id, 0, startTime);
+        routine.setSpecificDate(date);
+        return routine;
+    }
+
+    private static Date date(String date) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.clear();
+        calendar.set(Integer.parseInt(date.substring(0, 4)), Integer.parseInt(date.substring(5, 7)) - 1,
+                Integer.parseInt(date.substring(8, 10)), 12, 0);
+        return calendar.getTime();
+    }
+
+    private static Date addDays(Date date, int days) {
+        Calendar calendar = Calendar.getInstance();
+        calendar.setTime(date);
+        calendar.add(Calendar.DAY_OF_MONTH, days);
+        return calendar.getTime();
+    }
+
+    private static List<String> ids(List<CalendarEvent> events) {
+        List<String> ids = new ArrayList<>();
+        for (CalendarEvent event : events) {
+            ids.add(event.getId());
+        }
+        return ids;
+    }
+}